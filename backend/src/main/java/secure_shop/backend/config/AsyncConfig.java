@@ -1,9 +1,64 @@
 package secure_shop.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
-}
\ No newline at end of file
+
+    /**
+     * Pool riêng cho SMTP: giới hạn số kết nối đồng thời tới mail server và không tranh
+     * thread với request. Hàng đợi có giới hạn; khi đầy, outbox poller sẽ gửi bù.
+     */
+    @Bean(name = "mailExecutor")
+    public ThreadPoolTaskExecutor mailExecutor(
+            @Value("${mail.executor.core-size:2}") int coreSize,
+            @Value("${mail.executor.max-size:4}") int maxSize,
+            @Value("${mail.executor.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mail-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /** Một thread phát domain event từ outbox theo thứ tự; poller định kỳ vớt phần bị từ chối. */
+    @Bean(name = "eventRelayExecutor")
+    public ThreadPoolTaskExecutor eventRelayExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("event-relay-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Pool giải mã/thu nhỏ ảnh upload: giới hạn số ảnh giải mã đồng thời (mỗi ảnh có thể chiếm
+     * hàng chục MB heap). Hàng đợi đầy thì upload bị từ chối với 503 thay vì làm cạn bộ nhớ.
+     */
+    @Bean(name = "imageExecutor")
+    public ThreadPoolTaskExecutor imageExecutor(
+            @Value("${image.executor.threads:2}") int threads,
+            @Value("${image.executor.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -1,13 +1,25 @@
 package secure_shop.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 /**
- * Chat configuration - no longer needed with direct Gemini REST client
- * Keeping file for compatibility but can be removed
+ * HTTP client dùng chung cho Gemini: giữ kết nối (HTTP/2, pool sẵn của JDK) giữa các lần gọi
+ * và giới hạn thời gian kết nối. Deadline cho từng request nằm ở {@code GeminiRestClient}.
  */
 @Configuration
 public class ChatConfig {
-    // Direct GeminiRestClient is now injected via @Service
-    // No bean configuration needed
+
+    @Bean(name = "geminiHttpClient")
+    public HttpClient geminiHttpClient(@Value("${gemini.api.connect-timeout-ms:3000}") long connectTimeoutMs) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
 }
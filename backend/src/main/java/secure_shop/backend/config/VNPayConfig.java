@@ -3,13 +3,9 @@ package secure_shop.backend.config;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-import java.util.*;
+import secure_shop.backend.utils.VNPaySigner;
 
 @Configuration
 @Getter
@@ -34,40 +30,9 @@ public class VNPayConfig {
     @Value("${vnpay.command}")
     private String vnpCommand;
 
-    public String hashAllFields(Map<String, String> fields) {
-        List<String> fieldNames = new ArrayList<>(fields.keySet());
-        Collections.sort(fieldNames);
-        StringBuilder sb = new StringBuilder();
-
-        for (int i = 0; i < fieldNames.size(); i++) {
-            String fieldName = fieldNames.get(i);
-            String fieldValue = fields.get(fieldName);
-            if (fieldValue != null && !fieldValue.isEmpty()) {
-                sb.append(fieldName)
-                        .append('=')
-                        .append(URLEncoder.encode(fieldValue, StandardCharsets.UTF_8)); // DÙNG UTF-8
-                if (i < fieldNames.size() - 1) {
-                    sb.append('&');
-                }
-            }
-        }
-        return hmacSHA512(vnpHashSecret, sb.toString());
-    }
-
-    public static String hmacSHA512(String key, String data) {
-        try {
-            Mac hmac512 = Mac.getInstance("HmacSHA512");
-            SecretKeySpec secretKey = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA512");
-            hmac512.init(secretKey);
-            byte[] result = hmac512.doFinal(data.getBytes(StandardCharsets.UTF_8));
-
-            StringBuilder sb = new StringBuilder(2 * result.length);
-            for (byte b : result) {
-                sb.append(String.format("%02x", b & 0xff));
-            }
-            return sb.toString();
-        } catch (Exception e) {
-            return "";
-        }
+    /** Signer dùng chung: giữ một {@code Mac} đã init cho mỗi thread */
+    @Bean
+    public VNPaySigner vnPaySigner() {
+        return new VNPaySigner(vnpHashSecret);
     }
 }
@@ -1,33 +1,23 @@
 package secure_shop.backend.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-
-import java.nio.file.Paths;
+import secure_shop.backend.security.ratelimit.RateLimitInterceptor;
 
 /**
- * Configuration for serving static resources like uploaded images
+ * Registering MVC interceptors. Uploaded images are served by {@code MediaFileController}.
  */
 @Configuration
+@RequiredArgsConstructor
 public class WebMvcConfig implements WebMvcConfigurer {
 
-    @Value("${file.upload-dir:uploads}")
-    private String uploadDir;
+    private final RateLimitInterceptor rateLimitInterceptor;
 
     @Override
-    public void addResourceHandlers(@org.springframework.lang.NonNull ResourceHandlerRegistry registry) {
-        // Serve uploaded files from /uploads/** URL pattern
-        String uploadPath = Paths.get(uploadDir).toAbsolutePath().toUri().toString();
-
-        // Spring requires trailing slash for directory resources
-        if (!uploadPath.endsWith("/")) {
-            uploadPath += "/";
-        }
-
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(uploadPath)
-                .setCachePeriod(3600); // Cache for 1 hour
+    public void addInterceptors(@org.springframework.lang.NonNull InterceptorRegistry registry) {
+        // Áp dụng @RateLimited cho các controller method
+        registry.addInterceptor(rateLimitInterceptor);
     }
 }
@@ -20,7 +20,9 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import secure_shop.backend.exception.JwtAuthenticationEntryPoint;
 import secure_shop.backend.security.CustomAccessDeniedHandler;
+import secure_shop.backend.security.PublicRouteTable;
 import secure_shop.backend.security.jwt.JwtAuthenticationFilter;
+import secure_shop.backend.security.ratelimit.ApiQuotaFilter;
 import secure_shop.backend.security.oauth2.OAuth2FailureHandler;
 import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenDecoderFactory;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
@@ -49,6 +51,8 @@ public class SecurityConfig {
         private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
         private final CustomAccessDeniedHandler customAccessDeniedHandler;
         private final HttpCookieOAuth2AuthorizationRequestRepository cookieOAuth2AuthorizationRequestRepository;
+        private final PublicRouteTable publicRoutes;
+        private final ApiQuotaFilter apiQuotaFilter;
 
         @Bean
         public JwtDecoderFactory<ClientRegistration> idTokenDecoderFactory() {
@@ -79,26 +83,14 @@ public class SecurityConfig {
                                                 // OPTIONS requests - CHO PHÉP TẤT CẢ (CORS preflight)
                                                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
 
-
-                                                // Auth endpoints - public login/register/reset
-                                                .requestMatchers(
-                                                                "/api/auth/login",
-                                                                "/api/auth/refresh",
-                                                                "/api/auth/register",
-                                                                "/api/auth/verify-email",
-                                                                "/api/auth/resend-verification",
-                                                                "/api/auth/forgot-password",
-                                                                "/api/auth/verify-token",
-                                                                "/api/auth/reset-password",
-                                                                "/api/auth/logout",
-                                                                "/oauth2/**",
-                                                                "/login/oauth2/**",
-                                                                "/error")
+                                                // Public endpoints - cùng nguồn với JwtAuthenticationFilter (PublicRouteTable)
+                                                .requestMatchers(publicRoutes.patterns(null)).permitAll()
+                                                .requestMatchers(HttpMethod.GET, publicRoutes.patterns(HttpMethod.GET))
                                                 .permitAll()
+
                                                 .requestMatchers("/api/auth/me").authenticated()
 
-                                                // Upload endpoints - allow public access to uploaded files
-                                                .requestMatchers(HttpMethod.GET, "/uploads/**").permitAll()
+                                                // Upload endpoints
                                                 .requestMatchers("/api/upload/**").hasRole("ADMIN")
 
                                                 // User endpoints - /me exact match AND /me/** sub-paths must both be authenticated
@@ -115,30 +107,20 @@ public class SecurityConfig {
                                                 .requestMatchers("/api/tickets/**").authenticated()
 
                                                 // Article endpoints
-                                                .requestMatchers(HttpMethod.GET, "/api/articles", "/api/articles/**")
-                                                .permitAll()
                                                 .requestMatchers("/api/articles/**").hasRole("ADMIN")
 
                                                 // Brand endpoints
-                                                .requestMatchers(HttpMethod.GET, "/api/brands", "/api/brands/**")
-                                                .permitAll()
                                                 .requestMatchers(HttpMethod.POST, "/api/brands/**").hasRole("ADMIN")
                                                 .requestMatchers(HttpMethod.PUT, "/api/brands/**").hasRole("ADMIN")
                                                 .requestMatchers(HttpMethod.DELETE, "/api/brands/**").hasRole("ADMIN")
 
                                                 // Category endpoints
-                                                .requestMatchers(HttpMethod.GET, "/api/categories",
-                                                                "/api/categories/active", "/api/categories/**")
-                                                .permitAll()
                                                 .requestMatchers(HttpMethod.POST, "/api/categories/**").hasRole("ADMIN")
                                                 .requestMatchers(HttpMethod.PUT, "/api/categories/**").hasRole("ADMIN")
                                                 .requestMatchers(HttpMethod.DELETE, "/api/categories/**")
                                                 .hasRole("ADMIN")
 
                                                 // Inventory endpoints
-                                                .requestMatchers(HttpMethod.GET, "/api/inventories",
-                                                                "/api/inventories/**")
-                                                .permitAll()
                                                 .requestMatchers(HttpMethod.POST, "/api/inventories/**")
                                                 .hasRole("ADMIN")
                                                 .requestMatchers(HttpMethod.PUT, "/api/inventories/**").hasRole("ADMIN")
@@ -146,16 +128,10 @@ public class SecurityConfig {
                                                 .hasRole("ADMIN")
 
                                                 // === Media Asset endpoints ===
-                                                .requestMatchers(HttpMethod.GET, "/api/media/product/**").permitAll()
                                                 .requestMatchers(HttpMethod.POST, "/api/media").hasRole("ADMIN")
                                                 .requestMatchers(HttpMethod.DELETE, "/api/media/{id}").hasRole("ADMIN")
 
                                                 // Product endpoints
-                                                .requestMatchers(HttpMethod.GET,
-                                                                "/api/products",
-                                                                "/api/products/**",
-                                                                "/api/products/summary/**")
-                                                .permitAll()
                                                 .requestMatchers(HttpMethod.POST, "/api/products/**").hasRole("ADMIN")
                                                 .requestMatchers(HttpMethod.PUT, "/api/products/**").hasRole("ADMIN")
                                                 .requestMatchers(HttpMethod.PATCH, "/api/products/**").hasRole("ADMIN")
@@ -167,10 +143,6 @@ public class SecurityConfig {
                                                 .requestMatchers(HttpMethod.POST, "/api/orders").authenticated()
 
                                                 // Discount endpoints
-                                                .requestMatchers(
-                                                                "/api/discounts/active",
-                                                                "/api/discounts/code/**")
-                                                .permitAll()
                                                  .requestMatchers("/api/discounts/**").hasRole("ADMIN")
 
                                                  // POS endpoints (STAFF + ADMIN)
@@ -197,7 +169,6 @@ public class SecurityConfig {
                                                 .requestMatchers(HttpMethod.DELETE, "/api/orders/**").hasRole("ADMIN")
 
                                                 // === Payment endpoints ===
-                                                .requestMatchers(HttpMethod.GET, "/api/vnpay/payment-callback").permitAll()
                                                 .requestMatchers(HttpMethod.POST, "/api/vnpay/create-payment").authenticated()
                                                 .requestMatchers(HttpMethod.GET, "/api/payments/order/**")
                                                 .authenticated()
@@ -213,17 +184,12 @@ public class SecurityConfig {
                                                 // Shipment endpoints
                                                 .requestMatchers(HttpMethod.GET,
                                                                 "/api/shipments/my-shipments",
+                                                                "/api/shipments/statuses",
                                                                 "/api/shipments/order/**")
                                                 .authenticated()
                                                 .requestMatchers("/api/shipments/**").hasRole("ADMIN")
 
                                                 // Review endpoints
-                                                .requestMatchers(HttpMethod.GET,
-                                                                "/api/reviews", // ← UNCOMMENT THIS
-                                                                "/api/reviews/product/**",
-                                                                "/api/reviews/{id}")
-                                                .permitAll()
-
                                                 .requestMatchers(HttpMethod.GET,
                                                                 "/api/reviews/user/**")
                                                 .authenticated()
@@ -251,7 +217,6 @@ public class SecurityConfig {
                                                 .requestMatchers("/api/cart/**").authenticated()
 
                                                 // Chatbot
-                                                .requestMatchers("/api/chat/ask").permitAll()
                                                 .requestMatchers("/api/chat/ingest").hasRole("ADMIN")
 
                                                 // POS / Barcode endpoints
@@ -286,6 +251,8 @@ public class SecurityConfig {
 
                                 // 9. Add JWT filter
                                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                                // Quota cho endpoint public (catalog, chatbot) - chặn trước khi parse JWT
+                                .addFilterBefore(apiQuotaFilter, JwtAuthenticationFilter.class)
                                 .authenticationProvider(authenticationProvider);
 
                 return http.build();
@@ -19,8 +19,8 @@ import secure_shop.backend.entities.User;
 import secure_shop.backend.exception.ForbiddenException;
 import secure_shop.backend.exception.UnauthorizedException;
 import secure_shop.backend.security.jwt.JwtService;
+import secure_shop.backend.security.ratelimit.RateLimited;
 import secure_shop.backend.service.PasswordResetService;
-import secure_shop.backend.service.RateLimitingService;
 import secure_shop.backend.service.UserService;
 
 import org.springframework.http.HttpStatus; // Thêm 
@@ -45,7 +45,6 @@ public class AuthController {
     private final UserService userService;
     private final PasswordResetService resetService;
     private final VerificationService verificationService;
-    private final RateLimitingService rateLimitingService;
 
     /**
      * Xác thực email
@@ -90,13 +89,9 @@ public class AuthController {
 
     // ====== REGISTER ======
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
-        String ip = getClientIP(httpRequest);
-        if (!rateLimitingService.checkRateLimit("rate_limit:register:" + ip, 5, Duration.ofMinutes(15))) {
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
-                    .body(Map.of("message", "Bạn đã đăng ký quá nhiều lần. Vui lòng thử lại sau."));
-        }
-
+    @RateLimited(value = "register", limit = 5, windowSeconds = 15 * 60,
+            message = "Bạn đã đăng ký quá nhiều lần. Vui lòng thử lại sau.")
+    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
         userService.registerUser(request);
         
         // Trả về response thành công
@@ -106,13 +101,9 @@ public class AuthController {
 
     // ====== LOGIN ======
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest req, HttpServletRequest request, HttpServletResponse response) {
-        String ip = getClientIP(request);
-        if (!rateLimitingService.checkRateLimit("rate_limit:login:" + ip, 10, Duration.ofMinutes(15))) {
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
-                    .body(Map.of("message", "Quá nhiều lần thử đăng nhập. Vui lòng thử lại sau."));
-        }
-
+    @RateLimited(value = "login", limit = 10, windowSeconds = 15 * 60,
+            message = "Quá nhiều lần thử đăng nhập. Vui lòng thử lại sau.")
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest req, HttpServletResponse response) {
         // Xác thực tài khoản
         try {
             var token = new UsernamePasswordAuthenticationToken(req.getEmail(), req.getPassword());
@@ -236,13 +227,9 @@ public class AuthController {
 
     // forgot-password
     @PostMapping("/forgot-password")
-    public ResponseEntity<Map<String, String>> forgotPassword(@RequestParam String email, HttpServletRequest request) {
-        String ip = getClientIP(request);
-        if (!rateLimitingService.checkRateLimit("rate_limit:reset:" + ip, 3, Duration.ofMinutes(15))) {
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
-                    .body(Map.of("message", "Bạn đã thử quá nhiều lần. Vui lòng thử lại sau."));
-        }
-
+    @RateLimited(value = "reset", limit = 3, windowSeconds = 15 * 60,
+            message = "Bạn đã thử quá nhiều lần. Vui lòng thử lại sau.")
+    public ResponseEntity<Map<String, String>> forgotPassword(@RequestParam String email) {
         resetService.sendResetLink(email);
         return ResponseEntity.ok(Map.of("message", "Liên kết khôi phục đã được gửi đến email của bạn."));
     }
@@ -264,14 +251,6 @@ public class AuthController {
     }
 
     // ====== Helper ======
-    private String getClientIP(HttpServletRequest request) {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader != null && xfHeader.matches("[\\d.,: ]+")) {
-            return xfHeader.split(",")[0].trim();
-        }
-        return request.getRemoteAddr();
-    }
-
     private String extractRefreshToken(HttpServletRequest request) {
         if (request.getCookies() != null) {
             for (Cookie c : request.getCookies()) {
@@ -36,6 +36,13 @@ public class BarcodeController {
         return new ResponseEntity<>(barcodeService.autoGenerateForProduct(productId, sku), HttpStatus.CREATED);
     }
 
+    /** Tạo barcode cho nhiều sản phẩm một lần (nhập hàng loạt); body là danh sách productId */
+    @PostMapping("/auto-generate/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<BarcodeResponseDTO>> autoGenerateBatch(@RequestBody List<UUID> productIds) {
+        return new ResponseEntity<>(barcodeService.autoGenerateForProducts(productIds), HttpStatus.CREATED);
+    }
+
     /** Quét mã vạch tại POS */
     @GetMapping("/scan/{barcode}")
     @PreAuthorize("hasAnyRole('STAFF', 'ADMIN')")
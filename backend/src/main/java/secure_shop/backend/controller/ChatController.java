@@ -2,14 +2,24 @@ package secure_shop.backend.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import secure_shop.backend.dto.chat.ChatRequest;
 import secure_shop.backend.dto.chat.ChatResponse;
+import secure_shop.backend.service.ChatAnswerCache;
 import secure_shop.backend.service.ChatService;
 import secure_shop.backend.service.VectorIngestionService;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 @RestController
 @RequestMapping("/api/chat")
 @RequiredArgsConstructor
@@ -17,17 +27,86 @@ public class ChatController {
 
     private final ChatService chatService;
     private final VectorIngestionService ingestionService;
+    private final ChatAnswerCache answerCache;
+
+    @Value("${gemini.api.stream-timeout-ms:60000}")
+    private long streamTimeoutMs;
 
     @PostMapping("/ask")
     @PreAuthorize("permitAll()")
-    public ResponseEntity<ChatResponse> ask(@Valid @RequestBody ChatRequest request) {
-        return ResponseEntity.ok(chatService.chat(request));
+    public CompletableFuture<ResponseEntity<ChatResponse>> ask(@Valid @RequestBody ChatRequest request) {
+        // Trả về future để Tomcat thread không bị giữ trong lúc chờ Gemini
+        return chatService.chatAsync(request).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * POST /api/chat/ask với {@code Accept: text/event-stream}
+     * Sự kiện SSE: {@code suggestions} (gửi ngay), nhiều {@code token} ({"text": ...}),
+     * cuối cùng {@code done} ({"source": "gemini" | "gemini-partial" | "cache" | "heuristic"}).
+     */
+    @PostMapping(value = "/ask", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("permitAll()")
+    public SseEmitter askStream(@Valid @RequestBody ChatRequest request) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs + 5_000);
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(ex -> open.set(false));
+        emitter.onCompletion(() -> open.set(false));
+
+        chatService.chatStream(request, new ChatService.StreamListener() {
+            @Override
+            public void onSuggestions(List<ChatResponse.ProductSuggestion> suggestions) {
+                send("suggestions", suggestions);
+            }
+
+            @Override
+            public void onToken(String text) {
+                send("token", Map.of("text", text));
+            }
+
+            @Override
+            public void onComplete(String source) {
+                send("done", Map.of("source", source));
+                emitter.complete();
+            }
+
+            private void send(String name, Object data) {
+                if (!open.get()) {
+                    // Client đã ngắt: báo cho nguồn stream dừng đọc từ Gemini
+                    throw new IllegalStateException("SSE client disconnected");
+                }
+                try {
+                    emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+                } catch (IOException e) {
+                    open.set(false);
+                    throw new IllegalStateException("SSE client disconnected", e);
+                }
+            }
+        }).whenComplete((ignored, ex) -> {
+            if (ex != null && open.get()) {
+                emitter.completeWithError(ex);
+            }
+        });
+        return emitter;
+    }
+
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ChatAnswerCache.Stats> cacheStats() {
+        return ResponseEntity.ok(answerCache.getStats());
+    }
+
+    @DeleteMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> clearCache() {
+        answerCache.clear();
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/ingest")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<String> ingest() {
         ingestionService.ingestPoliciesAndTopProducts();
-        return ResponseEntity.ok("Ingestion triggered");
+        return ResponseEntity.ok("Vector index rebuilt (version " + ingestionService.indexVersion() + ")");
     }
 }
@@ -1,25 +1,25 @@
 package secure_shop.backend.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import secure_shop.backend.dto.product.ImageUploadResultDTO;
+import secure_shop.backend.service.ImageVariantService;
+import secure_shop.backend.service.MediaCleanupService;
+import secure_shop.backend.service.MediaStoreService;
+import secure_shop.backend.service.MediaUploadService;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller for handling image uploads
@@ -29,82 +29,60 @@ import org.slf4j.LoggerFactory;
 @RequiredArgsConstructor
 public class ImageUploadController {
 
-    private static final Logger log = LoggerFactory.getLogger(ImageUploadController.class);
-
-    @Value("${file.upload-dir:uploads}")
-    private String uploadDir;
+    private final MediaUploadService mediaUploadService;
+    private final ImageVariantService imageVariantService;
+    private final MediaStoreService mediaStore;
+    private final MediaCleanupService mediaCleanupService;
 
+    /**
+     * Upload một ảnh (field {@code file}). Body được đọc dạng stream, không qua {@code MultipartFile}.
+     */
     @PostMapping(value = "/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, String>> uploadImage(@RequestParam("file") MultipartFile file) {
-        try {
-            // Validate file
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "File không được để trống"));
-            }
-
-            // Validate file type
-            String contentType = file.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Chỉ chấp nhận file ảnh"));
-            }
-
-            // Validate file size (max 5MB)
-            if (file.getSize() > 5 * 1024 * 1024) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Kích thước file không được vượt quá 5MB"));
-            }
-
-            // Create upload directory if not exists
-            Path uploadPath = Paths.get(uploadDir);
-            log.info("Upload directory configured as: {}", uploadDir);
-            log.info("Absolute upload path: {}", uploadPath.toAbsolutePath());
-
-            if (!Files.exists(uploadPath)) {
-                log.info("Creating upload directory...");
-                Files.createDirectories(uploadPath);
-            }
-
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename != null && originalFilename.contains(".")
-                    ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                    : ".jpg";
-            String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-            log.info("Generated unique filename: {}", uniqueFilename);
-
-            // Save file
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            log.info("Saving file to: {}", filePath.toAbsolutePath());
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            log.info("File saved successfully!");
-
-            // Generate URL (assuming images are served from /uploads static path)
-            String imageUrl = "/uploads/" + uniqueFilename;
-
-            Map<String, String> response = new HashMap<>();
-            response.put("url", imageUrl);
-            response.put("path", uniqueFilename);
-            response.put("message", "Upload thành công");
-
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public CompletableFuture<ResponseEntity<ImageUploadResultDTO>> uploadImage(HttpServletRequest request)
+            throws IOException {
+        return mediaUploadService.uploadImages(request.getInputStream(), request.getContentType(),
+                        request.getContentLengthLong(), 1)
+                .thenApply(results -> {
+                    if (results.isEmpty()) {
+                        return ResponseEntity.badRequest().body(ImageUploadResultDTO.builder()
+                                .status(HttpStatus.BAD_REQUEST.value())
+                                .error("File không được để trống")
+                                .build());
+                    }
+                    ImageUploadResultDTO result = results.get(0);
+                    return ResponseEntity.status(result.getStatus()).body(result);
+                });
+    }
 
-        } catch (IOException e) {
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Lỗi khi upload file: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
-        }
+    /**
+     * Upload nhiều ảnh sản phẩm trong một request (mọi part có filename). Trả về kết quả từng ảnh
+     * theo thứ tự; ảnh lỗi không làm hỏng các ảnh khác.
+     */
+    @PostMapping(value = "/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public CompletableFuture<ResponseEntity<List<ImageUploadResultDTO>>> uploadImages(HttpServletRequest request)
+            throws IOException {
+        return mediaUploadService.uploadImages(request.getInputStream(), request.getContentType(),
+                        request.getContentLengthLong(), mediaUploadService.getMaxBatchFiles())
+                .thenApply(ResponseEntity::ok);
     }
 
     @DeleteMapping("/image")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, String>> deleteImage(@RequestParam String path) {
         try {
-            Path filePath = Paths.get(uploadDir).resolve(path);
-            if (Files.exists(filePath)) {
+            Optional<Path> resolved = mediaStore.resolve(path);
+            if (resolved.isPresent()) {
+                // File định danh theo nội dung có thể được nhiều chủ sở hữu dùng chung: kiểm tra
+                // cùng các nguồn tham chiếu mà bộ dọn media quét
+                Path filePath = resolved.get();
+                if (mediaCleanupService.isReferenced(filePath.getFileName().toString())) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(Map.of("error", "Ảnh đang được sử dụng"));
+                }
                 Files.delete(filePath);
+                imageVariantService.deleteVariants(filePath);
                 return ResponseEntity.ok(Map.of("message", "Xóa thành công"));
             } else {
                 return ResponseEntity.notFound().build();
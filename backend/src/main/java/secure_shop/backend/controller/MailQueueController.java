@@ -0,0 +1,24 @@
+package secure_shop.backend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import secure_shop.backend.dto.mail.MailQueueStatsDTO;
+import secure_shop.backend.service.MailQueueService;
+
+@RestController
+@RequestMapping("/api/admin/mail-queue")
+@RequiredArgsConstructor
+public class MailQueueController {
+
+    private final MailQueueService mailQueueService;
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MailQueueStatsDTO> getStats() {
+        return ResponseEntity.ok(mailQueueService.getStats());
+    }
+}
@@ -0,0 +1,33 @@
+package secure_shop.backend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import secure_shop.backend.dto.product.MediaCleanupReportDTO;
+import secure_shop.backend.service.MediaCleanupService;
+
+@RestController
+@RequestMapping("/api/admin/media-gc")
+@RequiredArgsConstructor
+public class MediaCleanupController {
+
+    private final MediaCleanupService mediaCleanupService;
+
+    /**
+     * POST /api/admin/media-gc?dryRun=true
+     * Chạy dọn file upload mồ côi ngay; dryRun chỉ báo cáo dung lượng có thể thu hồi.
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MediaCleanupReportDTO> collect(@RequestParam(defaultValue = "true") boolean dryRun) {
+        return ResponseEntity.ok(mediaCleanupService.collect(dryRun));
+    }
+
+    @GetMapping("/last")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MediaCleanupReportDTO> getLastReport() {
+        MediaCleanupReportDTO report = mediaCleanupService.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,158 @@
+package secure_shop.backend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import secure_shop.backend.service.MediaStoreService;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Phục vụ file trong thư mục upload.
+ * <p>
+ * File định danh theo nội dung được cache vĩnh viễn ({@code immutable}) với ETag mạnh là tên
+ * file; file tên UUID cũ giữ cache 1 giờ. Hỗ trợ {@code If-None-Match} và một khoảng
+ * {@code Range}. Nội dung được gửi bằng sendfile của Tomcat khi connector hỗ trợ, nếu không
+ * thì bằng {@link FileChannel#transferTo}, không qua buffer của ứng dụng.
+ */
+@RestController
+@Slf4j
+public class MediaFileController {
+
+    private static final String IMMUTABLE_CACHE = "public, max-age=31536000, immutable";
+    private static final String LEGACY_CACHE = "public, max-age=3600";
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final MediaStoreService mediaStore;
+    private final long sendfileMinBytes;
+
+    public MediaFileController(MediaStoreService mediaStore,
+                               @Value("${media.sendfile-min-bytes:49152}") long sendfileMinBytes) {
+        this.mediaStore = mediaStore;
+        this.sendfileMinBytes = sendfileMinBytes;
+    }
+
+    @GetMapping("/uploads/{fileName:.+}")
+    public void serve(@PathVariable String fileName, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Optional<Path> resolved = mediaStore.resolve(fileName);
+        if (resolved.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path file = resolved.get();
+        long length = Files.size(file);
+
+        String etag;
+        if (mediaStore.isContentAddressed(fileName)) {
+            etag = "\"" + fileName + "\"";
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE);
+        } else {
+            etag = "W/\"" + Long.toHexString(length) + "-"
+                    + Long.toHexString(Files.getLastModifiedTime(file).toMillis()) + "\"";
+            response.setHeader(HttpHeaders.CACHE_CONTROL, LEGACY_CACHE);
+        }
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && length > 0 && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Nhiều khoảng (multipart/byteranges) hiếm với ảnh: trả toàn bộ file
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                try {
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                }
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (count >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat gửi file bằng sendfile sau khi servlet trả về
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String weakless = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || c.equals(etag) || (c.startsWith("W/") ? c.substring(2) : c).equals(weakless)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+package secure_shop.backend.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import secure_shop.backend.config.security.CustomUserDetails;
+import secure_shop.backend.dto.pos.POSCatalogDeltaDTO;
+import secure_shop.backend.dto.pos.POSSyncBatchRequest;
+import secure_shop.backend.dto.pos.POSSyncBatchResultDTO;
+import secure_shop.backend.dto.pos.POSSyncConflictDTO;
+import secure_shop.backend.service.POSSyncService;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/pos/sync")
+@RequiredArgsConstructor
+public class POSSyncController {
+
+    private final POSSyncService posSyncService;
+
+    /**
+     * GET /api/pos/sync/catalog?cursor=...&limit=500
+     * Không gửi cursor: snapshot đầy đủ. Gọi lại với cursor trả về cho tới khi hasMore=false.
+     */
+    @GetMapping("/catalog")
+    @PreAuthorize("hasAnyRole('STAFF', 'ADMIN')")
+    public ResponseEntity<POSCatalogDeltaDTO> getCatalogDelta(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(posSyncService.getCatalogDelta(cursor, limit));
+    }
+
+    /**
+     * POST /api/pos/sync/sales
+     * Đẩy các giao dịch bán offline; gửi lại cùng lô là an toàn (idempotent theo clientSaleId).
+     */
+    @PostMapping("/sales")
+    @PreAuthorize("hasAnyRole('STAFF', 'ADMIN')")
+    public ResponseEntity<POSSyncBatchResultDTO> submitSales(
+            @Valid @RequestBody POSSyncBatchRequest request,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return ResponseEntity.ok(posSyncService.submitSales(request, userDetails.getUser()));
+    }
+
+    /**
+     * GET /api/pos/sync/conflicts
+     * Giao dịch offline đã ghi nhưng lệch tồn kho/tiền (ACCEPTED_WITH_CONFLICT), chờ xem xét.
+     */
+    @GetMapping("/conflicts")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<POSSyncConflictDTO>> getConflicts(Pageable pageable) {
+        return ResponseEntity.ok(posSyncService.getConflicts(pageable));
+    }
+
+    @PostMapping("/conflicts/{clientSaleId}/resolve")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<POSSyncConflictDTO> resolveConflict(
+            @PathVariable UUID clientSaleId,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return ResponseEntity.ok(posSyncService.resolveConflict(clientSaleId, userDetails.getUser()));
+    }
+}
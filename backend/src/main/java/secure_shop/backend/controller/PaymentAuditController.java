@@ -0,0 +1,41 @@
+package secure_shop.backend.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import secure_shop.backend.dto.payment.PaymentAuditLogDTO;
+import secure_shop.backend.dto.payment.PaymentAuditStatsDTO;
+import secure_shop.backend.service.PaymentAuditService;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/payment-audit")
+@RequiredArgsConstructor
+public class PaymentAuditController {
+
+    private final PaymentAuditService paymentAuditService;
+
+    @GetMapping("/orders/{orderId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<PaymentAuditLogDTO>> getByOrder(@PathVariable UUID orderId) {
+        return ResponseEntity.ok(paymentAuditService.getByOrderId(orderId));
+    }
+
+    @GetMapping("/transactions/{txnRef}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<PaymentAuditLogDTO>> getByTxnRef(@PathVariable String txnRef) {
+        return ResponseEntity.ok(paymentAuditService.getByTxnRef(txnRef));
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PaymentAuditStatsDTO> getStats() {
+        return ResponseEntity.ok(paymentAuditService.getStats());
+    }
+}
@@ -0,0 +1,68 @@
+package secure_shop.backend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import secure_shop.backend.dto.payment.PaymentReconciliationItemDTO;
+import secure_shop.backend.dto.payment.PaymentReconciliationReportDTO;
+import secure_shop.backend.enums.ReconciliationResolution;
+import secure_shop.backend.service.PaymentReconciliationService;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin/payment-reconciliation")
+@RequiredArgsConstructor
+public class PaymentReconciliationController {
+
+    private final PaymentReconciliationService reconciliationService;
+
+    /**
+     * POST /api/admin/payment-reconciliation/runs?source=vnpay-2025-10.csv
+     * Body là nội dung file CSV (Content-Type: text/csv), được đọc trực tiếp từ request
+     * nên không bị giới hạn kích thước multipart.
+     */
+    @PostMapping(value = "/runs", consumes = {"text/csv", "text/plain"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PaymentReconciliationReportDTO> reconcile(
+            @RequestParam(required = false) String source,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(reconciliationService.reconcile(source, request.getInputStream()));
+    }
+
+    /**
+     * GET /api/admin/payment-reconciliation/runs?page=0&size=20
+     * Các phiên đối soát, mới nhất trước.
+     */
+    @GetMapping("/runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<PaymentReconciliationReportDTO>> getRuns(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(reconciliationService.getRuns(PageRequest.of(page, size)));
+    }
+
+    @GetMapping("/runs/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PaymentReconciliationReportDTO> getRun(@PathVariable Long id) {
+        return ResponseEntity.ok(reconciliationService.getRun(id));
+    }
+
+    /**
+     * GET /api/admin/payment-reconciliation/runs/{id}/items?resolution=FLAGGED
+     * Các dòng lệch của một phiên đối soát.
+     */
+    @GetMapping("/runs/{id}/items")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<PaymentReconciliationItemDTO>> getItems(
+            @PathVariable Long id,
+            @RequestParam(required = false) ReconciliationResolution resolution,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(reconciliationService.getItems(id, resolution, PageRequest.of(page, size)));
+    }
+}
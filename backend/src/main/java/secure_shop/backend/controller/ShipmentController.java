@@ -10,8 +10,10 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import secure_shop.backend.config.security.CustomUserDetails;
 import secure_shop.backend.dto.order.ShipmentDTO;
+import secure_shop.backend.enums.ShipmentStatus;
 import secure_shop.backend.service.ShipmentService;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,6 +30,36 @@ public class ShipmentController {
         return ResponseEntity.ok(shipmentService.getShipmentsPage(pageable));
     }
 
+    /**
+     * GET /api/shipments/search?status=IN_TRANSIT&from=2026-10-01T00:00:00Z&to=2026-10-08T00:00:00Z
+     * Lọc theo trạng thái và ngày gửi hàng [from, to).
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<ShipmentDTO>> searchShipments(
+            @RequestParam(required = false) ShipmentStatus status,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            Pageable pageable) {
+        return ResponseEntity.ok(shipmentService.searchShipments(status, from, to, pageable));
+    }
+
+    /**
+     * GET /api/shipments/statuses?orderIds=id1,id2,...
+     * Trạng thái vận chuyển của nhiều đơn trong một lần gọi (trang theo dõi đơn hàng).
+     * Người dùng thường chỉ nhận về đơn của chính mình.
+     */
+    @GetMapping("/statuses")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<ShipmentDTO>> getShipmentStatuses(
+            @RequestParam List<UUID> orderIds,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        boolean isAdmin = userDetails.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        UUID ownerId = isAdmin ? null : userDetails.getUser().getId();
+        return ResponseEntity.ok(shipmentService.getShipmentStatuses(orderIds, ownerId));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ShipmentDTO> getShipmentById(@PathVariable Long id) {
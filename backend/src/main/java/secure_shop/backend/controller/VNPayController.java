@@ -74,7 +74,7 @@ public class VNPayController {
      */
     @GetMapping("/payment-callback")
     public ResponseEntity<VNPayCallbackResponse> paymentCallback(@RequestParam Map<String, String> params) {
-        log.info("Received VNPay payment callback with params: {}", params);
+        log.info("Received VNPay payment callback for txnRef: {}", params.get("vnp_TxnRef"));
 
         try {
             VNPayCallbackResponse response = vnPayService.processCallbackWithDetails(params);
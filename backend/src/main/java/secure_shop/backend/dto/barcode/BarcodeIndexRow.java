@@ -0,0 +1,30 @@
+package secure_shop.backend.dto.barcode;
+
+import secure_shop.backend.dto.product.BrandDTO;
+import secure_shop.backend.dto.product.CategorySummaryDTO;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/** Một dòng projection barcode + sản phẩm + tồn kho để nạp index quét mã POS (không nạp entity) */
+public record BarcodeIndexRow(
+        Long barcodeId,
+        String barcode,
+        String serialNumber,
+        Instant createdAt,
+        UUID productId,
+        String sku,
+        String name,
+        BigDecimal listedPrice,
+        BigDecimal price,
+        String thumbnailUrl,
+        String thumbnailSrcset,
+        CategorySummaryDTO category,
+        BrandDTO brand,
+        Double rating,
+        Integer reviewCount,
+        Long inventoryId,
+        Integer onHand,
+        Integer reserved) {
+}
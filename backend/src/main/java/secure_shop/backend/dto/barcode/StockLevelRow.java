@@ -0,0 +1,6 @@
+package secure_shop.backend.dto.barcode;
+
+import java.util.UUID;
+
+public record StockLevelRow(Long inventoryId, UUID productId, Integer onHand, Integer reserved) {
+}
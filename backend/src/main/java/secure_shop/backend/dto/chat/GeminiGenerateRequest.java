@@ -0,0 +1,19 @@
+package secure_shop.backend.dto.chat;
+
+import java.util.List;
+
+/** Body của {@code models/{model}:generateContent} (chỉ các trường đang dùng). */
+public record GeminiGenerateRequest(List<Content> contents, GenerationConfig generationConfig) {
+
+    public record Content(List<Part> parts) {}
+
+    public record Part(String text) {}
+
+    public record GenerationConfig(double temperature, int maxOutputTokens) {}
+
+    public static GeminiGenerateRequest ofText(String text, double temperature, int maxOutputTokens) {
+        return new GeminiGenerateRequest(
+                List.of(new Content(List.of(new Part(text)))),
+                new GenerationConfig(temperature, maxOutputTokens));
+    }
+}
@@ -0,0 +1,36 @@
+package secure_shop.backend.dto.chat;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/** Response của {@code generateContent}; các trường khác bị bỏ qua. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record GeminiGenerateResponse(List<Candidate> candidates) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Candidate(Content content, String finishReason) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Content(List<Part> parts) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Part(String text) {}
+
+    /** Text của phần đầu tiên của candidate đầu tiên, hoặc null */
+    public String firstText() {
+        if (candidates == null || candidates.isEmpty()) {
+            return null;
+        }
+        Candidate candidate = candidates.get(0);
+        if (candidate == null || candidate.content() == null || candidate.content().parts() == null) {
+            return null;
+        }
+        for (Part part : candidate.content().parts()) {
+            if (part != null && part.text() != null) {
+                return part.text();
+            }
+        }
+        return null;
+    }
+}
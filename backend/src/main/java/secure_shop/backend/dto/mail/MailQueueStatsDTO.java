@@ -0,0 +1,31 @@
+package secure_shop.backend.dto.mail;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MailQueueStatsDTO implements Serializable {
+    /** Email đơn hàng đang chờ gửi / chờ gửi lại trong outbox */
+    private Long pending;
+    /** Email đơn hàng đang được worker giữ */
+    private Long sending;
+    /** Email đơn hàng đã hết số lần thử */
+    private Long failed;
+    /** Tác vụ đang chờ trong hàng đợi của mail executor */
+    private Integer executorQueueSize;
+    private Integer executorActiveThreads;
+    /** Bộ đếm từ lúc khởi động instance */
+    private Long sentSinceStartup;
+    private Long failedAttemptsSinceStartup;
+    /** Chi phí render (template + MIME) cho mỗi email đơn hàng */
+    private Long renderedSinceStartup;
+    private Double avgRenderMillis;
+    private Double maxRenderMillis;
+}
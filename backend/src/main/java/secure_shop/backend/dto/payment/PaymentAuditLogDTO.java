@@ -0,0 +1,30 @@
+package secure_shop.backend.dto.payment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import secure_shop.backend.enums.PaymentAuditEventType;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentAuditLogDTO implements Serializable {
+    private Long id;
+    private PaymentAuditEventType eventType;
+    private UUID orderId;
+    private String txnRef;
+    private String transactionNo;
+    private BigDecimal amount;
+    private String responseCode;
+    private Long latencyMs;
+    /** Tham số đã che trường nhạy cảm; null nếu không được lấy mẫu */
+    private String detail;
+    private Instant createdAt;
+}
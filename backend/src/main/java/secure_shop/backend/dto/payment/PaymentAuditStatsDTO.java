@@ -0,0 +1,23 @@
+package secure_shop.backend.dto.payment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentAuditStatsDTO implements Serializable {
+    /** Bản ghi đang chờ ghi xuống DB */
+    private Integer queued;
+    /** Bộ đếm từ lúc khởi động instance */
+    private Long recordedSinceStartup;
+    private Long writtenSinceStartup;
+    /** Bản ghi bị bỏ vì hàng đợi đầy hoặc ghi DB lỗi */
+    private Long droppedSinceStartup;
+    private Long detailSampledSinceStartup;
+}
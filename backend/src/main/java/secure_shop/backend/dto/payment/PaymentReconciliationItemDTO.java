@@ -0,0 +1,33 @@
+package secure_shop.backend.dto.payment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import secure_shop.backend.enums.PaymentStatus;
+import secure_shop.backend.enums.ReconciliationIssueType;
+import secure_shop.backend.enums.ReconciliationResolution;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentReconciliationItemDTO implements Serializable {
+    private Long id;
+    private Long lineNumber;
+    private String txnRef;
+    private String transactionNo;
+    private UUID orderId;
+    private ReconciliationIssueType issueType;
+    private ReconciliationResolution resolution;
+    private BigDecimal gatewayAmount;
+    private BigDecimal recordedAmount;
+    private String gatewayResponseCode;
+    /** Trạng thái payment trước khi đối soát */
+    private PaymentStatus recordedStatus;
+    private String note;
+}
@@ -0,0 +1,30 @@
+package secure_shop.backend.dto.payment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import secure_shop.backend.enums.ReconciliationRunStatus;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentReconciliationReportDTO implements Serializable {
+    private Long id;
+    private String sourceName;
+    private ReconciliationRunStatus status;
+    /** Số dòng giao dịch đã đọc (không tính tiêu đề) */
+    private Long totalRows;
+    private Long matched;
+    /** Payment/order đã được tự động cập nhật theo cổng thanh toán */
+    private Long fixed;
+    /** Dòng lệch cần người kiểm tra */
+    private Long flagged;
+    private String error;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
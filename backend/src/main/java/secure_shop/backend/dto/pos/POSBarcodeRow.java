@@ -0,0 +1,6 @@
+package secure_shop.backend.dto.pos;
+
+import java.util.UUID;
+
+public record POSBarcodeRow(UUID productId, String barcode) {
+}
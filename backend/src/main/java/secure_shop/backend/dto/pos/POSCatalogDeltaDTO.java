@@ -0,0 +1,29 @@
+package secure_shop.backend.dto.pos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Phần catalog thay đổi kể từ con trỏ lần trước. Máy POS upsert {@code items} theo id, xóa
+ * {@code removedProductIds}, lưu {@code cursor} và gọi lại với {@code cursor} khi
+ * {@code hasMore}. Các trang có thể chồng lấn ít dòng; upsert theo id nên vô hại.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class POSCatalogDeltaDTO implements Serializable {
+    /** Con trỏ mờ (opaque) để gửi lại ở lần gọi sau */
+    private String cursor;
+    /** true khi không gửi con trỏ: đây là snapshot đầy đủ, máy POS thay toàn bộ catalog */
+    private Boolean full;
+    private Boolean hasMore;
+    private List<POSCatalogItemDTO> items;
+    private List<UUID> removedProductIds;
+}
@@ -0,0 +1,29 @@
+package secure_shop.backend.dto.pos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class POSCatalogItemDTO implements Serializable {
+    private UUID id;
+    private String sku;
+    private String name;
+    private BigDecimal price;
+    private BigDecimal listedPrice;
+    /** false: máy POS ẩn sản phẩm nhưng vẫn giữ để tra cứu hóa đơn cũ */
+    private Boolean active;
+    private String thumbnailUrl;
+    private List<String> barcodes;
+    private Instant updatedAt;
+}
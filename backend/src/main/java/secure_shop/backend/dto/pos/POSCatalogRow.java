@@ -0,0 +1,10 @@
+package secure_shop.backend.dto.pos;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/** Projection sản phẩm cho catalog POS (JPQL constructor expression) */
+public record POSCatalogRow(UUID id, String sku, String name, BigDecimal price, BigDecimal listedPrice,
+                            Boolean active, String thumbnailUrl, Instant updatedAt) {
+}
@@ -0,0 +1,30 @@
+package secure_shop.backend.dto.pos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import secure_shop.backend.dto.order.request.OrderItemRequest;
+import secure_shop.backend.enums.PaymentMethod;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class POSCheckoutRequest implements Serializable {
+    @Valid
+    @NotEmpty(message = "Giỏ hàng không được trống")
+    private List<OrderItemRequest> items;
+
+    /** COD|BANK_TRANSFER|E_WALLET (mặc định COD) */
+    private PaymentMethod paymentMethod;
+
+    /** Tiền khách đưa (bắt buộc khi paymentMethod=COD) */
+    private BigDecimal cashReceived;
+}
@@ -0,0 +1,30 @@
+package secure_shop.backend.dto.pos;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class POSSaleItemRequest implements Serializable {
+    @NotNull
+    private UUID productId;
+
+    @NotNull
+    @Positive
+    private Integer quantity;
+
+    /** Giá đã tính cho khách theo snapshot trên máy POS; null thì dùng giá hiện tại */
+    @PositiveOrZero
+    private BigDecimal unitPrice;
+}
@@ -0,0 +1,36 @@
+package secure_shop.backend.dto.pos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import secure_shop.backend.enums.PaymentMethod;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class POSSaleRequest implements Serializable {
+    /** Khóa idempotency do máy POS sinh lúc bán */
+    @NotNull
+    private UUID clientSaleId;
+
+    private Instant soldAt;
+
+    private PaymentMethod paymentMethod;
+
+    private BigDecimal cashReceived;
+
+    @Valid
+    @NotEmpty(message = "Giỏ hàng không được trống")
+    private List<POSSaleItemRequest> items;
+}
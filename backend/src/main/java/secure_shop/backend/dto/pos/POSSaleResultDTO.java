@@ -0,0 +1,28 @@
+package secure_shop.backend.dto.pos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import secure_shop.backend.enums.POSSaleSyncStatus;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class POSSaleResultDTO implements Serializable {
+    private UUID clientSaleId;
+    private POSSaleSyncStatus status;
+    private UUID orderId;
+    private String invoiceCode;
+    private BigDecimal totalAmount;
+    /** Có dòng bán theo giá khác giá hiện tại (giá trên snapshot của máy POS) */
+    private Boolean priceMismatch;
+    private String message;
+}
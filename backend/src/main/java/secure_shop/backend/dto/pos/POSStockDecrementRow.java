@@ -0,0 +1,10 @@
+package secure_shop.backend.dto.pos;
+
+/** Tồn kho sau khi trừ, đọc từ mệnh đề OUTPUT của câu UPDATE trừ kho POS */
+public interface POSStockDecrementRow {
+    Long getInventoryId();
+
+    String getProductId();
+
+    Integer getOnHand();
+}
@@ -0,0 +1,27 @@
+package secure_shop.backend.dto.pos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class POSSyncBatchRequest implements Serializable {
+    @NotBlank
+    @Size(max = 100)
+    private String terminalId;
+
+    @Valid
+    @NotEmpty
+    private List<POSSaleRequest> sales;
+}
@@ -0,0 +1,23 @@
+package secure_shop.backend.dto.pos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class POSSyncBatchResultDTO implements Serializable {
+    private Integer applied;
+    /** Đã ghi nhưng lệch tồn kho/tiền/giá, chờ xem xét */
+    private Integer conflicts;
+    private Integer duplicates;
+    private Integer rejected;
+    /** Cùng thứ tự với {@code sales} trong request */
+    private List<POSSaleResultDTO> results;
+}
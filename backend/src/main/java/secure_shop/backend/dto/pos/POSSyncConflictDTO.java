@@ -0,0 +1,28 @@
+package secure_shop.backend.dto.pos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/** Giao dịch offline đã ghi nhưng bị lệch (bán vượt tồn kho, thiếu tiền...), chờ người xem xét */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class POSSyncConflictDTO implements Serializable {
+    private UUID clientSaleId;
+    private String terminalId;
+    private UUID orderId;
+    private String invoiceCode;
+    private Instant soldAt;
+    private Instant syncedAt;
+    private String conflict;
+    private Boolean needsReview;
+    private Instant resolvedAt;
+    private UUID resolvedBy;
+}
@@ -0,0 +1,33 @@
+package secure_shop.backend.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/** Kết quả upload một ảnh; {@code error} khác null nếu ảnh bị từ chối */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImageUploadResultDTO implements Serializable {
+    private int status;
+    private String fileName;
+    private String url;
+    private String path;
+    private String sha256;
+    private Boolean deduplicated;
+    private Long sizeBytes;
+    private String contentType;
+    private Integer width;
+    private Integer height;
+    private List<MediaVariantDTO> variants;
+    private String srcset;
+    private String message;
+    private String error;
+}
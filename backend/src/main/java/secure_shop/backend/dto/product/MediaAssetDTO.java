@@ -2,6 +2,8 @@ package secure_shop.backend.dto.product;
 
 import lombok.*;
 
+import java.util.List;
+
 @Getter
 @Setter
 @NoArgsConstructor
@@ -13,4 +15,8 @@ public class MediaAssetDTO {
     private String altText;
     private String productName;
     private String productId; // UUID
+    private Integer width;
+    private Integer height;
+    private List<MediaVariantDTO> variants;
+    private String srcset;
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package secure_shop.backend.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaCleanupReportDTO implements Serializable {
+    private Instant startedAt;
+    private Long durationMs;
+    /** Chỉ thống kê, không xóa file nào */
+    private Boolean dryRun;
+
+    private Long filesScanned;
+    private Long bytesScanned;
+    /** Số khóa ảnh (bản gốc + biến thể) còn được tham chiếu trong DB */
+    private Integer referencedKeys;
+    private Long referencedFiles;
+
+    private Long orphanFiles;
+    private Long orphanBytes;
+    private Long filesDeleted;
+    private Long bytesReclaimed;
+    /** File mồ côi chưa quá thời gian ân hạn (có thể là upload chưa kịp gắn vào sản phẩm) */
+    private Long filesWithinGrace;
+    private Long failures;
+}
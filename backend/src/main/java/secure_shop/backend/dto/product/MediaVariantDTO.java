@@ -0,0 +1,20 @@
+package secure_shop.backend.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaVariantDTO implements Serializable {
+    private Integer width;
+    private Integer height;
+    private String url;
+    private String contentType;
+    private Long sizeBytes;
+}
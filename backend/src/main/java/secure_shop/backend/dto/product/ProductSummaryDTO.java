@@ -20,6 +20,7 @@ public class ProductSummaryDTO implements Serializable {
     private BigDecimal listedPrice;
     private BigDecimal price;
     private String thumbnailUrl;
+    private String thumbnailSrcset;
     private Integer availableStock;
     private Boolean inStock;
     private CategorySummaryDTO category;
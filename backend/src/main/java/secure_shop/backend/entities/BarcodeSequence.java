@@ -0,0 +1,26 @@
+package secure_shop.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Bộ đếm mã hàng (item reference) cho từng GS1 company prefix. Mỗi instance giữ một khoảng
+ * {@code [nextValue, nextValue + block)} đã đặt trước nên chỉ chạm DB một lần cho cả khoảng.
+ */
+@Entity
+@Table(name = "barcode_sequences")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BarcodeSequence {
+
+    @Id
+    @Column(length = 12)
+    private String prefix;
+
+    /** Item reference đầu tiên chưa được cấp cho instance nào */
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
@@ -0,0 +1,62 @@
+package secure_shop.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import secure_shop.backend.enums.EventOutboxStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Domain event chờ phát. Được ghi trong cùng transaction với thay đổi trạng thái đơn hàng,
+ * nên event tồn tại khi và chỉ khi thay đổi đó đã commit.
+ */
+@Entity
+@Table(name = "domain_event_outbox", indexes = {
+    @Index(name = "idx_event_outbox_due", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_event_outbox_aggregate", columnList = "aggregate_id"),
+    @Index(name = "idx_event_outbox_published", columnList = "published_at")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class DomainEventOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Tên logic của event, ví dụ OrderCreated */
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+
+    /** Id của đơn hàng (aggregate) phát sinh event */
+    @Column(name = "aggregate_id", nullable = false)
+    private UUID aggregateId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "NVARCHAR(MAX)")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private EventOutboxStatus status = EventOutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false, columnDefinition = "datetimeoffset(6)")
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "datetimeoffset(6)")
+    private Instant createdAt;
+
+    @Column(name = "published_at", columnDefinition = "datetimeoffset(6)")
+    private Instant publishedAt;
+}
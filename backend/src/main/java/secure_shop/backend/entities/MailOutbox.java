@@ -0,0 +1,67 @@
+package secure_shop.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import secure_shop.backend.enums.MailOutboxStatus;
+import secure_shop.backend.enums.MailType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Email giao dịch chờ gửi (đơn hàng và tài khoản). Được ghi cùng transaction với thay đổi
+ * nghiệp vụ và chỉ được gửi sau khi commit, nên rollback không bao giờ để lại email "ma".
+ */
+@Entity
+@Table(name = "mail_outbox", indexes = {
+    @Index(name = "idx_mail_outbox_due", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_mail_outbox_sent", columnList = "sent_at")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class MailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 30)
+    private MailType type;
+
+    /** Null với email tài khoản (xác thực, đặt lại mật khẩu) */
+    @Column(name = "order_id")
+    private UUID orderId;
+
+    /** Liên kết (chứa token) trong email tài khoản; xóa khi bản ghi SENT/FAILED */
+    @Column(name = "link", length = 1000)
+    private String link;
+
+    @Column(name = "recipient", nullable = false, length = 320)
+    private String recipient;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private MailOutboxStatus status = MailOutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    /** Lần gửi tiếp theo; với SENDING là hạn lease của worker đang giữ */
+    @Column(name = "next_attempt_at", nullable = false, columnDefinition = "datetimeoffset(6)")
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "datetimeoffset(6)")
+    private Instant createdAt;
+
+    @Column(name = "sent_at", columnDefinition = "datetimeoffset(6)")
+    private Instant sentAt;
+}
@@ -7,6 +7,9 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Entity
 @Table(name = "media_assets")
 @Getter
@@ -36,6 +39,21 @@ public class MediaAsset {
     )
     private String altText;
 
+    /** Kích thước ảnh gốc; null với ảnh ngoài hoặc ảnh upload trước khi có pipeline biến thể */
+    private Integer width;
+
+    private Integer height;
+
+    /** Vị trí trong gallery sản phẩm; null với ảnh cũ (xếp theo id) */
+    @Column(name = "sort_order")
+    private Integer sortOrder;
+
+    @ElementCollection
+    @CollectionTable(name = "media_asset_variants", joinColumns = @JoinColumn(name = "media_asset_id"))
+    @OrderBy("width ASC")
+    @Builder.Default
+    private List<MediaVariant> variants = new ArrayList<>();
+
     @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
     @JoinColumn(name = "product_id", nullable = false)
     @NotNull(message = "Ảnh phải thuộc về một sản phẩm")
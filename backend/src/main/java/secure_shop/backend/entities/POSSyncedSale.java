@@ -0,0 +1,81 @@
+package secure_shop.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Khóa idempotency của giao dịch POS đồng bộ từ máy bán hàng: mỗi {@code clientSaleId} chỉ được
+ * ghi một lần, lần gửi lại trả về hóa đơn đã tạo.
+ */
+@Entity
+@Table(name = "pos_synced_sales", indexes = {
+    @Index(name = "idx_pos_synced_terminal", columnList = "terminal_id, sold_at"),
+    @Index(name = "idx_pos_synced_review", columnList = "needs_review, synced_at")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class POSSyncedSale implements Persistable<UUID> {
+
+    /** UUID do máy POS sinh khi bán (offline) */
+    @Id
+    @Column(name = "client_sale_id")
+    private UUID clientSaleId;
+
+    @Column(name = "terminal_id", nullable = false, length = 100)
+    private String terminalId;
+
+    @Column(name = "order_id", nullable = false)
+    private UUID orderId;
+
+    @Column(name = "invoice_code", nullable = false, length = 30)
+    private String invoiceCode;
+
+    /** Thời điểm bán trên máy POS (có thể sớm hơn lúc đồng bộ) */
+    @Column(name = "sold_at", nullable = false, columnDefinition = "datetimeoffset(6)")
+    private Instant soldAt;
+
+    @CreationTimestamp
+    @Column(name = "synced_at", nullable = false, updatable = false, columnDefinition = "datetimeoffset(6)")
+    private Instant syncedAt;
+
+    /** Lý do lệch (bán vượt tồn kho, thiếu tiền, sản phẩm đã ngừng bán...); null khi khớp */
+    @Column(name = "conflict", length = 1000)
+    private String conflict;
+
+    /** true khi còn nằm trong hàng đợi xem xét */
+    @Column(name = "needs_review")
+    private Boolean needsReview;
+
+    @Column(name = "resolved_at", columnDefinition = "datetimeoffset(6)")
+    private Instant resolvedAt;
+
+    @Column(name = "resolved_by")
+    private UUID resolvedBy;
+
+    /** Id do client cấp: báo cho Spring Data đây là bản ghi mới để persist thẳng, không SELECT trước khi merge */
+    @Transient
+    @Builder.Default
+    private boolean newEntity = true;
+
+    @Override
+    public UUID getId() {
+        return clientSaleId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
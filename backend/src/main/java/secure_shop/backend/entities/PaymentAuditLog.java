@@ -0,0 +1,59 @@
+package secure_shop.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import secure_shop.backend.enums.PaymentAuditEventType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Nhật ký kiểm toán thanh toán VNPay: một dòng cho mỗi lần tạo URL hoặc nhận callback.
+ * {@code detail} đã được che các trường nhạy cảm và chỉ được lấy mẫu với sự kiện thành công.
+ */
+@Entity
+@Table(name = "payment_audit_log", indexes = {
+    @Index(name = "idx_payment_audit_order", columnList = "order_id, created_at"),
+    @Index(name = "idx_payment_audit_txn", columnList = "txn_ref"),
+    @Index(name = "idx_payment_audit_created", columnList = "created_at")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class PaymentAuditLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 40)
+    private PaymentAuditEventType eventType;
+
+    @Column(name = "order_id")
+    private UUID orderId;
+
+    @Column(name = "txn_ref", length = 100)
+    private String txnRef;
+
+    @Column(name = "transaction_no", length = 100)
+    private String transactionNo;
+
+    @Column(name = "amount", precision = 15, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "response_code", length = 10)
+    private String responseCode;
+
+    @Column(name = "latency_ms")
+    private Long latencyMs;
+
+    @Column(name = "detail", columnDefinition = "NVARCHAR(MAX)")
+    private String detail;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "datetimeoffset(6)")
+    private Instant createdAt;
+}
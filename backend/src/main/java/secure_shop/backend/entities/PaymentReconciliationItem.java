@@ -0,0 +1,71 @@
+package secure_shop.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import secure_shop.backend.enums.PaymentStatus;
+import secure_shop.backend.enums.ReconciliationIssueType;
+import secure_shop.backend.enums.ReconciliationResolution;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/** Một dòng lệch giữa file đối soát và {@code payments}; dòng khớp không được lưu. */
+@Entity
+@Table(name = "payment_reconciliation_items", indexes = {
+    @Index(name = "idx_reconciliation_items_run", columnList = "run_id, resolution"),
+    @Index(name = "idx_reconciliation_items_txn", columnList = "txn_ref")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class PaymentReconciliationItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "line_number", nullable = false)
+    private Long lineNumber;
+
+    @Column(name = "txn_ref", length = 100)
+    private String txnRef;
+
+    @Column(name = "transaction_no", length = 100)
+    private String transactionNo;
+
+    @Column(name = "order_id")
+    private UUID orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "issue_type", nullable = false, length = 40)
+    private ReconciliationIssueType issueType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resolution", nullable = false, length = 20)
+    private ReconciliationResolution resolution;
+
+    @Column(name = "gateway_amount", precision = 15, scale = 2)
+    private BigDecimal gatewayAmount;
+
+    @Column(name = "recorded_amount", precision = 15, scale = 2)
+    private BigDecimal recordedAmount;
+
+    @Column(name = "gateway_response_code", length = 10)
+    private String gatewayResponseCode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "recorded_status", length = 50)
+    private PaymentStatus recordedStatus;
+
+    @Column(name = "note", length = 500)
+    private String note;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "datetimeoffset(6)")
+    private Instant createdAt;
+}
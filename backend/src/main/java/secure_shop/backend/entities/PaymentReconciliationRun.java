@@ -0,0 +1,55 @@
+package secure_shop.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import secure_shop.backend.enums.ReconciliationRunStatus;
+
+import java.time.Instant;
+
+/** Một lần đối soát file giao dịch VNPay với bảng {@code payments}. */
+@Entity
+@Table(name = "payment_reconciliation_runs", indexes = {
+    @Index(name = "idx_reconciliation_runs_started", columnList = "started_at")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class PaymentReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source_name", nullable = false, length = 255)
+    private String sourceName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private ReconciliationRunStatus status = ReconciliationRunStatus.RUNNING;
+
+    @Column(name = "total_rows", nullable = false)
+    @Builder.Default
+    private Long totalRows = 0L;
+
+    @Column(name = "matched", nullable = false)
+    @Builder.Default
+    private Long matched = 0L;
+
+    @Column(name = "fixed", nullable = false)
+    @Builder.Default
+    private Long fixed = 0L;
+
+    @Column(name = "flagged", nullable = false)
+    @Builder.Default
+    private Long flagged = 0L;
+
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    @Column(name = "started_at", nullable = false, columnDefinition = "datetimeoffset(6)")
+    private Instant startedAt;
+
+    @Column(name = "finished_at", columnDefinition = "datetimeoffset(6)")
+    private Instant finishedAt;
+}
@@ -69,6 +69,11 @@ public class Product extends BaseEntity {
     @Size(max = 2048, message = "URL ảnh đại diện quá dài")
     private String thumbnailUrl;
 
+    /** srcset các biến thể của ảnh đại diện, để danh sách sản phẩm không phải tải ảnh gốc */
+    @Size(max = 2048)
+    @Column(length = 2048)
+    private String thumbnailSrcset;
+
     // Soft delete
     @Column(name = "deleted_at")
     private Instant deletedAt;
@@ -99,6 +104,7 @@ public class Product extends BaseEntity {
     private Set<Review> reviews = new HashSet<>();
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("sortOrder ASC, id ASC")
     @Builder.Default
     private List<MediaAsset> mediaAssets = new ArrayList<>();
 
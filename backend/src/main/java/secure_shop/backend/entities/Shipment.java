@@ -8,7 +8,9 @@ import secure_shop.backend.enums.ShipmentStatus;
 import java.time.Instant;
 
 @Entity
-@Table(name = "shipments")
+@Table(name = "shipments", indexes = {
+        @Index(name = "idx_shipments_status_shipped_at", columnList = "status, shipped_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
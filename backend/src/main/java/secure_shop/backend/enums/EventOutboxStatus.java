@@ -0,0 +1,7 @@
+package secure_shop.backend.enums;
+
+public enum EventOutboxStatus {
+    PENDING,     // Chờ relay phát đi (hoặc chờ thử lại)
+    PUBLISHED,   // Đã phát cho listener (và Redis Stream nếu bật)
+    FAILED       // Hết số lần thử, cần xử lý tay
+}
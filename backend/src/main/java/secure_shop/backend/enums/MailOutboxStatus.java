@@ -0,0 +1,8 @@
+package secure_shop.backend.enums;
+
+public enum MailOutboxStatus {
+    PENDING,   // Chờ gửi (hoặc chờ gửi lại)
+    SENDING,   // Đã được một worker nhận, đang gửi
+    SENT,      // Gửi thành công
+    FAILED     // Hết số lần thử
+}
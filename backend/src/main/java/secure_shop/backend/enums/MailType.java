@@ -0,0 +1,8 @@
+package secure_shop.backend.enums;
+
+public enum MailType {
+    ORDER_CONFIRMATION,  // Xác nhận đơn hàng
+    THANK_YOU,           // Cảm ơn sau khi giao hàng
+    VERIFICATION,        // Xác thực tài khoản
+    RESET_PASSWORD       // Đặt lại mật khẩu
+}
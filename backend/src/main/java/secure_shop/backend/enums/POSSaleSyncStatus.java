@@ -0,0 +1,8 @@
+package secure_shop.backend.enums;
+
+public enum POSSaleSyncStatus {
+    APPLIED,    // Đã ghi đơn + hóa đơn + trừ kho
+    ACCEPTED_WITH_CONFLICT, // Đã ghi (giao dịch đã xảy ra tại quầy) nhưng lệch tồn kho/tiền/giá; nằm trong hàng đợi xem xét
+    DUPLICATE,  // clientSaleId đã được đồng bộ trước đó (gửi lại sau khi mất mạng)
+    REJECTED    // Không ghi được (sản phẩm không tồn tại, dữ liệu sai); máy POS giữ lại để xử lý
+}
@@ -0,0 +1,10 @@
+package secure_shop.backend.enums;
+
+public enum PaymentAuditEventType {
+    PAYMENT_URL_CREATED,
+    CALLBACK_PAID,
+    CALLBACK_FAILED,
+    CALLBACK_DUPLICATE,
+    CALLBACK_INVALID_SIGNATURE,
+    CALLBACK_ERROR
+}
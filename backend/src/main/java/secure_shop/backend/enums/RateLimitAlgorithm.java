@@ -0,0 +1,6 @@
+package secure_shop.backend.enums;
+
+public enum RateLimitAlgorithm {
+    SLIDING_WINDOW, // Sliding window log: chính xác, không lọt burst ở ranh giới cửa sổ
+    TOKEN_BUCKET    // Token bucket: cho phép burst tới limit, hồi dần theo thời gian
+}
@@ -0,0 +1,16 @@
+package secure_shop.backend.enums;
+
+public enum ReconciliationIssueType {
+    /** Cổng báo thành công nhưng payment còn chờ (mất callback) */
+    PAID_NOT_RECORDED,
+    /** Cổng báo thất bại nhưng payment còn chờ */
+    FAILED_NOT_RECORDED,
+    /** Cổng báo thành công nhưng payment đã bị đánh dấu FAILED */
+    PAID_BUT_RECORDED_FAILED,
+    /** Payment đã PAID nhưng cổng báo thất bại */
+    RECORDED_PAID_BUT_GATEWAY_FAILED,
+    AMOUNT_MISMATCH,
+    /** Không có payment nào với vnp_TxnRef này */
+    UNKNOWN_TRANSACTION,
+    MALFORMED_ROW
+}
@@ -0,0 +1,8 @@
+package secure_shop.backend.enums;
+
+public enum ReconciliationResolution {
+    /** Đã tự động cập nhật payment/order theo cổng thanh toán */
+    FIXED,
+    /** Cần người kiểm tra */
+    FLAGGED
+}
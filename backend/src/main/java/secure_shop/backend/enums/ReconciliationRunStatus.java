@@ -0,0 +1,7 @@
+package secure_shop.backend.enums;
+
+public enum ReconciliationRunStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
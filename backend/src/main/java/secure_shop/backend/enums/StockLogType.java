@@ -4,5 +4,6 @@ public enum StockLogType {
     SALE,        // Bán hàng qua POS
     CANCEL,      // Hủy hóa đơn
     IMPORT,      // Nhập kho
-    ADJUSTMENT   // Điều chỉnh tồn kho
+    ADJUSTMENT,  // Điều chỉnh tồn kho
+    SHORTFALL    // Bán offline vượt tồn kho: số lượng đã bán nhưng không có hàng để trừ, chờ kiểm kê
 }
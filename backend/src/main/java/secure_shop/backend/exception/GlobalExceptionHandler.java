@@ -4,6 +4,7 @@ import com.auth0.jwt.exceptions.JWTVerificationException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -32,6 +33,26 @@ public class GlobalExceptionHandler {
         return buildErrorResponse("FORBIDDEN", ex.getMessage(), req, HttpStatus.FORBIDDEN);
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(TooManyRequestsException ex, HttpServletRequest req) {
+        ErrorResponse error = ErrorResponse.builder()
+                .error("TOO_MANY_REQUESTS")
+                .message(ex.getMessage())
+                .path(req.getRequestURI())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<ErrorResponse> handlePayloadTooLarge(PayloadTooLargeException ex, HttpServletRequest req) {
+        return buildErrorResponse("PAYLOAD_TOO_LARGE", ex.getMessage(), req, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ErrorResponse> handleBadCredentials(BadCredentialsException ex, HttpServletRequest req) {
         return buildErrorResponse("UNAUTHORIZED", "Email hoặc mật khẩu không đúng", req, HttpStatus.UNAUTHORIZED);
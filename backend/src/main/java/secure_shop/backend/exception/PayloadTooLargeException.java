@@ -0,0 +1,7 @@
+package secure_shop.backend.exception;
+
+public class PayloadTooLargeException extends RuntimeException {
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
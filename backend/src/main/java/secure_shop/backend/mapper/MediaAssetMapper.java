@@ -2,9 +2,13 @@ package secure_shop.backend.mapper;
 
 import org.springframework.stereotype.Component;
 import secure_shop.backend.dto.product.MediaAssetDTO;
+import secure_shop.backend.dto.product.MediaVariantDTO;
 import secure_shop.backend.entities.MediaAsset;
+import secure_shop.backend.entities.MediaVariant;
 import secure_shop.backend.entities.Product;
 
+import secure_shop.backend.utils.ImageSrcset;
+
 import java.util.List;
 
 @Component
@@ -20,6 +24,12 @@ public class MediaAssetMapper {
                 .id(asset.getId())
                 .url(asset.getUrl())
                 .altText(asset.getAltText())
+                .width(asset.getWidth())
+                .height(asset.getHeight())
+                .variants(asset.getVariants() != null
+                        ? asset.getVariants().stream().map(this::toVariantDTO).toList()
+                        : List.of())
+                .srcset(ImageSrcset.build(asset.getVariants(), asset.getUrl(), asset.getWidth()))
                 .build();
 
         if (asset.getProduct() != null) {
@@ -30,6 +40,16 @@ public class MediaAssetMapper {
         return dto;
     }
 
+    public MediaVariantDTO toVariantDTO(MediaVariant variant) {
+        return MediaVariantDTO.builder()
+                .width(variant.getWidth())
+                .height(variant.getHeight())
+                .url(variant.getUrl())
+                .contentType(variant.getContentType())
+                .sizeBytes(variant.getSizeBytes())
+                .build();
+    }
+
     public MediaAsset toEntity(MediaAssetDTO dto) {
         if (dto == null) return null;
 
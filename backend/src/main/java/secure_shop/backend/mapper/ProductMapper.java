@@ -7,6 +7,7 @@ import secure_shop.backend.dto.product.ProductDetailsDTO;
 import secure_shop.backend.dto.product.ProductSummaryDTO;
 import secure_shop.backend.entities.MediaAsset;
 import secure_shop.backend.entities.Product;
+import secure_shop.backend.utils.ImageSrcset;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -16,6 +17,9 @@ import java.util.stream.Collectors;
 @Component
 public class ProductMapper {
 
+    /** Đủ nét cho thẻ sản phẩm (~320px CSS) trên màn hình mật độ 2x */
+    public static final int GRID_IMAGE_WIDTH = 640;
+
     private final BrandMapper brandMapper;
     private final CategoryMapper categoryMapper;
     private final MediaAssetMapper mediaAssetMapper;
@@ -67,20 +71,27 @@ public class ProductMapper {
     public ProductSummaryDTO toProductSummaryDTO(Product p) {
         if (p == null) return null;
 
-        return ProductSummaryDTO.builder()
+        return useGridThumbnail(ProductSummaryDTO.builder()
                 .id(p.getId())
                 .sku(p.getSku())
                 .name(p.getName())
                 .listedPrice(p.getListedPrice())
                 .price(p.getPrice())
                 .thumbnailUrl(p.getThumbnailUrl())
+                .thumbnailSrcset(p.getThumbnailSrcset())
                 .brand(p.getBrand() != null ? brandMapper.toDTO(p.getBrand()) : null)
                 .category(p.getCategory() != null ? categoryMapper.toSummaryDTO(p.getCategory()) : null)
                 .availableStock(p.getInventory().getOnHand() - p.getInventory().getReserved())
                 .inStock(p.getInventory().getOnHand() > p.getInventory().getReserved())
                 .rating(p.getRating())
                 .reviewCount(p.getReviewCount())
-                .build();
+                .build());
+    }
+
+    /** Lưới sản phẩm dùng biến thể vừa khung thay cho ảnh gốc (nếu ảnh có biến thể) */
+    public ProductSummaryDTO useGridThumbnail(ProductSummaryDTO dto) {
+        dto.setThumbnailUrl(ImageSrcset.pick(dto.getThumbnailSrcset(), GRID_IMAGE_WIDTH, dto.getThumbnailUrl()));
+        return dto;
     }
 
     public List<ProductSummaryDTO> toProductSummaryDTOList(List<Product> products) {
@@ -2,14 +2,22 @@ package secure_shop.backend.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import secure_shop.backend.entities.Article;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ArticleRepository extends JpaRepository<Article, UUID>, JpaSpecificationExecutor<Article> {
     Optional<Article> findBySlug(String slug);
 
+    /** Nội dung bài viết có nhúng ảnh upload; ảnh được nhận diện bằng cách quét URL trong HTML */
+    @Query(value = """
+                SELECT CONCAT(a.summary, ' ', a.content) FROM articles a
+                WHERE a.content LIKE '%/uploads/%' OR a.summary LIKE '%/uploads/%'
+            """, nativeQuery = true)
+    Stream<String> streamBodiesWithUploads();
 }
@@ -1,9 +1,14 @@
 package secure_shop.backend.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import secure_shop.backend.dto.barcode.BarcodeIndexRow;
+import secure_shop.backend.dto.pos.POSBarcodeRow;
 import secure_shop.backend.entities.Barcode;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,5 +18,69 @@ public interface BarcodeRepository extends JpaRepository<Barcode, Long> {
     Optional<Barcode> findByBarcode(String barcode);
     boolean existsByBarcode(String barcode);
     List<Barcode> findByProductIdOrderByCreatedAtDesc(UUID productId);
+
+    @Query("""
+            SELECT new secure_shop.backend.dto.barcode.BarcodeIndexRow(
+                b.id, b.barcode, b.serialNumber, b.createdAt,
+                p.id, p.sku, p.name, p.listedPrice, p.price, p.thumbnailUrl, p.thumbnailSrcset,
+                new secure_shop.backend.dto.product.CategorySummaryDTO(c.id, c.name, c.imageUrl, c.description, c.active),
+                new secure_shop.backend.dto.product.BrandDTO(br.id, br.name),
+                p.rating, p.reviewCount,
+                i.id, i.onHand, i.reserved
+            )
+            FROM Barcode b
+            JOIN b.product p
+            LEFT JOIN p.category c
+            LEFT JOIN p.brand br
+            LEFT JOIN p.inventory i
+            WHERE p.deletedAt IS NULL
+            """)
+    List<BarcodeIndexRow> findIndexRows();
+
+    @Query("""
+            SELECT new secure_shop.backend.dto.barcode.BarcodeIndexRow(
+                b.id, b.barcode, b.serialNumber, b.createdAt,
+                p.id, p.sku, p.name, p.listedPrice, p.price, p.thumbnailUrl, p.thumbnailSrcset,
+                new secure_shop.backend.dto.product.CategorySummaryDTO(c.id, c.name, c.imageUrl, c.description, c.active),
+                new secure_shop.backend.dto.product.BrandDTO(br.id, br.name),
+                p.rating, p.reviewCount,
+                i.id, i.onHand, i.reserved
+            )
+            FROM Barcode b
+            JOIN b.product p
+            LEFT JOIN p.category c
+            LEFT JOIN p.brand br
+            LEFT JOIN p.inventory i
+            WHERE p.deletedAt IS NULL
+              AND p.id = :productId
+            """)
+    List<BarcodeIndexRow> findIndexRowsByProductId(@Param("productId") UUID productId);
+
+    @Query("""
+            SELECT new secure_shop.backend.dto.barcode.BarcodeIndexRow(
+                b.id, b.barcode, b.serialNumber, b.createdAt,
+                p.id, p.sku, p.name, p.listedPrice, p.price, p.thumbnailUrl, p.thumbnailSrcset,
+                new secure_shop.backend.dto.product.CategorySummaryDTO(c.id, c.name, c.imageUrl, c.description, c.active),
+                new secure_shop.backend.dto.product.BrandDTO(br.id, br.name),
+                p.rating, p.reviewCount,
+                i.id, i.onHand, i.reserved
+            )
+            FROM Barcode b
+            JOIN b.product p
+            LEFT JOIN p.category c
+            LEFT JOIN p.brand br
+            LEFT JOIN p.inventory i
+            WHERE p.deletedAt IS NULL
+              AND b.barcode = :barcode
+            """)
+    Optional<BarcodeIndexRow> findIndexRowByBarcode(@Param("barcode") String barcode);
+
+    @Query("SELECT new secure_shop.backend.dto.pos.POSBarcodeRow(b.product.id, b.barcode) " +
+            "FROM Barcode b WHERE b.product.id IN :productIds")
+    List<POSBarcodeRow> findPOSBarcodes(@Param("productIds") Collection<UUID> productIds);
+
+    /** Mã EAN-13 lớn nhất đã có dưới một prefix; chỉ dùng khi khởi tạo bộ đếm của prefix đó */
+    @Query("SELECT MAX(b.barcode) FROM Barcode b WHERE b.barcode LIKE CONCAT(:prefix, '%') AND LENGTH(b.barcode) = 13")
+    String findMaxEan13WithPrefix(@Param("prefix") String prefix);
 }
 
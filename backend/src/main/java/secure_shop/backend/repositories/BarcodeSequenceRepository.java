@@ -0,0 +1,20 @@
+package secure_shop.backend.repositories;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import secure_shop.backend.entities.BarcodeSequence;
+
+import java.util.Optional;
+
+@Repository
+public interface BarcodeSequenceRepository extends JpaRepository<BarcodeSequence, String> {
+
+    /** Khóa dòng bộ đếm để các instance đặt khoảng mã tuần tự */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BarcodeSequence s WHERE s.prefix = :prefix")
+    Optional<BarcodeSequence> findForUpdate(@Param("prefix") String prefix);
+}
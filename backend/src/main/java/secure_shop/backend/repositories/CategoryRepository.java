@@ -2,10 +2,12 @@ package secure_shop.backend.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import secure_shop.backend.entities.Category;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Integer>, JpaSpecificationExecutor<Category> {
@@ -14,4 +16,7 @@ public interface CategoryRepository extends JpaRepository<Category, Integer>, Jp
     void deleteById(Long id);
 
     Category findById(Long id);
+
+    @Query("SELECT c.imageUrl FROM Category c WHERE c.imageUrl IS NOT NULL")
+    Stream<String> streamImageUrls();
 }
@@ -0,0 +1,40 @@
+package secure_shop.backend.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import secure_shop.backend.entities.DomainEventOutbox;
+import secure_shop.backend.enums.EventOutboxStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface DomainEventOutboxRepository extends JpaRepository<DomainEventOutbox, Long> {
+
+    List<DomainEventOutbox> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+            EventOutboxStatus status, Instant now, Pageable pageable);
+
+    /**
+     * Đánh dấu đã phát, trong transaction của relay. Câu UPDATE giữ row lock tới khi commit,
+     * nên instance khác quét trùng sẽ nhận 0 và bỏ qua; nếu listener lỗi, rollback trả event về PENDING.
+     */
+    @Modifying
+    @Query("UPDATE DomainEventOutbox e SET e.status = :published, e.publishedAt = :now, e.attempts = e.attempts + 1 " +
+            "WHERE e.id = :id AND e.status = :pending")
+    int markPublished(@Param("id") Long id,
+                      @Param("pending") EventOutboxStatus pending,
+                      @Param("published") EventOutboxStatus published,
+                      @Param("now") Instant now);
+
+    long countByStatus(EventOutboxStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DomainEventOutbox e WHERE e.status = :status AND e.publishedAt < :before")
+    int deletePublishedBefore(@Param("status") EventOutboxStatus status, @Param("before") Instant before);
+}
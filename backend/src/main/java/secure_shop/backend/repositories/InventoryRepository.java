@@ -1,12 +1,18 @@
 package secure_shop.backend.repositories;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import secure_shop.backend.dto.barcode.StockLevelRow;
+import secure_shop.backend.dto.pos.POSStockDecrementRow;
 import secure_shop.backend.entities.Inventory;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,6 +20,38 @@ import java.util.UUID;
 public interface InventoryRepository extends JpaRepository<Inventory, Integer> {
     Optional<Inventory> findByProductId(UUID productId);
 
+    /** Khóa tồn kho của một lô sản phẩm theo thứ tự id cố định (tránh deadlock giữa các lô) */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.product.id IN :productIds ORDER BY i.id")
+    List<Inventory> findForUpdateByProductIdIn(@Param("productIds") Collection<UUID> productIds);
+
+    /**
+     * Trừ onHand cho cả giỏ hàng POS bằng một câu UPDATE, chỉ trên dòng còn đủ hàng khả dụng
+     * (onHand - reserved). Trả về các dòng đã trừ kèm onHand mới; ít dòng hơn giỏ hàng nghĩa là
+     * có sản phẩm thiếu hàng và caller phải rollback.
+     *
+     * @param lines JSON {@code [{"p":"<productId>","q":<quantity>}, ...]}, mỗi sản phẩm một lần
+     */
+    @Query(value = """
+            UPDATE i SET i.on_hand = i.on_hand - l.qty
+            OUTPUT inserted.id AS inventoryId,
+                   CAST(inserted.product_id AS VARCHAR(36)) AS productId,
+                   inserted.on_hand AS onHand
+            FROM inventory i
+            JOIN OPENJSON(:lines) WITH (product_id UNIQUEIDENTIFIER '$.p', qty INT '$.q') l
+              ON l.product_id = i.product_id
+            WHERE i.on_hand - i.reserved >= l.qty
+            """, nativeQuery = true)
+    List<POSStockDecrementRow> decrementForSale(@Param("lines") String lines);
+
+    @Query("SELECT new secure_shop.backend.dto.barcode.StockLevelRow(i.id, i.product.id, i.onHand, i.reserved) " +
+            "FROM Inventory i")
+    List<StockLevelRow> findStockLevels();
+
+    @Query("SELECT new secure_shop.backend.dto.barcode.StockLevelRow(i.id, i.product.id, i.onHand, i.reserved) " +
+            "FROM Inventory i WHERE i.id = :id")
+    Optional<StockLevelRow> findStockLevel(@Param("id") Long id);
+
     @Modifying
     @Query("UPDATE Inventory i SET i.reserved = i.reserved + :qty " +
             "WHERE i.id = :id AND (i.onHand - i.reserved) >= :qty")
@@ -0,0 +1,43 @@
+package secure_shop.backend.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import secure_shop.backend.entities.MailOutbox;
+import secure_shop.backend.enums.MailOutboxStatus;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    List<MailOutbox> findByStatusInAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+            Collection<MailOutboxStatus> statuses, Instant now, Pageable pageable);
+
+    /**
+     * Nhận một bản ghi để gửi: chỉ thành công (trả về 1) nếu chưa có worker nào khác
+     * giữ lease còn hạn, nên nhiều instance có thể cùng quét bảng mà không gửi trùng.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MailOutbox m SET m.status = :sending, m.nextAttemptAt = :leaseUntil " +
+            "WHERE m.id = :id AND m.status IN :claimable AND m.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id,
+              @Param("sending") MailOutboxStatus sending,
+              @Param("claimable") Collection<MailOutboxStatus> claimable,
+              @Param("now") Instant now,
+              @Param("leaseUntil") Instant leaseUntil);
+
+    long countByStatus(MailOutboxStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MailOutbox m WHERE m.status = :status AND m.sentAt < :before")
+    int deleteSentBefore(@Param("status") MailOutboxStatus status, @Param("before") Instant before);
+}
@@ -1,17 +1,34 @@
 package secure_shop.backend.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import secure_shop.backend.entities.MediaAsset;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface MediaAssetRepository extends JpaRepository<MediaAsset, Integer> {
     List<MediaAsset> findByProductId(UUID productId);
 
+    List<MediaAsset> findByProductIdOrderBySortOrderAscIdAsc(UUID productId);
+
+    @Query("SELECT COALESCE(MAX(m.sortOrder), -1) + 1 FROM MediaAsset m WHERE m.product.id = :productId")
+    int nextSortOrder(@Param("productId") UUID productId);
+
     boolean existsById(Long id);
 
     void deleteById(Long id);
+
+    /** URL ảnh của sản phẩm còn hoạt động hoặc mới xóa mềm sau {@code deletedAfter} (native: bỏ qua @SQLRestriction) */
+    @Query(value = """
+                SELECT m.url FROM media_assets m
+                JOIN products p ON p.id = m.product_id
+                WHERE p.deleted_at IS NULL OR p.deleted_at > :deletedAfter
+            """, nativeQuery = true)
+    Stream<String> streamReferencedUrls(@Param("deletedAfter") Instant deletedAfter);
 }
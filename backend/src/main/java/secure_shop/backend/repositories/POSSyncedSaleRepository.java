@@ -0,0 +1,15 @@
+package secure_shop.backend.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import secure_shop.backend.entities.POSSyncedSale;
+
+import java.util.UUID;
+
+@Repository
+public interface POSSyncedSaleRepository extends JpaRepository<POSSyncedSale, UUID> {
+    /** Hàng đợi xem xét giao dịch offline bị lệch */
+    Page<POSSyncedSale> findByNeedsReviewTrueOrderBySyncedAtAsc(Pageable pageable);
+}
@@ -0,0 +1,26 @@
+package secure_shop.backend.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import secure_shop.backend.entities.PaymentAuditLog;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PaymentAuditLogRepository extends JpaRepository<PaymentAuditLog, Long> {
+
+    List<PaymentAuditLog> findByOrderIdOrderByCreatedAtAsc(UUID orderId);
+
+    List<PaymentAuditLog> findByTxnRefOrderByCreatedAtAsc(String txnRef);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PaymentAuditLog p WHERE p.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
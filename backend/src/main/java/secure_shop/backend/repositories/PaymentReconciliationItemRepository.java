@@ -0,0 +1,17 @@
+package secure_shop.backend.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import secure_shop.backend.entities.PaymentReconciliationItem;
+import secure_shop.backend.enums.ReconciliationResolution;
+
+@Repository
+public interface PaymentReconciliationItemRepository extends JpaRepository<PaymentReconciliationItem, Long> {
+
+    Page<PaymentReconciliationItem> findByRunIdOrderByLineNumberAsc(Long runId, Pageable pageable);
+
+    Page<PaymentReconciliationItem> findByRunIdAndResolutionOrderByLineNumberAsc(
+            Long runId, ReconciliationResolution resolution, Pageable pageable);
+}
@@ -0,0 +1,13 @@
+package secure_shop.backend.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import secure_shop.backend.entities.PaymentReconciliationRun;
+
+@Repository
+public interface PaymentReconciliationRunRepository extends JpaRepository<PaymentReconciliationRun, Long> {
+
+    Page<PaymentReconciliationRun> findAllByOrderByStartedAtDesc(Pageable pageable);
+}
@@ -1,9 +1,15 @@
 package secure_shop.backend.repositories;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import secure_shop.backend.entities.Payment;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +18,18 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     Optional<Payment> findByOrderId(UUID orderId);
 
     Optional<Payment> findByTransactionId(String transactionId);
+
+    /** Khóa dòng payment (không khóa orders) để các callback trùng xử lý tuần tự */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.transactionId = :transactionId")
+    Optional<Payment> findForUpdateByTransactionId(@Param("transactionId") String transactionId);
+
+    /**
+     * Khóa một lô payment theo thứ tự transactionId (thứ tự khóa cố định, tránh deadlock
+     * với callback) và nạp sẵn order để đối soát không phát sinh N+1.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p JOIN FETCH p.order WHERE p.transactionId IN :transactionIds " +
+            "ORDER BY p.transactionId")
+    List<Payment> findForUpdateByTransactionIdIn(@Param("transactionIds") Collection<String> transactionIds);
 }
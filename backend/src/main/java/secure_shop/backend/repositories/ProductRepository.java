@@ -3,15 +3,21 @@ package secure_shop.backend.repositories;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import secure_shop.backend.dto.pos.POSCatalogRow;
 import secure_shop.backend.dto.product.ProductSummaryDTO;
 import secure_shop.backend.entities.Product;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID> {
@@ -27,6 +33,39 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
             """)
     Optional<Product> findByIdWithRelations(@Param("id") UUID id);
 
+    @Query(value = """
+                SELECT p.thumbnail_url FROM products p
+                WHERE p.thumbnail_url IS NOT NULL
+                  AND (p.deleted_at IS NULL OR p.deleted_at > :deletedAfter)
+            """, nativeQuery = true)
+    Stream<String> streamReferencedThumbnailUrls(@Param("deletedAfter") Instant deletedAfter);
+
+    /** Catalog POS theo con trỏ (updatedAt, id), tăng dần; bao gồm sản phẩm inactive */
+    @Query("""
+            SELECT new secure_shop.backend.dto.pos.POSCatalogRow(
+                p.id, p.sku, p.name, p.price, p.listedPrice, p.active, p.thumbnailUrl, p.updatedAt)
+            FROM Product p
+            WHERE p.updatedAt > :since OR (p.updatedAt = :since AND p.id > :afterId)
+            ORDER BY p.updatedAt, p.id
+            """)
+    List<POSCatalogRow> findCatalogAfter(@Param("since") Instant since,
+                                         @Param("afterId") UUID afterId,
+                                         Pageable pageable);
+
+    /** Id sản phẩm bị xóa mềm từ {@code since} (native: bỏ qua @SQLRestriction) */
+    @Query(value = "SELECT CAST(p.id AS VARCHAR(36)) FROM products p WHERE p.deleted_at >= :since",
+            nativeQuery = true)
+    List<String> findDeletedIdsSince(@Param("since") Instant since);
+
+    /** Đánh dấu sản phẩm đổi (ví dụ thêm/xóa barcode) để delta catalog POS gửi lại */
+    @Modifying
+    @Query("UPDATE Product p SET p.updatedAt = :now WHERE p.id IN :ids")
+    int touch(@Param("ids") Collection<UUID> ids, @Param("now") Instant now);
+
+    /** Cả sản phẩm đã xóa mềm (native: bỏ qua @SQLRestriction) — giao dịch offline bán trước khi xóa */
+    @Query(value = "SELECT * FROM products p WHERE p.id IN :ids", nativeQuery = true)
+    List<Product> findAllIncludingDeletedById(@Param("ids") Collection<UUID> ids);
+
     @Query("SELECT p FROM Product p WHERE p.id = :id AND p.deletedAt IS NOT NULL")
     Optional<Product> findDeletedById(@Param("id") UUID id);
 
@@ -38,6 +77,7 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
                 p.listedPrice,
                 p.price,
                 p.thumbnailUrl,
+                p.thumbnailSrcset,
                 i.onHand - i.reserved,
                 ((CASE WHEN i.onHand - i.reserved > 0 THEN 1 ELSE 0 END) = 1),
                 new secure_shop.backend.dto.product.CategorySummaryDTO(c.id, c.name, c.imageUrl, c.description, c.active),
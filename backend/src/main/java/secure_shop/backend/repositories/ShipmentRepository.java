@@ -1,13 +1,67 @@
 package secure_shop.backend.repositories;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import secure_shop.backend.dto.order.ShipmentDTO;
 import secure_shop.backend.entities.Shipment;
+import secure_shop.backend.enums.ShipmentStatus;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface ShipmentRepository extends JpaRepository<Shipment, Long> {
-    List<Shipment> findByOrder_User_Id(UUID orderUserId);
+    /** Projection: đọc thẳng cột order_id (unique index), không nạp Order */
+    @Query("""
+            SELECT new secure_shop.backend.dto.order.ShipmentDTO(s.id, s.status, s.deliveredAt, s.shippedAt, s.order.id)
+            FROM Shipment s
+            WHERE s.order.id = :orderId
+            """)
+    Optional<ShipmentDTO> findDTOByOrderId(@Param("orderId") UUID orderId);
+
+    @Query("""
+            SELECT new secure_shop.backend.dto.order.ShipmentDTO(s.id, s.status, s.deliveredAt, s.shippedAt, o.id)
+            FROM Shipment s
+            JOIN s.order o
+            WHERE o.user.id = :userId
+            ORDER BY o.createdAt DESC
+            """)
+    List<ShipmentDTO> findDTOsByUserId(@Param("userId") UUID userId);
+
+    /** Trạng thái vận chuyển của nhiều đơn trong một query; {@code userId} null: không giới hạn chủ đơn */
+    @Query("""
+            SELECT new secure_shop.backend.dto.order.ShipmentDTO(s.id, s.status, s.deliveredAt, s.shippedAt, o.id)
+            FROM Shipment s
+            JOIN s.order o
+            WHERE o.id IN :orderIds
+              AND (:userId IS NULL OR o.user.id = :userId)
+            """)
+    List<ShipmentDTO> findDTOsByOrderIds(@Param("orderIds") Collection<UUID> orderIds,
+                                         @Param("userId") UUID userId);
+
+    /** Lọc theo trạng thái và khoảng ngày gửi hàng (shippedAt); tham số null bị bỏ qua */
+    @Query(value = """
+            SELECT new secure_shop.backend.dto.order.ShipmentDTO(s.id, s.status, s.deliveredAt, s.shippedAt, s.order.id)
+            FROM Shipment s
+            WHERE (:status IS NULL OR s.status = :status)
+              AND (:from IS NULL OR s.shippedAt >= :from)
+              AND (:to IS NULL OR s.shippedAt < :to)
+            """,
+            countQuery = """
+            SELECT COUNT(s) FROM Shipment s
+            WHERE (:status IS NULL OR s.status = :status)
+              AND (:from IS NULL OR s.shippedAt >= :from)
+              AND (:to IS NULL OR s.shippedAt < :to)
+            """)
+    Page<ShipmentDTO> searchDTOs(@Param("status") ShipmentStatus status,
+                                 @Param("from") Instant from,
+                                 @Param("to") Instant to,
+                                 Pageable pageable);
 }
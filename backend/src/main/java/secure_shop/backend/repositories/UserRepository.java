@@ -2,12 +2,14 @@ package secure_shop.backend.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import secure_shop.backend.entities.User;
 import secure_shop.backend.enums.Role;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificationExecutor<User> {
@@ -19,4 +21,7 @@ public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificat
     long countByEnabledFalseAndDeletedAtIsNull();
     long countByRoleAndDeletedAtIsNull(Role role);
     long countByProviderAndDeletedAtIsNull(String provider);
+
+    @Query("SELECT u.avatarUrl FROM User u WHERE u.avatarUrl LIKE '%/uploads/%'")
+    Stream<String> streamUploadedAvatarUrls();
 }
@@ -0,0 +1,235 @@
+package secure_shop.backend.security;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Single source of truth for endpoints that do not require authentication.
+ * <p>
+ * {@link secure_shop.backend.config.security.SecurityConfig} turns the routes into
+ * {@code permitAll()} matchers and {@link secure_shop.backend.security.jwt.JwtAuthenticationFilter}
+ * uses the compiled tries to skip JWT parsing, so the two can no longer drift apart.
+ * Lookups walk a per-method character trie and do not allocate.
+ */
+@Component
+public class PublicRouteTable {
+
+    /**
+     * @param method null = mọi method
+     * @param path   đường dẫn (EXACT) hoặc tiền tố theo segment (PREFIX); {@code {var}} khớp đúng một segment
+     * @param prefix true nếu khớp cả các đường dẫn con ({@code path/**})
+     */
+    public record Route(HttpMethod method, String path, boolean prefix) {
+
+        static Route any(String path) {
+            return new Route(null, path, false);
+        }
+
+        static Route anyPrefix(String path) {
+            return new Route(null, path, true);
+        }
+
+        static Route get(String path) {
+            return new Route(HttpMethod.GET, path, false);
+        }
+
+        static Route getPrefix(String path) {
+            return new Route(HttpMethod.GET, path, true);
+        }
+
+        /** Ant-style patterns equivalent to this route, for Spring Security matchers. */
+        List<String> patterns() {
+            if (!prefix) {
+                return List.of(path);
+            }
+            if (path.endsWith("/")) {
+                return List.of(path + "**");
+            }
+            return List.of(path, path + "/**");
+        }
+    }
+
+    private static final List<Route> ROUTES = List.of(
+            // Auth endpoints - public login/register/reset
+            Route.any("/api/auth/login"),
+            Route.any("/api/auth/register"),
+            Route.any("/api/auth/refresh"),
+            Route.any("/api/auth/verify-email"),
+            Route.any("/api/auth/resend-verification"),
+            Route.any("/api/auth/forgot-password"),
+            Route.any("/api/auth/verify-token"),
+            Route.any("/api/auth/reset-password"),
+            Route.any("/api/auth/logout"),
+            Route.anyPrefix("/oauth2/"),
+            Route.anyPrefix("/login/oauth2/"),
+            Route.any("/error"),
+
+            // Chatbot
+            Route.any("/api/chat/ask"),
+
+            // Các endpoint cho phép GET public nhưng POST/PUT/DELETE cần quyền
+            Route.getPrefix("/uploads/"),
+            Route.getPrefix("/api/articles"),
+            Route.getPrefix("/api/brands"),
+            Route.getPrefix("/api/categories"),
+            Route.getPrefix("/api/inventories"),
+            Route.getPrefix("/api/media/product/"),
+            Route.getPrefix("/api/products"),
+            Route.get("/api/reviews"),
+            Route.getPrefix("/api/reviews/product/"),
+            Route.get("/api/reviews/{id}"),
+            Route.get("/api/discounts/active"),
+            Route.getPrefix("/api/discounts/code/"),
+            Route.get("/api/vnpay/payment-callback")
+    );
+
+    private static final byte NONE = 0;
+    private static final byte EXACT = 1;
+    private static final byte PREFIX = 2;
+    /** Khóa trie của một segment biến {@code {var}}; không xuất hiện trong request URI */
+    private static final char SEGMENT = '\0';
+
+    private final Node anyMethodRoot;
+    private final Map<String, Node> rootsByMethod;
+
+    public PublicRouteTable() {
+        NodeBuilder anyBuilder = new NodeBuilder();
+        Map<String, NodeBuilder> builders = new HashMap<>();
+        for (Route route : ROUTES) {
+            NodeBuilder root = route.method() == null
+                    ? anyBuilder
+                    : builders.computeIfAbsent(route.method().name(), m -> new NodeBuilder());
+            root.insert(route.path(), route.prefix() ? PREFIX : EXACT);
+        }
+        this.anyMethodRoot = anyBuilder.build();
+        Map<String, Node> roots = new HashMap<>();
+        builders.forEach((method, builder) -> roots.put(method, builder.build()));
+        this.rootsByMethod = Map.copyOf(roots);
+    }
+
+    /**
+     * Ant-style patterns of the routes registered for {@code method};
+     * pass {@code null} for routes that are public for every method.
+     */
+    public String[] patterns(HttpMethod method) {
+        List<String> patterns = new ArrayList<>();
+        for (Route route : ROUTES) {
+            if (method == null ? route.method() == null : method.equals(route.method())) {
+                patterns.addAll(route.patterns());
+            }
+        }
+        return patterns.toArray(String[]::new);
+    }
+
+    public boolean isPublic(String method, String path) {
+        if (path == null) {
+            return false;
+        }
+        if (matches(anyMethodRoot, path)) {
+            return true;
+        }
+        Node root = method != null ? rootsByMethod.get(method) : null;
+        return root != null && matches(root, path);
+    }
+
+    private static boolean matches(Node root, String path) {
+        return matches(root, path, 0);
+    }
+
+    private static boolean matches(Node start, String path, int from) {
+        Node node = start;
+        int len = path.length();
+        for (int i = from; i < len; i++) {
+            char c = path.charAt(i);
+            if (node.terminal == PREFIX && (c == '/' || path.charAt(i - 1) == '/')) {
+                return true;
+            }
+            Node segment = node.child(SEGMENT);
+            if (segment != null && c != '/') {
+                // Thử segment biến trước, không khớp thì quay lại nhánh ký tự
+                int end = path.indexOf('/', i);
+                if (matches(segment, path, end < 0 ? len : end)) {
+                    return true;
+                }
+            }
+            node = node.child(c);
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.terminal != NONE;
+    }
+
+    // ===== Trie =====
+
+    private static final class Node {
+        private final char[] keys;
+        private final Node[] children;
+        private final byte terminal;
+
+        private Node(char[] keys, Node[] children, byte terminal) {
+            this.keys = keys;
+            this.children = children;
+            this.terminal = terminal;
+        }
+
+        private Node child(char c) {
+            int lo = 0;
+            int hi = keys.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char k = keys[mid];
+                if (k < c) {
+                    lo = mid + 1;
+                } else if (k > c) {
+                    hi = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class NodeBuilder {
+        private final TreeMap<Character, NodeBuilder> children = new TreeMap<>();
+        private byte terminal = NONE;
+
+        private void insert(String path, byte kind) {
+            NodeBuilder node = this;
+            for (int i = 0; i < path.length(); i++) {
+                char c = path.charAt(i);
+                if (c == '{') {
+                    int close = path.indexOf('}', i);
+                    if (path.charAt(i - 1) != '/' || close < 0
+                            || (close + 1 < path.length() && path.charAt(close + 1) != '/')) {
+                        throw new IllegalArgumentException("Path variable must be a whole segment: " + path);
+                    }
+                    c = SEGMENT;
+                    i = close;
+                }
+                node = node.children.computeIfAbsent(c, k -> new NodeBuilder());
+            }
+            // PREFIX bao trùm EXACT khi cùng một đường dẫn được khai báo hai lần
+            node.terminal = (byte) Math.max(node.terminal, kind);
+        }
+
+        private Node build() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, NodeBuilder> e : children.entrySet()) {
+                keys[i] = e.getKey();
+                nodes[i] = e.getValue().build();
+                i++;
+            }
+            return new Node(keys, nodes, terminal);
+        }
+    }
+}
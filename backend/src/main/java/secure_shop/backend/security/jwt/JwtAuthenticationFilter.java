@@ -14,11 +14,10 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import secure_shop.backend.config.security.CustomUserDetails;
 import secure_shop.backend.entities.User;
+import secure_shop.backend.security.PublicRouteTable;
 import secure_shop.backend.service.UserService;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -28,49 +27,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserService userService;
-
-    // Các endpoint thực sự public không cần xác thực (chủ yếu là auth endpoints)
-    private static final List<String> ALWAYS_PUBLIC_PATHS = List.of(
-            "/api/auth/login",
-            "/api/auth/register",
-            "/api/auth/refresh",
-            "/api/auth/verify-email",
-            "/api/auth/resend-verification",
-            "/api/auth/forgot-password",
-            "/api/auth/verify-token",
-            "/api/auth/reset-password",
-            "/oauth2/",
-            "/login/oauth2/",
-            "/error",
-            "/api/chat/ask"
-    );
-
-    // Các endpoint cho phép GET public nhưng POST/PUT/DELETE cần admin
-    private static final List<String> PUBLIC_READ_ONLY_PATHS = List.of(
-            "/api/articles",
-            "/api/brands",
-            "/api/categories",
-            "/api/inventories",
-            "/api/media/product/",
-            "/api/products",
-            "/api/reviews/product/",
-            "/api/discounts/active",
-            "/api/discounts/code/"
-    );
-
-    private boolean isPublicEndpoint(String path, String method) {
-        // Luôn public cho mọi method
-        if (ALWAYS_PUBLIC_PATHS.stream().anyMatch(path::startsWith)) {
-            return true;
-        }
-        
-        // Chỉ public cho GET method
-        if ("GET".equalsIgnoreCase(method)) {
-            return PUBLIC_READ_ONLY_PATHS.stream().anyMatch(path::startsWith);
-        }
-        
-        return false;
-    }
+    private final PublicRouteTable publicRoutes;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -83,13 +40,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        String path = request.getRequestURI();
-        String method = request.getMethod();
-        log.debug("Processing {} {}", method, path);
-
-        // Kiểm tra endpoint public dựa trên path VÀ method
-        if (isPublicEndpoint(path, method)) {
-            log.debug("Public endpoint - skipping JWT: {} {}", method, path);
+        // Kiểm tra endpoint public dựa trên path VÀ method (trie dựng sẵn lúc khởi động)
+        if (publicRoutes.isPublic(request.getMethod(), request.getRequestURI())) {
             chain.doFilter(request, response);
             return;
         }
@@ -34,12 +34,17 @@ public class JwtService {
     private final long accessExpSec;
     private final long refreshExpSec;
 
+    // JWTVerifier là immutable & thread-safe → dựng một lần, dùng lại cho mọi request
+    private final JWTVerifier verifier;
+    private final VerifiedTokenCache verifiedCache;
+
     public JwtService(
             @Value("${jwt.private-key-file}") Resource privateKeyRes,
             @Value("${jwt.public-key-file}") Resource publicKeyRes,
             @Value("${jwt.access-token-expire-seconds}") long accessExpSec,
             @Value("${jwt.refresh-token-expire-seconds}") long refreshExpSec,
-            @Value("${jwt.issuer}") String issuer
+            @Value("${jwt.issuer}") String issuer,
+            @Value("${jwt.verify-cache.max-entries:10000}") int verifyCacheMaxEntries
     ) throws Exception {
         this.privateKey = (RSAPrivateKey) readPrivateKey(privateKeyRes);
         this.publicKey = (RSAPublicKey) readPublicKey(publicKeyRes);
@@ -47,6 +52,10 @@ public class JwtService {
         this.issuer = issuer;
         this.accessExpSec = accessExpSec;
         this.refreshExpSec = refreshExpSec;
+        this.verifier = JWT.require(algorithm)
+                .withIssuer(issuer)
+                .build();
+        this.verifiedCache = new VerifiedTokenCache(verifyCacheMaxEntries);
     }
 
     //  Read Key
@@ -97,11 +106,20 @@ public class JwtService {
     }
 
 //    Validate / parse
+    /**
+     * Verify signature, issuer and expiry. A token that already passed verification is
+     * served from {@link VerifiedTokenCache} until its {@code exp}, so a burst of calls
+     * from the same session pays for the RSA check only once.
+     */
     public DecodedJWT verify(String token) {
-        JWTVerifier verifier = JWT.require(algorithm)
-                .withIssuer(issuer)
-                .build();
-        return verifier.verify(token);
+        String key = VerifiedTokenCache.hash(token);
+        DecodedJWT cached = verifiedCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        DecodedJWT decoded = verifier.verify(token);
+        verifiedCache.put(key, decoded);
+        return decoded;
     }
 
     public String getSubject(String token) {
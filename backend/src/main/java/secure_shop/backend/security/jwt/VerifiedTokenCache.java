@@ -0,0 +1,78 @@
+package secure_shop.backend.security.jwt;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import secure_shop.backend.utils.HashUtil;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded in-memory cache of tokens that already passed signature verification.
+ * Entries are keyed by the SHA-256 of the raw token (the token itself is never stored)
+ * and are only served until the token's own {@code exp}, so a cached hit can never
+ * outlive what {@link com.auth0.jwt.interfaces.JWTVerifier} would have accepted.
+ */
+class VerifiedTokenCache {
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    DecodedJWT get(String tokenHash) {
+        Entry entry = entries.get(tokenHash);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            entries.remove(tokenHash, entry);
+            return null;
+        }
+        return entry.jwt;
+    }
+
+    void put(String tokenHash, DecodedJWT jwt) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        Date expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            // Không cache token không có hạn dùng
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(tokenHash, new Entry(jwt, expiresAt.getTime()));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    static String hash(String token) {
+        return HashUtil.sha256(token);
+    }
+
+    /**
+     * Drop expired entries first; if the cache is still full, drop an arbitrary
+     * slice so a flood of distinct tokens cannot grow memory without bound.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(e -> e.expiresAtMillis <= now);
+
+        int excess = entries.size() - (maxEntries - maxEntries / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private record Entry(DecodedJWT jwt, long expiresAtMillis) {}
+}
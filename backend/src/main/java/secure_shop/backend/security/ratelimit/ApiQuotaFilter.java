@@ -0,0 +1,143 @@
+package secure_shop.backend.security.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import secure_shop.backend.enums.RateLimitAlgorithm;
+import secure_shop.backend.security.PublicRouteTable;
+import secure_shop.backend.security.jwt.JwtService;
+import secure_shop.backend.service.RateLimitingService;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Per-caller quota for public endpoints that can otherwise be scraped freely:
+ * the public GET catalog routes of {@link PublicRouteTable} and {@code /api/chat/ask}
+ * (which calls the paid Gemini API).
+ * <p>
+ * Callers are identified by JWT subject when a valid bearer token is present, otherwise
+ * by client IP; signed-in users get a higher tier. Rejections return 429 with Retry-After.
+ */
+@Slf4j
+@Component
+public class ApiQuotaFilter extends OncePerRequestFilter {
+
+    private static final String CHAT_PATH = "/api/chat/ask";
+    private static final String UPLOADS_PREFIX = "/uploads/";
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private enum QuotaGroup {
+        CATALOG(RateLimitAlgorithm.TOKEN_BUCKET),
+        CHAT(RateLimitAlgorithm.SLIDING_WINDOW);
+
+        private final RateLimitAlgorithm algorithm;
+
+        QuotaGroup(RateLimitAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+    }
+
+    private final RateLimitingService rateLimitingService;
+    private final JwtService jwtService;
+    private final PublicRouteTable publicRoutes;
+    private final ClientIpResolver clientIpResolver;
+
+    private final boolean enabled;
+    private final int catalogAnonymousPerMinute;
+    private final int catalogUserPerMinute;
+    private final int chatAnonymousPerMinute;
+    private final int chatUserPerMinute;
+
+    public ApiQuotaFilter(RateLimitingService rateLimitingService,
+                          JwtService jwtService,
+                          PublicRouteTable publicRoutes,
+                          ClientIpResolver clientIpResolver,
+                          @Value("${quota.enabled:true}") boolean enabled,
+                          @Value("${quota.catalog.anonymous-per-minute:120}") int catalogAnonymousPerMinute,
+                          @Value("${quota.catalog.user-per-minute:600}") int catalogUserPerMinute,
+                          @Value("${quota.chat.anonymous-per-minute:5}") int chatAnonymousPerMinute,
+                          @Value("${quota.chat.user-per-minute:20}") int chatUserPerMinute) {
+        this.rateLimitingService = rateLimitingService;
+        this.jwtService = jwtService;
+        this.publicRoutes = publicRoutes;
+        this.clientIpResolver = clientIpResolver;
+        this.enabled = enabled;
+        this.catalogAnonymousPerMinute = catalogAnonymousPerMinute;
+        this.catalogUserPerMinute = catalogUserPerMinute;
+        this.chatAnonymousPerMinute = chatAnonymousPerMinute;
+        this.chatUserPerMinute = chatUserPerMinute;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain)
+            throws ServletException, IOException {
+
+        QuotaGroup group = enabled ? classify(request.getMethod(), request.getRequestURI()) : null;
+        if (group == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String subject = resolveSubject(request);
+        boolean signedIn = subject != null;
+        String caller = signedIn ? "u:" + subject : "ip:" + clientIpResolver.resolve(request);
+        int limit = switch (group) {
+            case CATALOG -> signedIn ? catalogUserPerMinute : catalogAnonymousPerMinute;
+            case CHAT -> signedIn ? chatUserPerMinute : chatAnonymousPerMinute;
+        };
+
+        RateLimitingService.Decision decision = rateLimitingService.check(
+                "quota:" + group.name().toLowerCase() + ":" + caller, limit, WINDOW, group.algorithm);
+
+        response.setHeader("X-RateLimit-Limit", String.valueOf(limit));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(Math.max(0, decision.remaining())));
+
+        if (!decision.allowed()) {
+            log.debug("Quota exceeded for {} on {}", caller, group);
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+            response.setContentType("application/json");
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"error\": \"TOO_MANY_REQUESTS\", \"message\": \"Bạn gửi quá nhiều yêu cầu. Vui lòng thử lại sau.\"}");
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    private QuotaGroup classify(String method, String path) {
+        if (path == null || "OPTIONS".equals(method)) {
+            return null;
+        }
+        if (CHAT_PATH.equals(path)) {
+            return QuotaGroup.CHAT;
+        }
+        // Ảnh tĩnh không tính quota: một trang sản phẩm tải hàng chục ảnh
+        if ("GET".equals(method) && !path.startsWith(UPLOADS_PREFIX) && publicRoutes.isPublic(method, path)) {
+            return QuotaGroup.CATALOG;
+        }
+        return null;
+    }
+
+    /** JWT subject nếu request có bearer token hợp lệ, ngược lại null (tính theo IP) */
+    private String resolveSubject(HttpServletRequest request) {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            return jwtService.verify(authHeader.substring(7)).getSubject();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
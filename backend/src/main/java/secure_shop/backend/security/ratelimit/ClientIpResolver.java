@@ -0,0 +1,77 @@
+package secure_shop.backend.security.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * IP client dùng làm khóa rate limit / quota.
+ * <p>
+ * Mặc định là địa chỉ peer của kết nối TCP ({@code getRemoteAddr}). {@code X-Forwarded-For} chỉ
+ * được đọc khi peer nằm trong {@code security.trusted-proxies} (IP hoặc CIDR); khi đó lấy hop
+ * không tin cậy ngoài cùng bên phải, vì các hop bên trái do client tự ghi và có thể giả mạo.
+ */
+@Component
+public class ClientIpResolver {
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public ClientIpResolver(@Value("${security.trusted-proxies:}") List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String peer = request.getRemoteAddr();
+        if (!isTrusted(peer)) {
+            return peer;
+        }
+        String header = request.getHeader(FORWARDED_FOR);
+        if (header == null || header.isBlank()) {
+            return peer;
+        }
+        List<String> hops = Arrays.stream(header.split(",")).map(String::trim).toList();
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            String hop = hops.get(i);
+            if (!isIpLiteral(hop)) {
+                // Proxy tin cậy không ghi giá trị như vậy: phần bên trái không còn đáng tin
+                return peer;
+            }
+            if (!isTrusted(hop)) {
+                return hop;
+            }
+        }
+        // Mọi hop đều là proxy nội bộ
+        return hops.isEmpty() ? peer : hops.get(0);
+    }
+
+    private boolean isTrusted(String address) {
+        if (address == null || !isIpLiteral(address)) {
+            return false;
+        }
+        for (IpAddressMatcher matcher : trustedProxies) {
+            if (matcher.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Chỉ nhận IP dạng số để IpAddressMatcher không tra DNS */
+    private static boolean isIpLiteral(String value) {
+        if (value.length() > 45) {
+            return false;
+        }
+        return value.matches("\\d{1,3}(\\.\\d{1,3}){3}")
+                || (value.indexOf(':') >= 0 && value.matches("[0-9a-fA-F:.]+"));
+    }
+}
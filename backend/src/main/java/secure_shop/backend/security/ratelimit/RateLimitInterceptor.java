@@ -0,0 +1,49 @@
+package secure_shop.backend.security.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import secure_shop.backend.exception.TooManyRequestsException;
+import secure_shop.backend.service.RateLimitingService;
+
+import java.time.Duration;
+
+/**
+ * Enforces {@link RateLimited} on controller methods before the request body is read.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimitingService rateLimitingService;
+    private final ClientIpResolver clientIpResolver;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request,
+                             @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        RateLimited rateLimited = handlerMethod.getMethodAnnotation(RateLimited.class);
+        if (rateLimited == null) {
+            return true;
+        }
+
+        String key = "rate_limit:" + rateLimited.value() + ":" + clientIpResolver.resolve(request);
+        RateLimitingService.Decision decision = rateLimitingService.check(
+                key,
+                rateLimited.limit(),
+                Duration.ofSeconds(rateLimited.windowSeconds()),
+                rateLimited.algorithm());
+
+        if (!decision.allowed()) {
+            throw new TooManyRequestsException(rateLimited.message(), decision.retryAfterSeconds());
+        }
+        return true;
+    }
+}
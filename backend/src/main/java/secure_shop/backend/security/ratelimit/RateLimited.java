@@ -0,0 +1,32 @@
+package secure_shop.backend.security.ratelimit;
+
+import secure_shop.backend.enums.RateLimitAlgorithm;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Giới hạn tần suất gọi một endpoint theo IP client.
+ * Được áp dụng bởi {@link RateLimitInterceptor}; vượt giới hạn → 429 kèm header Retry-After.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    /** Tên hành động, dùng làm một phần của Redis key (vd. "login") */
+    String value();
+
+    /** Số request tối đa trong một cửa sổ (hoặc dung lượng bucket) */
+    int limit();
+
+    /** Độ dài cửa sổ (hoặc thời gian nạp đầy bucket), tính bằng giây */
+    long windowSeconds();
+
+    RateLimitAlgorithm algorithm() default RateLimitAlgorithm.SLIDING_WINDOW;
+
+    String message() default "Bạn đã thao tác quá nhiều lần. Vui lòng thử lại sau.";
+}
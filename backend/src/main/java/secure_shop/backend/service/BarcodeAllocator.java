@@ -0,0 +1,139 @@
+package secure_shop.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import secure_shop.backend.entities.BarcodeSequence;
+import secure_shop.backend.repositories.BarcodeRepository;
+import secure_shop.backend.repositories.BarcodeSequenceRepository;
+import secure_shop.backend.utils.Ean13;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cấp mã EAN-13 {@code <GS1 company prefix><item reference><check digit>} từ bộ đếm trong DB.
+ * <p>
+ * Mỗi instance đặt trước một khoảng item reference ({@code barcode.allocator.block-size}) trong
+ * một transaction riêng có khóa dòng, rồi cấp mã từ khoảng đó trong bộ nhớ. Hai instance không
+ * bao giờ nhận cùng một khoảng nên mã không trùng mà không cần {@code existsByBarcode}. Khoảng
+ * chưa dùng hết khi restart bị bỏ qua (tạo khe hở, không tạo trùng).
+ */
+@Component
+@Slf4j
+public class BarcodeAllocator {
+
+    private final BarcodeSequenceRepository sequenceRepository;
+    private final BarcodeRepository barcodeRepository;
+    private final TransactionTemplate reserveTx;
+
+    private final String prefix;
+    private final long prefixBase;
+    private final long capacity;
+    private final int blockSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long end;
+
+    public BarcodeAllocator(BarcodeSequenceRepository sequenceRepository,
+                            BarcodeRepository barcodeRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${barcode.gs1-prefix:8930000}") String prefix,
+                            @Value("${barcode.allocator.block-size:100}") int blockSize) {
+        if (!prefix.matches("\\d{6,11}")) {
+            throw new IllegalArgumentException("barcode.gs1-prefix must be 6-11 digits: " + prefix);
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("barcode.allocator.block-size must be positive");
+        }
+        this.sequenceRepository = sequenceRepository;
+        this.barcodeRepository = barcodeRepository;
+        this.reserveTx = new TransactionTemplate(transactionManager);
+        // Khoảng đã đặt không trả lại khi transaction của caller rollback
+        this.reserveTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.prefix = prefix;
+        this.capacity = pow10(12 - prefix.length());
+        this.prefixBase = Long.parseLong(prefix) * capacity;
+        this.blockSize = blockSize;
+    }
+
+    public String allocate() {
+        return allocate(1).get(0);
+    }
+
+    /** {@code count} mã EAN-13 chưa từng được cấp, theo thứ tự tăng dần */
+    public List<String> allocate(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        List<String> codes = new ArrayList<>(count);
+        lock.lock();
+        try {
+            while (codes.size() < count) {
+                if (next >= end) {
+                    reserve(Math.max(blockSize, count - codes.size()));
+                }
+                long limit = Math.min(end, next + (count - codes.size()));
+                for (; next < limit; next++) {
+                    codes.add(Ean13.of(prefixBase + next));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return codes;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    private void reserve(int size) {
+        long start;
+        try {
+            start = reserveTx.execute(status -> reserveInTx(size));
+        } catch (DataIntegrityViolationException e) {
+            // Instance khác vừa tạo dòng bộ đếm cho prefix này: đọc lại có khóa
+            start = reserveTx.execute(status -> reserveInTx(size));
+        }
+        next = start;
+        end = start + size;
+        log.debug("Reserved barcode item references [{}, {}) under prefix {}", next, end, prefix);
+    }
+
+    private long reserveInTx(int size) {
+        BarcodeSequence sequence = sequenceRepository.findForUpdate(prefix)
+                .orElseGet(() -> sequenceRepository.saveAndFlush(
+                        BarcodeSequence.builder().prefix(prefix).nextValue(initialValue()).build()));
+        long start = sequence.getNextValue();
+        if (start + size > capacity) {
+            throw new IllegalStateException("GS1 prefix " + prefix + " has no item references left ("
+                    + (capacity - start) + " remaining, " + size + " requested)");
+        }
+        sequence.setNextValue(start + size);
+        return start;
+    }
+
+    /** Bắt đầu sau mã lớn nhất đã tồn tại dưới prefix (mã tạo bằng cách cũ hoặc nhập tay) */
+    private long initialValue() {
+        String max = barcodeRepository.findMaxEan13WithPrefix(prefix);
+        if (max == null || !max.chars().allMatch(Character::isDigit)) {
+            return 0;
+        }
+        return Long.parseLong(max.substring(prefix.length(), 12)) + 1;
+    }
+
+    private static long pow10(int exp) {
+        long v = 1;
+        for (int i = 0; i < exp; i++) {
+            v *= 10;
+        }
+        return v;
+    }
+}
@@ -0,0 +1,336 @@
+package secure_shop.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import secure_shop.backend.dto.barcode.BarcodeIndexRow;
+import secure_shop.backend.dto.barcode.BarcodeResponseDTO;
+import secure_shop.backend.dto.barcode.StockLevelRow;
+import secure_shop.backend.dto.product.BrandDTO;
+import secure_shop.backend.dto.product.CategorySummaryDTO;
+import secure_shop.backend.dto.product.ProductSummaryDTO;
+import secure_shop.backend.mapper.ProductMapper;
+import secure_shop.backend.repositories.BarcodeRepository;
+import secure_shop.backend.repositories.InventoryRepository;
+import secure_shop.backend.service.event.BarcodeChangedEvent;
+import secure_shop.backend.service.event.InventoryChangedEvent;
+import secure_shop.backend.service.event.ProductChangedEvent;
+import secure_shop.backend.utils.ImageSrcset;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index trong bộ nhớ barcode → thông tin hiển thị sản phẩm cho máy quét POS.
+ * <p>
+ * Thông tin sản phẩm (tên, giá, ảnh, brand, category) được chụp một lần cho mỗi sản phẩm và dùng
+ * chung cho mọi barcode của nó; tồn kho nằm ở một map riêng theo sản phẩm và được ghép vào lúc
+ * tra cứu, nên quét mã chỉ là hai lần tra hash map. Index được nạp khi khởi động bằng một query
+ * projection, cập nhật sau commit theo event barcode/sản phẩm/tồn kho, làm mới tồn kho định kỳ
+ * (thay đổi từ instance khác) và dựng lại toàn bộ theo lịch.
+ */
+@Component
+@Slf4j
+public class BarcodeLookupIndex {
+
+    private record Entry(Long barcodeId, String barcode, String serialNumber, Instant createdAt, UUID productId) {}
+
+    private record ProductSnapshot(UUID id, String sku, String name, BigDecimal listedPrice, BigDecimal price,
+                                   String thumbnailUrl, String thumbnailSrcset, CategorySummaryDTO category,
+                                   BrandDTO brand, Double rating, Integer reviewCount) {}
+
+    private record Stock(Long inventoryId, int onHand, int reserved) {}
+
+    private record State(Map<String, Entry> byBarcode,
+                         Map<UUID, ProductSnapshot> products,
+                         Map<UUID, Stock> stock,
+                         Map<Long, UUID> productByInventory) {
+        static State empty() {
+            return new State(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(),
+                    new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    private final BarcodeRepository barcodeRepository;
+    private final InventoryRepository inventoryRepository;
+    private final boolean enabled;
+
+    private volatile State state = State.empty();
+    private volatile boolean ready;
+
+    /**
+     * Cập nhật lẻ giữ read lock; lần dựng lại giữ write lock khi tráo state, rồi chạy lại các cập
+     * nhật đã áp vào state cũ trong lúc nó đọc DB để không mất thay đổi.
+     */
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private List<Runnable> replay;
+
+    public BarcodeLookupIndex(BarcodeRepository barcodeRepository,
+                              InventoryRepository inventoryRepository,
+                              @Value("${barcode.index.enabled:true}") boolean enabled) {
+        this.barcodeRepository = barcodeRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.enabled = enabled;
+    }
+
+    /** Kết quả quét từ index; empty nếu index chưa sẵn sàng hoặc không có mã (caller tra DB) */
+    public Optional<BarcodeResponseDTO> lookup(String barcode) {
+        if (!ready || barcode == null) {
+            return Optional.empty();
+        }
+        State s = state;
+        Entry entry = s.byBarcode().get(barcode);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        ProductSnapshot product = s.products().get(entry.productId());
+        if (product == null) {
+            return Optional.empty();
+        }
+        return Optional.of(BarcodeResponseDTO.builder()
+                .id(entry.barcodeId())
+                .barcode(entry.barcode())
+                .serialNumber(entry.serialNumber())
+                .createdAt(entry.createdAt())
+                .product(toSummary(product, s.stock().get(product.id())))
+                .build());
+    }
+
+    public int size() {
+        return state.byBarcode().size();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ===== Nạp / dựng lại =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Quét mã vẫn chạy qua DB cho tới lần dựng lại sau
+            log.warn("Cannot warm barcode index: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${barcode.index.rebuild-cron:0 */10 * * * *}")
+    public void scheduledRebuild() {
+        if (enabled && ready) {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.warn("Barcode index rebuild failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /** Tồn kho đổi trên instance khác không có event ở đây: đọc lại toàn bộ tồn kho (một query nhẹ) */
+    @Scheduled(fixedDelayString = "${barcode.index.stock-refresh-ms:15000}",
+            initialDelayString = "${barcode.index.stock-refresh-ms:15000}")
+    public void refreshStock() {
+        if (!enabled || !ready) {
+            return;
+        }
+        try {
+            List<StockLevelRow> levels = inventoryRepository.findStockLevels();
+            // Không đưa vào replay: số liệu này có thể cũ hơn event đến sau; lần làm mới kế tiếp sẽ bù
+            swapLock.readLock().lock();
+            try {
+                State s = state;
+                for (StockLevelRow row : levels) {
+                    putStock(s, row);
+                }
+            } finally {
+                swapLock.readLock().unlock();
+            }
+        } catch (Exception e) {
+            log.warn("Barcode index stock refresh failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void rebuild() {
+        swapLock.writeLock().lock();
+        try {
+            replay = Collections.synchronizedList(new ArrayList<>());
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        long started = System.nanoTime();
+        State next = State.empty();
+        boolean loaded = false;
+        List<Runnable> missed;
+        try {
+            for (BarcodeIndexRow row : barcodeRepository.findIndexRows()) {
+                put(next, row);
+            }
+            loaded = true;
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                if (loaded) {
+                    state = next;
+                }
+                missed = replay;
+                replay = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+        // Cập nhật lẻ xảy ra trong lúc đọc DB: đọc lại từ DB và áp lên state mới
+        missed.forEach(update -> {
+            try {
+                update.run();
+            } catch (Exception e) {
+                log.warn("Cannot replay barcode index update: {}", e.getMessage());
+            }
+        });
+        ready = true;
+        log.info("Barcode index loaded {} barcodes for {} products in {} ms",
+                next.byBarcode().size(), next.products().size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // ===== Cập nhật sau commit =====
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBarcodeChanged(BarcodeChangedEvent event) {
+        for (String barcode : event.barcodes()) {
+            safely(() -> reloadBarcode(barcode), "barcode " + barcode);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        safely(() -> reloadProduct(event.productId()), "product " + event.productId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        safely(() -> reloadStock(event.inventoryId()), "inventory " + event.inventoryId());
+    }
+
+    private void safely(Runnable update, String what) {
+        if (!enabled || !ready) {
+            return;
+        }
+        try {
+            update(update);
+        } catch (Exception e) {
+            // Lần làm mới/dựng lại định kỳ sẽ sửa
+            log.warn("Cannot update barcode index for {}: {}", what, e.getMessage());
+        }
+    }
+
+    private void update(Runnable update) {
+        swapLock.readLock().lock();
+        try {
+            update.run();
+            if (replay != null) {
+                replay.add(update);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void reloadBarcode(String barcode) {
+        State s = state;
+        Optional<BarcodeIndexRow> row = barcodeRepository.findIndexRowByBarcode(barcode);
+        if (row.isPresent()) {
+            put(s, row.get());
+        } else {
+            s.byBarcode().remove(barcode);
+        }
+    }
+
+    private void reloadProduct(UUID productId) {
+        State s = state;
+        List<BarcodeIndexRow> rows = barcodeRepository.findIndexRowsByProductId(productId);
+        // Mã đã gỡ khỏi sản phẩm hoặc sản phẩm đã xóa mềm
+        s.byBarcode().values().removeIf(e -> e.productId().equals(productId));
+        if (rows.isEmpty()) {
+            s.products().remove(productId);
+            Stock old = s.stock().remove(productId);
+            if (old != null && old.inventoryId() != null) {
+                s.productByInventory().remove(old.inventoryId());
+            }
+            return;
+        }
+        for (BarcodeIndexRow row : rows) {
+            put(s, row);
+        }
+    }
+
+    private void reloadStock(Long inventoryId) {
+        State s = state;
+        UUID productId = s.productByInventory().get(inventoryId);
+        if (productId == null) {
+            // Sản phẩm không có barcode: không cần theo dõi tồn kho
+            return;
+        }
+        inventoryRepository.findStockLevel(inventoryId).ifPresent(row -> putStock(s, row));
+    }
+
+    // ===== Internals =====
+
+    private static void put(State s, BarcodeIndexRow row) {
+        s.products().put(row.productId(), new ProductSnapshot(row.productId(), row.sku(), row.name(),
+                row.listedPrice(), row.price(),
+                ImageSrcset.pick(row.thumbnailSrcset(), ProductMapper.GRID_IMAGE_WIDTH, row.thumbnailUrl()),
+                row.thumbnailSrcset(),
+                row.category() != null && row.category().getId() != null ? row.category() : null,
+                row.brand() != null && row.brand().getId() != null ? row.brand() : null,
+                row.rating(), row.reviewCount()));
+        if (row.inventoryId() != null) {
+            putStock(s, new StockLevelRow(row.inventoryId(), row.productId(), row.onHand(), row.reserved()));
+        }
+        s.byBarcode().put(row.barcode(), new Entry(row.barcodeId(), row.barcode(), row.serialNumber(),
+                row.createdAt(), row.productId()));
+    }
+
+    private static void putStock(State s, StockLevelRow row) {
+        if (!s.products().containsKey(row.productId())) {
+            return;
+        }
+        s.stock().put(row.productId(), new Stock(row.inventoryId(),
+                row.onHand() != null ? row.onHand() : 0, row.reserved() != null ? row.reserved() : 0));
+        s.productByInventory().put(row.inventoryId(), row.productId());
+    }
+
+    private static ProductSummaryDTO toSummary(ProductSnapshot p, Stock stock) {
+        int available = stock != null ? stock.onHand() - stock.reserved() : 0;
+        return ProductSummaryDTO.builder()
+                .id(p.id())
+                .sku(p.sku())
+                .name(p.name())
+                .listedPrice(p.listedPrice())
+                .price(p.price())
+                .thumbnailUrl(p.thumbnailUrl())
+                .thumbnailSrcset(p.thumbnailSrcset())
+                .category(p.category())
+                .brand(p.brand())
+                .availableStock(available)
+                .inStock(available > 0)
+                .rating(p.rating())
+                .reviewCount(p.reviewCount())
+                .build();
+    }
+}
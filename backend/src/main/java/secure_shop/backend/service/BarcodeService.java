@@ -11,6 +11,9 @@ public interface BarcodeService {
     BarcodeResponseDTO getByBarcode(String barcode);
     List<BarcodeResponseDTO> getAllBarcodes();
     List<BarcodeResponseDTO> getByProductId(UUID productId);
+    /** Cấp mã EAN-13 mới từ bộ đếm GS1; {@code sku} không còn tham gia vào mã */
     BarcodeResponseDTO autoGenerateForProduct(UUID productId, String sku);
+    /** Mỗi sản phẩm một mã, cấp cả lô trong một lần đặt khoảng (dùng khi nhập hàng loạt) */
+    List<BarcodeResponseDTO> autoGenerateForProducts(List<UUID> productIds);
     void deleteBarcode(Long id);
 }
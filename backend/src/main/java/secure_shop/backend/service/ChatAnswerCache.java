@@ -0,0 +1,242 @@
+package secure_shop.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import secure_shop.backend.utils.VietnameseTextUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache câu trả lời Gemini cho các câu hỏi lặp lại của chatbot.
+ * <p>
+ * Câu hỏi được chuẩn hóa (chữ thường, bỏ dấu tiếng Việt, bỏ dấu câu và từ đệm) rồi tra trùng
+ * khớp chính xác; nếu không có, so sánh độ tương đồng Jaccard trên shingle 3 ký tự với các mục
+ * còn hạn, chỉ giữa các câu có cùng số và đơn vị (giá, dung lượng... khác nhau là câu hỏi khác
+ * nhau dù chỉ lệch một ký tự). Toàn bộ cache bị xóa khi ngữ cảnh sản phẩm gửi cho Gemini thay
+ * đổi, vì câu trả lời cũ có thể nhắc tới sản phẩm/giá không còn đúng.
+ */
+@Component
+@Slf4j
+public class ChatAnswerCache {
+
+    private static final int SHINGLE = 3;
+
+    /**
+     * Từ đệm/lịch sự không đổi nghĩa câu hỏi (đã bỏ dấu). Không đưa vào các từ trùng với từ có
+     * nghĩa sau khi bỏ dấu (ví dụ "ban" = bạn/bán).
+     */
+    private static final Set<String> FILLER_WORDS = Set.of(
+            "a", "ah", "oi", "nhe", "nha", "nhi", "vay", "shop", "minh", "em", "cho", "hoi", "xin", "giup", "voi");
+
+    /** Đơn vị đi kèm số (đã bỏ dấu): "2 triệu" và "2 trăm" không phải cùng một câu hỏi */
+    private static final Set<String> MAGNITUDE_WORDS = Set.of(
+            "k", "tr", "trieu", "nghin", "ngan", "tram", "ty", "gb", "tb", "mp", "inch");
+
+    public record Stats(long hits, long similarHits, long misses, int size) {}
+
+    private record Entry(String answer, String numbers, int[] shingles, long expiresAt) {}
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final double similarityThreshold;
+    private final int maxEntries;
+    private final int maxQuestionLength;
+    private final Clock clock;
+
+    /** Thứ tự truy cập để loại mục ít dùng nhất khi đầy */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long contextHash;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong similarHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ChatAnswerCache(@Value("${chat.cache.enabled:true}") boolean enabled,
+                           @Value("${chat.cache.ttl-minutes:60}") long ttlMinutes,
+                           @Value("${chat.cache.similarity-threshold:0.8}") double similarityThreshold,
+                           @Value("${chat.cache.max-entries:500}") int maxEntries,
+                           @Value("${chat.cache.max-question-length:200}") int maxQuestionLength) {
+        this(enabled, Duration.ofMinutes(ttlMinutes), similarityThreshold, maxEntries, maxQuestionLength,
+                Clock.systemUTC());
+    }
+
+    ChatAnswerCache(boolean enabled, Duration ttl, double similarityThreshold, int maxEntries,
+                    int maxQuestionLength, Clock clock) {
+        this.enabled = enabled;
+        this.ttlMillis = ttl.toMillis();
+        this.similarityThreshold = similarityThreshold;
+        this.maxEntries = maxEntries;
+        this.maxQuestionLength = maxQuestionLength;
+        this.clock = clock;
+    }
+
+    /**
+     * @param context ngữ cảnh (system prompt) mà câu trả lời phụ thuộc vào
+     * @return câu trả lời đã cache cho câu hỏi giống/tương tự, hoặc null
+     */
+    public String get(String question, String context) {
+        String key = cacheableKey(question);
+        if (key == null) {
+            return null;
+        }
+        long now = clock.millis();
+        synchronized (this) {
+            checkContext(context);
+            Entry exact = entries.get(key);
+            if (exact != null && exact.expiresAt() > now) {
+                hits.incrementAndGet();
+                return exact.answer();
+            }
+
+            String numbers = numbers(key);
+            int[] shingles = shingles(key);
+            Entry best = null;
+            double bestScore = similarityThreshold;
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                Entry e = it.next();
+                if (e.expiresAt() <= now) {
+                    it.remove();
+                    continue;
+                }
+                if (!numbers.equals(e.numbers())) {
+                    continue;
+                }
+                double score = jaccard(shingles, e.shingles());
+                if (score >= bestScore) {
+                    best = e;
+                    bestScore = score;
+                }
+            }
+            if (best != null) {
+                similarHits.incrementAndGet();
+                return best.answer();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String question, String context, String answer) {
+        String key = cacheableKey(question);
+        if (key == null || answer == null || answer.isBlank()) {
+            return;
+        }
+        Entry entry = new Entry(answer, numbers(key), shingles(key), clock.millis() + ttlMillis);
+        synchronized (this) {
+            checkContext(context);
+            entries.put(key, entry);
+            while (entries.size() > maxEntries) {
+                Iterator<String> eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public Stats getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new Stats(hits.get(), similarHits.get(), misses.get(), size);
+    }
+
+    // ===== Internals =====
+
+    private String cacheableKey(String question) {
+        if (!enabled || question == null) {
+            return null;
+        }
+        String key = normalize(question);
+        return key.isEmpty() || key.length() > maxQuestionLength ? null : key;
+    }
+
+    private void checkContext(String context) {
+        long hash = context == null ? 0 : context.hashCode() * 31L + context.length();
+        if (hash != contextHash) {
+            if (!entries.isEmpty()) {
+                log.info("Chat context changed, dropping {} cached answers", entries.size());
+            }
+            entries.clear();
+            contextHash = hash;
+        }
+    }
+
+    /** Chữ thường, bỏ dấu (kể cả đ), bỏ dấu câu và từ đệm */
+    static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (String word : VietnameseTextUtils.words(text)) {
+            if (FILLER_WORDS.contains(word)) {
+                continue;
+            }
+            if (!sb.isEmpty()) {
+                sb.append(' ');
+            }
+            sb.append(word);
+        }
+        return sb.toString();
+    }
+
+    /** Các từ chứa chữ số và đơn vị, theo thứ tự xuất hiện */
+    static String numbers(String key) {
+        StringBuilder sb = new StringBuilder();
+        for (String word : key.split(" ")) {
+            if (MAGNITUDE_WORDS.contains(word) || word.chars().anyMatch(Character::isDigit)) {
+                if (!sb.isEmpty()) {
+                    sb.append(' ');
+                }
+                sb.append(word);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Hash của các shingle 3 ký tự, đã sắp xếp và loại trùng */
+    static int[] shingles(String key) {
+        String padded = " " + key + " ";
+        if (padded.length() < SHINGLE) {
+            return new int[]{padded.hashCode()};
+        }
+        int[] hashes = new int[padded.length() - SHINGLE + 1];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = padded.substring(i, i + SHINGLE).hashCode();
+        }
+        Arrays.sort(hashes);
+        int n = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (i == 0 || hashes[i] != hashes[i - 1]) {
+                hashes[n++] = hashes[i];
+            }
+        }
+        return Arrays.copyOf(hashes, n);
+    }
+
+    static double jaccard(int[] a, int[] b) {
+        int i = 0, j = 0, common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - common;
+        return union == 0 ? 0 : (double) common / union;
+    }
+}
@@ -3,6 +3,27 @@ package secure_shop.backend.service;
 import secure_shop.backend.dto.chat.ChatRequest;
 import secure_shop.backend.dto.chat.ChatResponse;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface ChatService {
     ChatResponse chat(ChatRequest request);
+
+    /** Không giữ thread gọi trong lúc chờ Gemini; luôn hoàn tất (fallback heuristic khi lỗi). */
+    CompletableFuture<ChatResponse> chatAsync(ChatRequest request);
+
+    /**
+     * Trả lời dạng stream: gợi ý sản phẩm được gửi trước, sau đó từng đoạn câu trả lời.
+     * Future hoàn tất sau {@link StreamListener#onComplete(String)}.
+     */
+    CompletableFuture<Void> chatStream(ChatRequest request, StreamListener listener);
+
+    interface StreamListener {
+        void onSuggestions(List<ChatResponse.ProductSuggestion> suggestions);
+
+        void onToken(String text);
+
+        /** @param source "gemini", "gemini-partial" (stream bị ngắt giữa chừng), "cache" hoặc "heuristic" */
+        void onComplete(String source);
+    }
 }
@@ -1,6 +1,7 @@
 package secure_shop.backend.service;
 
 import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import java.io.IOException;
 import secure_shop.backend.entities.Order;
 
@@ -10,4 +11,13 @@ public interface EmailService {
     void sendOrderConfirmationEmail(Order order) throws MessagingException, IOException;
 
     void sendThankYouEmail(Order order) throws MessagingException, IOException;
+
+    /** Render without sending, so callers can send several messages over one SMTP connection. */
+    MimeMessage buildOrderConfirmationEmail(Order order) throws MessagingException;
+
+    MimeMessage buildThankYouEmail(Order order) throws MessagingException;
+
+    MimeMessage buildVerificationEmail(String to, String verificationLink) throws MessagingException;
+
+    MimeMessage buildResetPasswordEmail(String to, String resetLink) throws MessagingException;
 }
\ No newline at end of file
@@ -1,100 +1,292 @@
 package secure_shop.backend.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import secure_shop.backend.dto.chat.GeminiGenerateRequest;
+import secure_shop.backend.dto.chat.GeminiGenerateResponse;
+import secure_shop.backend.utils.CircuitBreaker;
 
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
- * Direct REST client for Google Gemini API
- * Free tier: 1500 requests/day with gemini-pro model
+ * Non-blocking client for the Google Gemini {@code generateContent} API.
+ * <p>
+ * Uses the shared pooled {@link HttpClient} from {@code ChatConfig} (connect timeout) with a
+ * per-request deadline, caps concurrent calls, and trips a {@link CircuitBreaker} after repeated
+ * timeouts/5xx/429 so callers fall back immediately instead of waiting on a failing upstream.
+ * Every failure completes the future with {@code null}; callers decide the fallback.
  */
 @Service
 @Slf4j
 public class GeminiRestClient {
 
-    @Value("${gemini.api.key:}")
-    private String apiKey;
+    private static final String API_KEY_HEADER = "x-goog-api-key";
+    private static final int MAX_OUTPUT_TOKENS = 1000;
 
-    @Value("${gemini.api.model:gemini-pro}")
-    private String model;
+    /** Kết quả stream: UNAVAILABLE nghĩa là chưa có chunk nào, caller có thể fallback trọn vẹn */
+    public enum StreamResult { COMPLETED, INTERRUPTED, UNAVAILABLE }
 
-    @Value("${gemini.api.temperature:0.2}")
-    private double temperature;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String apiKey;
+    private final String model;
+    private final double temperature;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final Duration streamTimeout;
+    private final Semaphore permits;
+    private final CircuitBreaker circuitBreaker;
 
-    private final RestTemplate restTemplate = new RestTemplate();
-
-    private static final String GEMINI_API_URL = "https://generativelanguage.googleapis.com/v1/models/%s:generateContent?key=%s";
+    public GeminiRestClient(@Qualifier("geminiHttpClient") HttpClient httpClient,
+                            ObjectMapper objectMapper,
+                            @Value("${gemini.api.key:}") String apiKey,
+                            @Value("${gemini.api.model:gemini-pro}") String model,
+                            @Value("${gemini.api.temperature:0.2}") double temperature,
+                            @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com/v1}") String baseUrl,
+                            @Value("${gemini.api.request-timeout-ms:15000}") long requestTimeoutMs,
+                            @Value("${gemini.api.stream-timeout-ms:60000}") long streamTimeoutMs,
+                            @Value("${gemini.api.max-concurrent:20}") int maxConcurrent,
+                            @Value("${gemini.api.breaker.failure-threshold:5}") int failureThreshold,
+                            @Value("${gemini.api.breaker.open-seconds:30}") long openSeconds) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.apiKey = apiKey;
+        this.model = model;
+        this.temperature = temperature;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.streamTimeout = Duration.ofMillis(streamTimeoutMs);
+        this.permits = new Semaphore(maxConcurrent);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofSeconds(openSeconds));
+    }
 
     /**
-     * Generate AI response from Gemini
-     * 
+     * Generate AI response from Gemini without blocking the calling thread.
+     *
      * @param systemPrompt System context/instructions
      * @param userMessage  User's message
-     * @return AI generated response
+     * @return future of the generated text, or of {@code null} if unavailable/failed
      */
-    public String generate(String systemPrompt, String userMessage) {
-        if (apiKey == null || apiKey.isBlank()) {
+    public CompletableFuture<String> generateAsync(String systemPrompt, String userMessage) {
+        if (!isAvailable()) {
             log.warn("Gemini API key not configured");
-            return null;
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpRequest request = buildRequest("generateContent", systemPrompt, userMessage, requestTimeout);
+        if (request == null || !acquire()) {
+            return CompletableFuture.completedFuture(null);
         }
 
-        try {
-            String url = String.format(GEMINI_API_URL, model, apiKey);
+        log.debug("Calling Gemini API with model: {}", model);
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, ex) -> {
+                    permits.release();
+                    return handleResponse(response, ex);
+                });
+    }
 
-            // Build request body for Gemini API
-            // Combine system prompt and user message into single content
-            String combinedPrompt = systemPrompt + "\n\nUser: " + userMessage;
+    /**
+     * Stream the answer through {@code streamGenerateContent} (SSE), handing each text chunk to
+     * {@code onChunk} as soon as it arrives, on an HTTP client thread. The whole stream is bounded
+     * by {@code gemini.api.stream-timeout-ms}; the request timeout bounds the wait for headers.
+     */
+    public CompletableFuture<StreamResult> streamAsync(String systemPrompt, String userMessage,
+                                                       Consumer<String> onChunk) {
+        if (!isAvailable()) {
+            return CompletableFuture.completedFuture(StreamResult.UNAVAILABLE);
+        }
+        HttpRequest request = buildRequest("streamGenerateContent?alt=sse", systemPrompt, userMessage, requestTimeout);
+        if (request == null || !acquire()) {
+            return CompletableFuture.completedFuture(StreamResult.UNAVAILABLE);
+        }
 
-            Map<String, Object> requestBody = Map.of(
-                    "contents", List.of(
-                            Map.of(
-                                    "parts", List.of(
-                                            Map.of("text", combinedPrompt)))),
-                    "generationConfig", Map.of(
-                            "temperature", temperature,
-                            "maxOutputTokens", 1000));
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-            log.info("Calling Gemini API with model: {}", model);
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, request, Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                // Parse Gemini response
-                Map<String, Object> body = response.getBody();
-                List<Map<String, Object>> candidates = (List<Map<String, Object>>) body.get("candidates");
-
-                if (candidates != null && !candidates.isEmpty()) {
-                    Map<String, Object> candidate = candidates.get(0);
-                    Map<String, Object> content = (Map<String, Object>) candidate.get("content");
-                    List<Map<String, Object>> parts = (List<Map<String, Object>>) content.get("parts");
-
-                    if (parts != null && !parts.isEmpty()) {
-                        String text = (String) parts.get(0).get("text");
-                        log.info("Gemini API response received successfully");
-                        return text;
+        SseChunkSubscriber subscriber = new SseChunkSubscriber(onChunk);
+        log.debug("Streaming Gemini API with model: {}", model);
+        CompletableFuture<HttpResponse<Void>> exchange = httpClient.sendAsync(request, info -> info.statusCode() == 200
+                ? HttpResponse.BodySubscribers.fromLineSubscriber(subscriber)
+                : HttpResponse.BodySubscribers.replacing(null));
+        subscriber.exchange = exchange;
+        return exchange
+                .orTimeout(streamTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((response, ex) -> {
+                    permits.release();
+                    if (subscriber.consumerStopped) {
+                        // Phía nhận dừng trước: Gemini không có lỗi
+                        circuitBreaker.onSuccess();
+                        return StreamResult.INTERRUPTED;
                     }
-                }
-            }
+                    if (subscriber.error != null) {
+                        log.warn("Cannot parse Gemini stream chunk: {}", subscriber.error.toString());
+                        circuitBreaker.onFailure();
+                    } else if (recordOutcome(ex, response != null ? response.statusCode() : 0)
+                            && response.statusCode() == 200) {
+                        return subscriber.received ? StreamResult.COMPLETED : StreamResult.UNAVAILABLE;
+                    }
+                    if (ex != null) {
+                        exchange.cancel(true);
+                    }
+                    return subscriber.received ? StreamResult.INTERRUPTED : StreamResult.UNAVAILABLE;
+                });
+    }
 
-            log.warn("Unexpected Gemini API response format");
+    /** Blocking variant, bounded by the request timeout. */
+    public String generate(String systemPrompt, String userMessage) {
+        return generateAsync(systemPrompt, userMessage).join();
+    }
+
+    public boolean isAvailable() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private String handleResponse(HttpResponse<byte[]> response, Throwable ex) {
+        if (!recordOutcome(ex, response != null ? response.statusCode() : 0) || response.statusCode() != 200) {
+            return null;
+        }
+
+        try {
+            String text = objectMapper.readValue(response.body(), GeminiGenerateResponse.class).firstText();
+            if (text == null) {
+                log.warn("Unexpected Gemini API response format");
+            }
+            return text;
+        } catch (IOException e) {
+            log.warn("Cannot parse Gemini API response", e);
             return null;
+        }
+    }
 
+    private HttpRequest buildRequest(String method, String systemPrompt, String userMessage, Duration timeout) {
+        try {
+            // Combine system prompt and user message into single content
+            String combinedPrompt = systemPrompt + "\n\nUser: " + userMessage;
+            byte[] body = objectMapper.writeValueAsBytes(
+                    GeminiGenerateRequest.ofText(combinedPrompt, temperature, MAX_OUTPUT_TOKENS));
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/models/" + model + ":" + method))
+                    .timeout(timeout)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .header(API_KEY_HEADER, apiKey)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
         } catch (Exception ex) {
-            log.error("Gemini API call failed", ex);
+            log.error("Cannot build Gemini request", ex);
             return null;
         }
     }
 
-    public boolean isAvailable() {
-        return apiKey != null && !apiKey.isBlank();
+    /** Giữ một suất gọi (giới hạn đồng thời + circuit breaker); trả false nếu không được gọi */
+    private boolean acquire() {
+        if (!permits.tryAcquire()) {
+            log.warn("Too many concurrent Gemini calls, skipping call");
+            return false;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            permits.release();
+            log.debug("Gemini circuit open, skipping call");
+            return false;
+        }
+        return true;
+    }
+
+    /** Cập nhật circuit breaker theo kết quả gọi; trả true nếu Gemini đã trả lời (kể cả 4xx) */
+    private boolean recordOutcome(Throwable ex, int status) {
+        if (ex != null) {
+            circuitBreaker.onFailure();
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            log.warn("Gemini API call failed: {}", cause.toString());
+            return false;
+        }
+        if (status == 429 || status >= 500) {
+            circuitBreaker.onFailure();
+            log.warn("Gemini API returned HTTP {}", status);
+            return false;
+        }
+        // Lỗi 4xx khác là lỗi request/cấu hình, không phải Gemini đang quá tải
+        circuitBreaker.onSuccess();
+        if (status != 200) {
+            log.error("Gemini API returned HTTP {}", status);
+        }
+        return true;
+    }
+
+    /** Đọc từng dòng {@code data: {...}} của SSE và chuyển text cho consumer. */
+    private final class SseChunkSubscriber implements Flow.Subscriber<String> {
+
+        private final Consumer<String> onChunk;
+        private volatile CompletableFuture<?> exchange;
+        private volatile boolean received;
+        private volatile boolean consumerStopped;
+        private volatile Exception error;
+
+        SseChunkSubscriber(Consumer<String> onChunk) {
+            this.onChunk = onChunk;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!line.startsWith("data:") || consumerStopped || error != null) {
+                return;
+            }
+            String text;
+            try {
+                text = objectMapper.readValue(line.substring(5).trim(), GeminiGenerateResponse.class).firstText();
+            } catch (Exception e) {
+                error = e;
+                abort();
+                return;
+            }
+            if (text == null || text.isEmpty()) {
+                return;
+            }
+            try {
+                onChunk.accept(text);
+                received = true;
+            } catch (RuntimeException e) {
+                // Phía nhận (ví dụ client SSE đã ngắt) không nhận nữa: dừng đọc, không phải lỗi của Gemini
+                log.debug("Gemini stream consumer stopped: {}", e.toString());
+                consumerStopped = true;
+                abort();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // Lỗi đọc body được báo qua future của sendAsync
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        /** Hủy exchange HTTP (đóng stream) thay vì đợi tới stream timeout */
+        private void abort() {
+            CompletableFuture<?> f = exchange;
+            if (f != null) {
+                f.cancel(true);
+            }
+        }
     }
 }
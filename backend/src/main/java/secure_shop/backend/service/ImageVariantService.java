@@ -0,0 +1,30 @@
+package secure_shop.backend.service;
+
+import secure_shop.backend.entities.MediaVariant;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface ImageVariantService {
+
+    /** Kích thước ảnh gốc và các biến thể, nhỏ tới lớn */
+    record ImageInfo(int width, int height, List<MediaVariant> variants) {}
+
+    /**
+     * Giải mã ảnh gốc một lần và tạo các biến thể thu nhỏ cạnh file gốc, trên pool xử lý ảnh
+     * có giới hạn. Future lỗi với {@link IllegalArgumentException} nếu file không phải ảnh hợp lệ.
+     *
+     * @throws org.springframework.core.task.TaskRejectedException nếu pool đang đầy
+     */
+    CompletableFuture<ImageInfo> generateVariantsAsync(Path original, String originalUrl);
+
+    /** Biến thể đã tạo cho một ảnh upload; rỗng với URL ngoài hoặc file không tồn tại */
+    Optional<ImageInfo> describe(String url);
+
+    /** srcset cho ảnh upload, null nếu không có biến thể */
+    String srcset(String url);
+
+    void deleteVariants(Path original);
+}
@@ -0,0 +1,22 @@
+package secure_shop.backend.service;
+
+import secure_shop.backend.dto.mail.MailQueueStatsDTO;
+import secure_shop.backend.entities.Order;
+
+public interface MailQueueService {
+
+    /** Ghi email xác nhận đơn vào outbox; chỉ được gửi sau khi transaction hiện tại commit. */
+    void enqueueOrderConfirmation(Order order);
+
+    void enqueueThankYou(Order order);
+
+    /**
+     * Ghi email xác thực vào outbox và gửi ngay sau commit; lỗi được thử lại theo backoff như email đơn.
+     * Link chứa token thô nên bị xóa khỏi bản ghi khi gửi xong hoặc bỏ cuộc.
+     */
+    void sendVerificationEmail(String to, String verificationLink);
+
+    void sendResetPasswordEmail(String to, String resetLink);
+
+    MailQueueStatsDTO getStats();
+}
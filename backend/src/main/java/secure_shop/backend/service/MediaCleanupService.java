@@ -0,0 +1,21 @@
+package secure_shop.backend.service;
+
+import secure_shop.backend.dto.product.MediaCleanupReportDTO;
+
+public interface MediaCleanupService {
+
+    /**
+     * Mark-and-sweep thư mục upload: xóa các file không còn được DB tham chiếu và đã quá thời
+     * gian ân hạn. {@code dryRun} chỉ báo cáo.
+     */
+    MediaCleanupReportDTO collect(boolean dryRun);
+
+    /**
+     * File upload {@code fileName} (hoặc một biến thể của nó) còn được tham chiếu ở bất kỳ nguồn nào
+     * mà bộ dọn quét — kể cả sản phẩm đã xóa mềm — hay không.
+     */
+    boolean isReferenced(String fileName);
+
+    /** Báo cáo của lần chạy gần nhất trên instance này; null nếu chưa chạy */
+    MediaCleanupReportDTO getLastReport();
+}
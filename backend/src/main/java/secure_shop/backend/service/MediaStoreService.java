@@ -0,0 +1,42 @@
+package secure_shop.backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Kho file upload định danh theo nội dung: tên file là SHA-256 của nội dung, nên cùng một ảnh
+ * upload nhiều lần chỉ được lưu một lần và URL của nó không bao giờ đổi nội dung.
+ */
+public interface MediaStoreService {
+
+    /**
+     * @param fileName     {@code <sha256>.<ext>}
+     * @param deduplicated true nếu nội dung đã có sẵn trong kho
+     */
+    record StoredFile(String sha256, String fileName, Path path, long size, boolean deduplicated) {}
+
+    /** Ghi {@code content} vào kho (băm trong lúc ghi) với phần mở rộng {@code extension} (không có dấu chấm) */
+    StoredFile store(InputStream content, String extension) throws IOException;
+
+    /** File trong thư mục upload; rỗng nếu tên không hợp lệ hoặc không tồn tại */
+    Optional<Path> resolve(String fileName);
+
+    /** Tên file định danh theo nội dung (bản gốc hoặc biến thể): nội dung không bao giờ thay đổi */
+    boolean isContentAddressed(String fileName);
+
+    /** URL công khai của một file trong kho */
+    String urlOf(String fileName);
+
+    /** Tên file trong kho của một URL {@code .../uploads/<tên>}; null nếu không phải URL upload */
+    String fileNameOf(String url);
+
+    /** Tên hợp lệ của một file media trong kho (bản gốc hoặc biến thể, kể cả tên UUID cũ) */
+    boolean isMediaFileName(String fileName);
+
+    /** Khóa chung của bản gốc và các biến thể: tên file bỏ phần mở rộng và hậu tố {@code -<rộng>w} */
+    String storageKey(String fileName);
+
+    Path root();
+}
@@ -0,0 +1,25 @@
+package secure_shop.backend.service;
+
+import secure_shop.backend.dto.product.ImageUploadResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface MediaUploadService {
+
+    /**
+     * Đọc body {@code multipart/form-data} dạng stream. Mỗi part file được nhận diện bằng magic
+     * bytes, giới hạn kích thước, băm và ghi vào kho trong lúc đọc, rồi tạo biến thể. Part không
+     * phải file bị bỏ qua; file thứ {@code maxFiles + 1} trở đi bị từ chối.
+     *
+     * @param contentLength độ dài body (-1 nếu không rõ), để từ chối sớm request quá lớn
+     * @return kết quả theo thứ tự các file trong request
+     * @throws secure_shop.backend.exception.PayloadTooLargeException nếu body vượt giới hạn một request
+     */
+    CompletableFuture<List<ImageUploadResultDTO>> uploadImages(InputStream body, String contentType,
+                                                               long contentLength, int maxFiles) throws IOException;
+
+    int getMaxBatchFiles();
+}
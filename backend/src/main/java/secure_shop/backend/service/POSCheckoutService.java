@@ -0,0 +1,14 @@
+package secure_shop.backend.service;
+
+import secure_shop.backend.dto.invoice.InvoiceDetailDTO;
+import secure_shop.backend.dto.pos.POSCheckoutRequest;
+import secure_shop.backend.entities.User;
+
+public interface POSCheckoutService {
+
+    /**
+     * Bán tại quầy trong một lượt: trừ kho trực tiếp (không giữ chỗ), ghi đơn đã giao + payment,
+     * hóa đơn và stock log trong cùng transaction. Thiếu hàng hoặc thiếu tiền thì rollback toàn bộ.
+     */
+    InvoiceDetailDTO checkout(POSCheckoutRequest request, User staff);
+}
@@ -0,0 +1,32 @@
+package secure_shop.backend.service;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import secure_shop.backend.dto.pos.POSCatalogDeltaDTO;
+import secure_shop.backend.dto.pos.POSSyncBatchRequest;
+import secure_shop.backend.dto.pos.POSSyncBatchResultDTO;
+import secure_shop.backend.dto.pos.POSSyncConflictDTO;
+import secure_shop.backend.entities.User;
+
+import java.util.UUID;
+
+public interface POSSyncService {
+
+    /**
+     * Catalog và giá thay đổi sau con trỏ {@code cursor} (null: snapshot đầy đủ), tối đa
+     * {@code limit} sản phẩm mỗi trang.
+     */
+    POSCatalogDeltaDTO getCatalogDelta(String cursor, Integer limit);
+
+    /**
+     * Ghi một lô giao dịch bán offline. Idempotent theo {@code clientSaleId}: gửi lại cả lô sau
+     * khi mất mạng chỉ nhận về DUPLICATE cho các giao dịch đã ghi.
+     */
+    POSSyncBatchResultDTO submitSales(POSSyncBatchRequest request, User staff);
+
+    /** Hàng đợi giao dịch ACCEPTED_WITH_CONFLICT chưa xử lý, cũ nhất trước */
+    Page<POSSyncConflictDTO> getConflicts(Pageable pageable);
+
+    /** Đánh dấu đã xem xét (sau khi kiểm kê/điều chỉnh tồn kho hoặc đối soát tiền) */
+    POSSyncConflictDTO resolveConflict(UUID clientSaleId, User reviewer);
+}
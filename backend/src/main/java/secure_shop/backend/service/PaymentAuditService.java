@@ -0,0 +1,28 @@
+package secure_shop.backend.service;
+
+import secure_shop.backend.dto.payment.PaymentAuditLogDTO;
+import secure_shop.backend.dto.payment.PaymentAuditStatsDTO;
+import secure_shop.backend.dto.vnpay.VNPayCallbackResponse;
+import secure_shop.backend.enums.PaymentAuditEventType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface PaymentAuditService {
+
+    /** Ghi nhận việc tạo URL thanh toán; không chặn luồng gọi. */
+    void recordPaymentUrlCreated(UUID orderId, String txnRef, BigDecimal amount,
+                                 Map<String, String> params, long latencyMs);
+
+    /** Ghi nhận một callback/IPN của VNPay; không chặn luồng gọi. */
+    void recordCallback(PaymentAuditEventType eventType, Map<String, String> params,
+                        VNPayCallbackResponse response, long latencyMs);
+
+    List<PaymentAuditLogDTO> getByOrderId(UUID orderId);
+
+    List<PaymentAuditLogDTO> getByTxnRef(String txnRef);
+
+    PaymentAuditStatsDTO getStats();
+}
@@ -0,0 +1,26 @@
+package secure_shop.backend.service;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import secure_shop.backend.dto.payment.PaymentReconciliationItemDTO;
+import secure_shop.backend.dto.payment.PaymentReconciliationReportDTO;
+import secure_shop.backend.enums.ReconciliationResolution;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface PaymentReconciliationService {
+
+    /**
+     * Đối soát file giao dịch VNPay (CSV, UTF-8) với bảng payments.
+     * Mỗi lúc chỉ một phiên đối soát được chạy.
+     */
+    PaymentReconciliationReportDTO reconcile(String sourceName, InputStream csv) throws IOException;
+
+    Page<PaymentReconciliationReportDTO> getRuns(Pageable pageable);
+
+    PaymentReconciliationReportDTO getRun(Long runId);
+
+    /** @param resolution null để lấy tất cả dòng lệch */
+    Page<PaymentReconciliationItemDTO> getItems(Long runId, ReconciliationResolution resolution, Pageable pageable);
+}
@@ -1,19 +1,59 @@
 package secure_shop.backend.service;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
+import secure_shop.backend.enums.RateLimitAlgorithm;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class RateLimitingService {
 
+    private static final int LOCAL_BLOCK_MAX_ENTRIES = 50_000;
+
     private final StringRedisTemplate redisTemplate;
+    private final RedisScript<List<Long>> slidingWindowScript;
+    private final RedisScript<List<Long>> tokenBucketScript;
+
+    // key -> thời điểm (ms) hết bị chặn; client đã bị Redis từ chối sẽ không chạm Redis tới lúc đó
+    private final Map<String, Long> localBlockedUntil = new ConcurrentHashMap<>();
+
+    // member duy nhất cho sorted set của sliding window (nhiều instance cùng ghi một key)
+    private final String memberPrefix = UUID.randomUUID().toString();
+    private final AtomicLong memberSeq = new AtomicLong();
+
+    public RateLimitingService(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.slidingWindowScript = loadScript("scripts/rate-limit-sliding-window.lua");
+        this.tokenBucketScript = loadScript("scripts/rate-limit-token-bucket.lua");
+    }
 
     /**
-     * Fixed window rate limiter using Redis.
+     * Result of a rate-limit check.
+     *
+     * @param allowed          whether the request may proceed
+     * @param remaining        requests (or tokens) left in the current window
+     * @param retryAfterMillis how long the caller must wait when not allowed
+     */
+    public record Decision(boolean allowed, long remaining, long retryAfterMillis) {
+
+        public long retryAfterSeconds() {
+            return Math.max(1, (retryAfterMillis + 999) / 1000);
+        }
+    }
+
+    /**
+     * Sliding window rate limiter using Redis.
      *
      * @param key    The unique key (e.g., action + IP)
      * @param limit  Max allowed requests in the given window
@@ -21,13 +61,71 @@ public class RateLimitingService {
      * @return true if allowed, false if limit exceeded
      */
     public boolean checkRateLimit(String key, int limit, Duration window) {
-        Long currentCount = redisTemplate.opsForValue().increment(key);
-        if (currentCount != null) {
-            if (currentCount == 1) {
-                redisTemplate.expire(key, window);
+        return check(key, limit, window, RateLimitAlgorithm.SLIDING_WINDOW).allowed();
+    }
+
+    /**
+     * Check and consume one request against {@code key}. The whole check runs as a single
+     * Lua script (one round trip, expiry set atomically with the write). Keys that Redis
+     * has already rejected are answered locally until their retry time passes.
+     */
+    public Decision check(String key, int limit, Duration window, RateLimitAlgorithm algorithm) {
+        long now = System.currentTimeMillis();
+
+        Long blockedUntil = localBlockedUntil.get(key);
+        if (blockedUntil != null) {
+            if (blockedUntil > now) {
+                return new Decision(false, 0, blockedUntil - now);
+            }
+            localBlockedUntil.remove(key, blockedUntil);
+        }
+
+        List<Long> result;
+        try {
+            result = switch (algorithm) {
+                case SLIDING_WINDOW -> redisTemplate.execute(slidingWindowScript,
+                        List.of(key + ":sw"),
+                        String.valueOf(limit),
+                        String.valueOf(window.toMillis()),
+                        String.valueOf(now),
+                        memberPrefix + ":" + memberSeq.incrementAndGet());
+                case TOKEN_BUCKET -> redisTemplate.execute(tokenBucketScript,
+                        List.of(key + ":tb"),
+                        String.valueOf(limit),
+                        String.valueOf(window.toMillis()),
+                        String.valueOf(now));
+            };
+        } catch (DataAccessException ex) {
+            // Redis lỗi: không chặn người dùng hợp lệ chỉ vì hạ tầng giới hạn tần suất
+            log.warn("Rate limiter unavailable for key {}: {}", key, ex.getMessage());
+            return new Decision(true, limit, 0);
+        }
+
+        if (result == null || result.size() < 3) {
+            log.warn("Unexpected rate limiter result for key {}: {}", key, result);
+            return new Decision(true, limit, 0);
+        }
+
+        Decision decision = new Decision(result.get(0) == 1L, result.get(1), result.get(2));
+        if (!decision.allowed()) {
+            rememberBlocked(key, now + decision.retryAfterMillis());
+        }
+        return decision;
+    }
+
+    private void rememberBlocked(String key, long until) {
+        if (localBlockedUntil.size() >= LOCAL_BLOCK_MAX_ENTRIES) {
+            long now = System.currentTimeMillis();
+            localBlockedUntil.values().removeIf(t -> t <= now);
+            if (localBlockedUntil.size() >= LOCAL_BLOCK_MAX_ENTRIES) {
+                localBlockedUntil.clear();
             }
-            return currentCount <= limit;
         }
-        return false;
+        localBlockedUntil.put(key, until);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisScript<List<Long>> loadScript(String path) {
+        return (RedisScript<List<Long>>) (RedisScript<?>) RedisScript.of(new ClassPathResource(path), List.class);
     }
 }
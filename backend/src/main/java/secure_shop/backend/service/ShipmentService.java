@@ -3,7 +3,10 @@ package secure_shop.backend.service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import secure_shop.backend.dto.order.ShipmentDTO;
+import secure_shop.backend.enums.ShipmentStatus;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,5 +30,14 @@ public interface ShipmentService {
     ShipmentDTO markAsDelivered(Long id);
 
     List<ShipmentDTO> getShipmentsByUserId(UUID userId);
+
+    /** Lọc theo trạng thái và khoảng ngày gửi hàng [from, to); tham số null bị bỏ qua */
+    Page<ShipmentDTO> searchShipments(ShipmentStatus status, Instant from, Instant to, Pageable pageable);
+
+    /**
+     * Trạng thái vận chuyển của nhiều đơn trong một query. {@code userId} khác null chỉ trả về đơn
+     * của người dùng đó; đơn chưa có shipment không có trong kết quả.
+     */
+    List<ShipmentDTO> getShipmentStatuses(Collection<UUID> orderIds, UUID userId);
 }
 
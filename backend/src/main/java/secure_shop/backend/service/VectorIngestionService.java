@@ -1,5 +1,21 @@
 package secure_shop.backend.service;
 
+import java.util.List;
+import java.util.UUID;
+
 public interface VectorIngestionService {
+    /** Dựng lại toàn bộ index: chính sách và mọi sản phẩm đang bán. */
     void ingestPoliciesAndTopProducts();
+
+    /** Cập nhật (hoặc gỡ) một sản phẩm trong index. */
+    void reindexProduct(UUID productId);
+
+    /** Id sản phẩm liên quan nhất tới câu hỏi, giảm dần theo độ liên quan; rỗng nếu không có. */
+    List<UUID> findRelevantProductIds(String question, int limit);
+
+    /** Nội dung chính sách liên quan nhất tới câu hỏi. */
+    List<String> findRelevantPolicies(String question, int limit);
+
+    /** Thay đổi mỗi khi nội dung index thay đổi. */
+    long indexVersion();
 }
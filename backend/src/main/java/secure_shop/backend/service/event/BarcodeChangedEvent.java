@@ -0,0 +1,6 @@
+package secure_shop.backend.service.event;
+
+import java.util.List;
+
+/** Các mã vạch được tạo hoặc xóa; phát trong transaction của thay đổi. */
+public record BarcodeChangedEvent(List<String> barcodes) {}
@@ -0,0 +1,68 @@
+package secure_shop.backend.service.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import secure_shop.backend.entities.DomainEventOutbox;
+import secure_shop.backend.repositories.DomainEventOutboxRepository;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Ghi domain event vào outbox trong transaction hiện tại. Service chỉ cần thực hiện
+ * các thao tác ghi thiết yếu; email, thống kê... được {@link DomainEventRelay} phát
+ * cho listener sau khi commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class DomainEventPublisher {
+
+    /** Danh sách event được phép: relay chỉ giải mã về các class này */
+    static final Map<String, Class<? extends OrderEvent>> EVENT_TYPES = Map.of(
+            "OrderCreated", OrderCreatedEvent.class,
+            "OrderStatusChanged", OrderStatusChangedEvent.class
+    );
+
+    private static final Map<Class<?>, String> TYPE_NAMES = EVENT_TYPES.entrySet().stream()
+            .collect(Collectors.toUnmodifiableMap(Map.Entry::getValue, Map.Entry::getKey));
+
+    private final DomainEventOutboxRepository outboxRepository;
+    private final DomainEventRelay relay;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OrderEvent event) {
+        String type = TYPE_NAMES.get(event.getClass());
+        if (type == null) {
+            throw new IllegalArgumentException("Unregistered event type: " + event.getClass().getName());
+        }
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize event " + type, e);
+        }
+
+        outboxRepository.save(DomainEventOutbox.builder()
+                .eventType(type)
+                .aggregateId(event.orderId())
+                .payload(payload)
+                .nextAttemptAt(Instant.now())
+                .build());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relay.requestRelay();
+            }
+        });
+    }
+}
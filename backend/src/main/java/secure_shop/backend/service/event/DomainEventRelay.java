@@ -0,0 +1,208 @@
+package secure_shop.backend.service.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import secure_shop.backend.entities.DomainEventOutbox;
+import secure_shop.backend.enums.EventOutboxStatus;
+import secure_shop.backend.repositories.DomainEventOutboxRepository;
+import secure_shop.backend.utils.TruncateUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Phát event từ {@code domain_event_outbox} cho listener trong JVM ({@code @EventListener})
+ * và, nếu bật, vào một Redis Stream.
+ * <p>
+ * Mỗi event được phát trong một transaction riêng cùng với việc đánh dấu PUBLISHED: listener
+ * ghi DB trong transaction đó, nên lỗi ở listener hay Redis sẽ rollback và event được thử lại
+ * với backoff (at-least-once). Chạy sau mỗi commit và định kỳ để vớt event bị bỏ sót.
+ */
+@Component
+@Slf4j
+public class DomainEventRelay {
+
+    private final DomainEventOutboxRepository outboxRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor relayExecutor;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final int retentionDays;
+    private final boolean streamEnabled;
+    private final String streamKey;
+    private final long streamMaxLength;
+
+    private final ReentrantLock relayLock = new ReentrantLock();
+    private final AtomicBoolean relayRequested = new AtomicBoolean();
+
+    public DomainEventRelay(DomainEventOutboxRepository outboxRepository,
+                            ApplicationEventPublisher applicationEventPublisher,
+                            StringRedisTemplate redisTemplate,
+                            ObjectMapper objectMapper,
+                            TransactionTemplate transactionTemplate,
+                            @Qualifier("eventRelayExecutor") ThreadPoolTaskExecutor relayExecutor,
+                            @Value("${events.outbox.batch-size:50}") int batchSize,
+                            @Value("${events.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${events.outbox.base-backoff-seconds:10}") long baseBackoffSeconds,
+                            @Value("${events.outbox.retention-days:7}") int retentionDays,
+                            @Value("${events.redis-stream.enabled:false}") boolean streamEnabled,
+                            @Value("${events.redis-stream.key:order-events}") String streamKey,
+                            @Value("${events.redis-stream.max-length:100000}") long streamMaxLength) {
+        this.outboxRepository = outboxRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.relayExecutor = relayExecutor;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Duration.ofSeconds(baseBackoffSeconds);
+        this.retentionDays = retentionDays;
+        this.streamEnabled = streamEnabled;
+        this.streamKey = streamKey;
+        this.streamMaxLength = streamMaxLength;
+    }
+
+    @Scheduled(fixedDelayString = "${events.outbox.poll-interval-ms:10000}",
+            initialDelayString = "${events.outbox.poll-interval-ms:10000}")
+    public void pollOutbox() {
+        requestRelay();
+    }
+
+    @Scheduled(cron = "${events.outbox.purge-cron:0 45 3 * * *}")
+    public void purgePublished() {
+        int deleted = outboxRepository.deletePublishedBefore(EventOutboxStatus.PUBLISHED,
+                Instant.now().minus(retentionDays, ChronoUnit.DAYS));
+        if (deleted > 0) {
+            log.info("Purged {} published domain_event_outbox rows", deleted);
+        }
+    }
+
+    void requestRelay() {
+        relayRequested.set(true);
+        if (relayLock.isLocked()) {
+            return;
+        }
+        try {
+            relayExecutor.execute(this::relay);
+        } catch (TaskRejectedException ex) {
+            log.warn("Event relay executor saturated; outbox will be relayed by the next poll");
+        }
+    }
+
+    private void relay() {
+        if (!relayLock.tryLock()) {
+            return;
+        }
+        try {
+            boolean more = true;
+            while (relayRequested.getAndSet(false) || more) {
+                more = relayBatch();
+            }
+        } catch (Exception ex) {
+            log.error("Domain event relay failed", ex);
+        } finally {
+            relayLock.unlock();
+        }
+        if (relayRequested.get()) {
+            requestRelay();
+        }
+    }
+
+    /** @return true nếu batch đầy (có thể còn event đến hạn) */
+    private boolean relayBatch() {
+        List<DomainEventOutbox> due = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                EventOutboxStatus.PENDING, Instant.now(), PageRequest.of(0, batchSize));
+
+        // Event sau của cùng một đơn hàng chờ event trước được phát thành công
+        Set<UUID> blockedAggregates = new HashSet<>();
+        for (DomainEventOutbox row : due) {
+            if (blockedAggregates.contains(row.getAggregateId())) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> publishOne(row));
+            } catch (Exception ex) {
+                blockedAggregates.add(row.getAggregateId());
+                recordFailure(row, ex);
+            }
+        }
+        return due.size() == batchSize;
+    }
+
+    private void publishOne(DomainEventOutbox row) {
+        int claimed = outboxRepository.markPublished(row.getId(),
+                EventOutboxStatus.PENDING, EventOutboxStatus.PUBLISHED, Instant.now());
+        if (claimed != 1) {
+            // Instance khác đã phát event này
+            return;
+        }
+
+        Class<? extends OrderEvent> type = DomainEventPublisher.EVENT_TYPES.get(row.getEventType());
+        if (type == null) {
+            throw new IllegalStateException("Unknown event type: " + row.getEventType());
+        }
+        OrderEvent event;
+        try {
+            event = objectMapper.readValue(row.getPayload(), type);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot deserialize event " + row.getId(), e);
+        }
+
+        // Listener đồng bộ chạy trong transaction này
+        applicationEventPublisher.publishEvent(event);
+
+        if (streamEnabled) {
+            redisTemplate.opsForStream().add(streamKey,
+                    Map.of("eventId", String.valueOf(row.getId()),
+                            "type", row.getEventType(),
+                            "aggregateId", row.getAggregateId().toString(),
+                            "payload", row.getPayload()),
+                    RedisStreamCommands.XAddOptions.maxlen(streamMaxLength).approximateTrimming(true));
+        }
+    }
+
+    private void recordFailure(DomainEventOutbox row, Exception ex) {
+        row.setAttempts(row.getAttempts() + 1);
+        row.setLastError(TruncateUtils.truncate(ex.getMessage()));
+        if (row.getAttempts() >= maxAttempts) {
+            row.setStatus(EventOutboxStatus.FAILED);
+            log.error("Giving up event {} ({}) for order {} after {} attempts",
+                    row.getId(), row.getEventType(), row.getAggregateId(), row.getAttempts(), ex);
+        } else {
+            long seconds = baseBackoff.getSeconds() << Math.min(row.getAttempts() - 1, 16);
+            row.setNextAttemptAt(Instant.now().plusSeconds(Math.min(seconds, 3600)));
+            log.warn("Failed to relay event {} ({}) for order {} (attempt {}): {}",
+                    row.getId(), row.getEventType(), row.getAggregateId(), row.getAttempts(), ex.getMessage());
+        }
+        try {
+            outboxRepository.save(row);
+        } catch (Exception saveEx) {
+            log.error("Cannot record relay failure for event {}", row.getId(), saveEx);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package secure_shop.backend.service.event;
+
+/** Tồn kho (onHand/reserved) của một dòng inventory thay đổi; phát trong transaction của thay đổi. */
+public record InventoryChangedEvent(Long inventoryId) {}
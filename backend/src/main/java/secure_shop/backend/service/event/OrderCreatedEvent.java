@@ -1,5 +1,10 @@
 package secure_shop.backend.service.event;
 
+import secure_shop.backend.enums.PaymentMethod;
+
 import java.util.UUID;
 
-public record OrderCreatedEvent(UUID orderId) {}
+/**
+ * @param paymentMethod phương thức khách chọn lúc đặt (null = COD)
+ */
+public record OrderCreatedEvent(UUID orderId, PaymentMethod paymentMethod) implements OrderEvent {}
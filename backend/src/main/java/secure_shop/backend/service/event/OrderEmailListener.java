@@ -0,0 +1,49 @@
+package secure_shop.backend.service.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import secure_shop.backend.entities.Order;
+import secure_shop.backend.enums.OrderStatus;
+import secure_shop.backend.enums.PaymentMethod;
+import secure_shop.backend.repositories.OrderRepository;
+import secure_shop.backend.service.MailQueueService;
+
+/**
+ * Email theo vòng đời đơn hàng. Chạy trong transaction của {@link DomainEventRelay},
+ * nên bản ghi mail_outbox và việc đánh dấu event đã phát commit cùng nhau.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderEmailListener {
+
+    private final OrderRepository orderRepository;
+    private final MailQueueService mailQueueService;
+
+    @EventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        // Đơn thanh toán online được xác nhận khi cổng thanh toán callback
+        if (event.paymentMethod() != null && event.paymentMethod() != PaymentMethod.COD) {
+            return;
+        }
+        orderRepository.findById(event.orderId()).ifPresent(mailQueueService::enqueueOrderConfirmation);
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.newStatus() == OrderStatus.CONFIRMED) {
+            // Xác nhận đơn đã thanh toán online; đơn COD đã nhận email lúc tạo
+            orderRepository.findById(event.orderId())
+                    .filter(this::isPaidOnline)
+                    .ifPresent(mailQueueService::enqueueOrderConfirmation);
+        } else if (event.newStatus() == OrderStatus.DELIVERED) {
+            orderRepository.findById(event.orderId()).ifPresent(mailQueueService::enqueueThankYou);
+        }
+    }
+
+    private boolean isPaidOnline(Order order) {
+        return Boolean.TRUE.equals(order.getHasPaid())
+                && order.getPayment() != null
+                && order.getPayment().getMethod() != PaymentMethod.COD;
+    }
+}
@@ -0,0 +1,11 @@
+package secure_shop.backend.service.event;
+
+import java.util.UUID;
+
+/**
+ * Event trong vòng đời đơn hàng, được phát qua {@link DomainEventPublisher}.
+ * Listener phải idempotent: relay đảm bảo at-least-once, không phải exactly-once.
+ */
+public interface OrderEvent {
+    UUID orderId();
+}
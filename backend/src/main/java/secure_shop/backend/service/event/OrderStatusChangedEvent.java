@@ -0,0 +1,8 @@
+package secure_shop.backend.service.event;
+
+import secure_shop.backend.enums.OrderStatus;
+
+import java.util.UUID;
+
+public record OrderStatusChangedEvent(UUID orderId, OrderStatus previousStatus, OrderStatus newStatus)
+        implements OrderEvent {}
@@ -0,0 +1,6 @@
+package secure_shop.backend.service.event;
+
+import java.util.UUID;
+
+/** Sản phẩm được tạo/sửa/xóa/khôi phục; phát trong transaction của thay đổi. */
+public record ProductChangedEvent(UUID productId) {}
@@ -1,8 +1,10 @@
 package secure_shop.backend.service.impl;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import secure_shop.backend.dto.barcode.BarcodeResponseDTO;
 import secure_shop.backend.dto.barcode.CreateBarcodeRequest;
 import secure_shop.backend.entities.Barcode;
@@ -11,20 +13,48 @@ import secure_shop.backend.exception.ResourceAlreadyExistsException;
 import secure_shop.backend.exception.ResourceNotFoundException;
 import secure_shop.backend.repositories.BarcodeRepository;
 import secure_shop.backend.repositories.ProductRepository;
+import secure_shop.backend.service.BarcodeAllocator;
+import secure_shop.backend.service.BarcodeLookupIndex;
 import secure_shop.backend.service.BarcodeService;
 import secure_shop.backend.mapper.ProductMapper;
+import secure_shop.backend.service.event.BarcodeChangedEvent;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class BarcodeServiceImpl implements BarcodeService {
 
     private final BarcodeRepository barcodeRepository;
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final BarcodeAllocator barcodeAllocator;
+    private final BarcodeLookupIndex barcodeLookupIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTx;
+
+    public BarcodeServiceImpl(BarcodeRepository barcodeRepository,
+                              ProductRepository productRepository,
+                              ProductMapper productMapper,
+                              BarcodeAllocator barcodeAllocator,
+                              BarcodeLookupIndex barcodeLookupIndex,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager) {
+        this.barcodeRepository = barcodeRepository;
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.barcodeAllocator = barcodeAllocator;
+        this.barcodeLookupIndex = barcodeLookupIndex;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
 
     @Override
     @Transactional
@@ -43,15 +73,22 @@ public class BarcodeServiceImpl implements BarcodeService {
                 .build();
 
         Barcode saved = barcodeRepository.save(barcode);
+        productRepository.touch(List.of(product.getId()), Instant.now());
+        eventPublisher.publishEvent(new BarcodeChangedEvent(List.of(saved.getBarcode())));
         return mapToDTO(saved);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public BarcodeResponseDTO getByBarcode(String barcode) {
-        Barcode entity = barcodeRepository.findByBarcode(barcode)
-                .orElseThrow(() -> new ResourceNotFoundException("mã vạch", barcode));
-        return mapToDTO(entity);
+        // Đường nhanh cho máy quét POS: tra index trong bộ nhớ, không mở transaction hay chạm DB
+        Optional<BarcodeResponseDTO> indexed = barcodeLookupIndex.lookup(barcode);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+        // Index trượt: mới mở transaction chỉ đọc để nạp cả product cho mapper
+        return readOnlyTx.execute(status -> barcodeRepository.findByBarcode(barcode)
+                .map(this::mapToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("mã vạch", barcode)));
     }
 
     @Override
@@ -76,51 +113,56 @@ public class BarcodeServiceImpl implements BarcodeService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("sản phẩm", productId));
 
-        // Generate a unique numeric barcode (EAN-13 style: 13 digits)
-        String generated;
-        int attempts = 0;
-        do {
-            generated = generateEan13(sku);
-            attempts++;
-            if (attempts > 10) {
-                throw new IllegalStateException("Không thể tạo mã vạch duy nhất sau nhiều lần thử");
-            }
-        } while (barcodeRepository.existsByBarcode(generated));
-
+        // Mã lấy từ khoảng đã đặt trước của bộ đếm nên không cần kiểm tra trùng
         Barcode barcode = Barcode.builder()
-                .barcode(generated)
+                .barcode(barcodeAllocator.allocate())
                 .product(product)
                 .build();
 
-        return mapToDTO(barcodeRepository.save(barcode));
+        Barcode saved = barcodeRepository.save(barcode);
+        productRepository.touch(List.of(product.getId()), Instant.now());
+        eventPublisher.publishEvent(new BarcodeChangedEvent(List.of(saved.getBarcode())));
+        return mapToDTO(saved);
     }
 
     @Override
     @Transactional
-    public void deleteBarcode(Long id) {
-        if (!barcodeRepository.existsById(id)) {
-            throw new ResourceNotFoundException("mã vạch", id);
+    public List<BarcodeResponseDTO> autoGenerateForProducts(List<UUID> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (UUID productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("sản phẩm", productId);
+            }
         }
-        barcodeRepository.deleteById(id);
-    }
 
-    private String generateEan13(String sku) {
-        // Use hash of SKU + timestamp to produce a stable but unique 12-digit base
-        long timestamp = System.currentTimeMillis();
-        int skuHash = Math.abs(sku != null ? sku.hashCode() : 0);
-        String base12 = String.format("%06d%06d", skuHash % 1_000_000, (timestamp / 1000) % 1_000_000);
-        // Calculate EAN-13 check digit
-        int checkDigit = calculateEan13CheckDigit(base12);
-        return base12 + checkDigit;
+        List<String> codes = barcodeAllocator.allocate(productIds.size());
+        List<Barcode> barcodes = new ArrayList<>(productIds.size());
+        for (int i = 0; i < productIds.size(); i++) {
+            barcodes.add(Barcode.builder()
+                    .barcode(codes.get(i))
+                    .product(products.get(productIds.get(i)))
+                    .build());
+        }
+        List<Barcode> saved = barcodeRepository.saveAll(barcodes);
+        productRepository.touch(products.keySet(), Instant.now());
+        eventPublisher.publishEvent(new BarcodeChangedEvent(codes));
+        return saved.stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
     }
 
-    private int calculateEan13CheckDigit(String base12) {
-        int sum = 0;
-        for (int i = 0; i < 12; i++) {
-            int digit = Character.getNumericValue(base12.charAt(i));
-            sum += (i % 2 == 0) ? digit : digit * 3;
-        }
-        return (10 - (sum % 10)) % 10;
+    @Override
+    @Transactional
+    public void deleteBarcode(Long id) {
+        Barcode barcode = barcodeRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("mã vạch", id));
+        barcodeRepository.delete(barcode);
+        productRepository.touch(List.of(barcode.getProduct().getId()), Instant.now());
+        eventPublisher.publishEvent(new BarcodeChangedEvent(List.of(barcode.getBarcode())));
     }
 
     private BarcodeResponseDTO mapToDTO(Barcode barcode) {
@@ -7,14 +7,20 @@ import secure_shop.backend.dto.chat.ChatRequest;
 import secure_shop.backend.dto.chat.ChatResponse;
 import secure_shop.backend.entities.Product;
 import secure_shop.backend.repositories.ProductRepository;
+import secure_shop.backend.service.ChatAnswerCache;
 import secure_shop.backend.service.ChatService;
 import secure_shop.backend.service.GeminiRestClient;
+import secure_shop.backend.service.VectorIngestionService;
 
 import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,15 +28,152 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ChatServiceImpl implements ChatService {
 
+    private static final String SOURCE_GEMINI = "gemini";
+    private static final String SOURCE_GEMINI_PARTIAL = "gemini-partial";
+    private static final String SOURCE_HEURISTIC = "heuristic";
+    private static final String SOURCE_CACHE = "cache";
+    private static final int RELEVANT_PRODUCTS = 5;
+    private static final int RELEVANT_POLICIES = 2;
+
     private final ProductRepository productRepository;
     private final GeminiRestClient geminiClient;
+    private final ChatAnswerCache answerCache;
+    private final VectorIngestionService vectorIngestionService;
 
     @Override
     public ChatResponse chat(ChatRequest request) {
+        return chatAsync(request).join();
+    }
+
+    @Override
+    public CompletableFuture<ChatResponse> chatAsync(ChatRequest request) {
+        ChatContext ctx = prepare(request);
+
+        // If Gemini not available, use heuristic
+        if (!geminiClient.isAvailable()) {
+            log.info("Gemini API not configured - using heuristic answer only");
+            return CompletableFuture.completedFuture(ChatResponse.builder()
+                    .answer(ctx.heuristicAnswer())
+                    .suggestions(ctx.filtered())
+                    .build());
+        }
+
+        String cached = answerCache.get(ctx.userMsg(), ctx.cacheScope());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(ChatResponse.builder()
+                    .answer(cached)
+                    .suggestions(ctx.filtered())
+                    .build());
+        }
+
+        return geminiClient.generateAsync(ctx.systemContext(), ctx.userMsg())
+                .exceptionally(ex -> null)
+                .thenApply(aiAnswer -> {
+                    if (aiAnswer == null) {
+                        // Fallback to heuristic if API call failed or circuit is open
+                        log.warn("Gemini AI call failed, using heuristic fallback");
+                    } else {
+                        answerCache.put(ctx.userMsg(), ctx.cacheScope(), aiAnswer);
+                    }
+                    return ChatResponse.builder()
+                            .answer(aiAnswer != null ? aiAnswer : ctx.heuristicAnswer())
+                            .suggestions(ctx.filtered())
+                            .build();
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> chatStream(ChatRequest request, StreamListener listener) {
+        ChatContext ctx = prepare(request);
+        // Gợi ý sản phẩm không phụ thuộc Gemini: gửi ngay
+        listener.onSuggestions(ctx.filtered());
+
+        if (!geminiClient.isAvailable()) {
+            listener.onToken(ctx.heuristicAnswer());
+            listener.onComplete(SOURCE_HEURISTIC);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String cached = answerCache.get(ctx.userMsg(), ctx.cacheScope());
+        if (cached != null) {
+            listener.onToken(cached);
+            listener.onComplete(SOURCE_CACHE);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Chunk được giao tuần tự trên một luồng HTTP client tại một thời điểm
+        StringBuilder fullAnswer = new StringBuilder();
+        return geminiClient.streamAsync(ctx.systemContext(), ctx.userMsg(), text -> {
+                    listener.onToken(text);
+                    fullAnswer.append(text);
+                })
+                .exceptionally(ex -> GeminiRestClient.StreamResult.UNAVAILABLE)
+                .thenAccept(result -> {
+                    switch (result) {
+                        case COMPLETED -> {
+                            answerCache.put(ctx.userMsg(), ctx.cacheScope(), fullAnswer.toString());
+                            listener.onComplete(SOURCE_GEMINI);
+                        }
+                        case INTERRUPTED -> listener.onComplete(SOURCE_GEMINI_PARTIAL);
+                        case UNAVAILABLE -> {
+                            log.warn("Gemini AI stream failed, using heuristic fallback");
+                            listener.onToken(ctx.heuristicAnswer());
+                            listener.onComplete(SOURCE_HEURISTIC);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * @param cacheScope không phụ thuộc câu hỏi: ngữ cảnh chung + version của index vector, nên
+     *                   cache chỉ bị xóa khi danh mục/index thay đổi chứ không phải mỗi câu hỏi
+     */
+    private record ChatContext(String userMsg,
+                               List<ChatResponse.ProductSuggestion> suggestions,
+                               List<ChatResponse.ProductSuggestion> filtered,
+                               String heuristicAnswer,
+                               String systemContext,
+                               String cacheScope) {}
+
+    private ChatContext prepare(ChatRequest request) {
         String userMsg = request.getMessage().trim();
-        List<Product> topProducts = productRepository.findTop5ByActiveTrueOrderByReviewCountDesc();
+        List<ChatResponse.ProductSuggestion> suggestions =
+                toSuggestions(productRepository.findTop5ByActiveTrueOrderByReviewCountDesc());
 
-        List<ChatResponse.ProductSuggestion> suggestions = topProducts.stream()
+        List<ChatResponse.ProductSuggestion> relevant = List.of();
+        List<String> policies = List.of();
+        long indexVersion = 0;
+        try {
+            relevant = toSuggestions(findProductsInOrder(
+                    vectorIngestionService.findRelevantProductIds(userMsg, RELEVANT_PRODUCTS)));
+            policies = vectorIngestionService.findRelevantPolicies(userMsg, RELEVANT_POLICIES);
+            indexVersion = vectorIngestionService.indexVersion();
+        } catch (Exception e) {
+            // Không có retrieval vẫn trả lời được bằng danh sách phổ biến
+            log.warn("Vector retrieval failed: {}", e.getMessage());
+        }
+
+        String popularLines = productLines(suggestions);
+        return new ChatContext(userMsg, suggestions, filterSuggestions(userMsg, suggestions, relevant),
+                heuristic(userMsg, suggestions), buildSystemContext(popularLines, relevant, policies),
+                indexVersion + "\n" + popularLines);
+    }
+
+    /** Giữ thứ tự độ liên quan của {@code ids}; bỏ sản phẩm đã ngừng bán */
+    private List<Product> findProductsInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Product> byId = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(p -> p != null && Boolean.TRUE.equals(p.getActive()))
+                .toList();
+    }
+
+    private List<ChatResponse.ProductSuggestion> toSuggestions(List<Product> products) {
+        return products.stream()
                 .map(p -> ChatResponse.ProductSuggestion.builder()
                         .id(p.getId().toString())
                         .name(p.getName())
@@ -41,46 +184,28 @@ public class ChatServiceImpl implements ChatService {
                         .price(formatCurrency(p.getPrice()))
                         .build())
                 .collect(Collectors.toList());
-
-        String heuristicAnswer = heuristic(userMsg, suggestions);
-
-        // If Gemini not available, use heuristic
-        if (!geminiClient.isAvailable()) {
-            log.info("Gemini API not configured - using heuristic answer only");
-            return ChatResponse.builder()
-                    .answer(heuristicAnswer)
-                    .suggestions(filterSuggestions(userMsg, suggestions))
-                    .build();
-        }
-
-        String systemContext = buildSystemContext(suggestions, userMsg);
-        String aiAnswer = geminiClient.generate(systemContext, userMsg);
-
-        if (aiAnswer != null) {
-            return ChatResponse.builder()
-                    .answer(aiAnswer)
-                    .suggestions(filterSuggestions(userMsg, suggestions))
-                    .build();
-        } else {
-            // Fallback to heuristic if API call failed
-            log.warn("Gemini AI call failed, using heuristic fallback");
-            return ChatResponse.builder()
-                    .answer(heuristicAnswer)
-                    .suggestions(filterSuggestions(userMsg, suggestions))
-                    .build();
-        }
     }
 
-    private String buildSystemContext(List<ChatResponse.ProductSuggestion> suggestions, String userMsg) {
-        String productLines = suggestions.stream()
+    private String productLines(List<ChatResponse.ProductSuggestion> suggestions) {
+        return suggestions.stream()
                 .map(s -> String.format("- %s (SKU %s, %s, rating %.1f, %d reviews)",
                         s.getName(), s.getSku(), s.getPrice(), s.getRating(), s.getReviewCount()))
                 .collect(Collectors.joining("\n"));
+    }
 
-        return "Bạn là trợ lý hỗ trợ khách hàng cho website bán thiết bị an ninh. Trả lời ngắn gọn, tiếng Việt, không bịa.\n"
-                +
-                "Sản phẩm phổ biến:\n" + productLines +
-                "\nNếu câu hỏi không liên quan hãy mời người dùng mô tả rõ hơn.";
+    private String buildSystemContext(String popularLines,
+                                      List<ChatResponse.ProductSuggestion> relevant,
+                                      List<String> policies) {
+        StringBuilder sb = new StringBuilder()
+                .append("Bạn là trợ lý hỗ trợ khách hàng cho website bán thiết bị an ninh. Trả lời ngắn gọn, tiếng Việt, không bịa.\n")
+                .append("Sản phẩm phổ biến:\n").append(popularLines);
+        if (!relevant.isEmpty()) {
+            sb.append("\nSản phẩm liên quan tới câu hỏi:\n").append(productLines(relevant));
+        }
+        if (!policies.isEmpty()) {
+            sb.append("\nChính sách liên quan:\n- ").append(String.join("\n- ", policies));
+        }
+        return sb.append("\nNếu câu hỏi không liên quan hãy mời người dùng mô tả rõ hơn.").toString();
     }
 
     private String heuristic(String msg, List<ChatResponse.ProductSuggestion> suggestions) {
@@ -105,13 +230,14 @@ public class ChatServiceImpl implements ChatService {
     }
 
     private List<ChatResponse.ProductSuggestion> filterSuggestions(String userMsg,
-            List<ChatResponse.ProductSuggestion> all) {
+            List<ChatResponse.ProductSuggestion> all,
+            List<ChatResponse.ProductSuggestion> relevant) {
         String lower = userMsg.toLowerCase(Locale.ROOT);
         if (lower.contains("bán chạy") || lower.contains("phổ biến") || lower.contains("top")
                 || lower.contains("phù hợp")) {
             return all; // return top list
         }
-        return new ArrayList<>();
+        return new ArrayList<>(relevant);
     }
 
     private String formatCurrency(BigDecimal amount) {
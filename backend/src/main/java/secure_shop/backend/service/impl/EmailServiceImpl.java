@@ -1,5 +1,6 @@
 package secure_shop.backend.service.impl;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -13,11 +14,12 @@ import org.thymeleaf.context.Context;
 import secure_shop.backend.entities.Order;
 import secure_shop.backend.entities.OrderItem;
 import secure_shop.backend.service.EmailService;
- 
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.time.Year;
 import java.time.format.DateTimeFormatter;
 import java.time.ZoneId;
 import java.util.Locale;
@@ -28,13 +30,46 @@ import java.util.Locale;
 @SuppressWarnings("null")
 public class EmailServiceImpl implements EmailService {
 
+    private static final Locale VI = Locale.forLanguageTag("vi-VN");
+
+    // DateTimeFormatter là immutable, dùng chung được giữa các thread
+    private static final DateTimeFormatter CREATED_AT_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")
+            .withLocale(VI)
+            .withZone(ZoneId.systemDefault());
+
+    // NumberFormat không thread-safe: mỗi thread gửi mail giữ một instance
+    private static final ThreadLocal<NumberFormat> CURRENCY_FORMAT =
+            ThreadLocal.withInitial(() -> NumberFormat.getCurrencyInstance(VI));
+
+    // Tương đương #numbers.formatDecimal(x, 0, 'COMMA', 2, 'POINT') trong template cũ
+    private static final ThreadLocal<DecimalFormat> PRICE_FORMAT = ThreadLocal.withInitial(() -> {
+        DecimalFormat format = (DecimalFormat) NumberFormat.getNumberInstance(Locale.US);
+        format.setMinimumIntegerDigits(0);
+        format.setMinimumFractionDigits(2);
+        format.setMaximumFractionDigits(2);
+        format.setGroupingUsed(true);
+        return format;
+    });
+
     private final JavaMailSender mailSender;
     private final TemplateEngine templateEngine;
     @Value("${app.frontend.base-url:https://secure-shop.example}")
     private String frontendBaseUrl;
 
+    private String orderLinkPrefix;
+
+    @PostConstruct
+    void init() {
+        orderLinkPrefix = frontendBaseUrl.replaceAll("/$", "") + "/orders/";
+    }
+
     @Override
     public void sendResetPasswordEmail(String to, String resetLink) throws MessagingException, IOException {
+        mailSender.send(buildResetPasswordEmail(to, resetLink));
+    }
+
+    @Override
+    public MimeMessage buildResetPasswordEmail(String to, String resetLink) throws MessagingException {
         Context context = new Context();
         context.setVariable("email", to);
         context.setVariable("resetLink", resetLink);
@@ -48,12 +83,16 @@ public class EmailServiceImpl implements EmailService {
         helper.setTo(to);
         helper.setSubject("🔐 Đặt lại mật khẩu - SecureShop");
         helper.setText(htmlContent, true);
-
-        mailSender.send(message);
+        return message;
     }
 
     @Override
     public void sendVerificationEmail(String to, String verificationLink) throws MessagingException, IOException {
+        mailSender.send(buildVerificationEmail(to, verificationLink));
+    }
+
+    @Override
+    public MimeMessage buildVerificationEmail(String to, String verificationLink) throws MessagingException {
         Context context = new Context();
         context.setVariable("email", to);
         context.setVariable("verificationLink", verificationLink);
@@ -67,8 +106,7 @@ public class EmailServiceImpl implements EmailService {
         helper.setTo(to);
         helper.setSubject("✉️ Xác thực tài khoản - SecureShop");
         helper.setText(htmlContent, true);
-
-        mailSender.send(message);
+        return message;
     }
 
     @Override
@@ -78,17 +116,25 @@ public class EmailServiceImpl implements EmailService {
             return;
         }
 
-        Context context = new Context(Locale.forLanguageTag("vi-VN"));
+        try {
+            mailSender.send(buildOrderConfirmationEmail(order));
+            log.info("Order email sent to {} for orderId={}", order.getUser().getEmail(), order.getId());
+        } catch (Exception ex) {
+            log.error("Failed to send order email for orderId={}", order.getId(), ex);
+            if (ex instanceof MessagingException me) throw me;
+        }
+    }
+
+    @Override
+    public MimeMessage buildOrderConfirmationEmail(Order order) throws MessagingException {
+        Context context = new Context(VI);
         context.setVariable("orderId", order.getId());
         context.setVariable("orderName", getOrderName(order));
         context.setVariable("customerName", order.getUser().getName());
-        String createdAtStr = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")
-            .withLocale(Locale.forLanguageTag("vi-VN"))
-            .withZone(ZoneId.systemDefault())
-            .format(order.getCreatedAt());
-        context.setVariable("createdAt", createdAtStr);
+        context.setVariable("createdAt", CREATED_AT_FORMAT.format(order.getCreatedAt()));
+        context.setVariable("currentYear", Year.now().getValue());
 
-        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(Locale.forLanguageTag("vi-VN"));
+        NumberFormat currencyFormat = CURRENCY_FORMAT.get();
         context.setVariable("subTotal", formatCurrency(order.getSubTotal(), currencyFormat));
         context.setVariable("discountTotal", formatCurrency(order.getDiscountTotal(), currencyFormat));
         context.setVariable("shippingFee", formatCurrency(order.getShippingFee(), currencyFormat));
@@ -129,8 +175,7 @@ public class EmailServiceImpl implements EmailService {
             };
         }
         context.setVariable("paymentMethod", paymentMethodVi);
-        String orderLink = frontendBaseUrl.replaceAll("/$", "") + "/orders/" + order.getId();
-        context.setVariable("orderLink", orderLink);
+        context.setVariable("orderLink", orderLinkPrefix + order.getId());
 
         // Shipping address map -> join for display
         if (order.getShippingAddress() != null && !order.getShippingAddress().isEmpty()) {
@@ -149,23 +194,15 @@ public class EmailServiceImpl implements EmailService {
         // Order items
         context.setVariable("items", order.getOrderItems().stream().map(this::mapItem).toList());
 
-        try {
-            String htmlContent = templateEngine.process("order-confirmation", context);
-
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom("support@myshop.com");
-            helper.setTo(order.getUser().getEmail());
-            helper.setSubject("🛒 Xác nhận đơn hàng [" + getOrderName(order) + "] - SecureShop");
-            helper.setText(htmlContent, true);
+        String htmlContent = templateEngine.process("order-confirmation", context);
 
-            mailSender.send(message);
-            log.info("Order email sent to {} for orderId={}", order.getUser().getEmail(), order.getId());
-        } catch (Exception ex) {
-            log.error("Failed to send order email for orderId={}", order.getId(), ex);
-            if (ex instanceof MessagingException me) throw me;
-            if (ex instanceof IOException ioe) throw ioe;
-        }
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom("support@myshop.com");
+        helper.setTo(order.getUser().getEmail());
+        helper.setSubject("🛒 Xác nhận đơn hàng [" + getOrderName(order) + "] - SecureShop");
+        helper.setText(htmlContent, true);
+        return message;
     }
 
     @Override
@@ -175,34 +212,33 @@ public class EmailServiceImpl implements EmailService {
             return;
         }
 
-        Context context = new Context(Locale.forLanguageTag("vi-VN"));
-        context.setVariable("orderId", order.getId());
-        context.setVariable("orderName", getOrderName(order));
-        context.setVariable("customerName", order.getUser().getName());
-        
-        String orderLink = frontendBaseUrl.replaceAll("/$", "") + "/orders/" + order.getId();
-        context.setVariable("orderLink", orderLink);
-
         try {
-            String htmlContent = templateEngine.process("thank-you", context);
-
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom("support@myshop.com");
-            helper.setTo(order.getUser().getEmail());
-            helper.setSubject("💕 Cảm ơn bạn đã mua [" + getOrderName(order) + "] tại SecureShop");
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
+            mailSender.send(buildThankYouEmail(order));
             log.info("Thank you email sent to {} for orderId={}", order.getUser().getEmail(), order.getId());
         } catch (Exception ex) {
             log.error("Failed to send thank you email for orderId={}", order.getId(), ex);
             if (ex instanceof MessagingException me) throw me;
-            if (ex instanceof IOException ioe) throw ioe;
         }
     }
 
-    
+    @Override
+    public MimeMessage buildThankYouEmail(Order order) throws MessagingException {
+        Context context = new Context(VI);
+        context.setVariable("orderId", order.getId());
+        context.setVariable("orderName", getOrderName(order));
+        context.setVariable("customerName", order.getUser().getName());
+        context.setVariable("orderLink", orderLinkPrefix + order.getId());
+
+        String htmlContent = templateEngine.process("thank-you", context);
+
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom("support@myshop.com");
+        helper.setTo(order.getUser().getEmail());
+        helper.setSubject("💕 Cảm ơn bạn đã mua [" + getOrderName(order) + "] tại SecureShop");
+        helper.setText(htmlContent, true);
+        return message;
+    }
 
     private String getOrderName(Order order) {
         if (order.getOrderItems() == null || order.getOrderItems().isEmpty()) {
@@ -222,14 +258,16 @@ public class EmailServiceImpl implements EmailService {
     }
 
     private ItemView mapItem(OrderItem item) {
+        DecimalFormat priceFormat = PRICE_FORMAT.get();
         return new ItemView(
                 item.getProduct() != null ? item.getProduct().getName() : "(Sản phẩm)",
                 item.getQuantity() != null ? item.getQuantity() : 0,
-                item.getUnitPrice(),
-                item.getLineTotal(),
+                item.getUnitPrice() != null ? priceFormat.format(item.getUnitPrice()) : "",
+                item.getLineTotal() != null ? priceFormat.format(item.getLineTotal()) : "",
                 item.getProduct() != null ? item.getProduct().getSku() : null
         );
     }
 
-    private record ItemView(String name, Integer quantity, BigDecimal unitPrice, BigDecimal lineTotal, String sku) {}
+    // Giá đã được format sẵn để template không phải tạo DecimalFormat cho từng dòng
+    private record ItemView(String name, Integer quantity, String unitPrice, String lineTotal, String sku) {}
 }
\ No newline at end of file
@@ -0,0 +1,206 @@
+package secure_shop.backend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import secure_shop.backend.entities.MediaVariant;
+import secure_shop.backend.service.ImageVariantService;
+import secure_shop.backend.utils.ImageResizer;
+import secure_shop.backend.utils.ImageSrcset;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Biến thể {@code <tên>-<rộng>w.jpg} (hoặc {@code .png} nếu ảnh có alpha) nằm cạnh ảnh gốc,
+ * nên được phục vụ bởi cùng {@code MediaFileController} ({@code GET /uploads/{fileName}}).
+ * <p>
+ * Không có encoder WebP/AVIF trong JDK; biến thể dùng JPEG progressive không metadata với
+ * quality vừa phải, nhỏ hơn ảnh gốc nhiều lần ở kích thước hiển thị trên lưới sản phẩm.
+ */
+@Service
+@Slf4j
+public class ImageVariantServiceImpl implements ImageVariantService {
+
+    private static final String UPLOADS_SEGMENT = "/uploads/";
+    private static final String JPEG = "jpg";
+    private static final String PNG = "png";
+
+    private final ThreadPoolTaskExecutor imageExecutor;
+    private final Path uploadRoot;
+    private final List<Integer> widths;
+    private final float jpegQuality;
+    private final long maxPixels;
+
+    public ImageVariantServiceImpl(@Qualifier("imageExecutor") ThreadPoolTaskExecutor imageExecutor,
+                                   @Value("${file.upload-dir:uploads}") String uploadDir,
+                                   @Value("${image.variants.widths:160,320,640,1280}") List<Integer> widths,
+                                   @Value("${image.variants.jpeg-quality:0.8}") float jpegQuality,
+                                   @Value("${image.max-pixels:40000000}") long maxPixels) {
+        this.imageExecutor = imageExecutor;
+        this.uploadRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.widths = widths.stream().distinct().sorted(Comparator.reverseOrder()).toList();
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+    }
+
+    @Override
+    public CompletableFuture<ImageInfo> generateVariantsAsync(Path original, String originalUrl) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return generateVariants(original, originalUrl);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, imageExecutor);
+    }
+
+    @Override
+    public Optional<ImageInfo> describe(String url) {
+        Path original = resolveUpload(url);
+        if (original == null || !Files.isRegularFile(original)) {
+            return Optional.empty();
+        }
+        try {
+            Dimension size = ImageResizer.readSize(original);
+            if (size == null) {
+                return Optional.empty();
+            }
+            List<MediaVariant> variants = new ArrayList<>();
+            for (int width : widths) {
+                if (width >= size.width) {
+                    continue;
+                }
+                for (String ext : List.of(JPEG, PNG)) {
+                    Path file = variantPath(original, width, ext);
+                    if (Files.isRegularFile(file)) {
+                        variants.add(variant(original, originalUrlOf(url), width,
+                                ImageResizer.scaledHeight(size.width, size.height, width), ext, Files.size(file)));
+                        break;
+                    }
+                }
+            }
+            variants.sort(Comparator.comparing(MediaVariant::getWidth));
+            return Optional.of(new ImageInfo(size.width, size.height, variants));
+        } catch (IOException e) {
+            log.warn("Cannot read image variants for {}: {}", url, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public String srcset(String url) {
+        return describe(url)
+                .map(info -> ImageSrcset.build(info.variants(), url, info.width()))
+                .orElse(null);
+    }
+
+    @Override
+    public void deleteVariants(Path original) {
+        for (int width : widths) {
+            for (String ext : List.of(JPEG, PNG)) {
+                try {
+                    Files.deleteIfExists(variantPath(original, width, ext));
+                } catch (IOException e) {
+                    log.warn("Cannot delete image variant of {}: {}", original, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private ImageInfo generateVariants(Path original, String originalUrl) throws IOException {
+        long started = System.nanoTime();
+        ImageResizer.Decoded decoded = ImageResizer.decode(original, maxPixels, widths.get(0));
+        int sourceWidth = decoded.sourceWidth();
+        int sourceHeight = decoded.sourceHeight();
+        String ext = decoded.image().getColorModel().hasAlpha() ? PNG : JPEG;
+
+        // Lớn tới nhỏ: mỗi biến thể được thu từ biến thể lớn hơn liền trước
+        List<MediaVariant> variants = new ArrayList<>();
+        BufferedImage current = decoded.image();
+        for (int width : widths) {
+            if (width >= sourceWidth) {
+                continue;
+            }
+            int height = ImageResizer.scaledHeight(sourceWidth, sourceHeight, width);
+            current = ImageResizer.resize(current, width, height);
+            Path target = variantPath(original, width, ext);
+            long size = write(current, ext, target);
+            variants.add(0, variant(original, originalUrl, width, height, ext, size));
+        }
+
+        log.debug("Generated {} variants for {} ({}x{}) in {} ms", variants.size(), original.getFileName(),
+                sourceWidth, sourceHeight, (System.nanoTime() - started) / 1_000_000);
+        return new ImageInfo(sourceWidth, sourceHeight, variants);
+    }
+
+    /** Ghi ra file tạm rồi đổi tên, để không bao giờ phục vụ một biến thể ghi dở */
+    private long write(BufferedImage image, String ext, Path target) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                if (PNG.equals(ext)) {
+                    ImageResizer.writePng(image, out);
+                } else {
+                    ImageResizer.writeJpeg(image, jpegQuality, out);
+                }
+            }
+            long size = Files.size(tmp);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return size;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private MediaVariant variant(Path original, String originalUrl, int width, int height, String ext, long size) {
+        String fileName = variantPath(original, width, ext).getFileName().toString();
+        return MediaVariant.builder()
+                .width(width)
+                .height(height)
+                .url(originalUrl.substring(0, originalUrl.lastIndexOf('/') + 1) + fileName)
+                .contentType(PNG.equals(ext) ? "image/png" : "image/jpeg")
+                .sizeBytes(size)
+                .build();
+    }
+
+    private static Path variantPath(Path original, int width, String ext) {
+        String name = original.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return original.resolveSibling(base + "-" + width + "w." + ext);
+    }
+
+    /** File gốc trong thư mục upload của một URL {@code .../uploads/<tên>}; null nếu không phải */
+    private Path resolveUpload(String url) {
+        if (url == null) {
+            return null;
+        }
+        String path = originalUrlOf(url);
+        int idx = path.lastIndexOf(UPLOADS_SEGMENT);
+        if (idx < 0) {
+            return null;
+        }
+        Path file = uploadRoot.resolve(path.substring(idx + UPLOADS_SEGMENT.length())).normalize();
+        return file.startsWith(uploadRoot) ? file : null;
+    }
+
+    private static String originalUrlOf(String url) {
+        int query = url.indexOf('?');
+        return query >= 0 ? url.substring(0, query) : url;
+    }
+}
@@ -2,6 +2,7 @@ package secure_shop.backend.service.impl;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import secure_shop.backend.dto.product.InventoryDTO;
@@ -11,6 +12,7 @@ import secure_shop.backend.mapper.InventoryMapper;
 import secure_shop.backend.repositories.InventoryRepository;
 import secure_shop.backend.repositories.ProductRepository;
 import secure_shop.backend.service.InventoryService;
+import secure_shop.backend.service.event.InventoryChangedEvent;
 
 import java.util.List;
 import java.util.UUID;
@@ -23,6 +25,7 @@ public class InventoryServiceImpl implements InventoryService {
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
     private final InventoryMapper inventoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<InventoryDTO> getAllInventories() {
@@ -52,7 +55,9 @@ public class InventoryServiceImpl implements InventoryService {
             inventory.decreaseStock(Math.abs(quantityChange));
         }
 
-        return inventoryMapper.toDTO(inventoryRepository.save(inventory));
+        Inventory saved = inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new InventoryChangedEvent(saved.getId()));
+        return inventoryMapper.toDTO(saved);
     }
 
     @Override
@@ -67,7 +72,9 @@ public class InventoryServiceImpl implements InventoryService {
                 .reserved(0)
                 .build();
 
-        return inventoryMapper.toDTO(inventoryRepository.save(inventory));
+        Inventory saved = inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new InventoryChangedEvent(saved.getId()));
+        return inventoryMapper.toDTO(saved);
     }
 
     @Transactional
@@ -76,6 +83,7 @@ public class InventoryServiceImpl implements InventoryService {
         if (updated == 0) {
             throw new IllegalStateException("Không đủ hàng tồn kho để giữ chỗ");
         }
+        eventPublisher.publishEvent(new InventoryChangedEvent(inventoryId));
     }
 
     @Transactional
@@ -84,6 +92,7 @@ public class InventoryServiceImpl implements InventoryService {
         if (updated == 0) {
             throw new IllegalStateException("Cannot release more stock than reserved");
         }
+        eventPublisher.publishEvent(new InventoryChangedEvent(inventoryId));
     }
 
     @Transactional
@@ -92,5 +101,6 @@ public class InventoryServiceImpl implements InventoryService {
         if (updated == 0) {
             throw new IllegalStateException("Không thể tiêu reserved stock (không đủ reserved/onHand)");
         }
+        eventPublisher.publishEvent(new InventoryChangedEvent(inventoryId));
     }
 }
\ No newline at end of file
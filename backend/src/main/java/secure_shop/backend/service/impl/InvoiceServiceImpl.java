@@ -5,6 +5,7 @@ import com.lowagie.text.Font;
 import com.lowagie.text.pdf.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -12,7 +13,6 @@ import org.springframework.transaction.annotation.Transactional;
 import secure_shop.backend.dto.invoice.InvoiceDetailDTO;
 import secure_shop.backend.dto.invoice.InvoiceItemDTO;
 import secure_shop.backend.dto.invoice.InvoiceSummaryDTO;
-import secure_shop.backend.dto.order.OrderDTO;
 import secure_shop.backend.entities.*;
 import secure_shop.backend.enums.InvoiceStatus;
 import secure_shop.backend.enums.PaymentMethod;
@@ -21,11 +21,11 @@ import secure_shop.backend.exception.BusinessRuleViolationException;
 import secure_shop.backend.exception.ResourceNotFoundException;
 import secure_shop.backend.repositories.*;
 import secure_shop.backend.service.InvoiceService;
+import secure_shop.backend.service.event.InventoryChangedEvent;
 
 import java.awt.Color;
 import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -39,86 +39,12 @@ public class InvoiceServiceImpl implements InvoiceService {
 
     private final InvoiceRepository   invoiceRepository;
     private final StockLogRepository  stockLogRepository;
-    private final OrderItemRepository orderItemRepository;
     private final InventoryRepository inventoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final DateTimeFormatter VN_DATE_FMT =
         DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm").withZone(ZoneId.of("Asia/Ho_Chi_Minh"));
 
-    // ── Invoice Code Generator ─────────────────────────────────────────────────
-    private synchronized String generateInvoiceCode() {
-        int year = LocalDate.now().getYear();
-        int seq  = invoiceRepository.findMaxSequenceForYear(year) + 1;
-        return String.format("INV-%d-%05d", year, seq);
-    }
-
-    // ── Create Invoice from completed Order ────────────────────────────────────
-    @Override
-    @Transactional
-    public InvoiceDetailDTO createFromOrder(
-            OrderDTO order,
-            UUID staffId,
-            String staffName,
-            BigDecimal cashReceived,
-            PaymentMethod paymentMethod) {
-
-        if (paymentMethod == PaymentMethod.COD && cashReceived != null) {
-            if (cashReceived.compareTo(order.getGrandTotal()) < 0) {
-                throw new BusinessRuleViolationException(
-                    "Tien khach dua khong du. Can it nhat: " + order.getGrandTotal());
-            }
-        }
-
-        BigDecimal effectiveCash = cashReceived != null ? cashReceived : order.getGrandTotal();
-        BigDecimal changeAmount  = effectiveCash.subtract(order.getGrandTotal()).max(BigDecimal.ZERO);
-        String     invoiceCode   = generateInvoiceCode();
-
-        Invoice invoice = Invoice.builder()
-            .invoiceCode(invoiceCode)
-            .orderId(order.getId())
-            .staffId(staffId)
-            .staffName(staffName)
-            .totalAmount(order.getGrandTotal())
-            .cashReceived(effectiveCash)
-            .changeAmount(changeAmount)
-            .paymentMethod(paymentMethod != null ? paymentMethod : PaymentMethod.COD)
-            .status(InvoiceStatus.COMPLETED)
-            .build();
-
-        var orderItems = orderItemRepository.findByOrderId(order.getId());
-        for (var oi : orderItems) {
-            InvoiceItem item = InvoiceItem.builder()
-                .productId(oi.getProduct() != null ? oi.getProduct().getId() : null)
-                .productName(oi.getProduct() != null ? oi.getProduct().getName() : "Unknown")
-                .productSku(oi.getProduct() != null ? oi.getProduct().getSku() : null)
-                .unitPrice(oi.getUnitPrice())
-                .quantity(oi.getQuantity())
-                .lineTotal(oi.getLineTotal())
-                .build();
-            invoice.addItem(item);
-
-            if (oi.getProduct() != null) {
-                Product p = oi.getProduct();
-                int qtyAfter = inventoryRepository.findByProductId(p.getId())
-                    .map(inv -> inv.getOnHand()).orElse(0);
-                StockLog sl = StockLog.builder()
-                    .productId(p.getId())
-                    .productName(p.getName())
-                    .changeQuantity(-oi.getQuantity())
-                    .quantityAfter(qtyAfter)
-                    .type(StockLogType.SALE)
-                    .referenceId(invoiceCode)
-                    .note("POS Sale - " + invoiceCode)
-                    .build();
-                stockLogRepository.save(sl);
-            }
-        }
-
-        Invoice saved = invoiceRepository.save(invoice);
-        log.info("Created invoice {} for order {}", invoiceCode, order.getId());
-        return toDetailDTO(saved);
-    }
-
     // ── Get by ID ──────────────────────────────────────────────────────────────
     @Override
     @Transactional(readOnly = true)
@@ -154,6 +80,7 @@ public class InvoiceServiceImpl implements InvoiceService {
                 inventoryRepository.findByProductId(item.getProductId()).ifPresent(inv -> {
                     inv.increaseStock(item.getQuantity());
                     inventoryRepository.save(inv);
+                    eventPublisher.publishEvent(new InventoryChangedEvent(inv.getId()));
                     StockLog sl = StockLog.builder()
                         .productId(item.getProductId())
                         .productName(item.getProductName())
@@ -404,7 +331,7 @@ public class InvoiceServiceImpl implements InvoiceService {
     }
 
     // ── Mappers ────────────────────────────────────────────────────────────────
-    private InvoiceDetailDTO toDetailDTO(Invoice inv) {
+    static InvoiceDetailDTO toDetailDTO(Invoice inv) {
         List<InvoiceItemDTO> items = inv.getItems().stream().map(i -> InvoiceItemDTO.builder()
             .id(i.getId())
             .productId(i.getProductId())
@@ -0,0 +1,341 @@
+package secure_shop.backend.service.impl;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import secure_shop.backend.dto.mail.MailQueueStatsDTO;
+import secure_shop.backend.entities.MailOutbox;
+import secure_shop.backend.entities.Order;
+import secure_shop.backend.enums.MailOutboxStatus;
+import secure_shop.backend.enums.MailType;
+import secure_shop.backend.repositories.MailOutboxRepository;
+import secure_shop.backend.repositories.OrderRepository;
+import secure_shop.backend.service.EmailService;
+import secure_shop.backend.service.MailQueueService;
+import secure_shop.backend.utils.TruncateUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Outbox-backed mail pipeline.
+ * <p>
+ * Order and account emails are written to {@code mail_outbox} inside the caller's transaction
+ * and a drain is kicked off after commit. A single drainer per instance claims due rows, renders them and
+ * sends the whole batch over one SMTP connection; failures are retried with exponential backoff.
+ * A scheduled poll picks up anything a crash or a full executor left behind, so no caller
+ * thread ever sleeps on or sends an email itself.
+ */
+@Service
+@Slf4j
+public class MailQueueServiceImpl implements MailQueueService {
+
+    private static final List<MailOutboxStatus> CLAIMABLE = List.of(MailOutboxStatus.PENDING, MailOutboxStatus.SENDING);
+
+    private final MailOutboxRepository outboxRepository;
+    private final OrderRepository orderRepository;
+    private final EmailService emailService;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate readOnlyTx;
+    private final ThreadPoolTaskExecutor mailExecutor;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration lease;
+    private final int retentionDays;
+
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedAttemptCount = new AtomicLong();
+    private final AtomicLong renderCount = new AtomicLong();
+    private final AtomicLong renderNanosTotal = new AtomicLong();
+    private final AtomicLong renderNanosMax = new AtomicLong();
+
+    public MailQueueServiceImpl(MailOutboxRepository outboxRepository,
+                                OrderRepository orderRepository,
+                                EmailService emailService,
+                                JavaMailSender mailSender,
+                                TransactionTemplate transactionTemplate,
+                                @Qualifier("mailExecutor") ThreadPoolTaskExecutor mailExecutor,
+                                @Value("${mail.outbox.batch-size:20}") int batchSize,
+                                @Value("${mail.outbox.max-attempts:6}") int maxAttempts,
+                                @Value("${mail.outbox.base-backoff-seconds:30}") long baseBackoffSeconds,
+                                @Value("${mail.outbox.lease-seconds:120}") long leaseSeconds,
+                                @Value("${mail.outbox.retention-days:7}") int retentionDays) {
+        this.outboxRepository = outboxRepository;
+        this.orderRepository = orderRepository;
+        this.emailService = emailService;
+        this.mailSender = mailSender;
+        this.readOnlyTx = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTx.setReadOnly(true);
+        this.mailExecutor = mailExecutor;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Duration.ofSeconds(baseBackoffSeconds);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.retentionDays = retentionDays;
+    }
+
+    // ===== Enqueue =====
+
+    @Override
+    public void enqueueOrderConfirmation(Order order) {
+        enqueue(MailType.ORDER_CONFIRMATION, order);
+    }
+
+    @Override
+    public void enqueueThankYou(Order order) {
+        enqueue(MailType.THANK_YOU, order);
+    }
+
+    private void enqueue(MailType type, Order order) {
+        if (order == null || order.getId() == null || order.getUser() == null || order.getUser().getEmail() == null) {
+            log.warn("Skip queueing {} email: missing user/email. orderId={}", type, order != null ? order.getId() : null);
+            return;
+        }
+        outboxRepository.save(MailOutbox.builder()
+                .type(type)
+                .orderId(order.getId())
+                .recipient(order.getUser().getEmail())
+                .nextAttemptAt(Instant.now())
+                .build());
+        runAfterCommit(this::requestDrain);
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ===== Auth emails =====
+
+    @Override
+    public void sendVerificationEmail(String to, String verificationLink) {
+        enqueueLink(MailType.VERIFICATION, to, verificationLink);
+    }
+
+    @Override
+    public void sendResetPasswordEmail(String to, String resetLink) {
+        enqueueLink(MailType.RESET_PASSWORD, to, resetLink);
+    }
+
+    private void enqueueLink(MailType type, String to, String link) {
+        if (to == null || to.isBlank()) {
+            log.warn("Skip queueing {} email: missing recipient", type);
+            return;
+        }
+        // Lỗi gửi/executor đầy: bản ghi vẫn nằm trong outbox và được poll gửi lại theo backoff
+        outboxRepository.save(MailOutbox.builder()
+                .type(type)
+                .recipient(to)
+                .link(link)
+                .nextAttemptAt(Instant.now())
+                .build());
+        runAfterCommit(this::requestDrain);
+    }
+
+    // ===== Drain =====
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:30000}",
+            initialDelayString = "${mail.outbox.poll-interval-ms:30000}")
+    public void pollOutbox() {
+        requestDrain();
+    }
+
+    @Scheduled(cron = "${mail.outbox.purge-cron:0 30 3 * * *}")
+    public void purgeSent() {
+        int deleted = outboxRepository.deleteSentBefore(MailOutboxStatus.SENT,
+                Instant.now().minus(retentionDays, ChronoUnit.DAYS));
+        if (deleted > 0) {
+            log.info("Purged {} sent mail_outbox rows", deleted);
+        }
+    }
+
+    private void requestDrain() {
+        drainRequested.set(true);
+        if (drainLock.isLocked()) {
+            // Drainer hiện tại sẽ thấy cờ và quét thêm một vòng
+            return;
+        }
+        try {
+            mailExecutor.execute(this::drain);
+        } catch (TaskRejectedException ex) {
+            log.warn("Mail executor saturated; outbox will be drained by the next poll");
+        }
+    }
+
+    private void drain() {
+        if (!drainLock.tryLock()) {
+            return;
+        }
+        try {
+            boolean more = true;
+            while (drainRequested.getAndSet(false) || more) {
+                more = processBatch();
+            }
+        } catch (Exception ex) {
+            log.error("Mail outbox drain failed", ex);
+        } finally {
+            drainLock.unlock();
+        }
+        // Yêu cầu đến đúng lúc vòng lặp vừa kết thúc và lock chưa nhả
+        if (drainRequested.get()) {
+            requestDrain();
+        }
+    }
+
+    /** @return true nếu có thể còn bản ghi đến hạn (batch đầy) */
+    private boolean processBatch() {
+        Instant now = Instant.now();
+        List<MailOutbox> due = outboxRepository.findByStatusInAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                CLAIMABLE, now, PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return false;
+        }
+
+        List<MailOutbox> claimed = new ArrayList<>(due.size());
+        for (MailOutbox row : due) {
+            if (outboxRepository.claim(row.getId(), MailOutboxStatus.SENDING, CLAIMABLE, now, now.plus(lease)) == 1) {
+                claimed.add(row);
+            }
+        }
+
+        Map<MimeMessage, MailOutbox> messages = new IdentityHashMap<>();
+        Map<MailOutbox, Exception> failures = new IdentityHashMap<>();
+        readOnlyTx.executeWithoutResult(status -> {
+            for (MailOutbox row : claimed) {
+                try {
+                    long started = System.nanoTime();
+                    MimeMessage message = render(row);
+                    recordRender(System.nanoTime() - started);
+                    messages.put(message, row);
+                } catch (Exception ex) {
+                    failures.put(row, ex);
+                }
+            }
+        });
+
+        if (!messages.isEmpty()) {
+            try {
+                // JavaMailSenderImpl gửi cả mảng qua một kết nối SMTP
+                mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+            } catch (MailSendException ex) {
+                ex.getFailedMessages().forEach((message, cause) -> {
+                    MailOutbox row = messages.get(message);
+                    if (row != null) {
+                        failures.put(row, cause);
+                    }
+                });
+                if (ex.getFailedMessages().isEmpty()) {
+                    messages.values().forEach(row -> failures.put(row, ex));
+                }
+            } catch (MailException ex) {
+                messages.values().forEach(row -> failures.put(row, ex));
+            }
+        }
+
+        Instant finishedAt = Instant.now();
+        for (MailOutbox row : claimed) {
+            Exception failure = failures.get(row);
+            row.setAttempts(row.getAttempts() + 1);
+            if (failure == null) {
+                row.setStatus(MailOutboxStatus.SENT);
+                row.setSentAt(finishedAt);
+                row.setLastError(null);
+                row.setLink(null);
+                sentCount.incrementAndGet();
+            } else {
+                failedAttemptCount.incrementAndGet();
+                row.setLastError(TruncateUtils.truncate(failure.getMessage()));
+                if (row.getAttempts() >= maxAttempts) {
+                    row.setStatus(MailOutboxStatus.FAILED);
+                    row.setLink(null);
+                    log.error("Giving up {} email for orderId={} after {} attempts", row.getType(), row.getOrderId(), row.getAttempts(), failure);
+                } else {
+                    row.setStatus(MailOutboxStatus.PENDING);
+                    row.setNextAttemptAt(finishedAt.plus(backoff(row.getAttempts())));
+                    log.warn("Failed to send {} email for orderId={} (attempt {}): {}", row.getType(), row.getOrderId(), row.getAttempts(), failure.getMessage());
+                }
+            }
+        }
+        outboxRepository.saveAll(claimed);
+
+        return due.size() == batchSize;
+    }
+
+    private MimeMessage render(MailOutbox row) throws MessagingException {
+        return switch (row.getType()) {
+            case VERIFICATION -> emailService.buildVerificationEmail(row.getRecipient(), row.getLink());
+            case RESET_PASSWORD -> emailService.buildResetPasswordEmail(row.getRecipient(), row.getLink());
+            case ORDER_CONFIRMATION -> emailService.buildOrderConfirmationEmail(findOrder(row));
+            case THANK_YOU -> emailService.buildThankYouEmail(findOrder(row));
+        };
+    }
+
+    private Order findOrder(MailOutbox row) {
+        return orderRepository.findById(row.getOrderId())
+                .orElseThrow(() -> new IllegalStateException("Order not found: " + row.getOrderId()));
+    }
+
+    private void recordRender(long nanos) {
+        renderCount.incrementAndGet();
+        renderNanosTotal.addAndGet(nanos);
+        renderNanosMax.accumulateAndGet(nanos, Math::max);
+    }
+
+    private Duration backoff(int attempts) {
+        // 30s, 1m, 2m, 4m, ... tối đa 1 giờ
+        long seconds = baseBackoff.getSeconds() << Math.min(attempts - 1, 16);
+        return Duration.ofSeconds(Math.min(seconds, 3600));
+    }
+
+    // ===== Metrics =====
+
+    @Override
+    public MailQueueStatsDTO getStats() {
+        long rendered = renderCount.get();
+        return MailQueueStatsDTO.builder()
+                .pending(outboxRepository.countByStatus(MailOutboxStatus.PENDING))
+                .sending(outboxRepository.countByStatus(MailOutboxStatus.SENDING))
+                .failed(outboxRepository.countByStatus(MailOutboxStatus.FAILED))
+                .executorQueueSize(mailExecutor.getQueueSize())
+                .executorActiveThreads(mailExecutor.getActiveCount())
+                .sentSinceStartup(sentCount.get())
+                .failedAttemptsSinceStartup(failedAttemptCount.get())
+                .renderedSinceStartup(rendered)
+                .avgRenderMillis(rendered == 0 ? 0.0 : renderNanosTotal.get() / 1_000_000.0 / rendered)
+                .maxRenderMillis(renderNanosMax.get() / 1_000_000.0)
+                .build();
+    }
+}
@@ -7,10 +7,13 @@ import org.springframework.transaction.annotation.Transactional;
 import secure_shop.backend.dto.product.MediaAssetDTO;
 import secure_shop.backend.entities.MediaAsset;
 import secure_shop.backend.entities.Product;
+import secure_shop.backend.mapper.MediaAssetMapper;
 import secure_shop.backend.repositories.MediaAssetRepository;
 import secure_shop.backend.repositories.ProductRepository;
+import secure_shop.backend.service.ImageVariantService;
 import secure_shop.backend.service.MediaAssetService;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,10 +24,12 @@ public class MediaAssetServiceImpl implements MediaAssetService {
 
     private final MediaAssetRepository mediaAssetRepository;
     private final ProductRepository productRepository;
+    private final ImageVariantService imageVariantService;
+    private final MediaAssetMapper mediaAssetMapper;
 
     @Override
     public List<MediaAssetDTO> getMediaByProductId(UUID productId) {
-        List<MediaAsset> assets = mediaAssetRepository.findByProductId(productId);
+        List<MediaAsset> assets = mediaAssetRepository.findByProductIdOrderBySortOrderAscIdAsc(productId);
         return assets.stream()
                 .map(this::toDTO)
                 .toList();
@@ -39,7 +44,13 @@ public class MediaAssetServiceImpl implements MediaAssetService {
                 .url(url)
                 .altText(altText)
                 .product(product)
+                .sortOrder(mediaAssetRepository.nextSortOrder(productId))
                 .build();
+        imageVariantService.describe(url).ifPresent(info -> {
+            asset.setWidth(info.width());
+            asset.setHeight(info.height());
+            asset.setVariants(new ArrayList<>(info.variants()));
+        });
 
         return toDTO(mediaAssetRepository.save(asset));
     }
@@ -53,12 +64,6 @@ public class MediaAssetServiceImpl implements MediaAssetService {
     }
 
     private MediaAssetDTO toDTO(MediaAsset entity) {
-        return MediaAssetDTO.builder()
-                .id(entity.getId())
-                .url(entity.getUrl())
-                .altText(entity.getAltText())
-                .productName(entity.getProduct().getName())
-                .productId(entity.getProduct().getId().toString())
-                .build();
+        return mediaAssetMapper.toDTO(entity);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,279 @@
+package secure_shop.backend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import secure_shop.backend.dto.product.MediaCleanupReportDTO;
+import secure_shop.backend.exception.ConflictException;
+import secure_shop.backend.repositories.ArticleRepository;
+import secure_shop.backend.repositories.CategoryRepository;
+import secure_shop.backend.repositories.MediaAssetRepository;
+import secure_shop.backend.repositories.ProductRepository;
+import secure_shop.backend.repositories.UserRepository;
+import secure_shop.backend.service.MediaCleanupService;
+import secure_shop.backend.service.MediaStoreService;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Dọn file mồ côi trong thư mục upload theo kiểu mark-and-sweep.
+ * <p>
+ * Mark: gom khóa lưu trữ (tên file bỏ phần mở rộng và hậu tố biến thể) của mọi URL ảnh còn
+ * được tham chiếu — media_assets, thumbnail sản phẩm, ảnh danh mục, avatar và ảnh nhúng trong
+ * bài viết — vào một {@link HashSet}, mỗi bảng đọc bằng một stream trong một transaction chỉ đọc.
+ * Sweep: duyệt thư mục một lần, nhóm file theo khóa; một khóa không được tham chiếu chỉ bị xóa
+ * khi mọi file của nó (bản gốc và các biến thể) đều cũ hơn thời gian ân hạn, để upload vừa xong
+ * nhưng chưa gắn vào sản phẩm không bị xóa.
+ */
+@Service
+@Slf4j
+public class MediaCleanupServiceImpl implements MediaCleanupService {
+
+    /** URL upload nhúng trong HTML bài viết */
+    private static final Pattern EMBEDDED_UPLOAD =
+            Pattern.compile("/uploads/([A-Za-z0-9][A-Za-z0-9_-]*\\.[A-Za-z0-9]{1,5})");
+    private static final String TEMP_PREFIX = ".upload-";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final MediaStoreService mediaStoreService;
+    private final MediaAssetRepository mediaAssetRepository;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final ArticleRepository articleRepository;
+    private final TransactionTemplate readOnlyTx;
+
+    private final boolean enabled;
+    private final Duration grace;
+    private final Duration deletedProductRetention;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+    private volatile MediaCleanupReportDTO lastReport;
+
+    public MediaCleanupServiceImpl(MediaStoreService mediaStoreService,
+                                   MediaAssetRepository mediaAssetRepository,
+                                   ProductRepository productRepository,
+                                   CategoryRepository categoryRepository,
+                                   UserRepository userRepository,
+                                   ArticleRepository articleRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${media.gc.enabled:true}") boolean enabled,
+                                   @Value("${media.gc.grace-hours:24}") long graceHours,
+                                   @Value("${media.gc.deleted-product-retention-days:30}") long retentionDays) {
+        this.mediaStoreService = mediaStoreService;
+        this.mediaAssetRepository = mediaAssetRepository;
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.userRepository = userRepository;
+        this.articleRepository = articleRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.enabled = enabled;
+        this.grace = Duration.ofHours(graceHours);
+        this.deletedProductRetention = Duration.ofDays(retentionDays);
+    }
+
+    @Scheduled(cron = "${media.gc.cron:0 30 4 * * *}")
+    public void scheduledCollect() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            collect(false);
+        } catch (ConflictException ex) {
+            log.info("Media GC skipped: a run is already in progress");
+        } catch (Exception ex) {
+            log.error("Media GC failed", ex);
+        }
+    }
+
+    @Override
+    public MediaCleanupReportDTO collect(boolean dryRun) {
+        if (!runLock.tryLock()) {
+            throw new ConflictException("Đang có một lượt dọn media khác chạy");
+        }
+        try {
+            Instant startedAt = Instant.now();
+            // Cutoff tính trước khi mark: file xuất hiện trong lúc mark luôn nằm trong ân hạn
+            Instant cutoff = startedAt.minus(grace);
+            Set<String> referenced = markReferencedKeys(startedAt.minus(deletedProductRetention));
+            MediaCleanupReportDTO report = sweep(referenced, cutoff, dryRun);
+            report.setStartedAt(startedAt);
+            report.setDurationMs(Duration.between(startedAt, Instant.now()).toMillis());
+            lastReport = report;
+            log.info("Media GC{}: scanned {} files ({} bytes), {} orphans, deleted {} ({} bytes), {} within grace, {} failures",
+                    dryRun ? " (dry run)" : "", report.getFilesScanned(), report.getBytesScanned(),
+                    report.getOrphanFiles(), report.getFilesDeleted(), report.getBytesReclaimed(),
+                    report.getFilesWithinGrace(), report.getFailures());
+            return report;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isReferenced(String fileName) {
+        // Instant.EPOCH: mọi sản phẩm đã xóa mềm vẫn được tính, vì có thể được khôi phục
+        return markReferencedKeys(Instant.EPOCH).contains(mediaStoreService.storageKey(fileName));
+    }
+
+    @Override
+    public MediaCleanupReportDTO getLastReport() {
+        return lastReport;
+    }
+
+    // ===== Mark =====
+
+    private Set<String> markReferencedKeys(Instant deletedAfter) {
+        Set<String> keys = new HashSet<>();
+        readOnlyTx.executeWithoutResult(status -> {
+            addUrls(keys, mediaAssetRepository.streamReferencedUrls(deletedAfter));
+            addUrls(keys, productRepository.streamReferencedThumbnailUrls(deletedAfter));
+            addUrls(keys, categoryRepository.streamImageUrls());
+            addUrls(keys, userRepository.streamUploadedAvatarUrls());
+            try (Stream<String> bodies = articleRepository.streamBodiesWithUploads()) {
+                bodies.forEach(body -> {
+                    Matcher m = EMBEDDED_UPLOAD.matcher(body);
+                    while (m.find()) {
+                        keys.add(mediaStoreService.storageKey(m.group(1)));
+                    }
+                });
+            }
+        });
+        return keys;
+    }
+
+    private void addUrls(Set<String> keys, Stream<String> urls) {
+        try (urls) {
+            urls.forEach(url -> {
+                String fileName = mediaStoreService.fileNameOf(url);
+                if (fileName != null) {
+                    keys.add(mediaStoreService.storageKey(fileName));
+                }
+            });
+        }
+    }
+
+    // ===== Sweep =====
+
+    private record Candidate(Path path, long size, Instant modifiedAt) {}
+
+    private MediaCleanupReportDTO sweep(Set<String> referenced, Instant cutoff, boolean dryRun) {
+        long filesScanned = 0, bytesScanned = 0, referencedFiles = 0;
+        long failures = 0, filesDeleted = 0, bytesReclaimed = 0, filesWithinGrace = 0;
+        List<Path> staleTemps = new ArrayList<>();
+        Map<String, List<Candidate>> orphans = new HashMap<>();
+
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(mediaStoreService.root())) {
+            for (Path file : dir) {
+                String name = file.getFileName().toString();
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    // File vừa bị xóa/đổi tên bởi upload khác
+                    continue;
+                }
+                if (!attrs.isRegularFile()) {
+                    continue;
+                }
+                Instant modifiedAt = attrs.lastModifiedTime().toInstant();
+                if (name.startsWith(TEMP_PREFIX) && name.endsWith(TEMP_SUFFIX)) {
+                    // File tạm của upload bị ngắt giữa chừng
+                    if (modifiedAt.isBefore(cutoff)) {
+                        staleTemps.add(file);
+                    }
+                    continue;
+                }
+                if (!mediaStoreService.isMediaFileName(name)) {
+                    continue;
+                }
+                filesScanned++;
+                bytesScanned += attrs.size();
+                String key = mediaStoreService.storageKey(name);
+                if (referenced.contains(key)) {
+                    referencedFiles++;
+                } else {
+                    orphans.computeIfAbsent(key, k -> new ArrayList<>())
+                            .add(new Candidate(file, attrs.size(), modifiedAt));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot list upload directory " + mediaStoreService.root(), e);
+        }
+
+        long orphanFiles = 0, orphanBytes = 0;
+        for (List<Candidate> group : orphans.values()) {
+            boolean expired = true;
+            for (Candidate c : group) {
+                orphanFiles++;
+                orphanBytes += c.size();
+                expired &= c.modifiedAt().isBefore(cutoff);
+            }
+            if (!expired) {
+                filesWithinGrace += group.size();
+                continue;
+            }
+            for (Candidate c : group) {
+                if (dryRun) {
+                    filesDeleted++;
+                    bytesReclaimed += c.size();
+                    continue;
+                }
+                try {
+                    if (Files.deleteIfExists(c.path())) {
+                        filesDeleted++;
+                        bytesReclaimed += c.size();
+                    }
+                } catch (IOException e) {
+                    failures++;
+                    log.warn("Cannot delete orphaned media {}: {}", c.path(), e.toString());
+                }
+            }
+        }
+
+        if (!dryRun) {
+            for (Path tmp : staleTemps) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    failures++;
+                    log.warn("Cannot delete stale upload temp file {}: {}", tmp, e.toString());
+                }
+            }
+        }
+
+        return MediaCleanupReportDTO.builder()
+                .dryRun(dryRun)
+                .filesScanned(filesScanned)
+                .bytesScanned(bytesScanned)
+                .referencedKeys(referenced.size())
+                .referencedFiles(referencedFiles)
+                .orphanFiles(orphanFiles)
+                .orphanBytes(orphanBytes)
+                .filesDeleted(filesDeleted)
+                .bytesReclaimed(bytesReclaimed)
+                .filesWithinGrace(filesWithinGrace)
+                .failures(failures)
+                .build();
+    }
+}
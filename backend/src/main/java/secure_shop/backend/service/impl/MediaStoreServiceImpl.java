@@ -0,0 +1,140 @@
+package secure_shop.backend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import secure_shop.backend.service.MediaStoreService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+@Service
+@Slf4j
+public class MediaStoreServiceImpl implements MediaStoreService {
+
+    public static final String URL_PREFIX = "/uploads/";
+
+    /** {@code <sha256>.<ext>} hoặc biến thể {@code <sha256>-<rộng>w.<ext>} */
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("^[0-9a-f]{64}(-\\d{1,5}w)?\\.[a-z0-9]{1,5}$");
+    /** Tên file hợp lệ trong thư mục upload (kể cả file UUID cũ), không có đường dẫn con */
+    private static final Pattern SAFE_NAME = Pattern.compile("^[A-Za-z0-9][A-Za-z0-9_-]*\\.[A-Za-z0-9]{1,5}$");
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("^[a-z0-9]{1,5}$");
+    private static final Pattern VARIANT_SUFFIX = Pattern.compile("-\\d{1,5}w$");
+
+    private final Path uploadRoot;
+
+    public MediaStoreServiceImpl(@Value("${file.upload-dir:uploads}") String uploadDir) throws IOException {
+        this.uploadRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Files.createDirectories(uploadRoot);
+    }
+
+    @Override
+    public StoredFile store(InputStream content, String extension) throws IOException {
+        String ext = extension == null ? "" : extension.toLowerCase();
+        if (!SAFE_EXTENSION.matcher(ext).matches()) {
+            throw new IllegalArgumentException("Phần mở rộng file không hợp lệ");
+        }
+
+        // File tạm cùng thư mục để đổi tên nguyên tử
+        Path tmp = Files.createTempFile(uploadRoot, ".upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+                size = content.transferTo(out);
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            String fileName = sha256 + "." + ext;
+            Path target = uploadRoot.resolve(fileName);
+
+            if (Files.exists(target)) {
+                // Làm mới mtime: file mồ côi cũ vừa được upload lại không bị dọn trước khi kịp gắn vào sản phẩm
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                log.debug("Upload deduplicated as {}", fileName);
+                return new StoredFile(sha256, fileName, target, size, true);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Cùng nội dung được upload đồng thời
+                return new StoredFile(sha256, fileName, target, size, true);
+            }
+            return new StoredFile(sha256, fileName, target, size, false);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public Optional<Path> resolve(String fileName) {
+        if (!isMediaFileName(fileName)) {
+            return Optional.empty();
+        }
+        Path file = uploadRoot.resolve(fileName).normalize();
+        return file.startsWith(uploadRoot) && Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @Override
+    public boolean isContentAddressed(String fileName) {
+        return fileName != null && CONTENT_ADDRESSED.matcher(fileName).matches();
+    }
+
+    @Override
+    public String urlOf(String fileName) {
+        return URL_PREFIX + fileName;
+    }
+
+    @Override
+    public String fileNameOf(String url) {
+        if (url == null) {
+            return null;
+        }
+        int query = url.indexOf('?');
+        String path = query >= 0 ? url.substring(0, query) : url;
+        int idx = path.lastIndexOf(URL_PREFIX);
+        if (idx < 0) {
+            return null;
+        }
+        String name = path.substring(idx + URL_PREFIX.length());
+        return isMediaFileName(name) ? name : null;
+    }
+
+    @Override
+    public boolean isMediaFileName(String fileName) {
+        return fileName != null && SAFE_NAME.matcher(fileName).matches();
+    }
+
+    @Override
+    public String storageKey(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return VARIANT_SUFFIX.matcher(base).replaceFirst("");
+    }
+
+    @Override
+    public Path root() {
+        return uploadRoot;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package secure_shop.backend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import secure_shop.backend.dto.product.ImageUploadResultDTO;
+import secure_shop.backend.exception.PayloadTooLargeException;
+import secure_shop.backend.mapper.MediaAssetMapper;
+import secure_shop.backend.service.ImageVariantService;
+import secure_shop.backend.service.MediaStoreService;
+import secure_shop.backend.service.MediaUploadService;
+import secure_shop.backend.utils.ImageSniffer;
+import secure_shop.backend.utils.ImageSrcset;
+import secure_shop.backend.utils.LimitedInputStream;
+import secure_shop.backend.utils.MultipartStreamReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Upload ảnh không qua {@code MultipartFile}: bộ nhớ dùng cho mỗi request là một buffer cố định
+ * bất kể số lượng/kích thước ảnh, và file sai định dạng hoặc quá lớn bị từ chối ngay khi đọc tới.
+ */
+@Service
+@Slf4j
+public class MediaUploadServiceImpl implements MediaUploadService {
+
+    private final MediaStoreService mediaStore;
+    private final ImageVariantService imageVariantService;
+    private final MediaAssetMapper mediaAssetMapper;
+    private final long maxFileBytes;
+    private final long maxRequestBytes;
+    private final int maxBatchFiles;
+
+    public MediaUploadServiceImpl(MediaStoreService mediaStore,
+                                  ImageVariantService imageVariantService,
+                                  MediaAssetMapper mediaAssetMapper,
+                                  @Value("${media.upload.max-file-bytes:5242880}") long maxFileBytes,
+                                  @Value("${media.upload.max-request-bytes:104857600}") long maxRequestBytes,
+                                  @Value("${media.upload.max-files:50}") int maxBatchFiles) {
+        this.mediaStore = mediaStore;
+        this.imageVariantService = imageVariantService;
+        this.mediaAssetMapper = mediaAssetMapper;
+        this.maxFileBytes = maxFileBytes;
+        this.maxRequestBytes = maxRequestBytes;
+        this.maxBatchFiles = maxBatchFiles;
+    }
+
+    @Override
+    public CompletableFuture<List<ImageUploadResultDTO>> uploadImages(InputStream body, String contentType,
+                                                                      long contentLength, int maxFiles)
+            throws IOException {
+        String boundary = MultipartStreamReader.boundaryOf(contentType);
+        if (boundary == null) {
+            throw new IllegalArgumentException("Yêu cầu phải có dạng multipart/form-data");
+        }
+        String tooLarge = "Tổng kích thước upload không được vượt quá " + megabytes(maxRequestBytes);
+        if (contentLength > maxRequestBytes) {
+            throw new PayloadTooLargeException(tooLarge);
+        }
+
+        MultipartStreamReader reader = new MultipartStreamReader(
+                new LimitedInputStream(body, maxRequestBytes, () -> new PayloadTooLargeException(tooLarge)), boundary);
+        List<CompletableFuture<ImageUploadResultDTO>> results = new ArrayList<>();
+        int files = 0;
+        MultipartStreamReader.Part part;
+        while ((part = reader.next()) != null) {
+            if (part.fileName() == null) {
+                continue;
+            }
+            if (files++ >= maxFiles) {
+                results.add(CompletableFuture.completedFuture(
+                        rejected(part.fileName(), HttpStatus.BAD_REQUEST, "Tối đa " + maxFiles + " ảnh mỗi lần upload")));
+                continue;
+            }
+            results.add(storeAndProcess(part, results));
+        }
+
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(done -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    @Override
+    public int getMaxBatchFiles() {
+        return maxBatchFiles;
+    }
+
+    private CompletableFuture<ImageUploadResultDTO> storeAndProcess(MultipartStreamReader.Part part,
+                                                                    List<CompletableFuture<ImageUploadResultDTO>> inFlight)
+            throws IOException {
+        String fileName = part.fileName();
+        MediaStoreService.StoredFile stored;
+        ImageSniffer.Format format;
+        try {
+            InputStream content = new LimitedInputStream(part.body(), maxFileBytes, FileTooLargeException::new);
+            byte[] head = content.readNBytes(ImageSniffer.HEAD_BYTES);
+            if (head.length == 0) {
+                return CompletableFuture.completedFuture(
+                        rejected(fileName, HttpStatus.BAD_REQUEST, "File không được để trống"));
+            }
+            Optional<ImageSniffer.Format> sniffed = ImageSniffer.sniff(head, head.length);
+            if (sniffed.isEmpty()) {
+                return CompletableFuture.completedFuture(
+                        rejected(fileName, HttpStatus.BAD_REQUEST, "Chỉ chấp nhận ảnh JPEG, PNG hoặc GIF"));
+            }
+            format = sniffed.get();
+            // Băm và ghi trong lúc đọc phần còn lại của part
+            stored = mediaStore.store(new SequenceInputStream(new ByteArrayInputStream(head), content),
+                    format.extension());
+        } catch (FileTooLargeException e) {
+            return CompletableFuture.completedFuture(rejected(fileName, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Kích thước file không được vượt quá " + megabytes(maxFileBytes)));
+        }
+
+        String url = mediaStore.urlOf(stored.fileName());
+        if (stored.deduplicated()) {
+            // Ảnh đã có: dùng lại các biến thể đã tạo
+            Optional<ImageVariantService.ImageInfo> existing = imageVariantService.describe(url);
+            if (existing.isPresent() && !existing.get().variants().isEmpty()) {
+                return CompletableFuture.completedFuture(created(fileName, stored, format, url, existing.get()));
+            }
+        }
+
+        CompletableFuture<ImageVariantService.ImageInfo> processing;
+        try {
+            processing = submit(stored, url, inFlight);
+        } catch (TaskRejectedException e) {
+            discard(stored);
+            return CompletableFuture.completedFuture(rejected(fileName, HttpStatus.SERVICE_UNAVAILABLE,
+                    "Hệ thống đang xử lý nhiều ảnh, vui lòng thử lại sau"));
+        }
+
+        return processing.handle((info, ex) -> {
+            if (ex == null) {
+                return created(fileName, stored, format, url, info);
+            }
+            discard(stored);
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof IllegalArgumentException) {
+                return rejected(fileName, HttpStatus.BAD_REQUEST, cause.getMessage());
+            }
+            log.error("Image processing failed for {}", stored.fileName(), cause);
+            return rejected(fileName, HttpStatus.INTERNAL_SERVER_ERROR, "Lỗi khi xử lý ảnh: " + cause.getMessage());
+        });
+    }
+
+    /**
+     * Pool ảnh đầy: chờ ảnh cũ nhất của chính request này xong rồi thử lại, nên một lần upload
+     * hàng loạt tự điều tiết thay vì bị từ chối; chỉ từ chối khi request không có ảnh nào đang xử lý.
+     */
+    private CompletableFuture<ImageVariantService.ImageInfo> submit(MediaStoreService.StoredFile stored, String url,
+                                                                    List<CompletableFuture<ImageUploadResultDTO>> inFlight) {
+        while (true) {
+            try {
+                return imageVariantService.generateVariantsAsync(stored.path(), url);
+            } catch (TaskRejectedException e) {
+                CompletableFuture<ImageUploadResultDTO> oldest = inFlight.stream()
+                        .filter(f -> !f.isDone())
+                        .findFirst()
+                        .orElseThrow(() -> e);
+                oldest.join();
+            }
+        }
+    }
+
+    private ImageUploadResultDTO created(String fileName, MediaStoreService.StoredFile stored,
+                                         ImageSniffer.Format format, String url, ImageVariantService.ImageInfo info) {
+        return ImageUploadResultDTO.builder()
+                .status(HttpStatus.CREATED.value())
+                .fileName(fileName)
+                .url(url)
+                .path(stored.fileName())
+                .sha256(stored.sha256())
+                .deduplicated(stored.deduplicated())
+                .sizeBytes(stored.size())
+                .contentType(format.contentType())
+                .width(info.width())
+                .height(info.height())
+                .variants(info.variants().stream().map(mediaAssetMapper::toVariantDTO).toList())
+                .srcset(ImageSrcset.build(info.variants(), url, info.width()))
+                .message("Upload thành công")
+                .build();
+    }
+
+    private static ImageUploadResultDTO rejected(String fileName, HttpStatus status, String error) {
+        return ImageUploadResultDTO.builder()
+                .status(status.value())
+                .fileName(fileName)
+                .error(error)
+                .build();
+    }
+
+    /** Chỉ xóa file do chính lần upload này tạo ra; file trùng nội dung có thể đang được dùng */
+    private void discard(MediaStoreService.StoredFile stored) {
+        if (stored.deduplicated()) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(stored.path());
+        } catch (IOException e) {
+            log.warn("Cannot delete {}: {}", stored.path(), e.getMessage());
+        }
+        imageVariantService.deleteVariants(stored.path());
+    }
+
+    private static String megabytes(long bytes) {
+        return (bytes / (1024 * 1024)) + "MB";
+    }
+
+    /** Vượt giới hạn của một file (khác với giới hạn cả request) */
+    private static final class FileTooLargeException extends RuntimeException {
+        FileTooLargeException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -12,14 +12,15 @@ import secure_shop.backend.dto.order.request.OrderItemRequest;
 import secure_shop.backend.dto.order.OrderSummaryDTO;
 import secure_shop.backend.entities.*;
 import secure_shop.backend.enums.OrderStatus;
-import secure_shop.backend.enums.PaymentMethod;
 import secure_shop.backend.enums.PaymentStatus;
 import secure_shop.backend.exception.BusinessRuleViolationException;
 import secure_shop.backend.exception.ResourceNotFoundException;
 import secure_shop.backend.mapper.OrderMapper;
 import secure_shop.backend.repositories.*;
 import secure_shop.backend.service.OrderService;
-import secure_shop.backend.service.EmailService;
+import secure_shop.backend.service.event.DomainEventPublisher;
+import secure_shop.backend.service.event.OrderCreatedEvent;
+import secure_shop.backend.service.event.OrderStatusChangedEvent;
 import secure_shop.backend.service.InventoryService;
 
 import java.math.RoundingMode;
@@ -42,7 +43,7 @@ public class OrderServiceImpl implements OrderService {
     private final PaymentRepository paymentRepository;
     private final InventoryRepository inventoryRepository;
     private final InventoryService inventoryService;
-    private final EmailService emailService;
+    private final DomainEventPublisher eventPublisher;
     private final UserRepository userRepository;
     private final DiscountRepository discountRepository;
 
@@ -131,13 +132,8 @@ public class OrderServiceImpl implements OrderService {
             discountRepository.save(discount);
         }
 
-        if (request.getPaymentMethod() == null ||
-                request.getPaymentMethod() == PaymentMethod.COD) {
-            try {
-                emailService.sendOrderConfirmationEmail(savedOrder);
-            } catch (Exception ex) {
-            }
-        }
+        // Side effect (email xác nhận, ...) do listener xử lý sau khi commit
+        eventPublisher.publish(new OrderCreatedEvent(savedOrder.getId(), request.getPaymentMethod()));
         return orderMapper.toDTO(savedOrder);
     }
 
@@ -239,6 +235,7 @@ public class OrderServiceImpl implements OrderService {
         order.setConfirmedAt(Instant.now());
 
         Order updatedOrder = orderRepository.save(order);
+        eventPublisher.publish(new OrderStatusChangedEvent(id, OrderStatus.PENDING, OrderStatus.WAITING_FOR_DELIVERY));
         return orderMapper.toDTO(updatedOrder);
     }
 
@@ -254,6 +251,8 @@ public class OrderServiceImpl implements OrderService {
         } catch (Exception ignored) {
         }
 
+        OrderStatus previousStatus = order.getStatus();
+
         // Validate that order can be cancelled
         if (order.getStatus() == OrderStatus.CANCELLED) {
             throw new BusinessRuleViolationException("Order already cancelled");
@@ -298,6 +297,7 @@ public class OrderServiceImpl implements OrderService {
         }
 
         Order updatedOrder = orderRepository.save(order);
+        eventPublisher.publish(new OrderStatusChangedEvent(id, previousStatus, OrderStatus.CANCELLED));
         return orderMapper.toDTO(updatedOrder);
     }
 
@@ -376,6 +376,7 @@ public class OrderServiceImpl implements OrderService {
         Payment payment = order.getPayment();
 
         // Update status
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(newStatus);
 
         // If status is DELIVERED, ensure order is considered PAID (for all payment methods)
@@ -399,15 +400,13 @@ public class OrderServiceImpl implements OrderService {
                 }
             }
             
-            // Send thank you email
-            try {
-                emailService.sendThankYouEmail(order);
-            } catch (Exception e) {
-                // Log and ignore email error
-            }
         }
 
         Order updatedOrder = orderRepository.save(order);
+        // Email cảm ơn khi DELIVERED do listener gửi sau khi commit
+        if (previousStatus != newStatus) {
+            eventPublisher.publish(new OrderStatusChangedEvent(id, previousStatus, newStatus));
+        }
         return orderMapper.toDTO(updatedOrder);
     }
 
@@ -415,22 +414,4 @@ public class OrderServiceImpl implements OrderService {
     public Integer getTotalOrdersCount() {
         return orderRepository.countOrdersByCreatedAtIsNotNull();
     }
-
-    /**
-     * POS checkout: tạo đơn → xác nhận → giao hàng trong 1 transaction duy nhất.
-     * Nếu bất kỳ bước nào fail, toàn bộ sẽ rollback — không để order ở trạng thái dở.
-     */
-    @Override
-    @Transactional
-    public OrderDTO createAndCompleteOrder(OrderCreateRequest request, UUID staffId) {
-        // 1. Tạo đơn hàng (reserve stock)
-        OrderDTO created = createOrder(request, staffId);
-        UUID orderId = created.getId();
-
-        // 2. Xác nhận (consume reserved stock → WAITING_FOR_DELIVERY)
-        confirmOrder(orderId);
-
-        // 3. Chuyển sang DELIVERED (mark paid)
-        return changeOrderStatus(orderId, OrderStatus.DELIVERED.name());
-    }
 }
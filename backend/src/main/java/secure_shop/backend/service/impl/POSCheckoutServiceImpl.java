@@ -0,0 +1,142 @@
+package secure_shop.backend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import secure_shop.backend.dto.invoice.InvoiceDetailDTO;
+import secure_shop.backend.dto.order.request.OrderItemRequest;
+import secure_shop.backend.dto.pos.POSCheckoutRequest;
+import secure_shop.backend.dto.pos.POSStockDecrementRow;
+import secure_shop.backend.entities.*;
+import secure_shop.backend.enums.PaymentMethod;
+import secure_shop.backend.exception.BusinessRuleViolationException;
+import secure_shop.backend.exception.ResourceNotFoundException;
+import secure_shop.backend.repositories.*;
+import secure_shop.backend.service.POSCheckoutService;
+import secure_shop.backend.service.event.InventoryChangedEvent;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Checkout POS một lượt. Khác luồng đơn online (giữ chỗ → xác nhận → giao), hàng được giao ngay
+ * tại quầy nên tồn kho được trừ thẳng bằng một câu UPDATE có điều kiện cho cả giỏ hàng; đơn,
+ * payment, hóa đơn và stock log được dựng trong bộ nhớ rồi ghi trong cùng transaction. Mã hóa
+ * đơn cấp theo số lớn nhất trong năm + 1; hai quầy (hoặc lô đồng bộ offline) cấp trùng thì
+ * transaction thua chạy lại một lần, giống {@link POSSyncServiceImpl#submitSales}.
+ */
+@Service
+@Slf4j
+public class POSCheckoutServiceImpl implements POSCheckoutService {
+
+    private final ProductRepository productRepository;
+    private final InventoryRepository inventoryRepository;
+    private final OrderRepository orderRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final StockLogRepository stockLogRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate checkoutTx;
+
+    public POSCheckoutServiceImpl(ProductRepository productRepository,
+                                  InventoryRepository inventoryRepository,
+                                  OrderRepository orderRepository,
+                                  InvoiceRepository invoiceRepository,
+                                  StockLogRepository stockLogRepository,
+                                  UserRepository userRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.orderRepository = orderRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.stockLogRepository = stockLogRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.checkoutTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public InvoiceDetailDTO checkout(POSCheckoutRequest request, User staff) {
+        try {
+            return checkoutTx.execute(status -> checkoutOnce(request, staff));
+        } catch (DataIntegrityViolationException e) {
+            // Trùng mã hóa đơn với quầy khác: transaction đã rollback cả phần trừ kho, cấp lại mã
+            log.info("POS checkout by {} conflicted, retrying: {}", staff.getId(),
+                    e.getMostSpecificCause().getMessage());
+            return checkoutTx.execute(status -> checkoutOnce(request, staff));
+        }
+    }
+
+    private InvoiceDetailDTO checkoutOnce(POSCheckoutRequest request, User staff) {
+        // Gộp dòng trùng sản phẩm (order_items unique theo order + product)
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequest item : request.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        Map<UUID, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<POSSales.Line> lines = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", productId);
+            }
+            lines.add(new POSSales.Line(product, product.getPrice(), quantity));
+        });
+
+        PaymentMethod method = request.getPaymentMethod() != null ? request.getPaymentMethod() : PaymentMethod.COD;
+        BigDecimal total = POSSales.total(lines);
+        if (method == PaymentMethod.COD
+                && (request.getCashReceived() == null || request.getCashReceived().compareTo(total) < 0)) {
+            throw new BusinessRuleViolationException("Tiền khách đưa không đủ. Tổng cần trả: " + total);
+        }
+
+        List<POSStockDecrementRow> decremented = inventoryRepository.decrementForSale(toStockJson(lines));
+        if (decremented.size() != lines.size()) {
+            Set<UUID> done = decremented.stream()
+                    .map(row -> UUID.fromString(row.getProductId()))
+                    .collect(Collectors.toSet());
+            String missing = lines.stream()
+                    .map(POSSales.Line::product)
+                    .filter(p -> !done.contains(p.getId()))
+                    .map(Product::getSku)
+                    .collect(Collectors.joining(", "));
+            // Exception làm rollback cả các dòng đã trừ
+            throw new BusinessRuleViolationException("Không đủ tồn kho cho sản phẩm: " + missing);
+        }
+        Map<UUID, Integer> onHandAfter = decremented.stream()
+                .collect(Collectors.toMap(row -> UUID.fromString(row.getProductId()), POSStockDecrementRow::getOnHand));
+
+        Order order = orderRepository.save(POSSales.completedOrder(userRepository.getReferenceById(staff.getId()),
+                POSSales.inStoreAddress(staff), Instant.now(), method, lines));
+
+        int year = LocalDate.now().getYear();
+        String invoiceCode = POSSales.invoiceCode(year, invoiceRepository.findMaxSequenceForYear(year) + 1);
+        Invoice invoice = invoiceRepository.save(POSSales.invoice(order, invoiceCode, staff, method,
+                request.getCashReceived(), lines, null));
+
+        stockLogRepository.saveAll(lines.stream()
+                .map(line -> POSSales.saleLog(line.product(), line.quantity(),
+                        onHandAfter.get(line.product().getId()), invoiceCode))
+                .toList());
+        decremented.forEach(row -> eventPublisher.publishEvent(new InventoryChangedEvent(row.getInventoryId())));
+
+        log.info("POS checkout {} for order {} by {}", invoiceCode, order.getId(), staff.getId());
+        return InvoiceServiceImpl.toDetailDTO(invoice);
+    }
+
+    /** [{"p":"<uuid>","q":<n>}, ...] — chỉ chứa UUID và số nguyên nên không cần escape */
+    private static String toStockJson(List<POSSales.Line> lines) {
+        return lines.stream()
+                .map(line -> "{\"p\":\"" + line.product().getId() + "\",\"q\":" + line.quantity() + "}")
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+}
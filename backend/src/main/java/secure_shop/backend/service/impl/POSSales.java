@@ -0,0 +1,145 @@
+package secure_shop.backend.service.impl;
+
+import secure_shop.backend.entities.*;
+import secure_shop.backend.enums.InvoiceStatus;
+import secure_shop.backend.enums.OrderStatus;
+import secure_shop.backend.enums.PaymentMethod;
+import secure_shop.backend.enums.PaymentProvider;
+import secure_shop.backend.enums.PaymentStatus;
+import secure_shop.backend.enums.StockLogType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dựng các bản ghi của một giao dịch bán tại quầy đã thanh toán: đơn DELIVERED/PAID kèm payment,
+ * hóa đơn và stock log. Dùng chung cho checkout POS và đồng bộ POS offline.
+ */
+final class POSSales {
+
+    /** Một dòng hàng đã gộp theo sản phẩm (order_items unique theo order + product) */
+    record Line(Product product, BigDecimal unitPrice, int quantity) {
+        BigDecimal lineTotal() {
+            return unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    private POSSales() {
+    }
+
+    static BigDecimal total(Collection<Line> lines) {
+        return lines.stream().map(Line::lineTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    static String staffName(User staff) {
+        return staff.getName() != null && !staff.getName().isBlank() ? staff.getName() : staff.getEmail();
+    }
+
+    static Map<String, String> inStoreAddress(User staff) {
+        Map<String, String> address = new HashMap<>();
+        address.put("fullName", staff.getName() != null && !staff.getName().isBlank() ? staff.getName() : "Khách Hàng");
+        address.put("phone", staff.getPhone() != null && !staff.getPhone().isBlank() ? staff.getPhone() : "0000000000");
+        address.put("address", "Mua tại cửa hàng (POS)");
+        address.put("type", "In-Store");
+        return address;
+    }
+
+    static String invoiceCode(int year, int sequence) {
+        return String.format("INV-%d-%05d", year, sequence);
+    }
+
+    /** Đơn đã giao và đã thanh toán; payment được cascade cùng đơn */
+    static Order completedOrder(User staffRef, Map<String, String> address, Instant soldAt,
+                                PaymentMethod method, Collection<Line> lines) {
+        Order order = Order.builder()
+                .status(OrderStatus.DELIVERED)
+                .paymentStatus(PaymentStatus.PAID)
+                .hasPaid(true)
+                .confirmedAt(soldAt)
+                .shippingFee(BigDecimal.ZERO)
+                .discountTotal(BigDecimal.ZERO)
+                .shippingAddress(address)
+                .user(staffRef)
+                .build();
+        for (Line line : lines) {
+            order.getOrderItems().add(OrderItem.builder()
+                    .order(order)
+                    .product(line.product())
+                    .unitPrice(line.unitPrice())
+                    .quantity(line.quantity())
+                    .lineTotal(line.lineTotal())
+                    .build());
+        }
+        BigDecimal total = total(lines);
+        // Payment yêu cầu amount > 0: đơn 0đ (hàng tặng) không có payment
+        if (total.signum() > 0) {
+            order.setPayment(Payment.builder()
+                    .order(order)
+                    .method(method)
+                    .provider(method == PaymentMethod.COD ? PaymentProvider.COD : PaymentProvider.NONE)
+                    .status(PaymentStatus.PAID)
+                    .amount(total)
+                    .paidAt(soldAt)
+                    .build());
+        }
+        return order;
+    }
+
+    static Invoice invoice(Order order, String invoiceCode, User staff, PaymentMethod method,
+                           BigDecimal cashReceived, Collection<Line> lines, String note) {
+        BigDecimal total = total(lines);
+        BigDecimal cash = cashReceived != null ? cashReceived : total;
+        Invoice invoice = Invoice.builder()
+                .invoiceCode(invoiceCode)
+                .orderId(order.getId())
+                .staffId(staff.getId())
+                .staffName(staffName(staff))
+                .totalAmount(total)
+                .cashReceived(cash)
+                .changeAmount(cash.subtract(total).max(BigDecimal.ZERO))
+                .paymentMethod(method)
+                .status(InvoiceStatus.COMPLETED)
+                .note(note)
+                .build();
+        for (Line line : lines) {
+            Product product = line.product();
+            invoice.addItem(InvoiceItem.builder()
+                    .productId(product.getId())
+                    .productName(product.getName())
+                    .productSku(product.getSku())
+                    .unitPrice(line.unitPrice())
+                    .quantity(line.quantity())
+                    .lineTotal(line.lineTotal())
+                    .build());
+        }
+        return invoice;
+    }
+
+    /** Phần đã bán nhưng không có tồn kho để trừ: ghi lại để kiểm kê thay vì đẩy onHand xuống âm */
+    static StockLog shortfallLog(Product product, int quantity, Integer onHand, String invoiceCode) {
+        return StockLog.builder()
+                .productId(product.getId())
+                .productName(product.getName())
+                .changeQuantity(-quantity)
+                .quantityAfter(onHand)
+                .type(StockLogType.SHORTFALL)
+                .referenceId(invoiceCode)
+                .note("POS offline bán vượt tồn kho - " + invoiceCode)
+                .build();
+    }
+
+    static StockLog saleLog(Product product, int quantity, int onHandAfter, String invoiceCode) {
+        return StockLog.builder()
+                .productId(product.getId())
+                .productName(product.getName())
+                .changeQuantity(-quantity)
+                .quantityAfter(onHandAfter)
+                .type(StockLogType.SALE)
+                .referenceId(invoiceCode)
+                .note("POS Sale - " + invoiceCode)
+                .build();
+    }
+}
@@ -0,0 +1,432 @@
+package secure_shop.backend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import secure_shop.backend.dto.pos.*;
+import secure_shop.backend.entities.*;
+import secure_shop.backend.enums.POSSaleSyncStatus;
+import secure_shop.backend.enums.PaymentMethod;
+import secure_shop.backend.exception.ConflictException;
+import secure_shop.backend.exception.ResourceNotFoundException;
+import secure_shop.backend.repositories.*;
+import secure_shop.backend.service.POSSyncService;
+import secure_shop.backend.service.event.InventoryChangedEvent;
+import secure_shop.backend.utils.TruncateUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Đồng bộ máy POS offline: catalog theo delta và ghi lô giao dịch bán idempotent.
+ * <p>
+ * Một lô được ghi trong một transaction: đọc khóa idempotency, sản phẩm và tồn kho (có khóa dòng)
+ * bằng ba query cho cả lô, trừ tồn kho trong bộ nhớ rồi để Hibernate gửi UPDATE tồn kho theo
+ * batch khi flush. Giao dịch đã hoàn tất tại quầy nên chỉ bị REJECTED riêng lẻ khi tham chiếu sản
+ * phẩm không tồn tại; các sai lệch khác (bán vượt tồn kho, sản phẩm đã xóa mềm hoặc ngừng bán,
+ * thiếu tiền) vẫn được ghi với trạng thái ACCEPTED_WITH_CONFLICT và đưa vào hàng đợi xem xét.
+ * Không giao dịch nào làm hỏng cả lô.
+ */
+@Service
+@Slf4j
+public class POSSyncServiceImpl implements POSSyncService {
+
+    private static final UUID NIL = new UUID(0L, 0L);
+    private static final char CURSOR_SEPARATOR = '~';
+
+    private final ProductRepository productRepository;
+    private final BarcodeRepository barcodeRepository;
+    private final InventoryRepository inventoryRepository;
+    private final OrderRepository orderRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final StockLogRepository stockLogRepository;
+    private final UserRepository userRepository;
+    private final POSSyncedSaleRepository syncedSaleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate batchTx;
+
+    private final int catalogPageSize;
+    private final int maxBatchSales;
+    private final long cursorOverlapMs;
+
+    public POSSyncServiceImpl(ProductRepository productRepository,
+                              BarcodeRepository barcodeRepository,
+                              InventoryRepository inventoryRepository,
+                              OrderRepository orderRepository,
+                              InvoiceRepository invoiceRepository,
+                              StockLogRepository stockLogRepository,
+                              UserRepository userRepository,
+                              POSSyncedSaleRepository syncedSaleRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${pos.sync.catalog-page-size:500}") int catalogPageSize,
+                              @Value("${pos.sync.max-batch-sales:200}") int maxBatchSales,
+                              @Value("${pos.sync.cursor-overlap-ms:5000}") long cursorOverlapMs) {
+        this.productRepository = productRepository;
+        this.barcodeRepository = barcodeRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.orderRepository = orderRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.stockLogRepository = stockLogRepository;
+        this.userRepository = userRepository;
+        this.syncedSaleRepository = syncedSaleRepository;
+        this.eventPublisher = eventPublisher;
+        this.batchTx = new TransactionTemplate(transactionManager);
+        this.catalogPageSize = catalogPageSize;
+        this.maxBatchSales = maxBatchSales;
+        this.cursorOverlapMs = cursorOverlapMs;
+    }
+
+    // ===== Catalog =====
+
+    /** Vị trí trong thứ tự (updatedAt, id) của bảng sản phẩm */
+    private record Cursor(Instant time, UUID afterId) {
+        static Cursor parse(String value) {
+            int sep = value.indexOf(CURSOR_SEPARATOR);
+            if (sep < 0) {
+                throw new IllegalArgumentException("Con trỏ đồng bộ không hợp lệ");
+            }
+            try {
+                return new Cursor(Instant.parse(value.substring(0, sep)), UUID.fromString(value.substring(sep + 1)));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Con trỏ đồng bộ không hợp lệ");
+            }
+        }
+
+        String encode() {
+            return time.toString() + CURSOR_SEPARATOR + afterId;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public POSCatalogDeltaDTO getCatalogDelta(String cursor, Integer limit) {
+        boolean full = cursor == null || cursor.isBlank();
+        Cursor from = full ? new Cursor(Instant.EPOCH, NIL) : Cursor.parse(cursor);
+        int size = limit == null || limit <= 0 ? catalogPageSize : Math.min(limit, catalogPageSize);
+        Instant queryStart = Instant.now();
+
+        List<POSCatalogRow> rows = productRepository.findCatalogAfter(from.time(), from.afterId(),
+                PageRequest.of(0, size + 1));
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+
+        Map<UUID, List<String>> barcodes = rows.isEmpty() ? Map.of()
+                : barcodeRepository.findPOSBarcodes(rows.stream().map(POSCatalogRow::id).toList()).stream()
+                        .collect(Collectors.groupingBy(POSBarcodeRow::productId,
+                                Collectors.mapping(POSBarcodeRow::barcode, Collectors.toList())));
+        List<POSCatalogItemDTO> items = rows.stream()
+                .map(row -> toItem(row, barcodes.getOrDefault(row.id(), List.of())))
+                .toList();
+
+        // Snapshot đầy đủ không cần tombstone: máy POS thay cả catalog
+        List<UUID> removed = full ? List.of()
+                : productRepository.findDeletedIdsSince(from.time()).stream().map(UUID::fromString).toList();
+
+        return POSCatalogDeltaDTO.builder()
+                .cursor(nextCursor(from, rows, hasMore, queryStart).encode())
+                .full(full)
+                .hasMore(hasMore)
+                .items(items)
+                .removedProductIds(removed)
+                .build();
+    }
+
+    /**
+     * Còn trang: tiếp tục ngay sau dòng cuối. Hết trang: lùi con trỏ {@code cursorOverlapMs} trước
+     * lúc query, vì transaction đang chạy có thể commit updatedAt sớm hơn thời điểm commit; dòng gửi
+     * lặp lại được máy POS upsert theo id.
+     */
+    private Cursor nextCursor(Cursor from, List<POSCatalogRow> rows, boolean hasMore, Instant queryStart) {
+        if (hasMore) {
+            POSCatalogRow last = rows.get(rows.size() - 1);
+            return new Cursor(last.updatedAt(), last.id());
+        }
+        Instant settled = queryStart.minusMillis(cursorOverlapMs);
+        return settled.isAfter(from.time()) ? new Cursor(settled, NIL) : from;
+    }
+
+    private static POSCatalogItemDTO toItem(POSCatalogRow row, List<String> barcodes) {
+        return POSCatalogItemDTO.builder()
+                .id(row.id())
+                .sku(row.sku())
+                .name(row.name())
+                .price(row.price())
+                .listedPrice(row.listedPrice())
+                .active(row.active())
+                .thumbnailUrl(row.thumbnailUrl())
+                .barcodes(barcodes)
+                .updatedAt(row.updatedAt())
+                .build();
+    }
+
+    // ===== Sales =====
+
+    @Override
+    public POSSyncBatchResultDTO submitSales(POSSyncBatchRequest request, User staff) {
+        if (request.getSales() == null || request.getSales().isEmpty()) {
+            throw new IllegalArgumentException("Lô đồng bộ không có giao dịch");
+        }
+        if (request.getSales().size() > maxBatchSales) {
+            throw new IllegalArgumentException("Mỗi lô tối đa " + maxBatchSales + " giao dịch");
+        }
+        try {
+            return batchTx.execute(status -> applyBatch(request, staff));
+        } catch (DataIntegrityViolationException e) {
+            // Cùng lô được gửi song song từ lần retry của máy POS, hoặc trùng mã hóa đơn với quầy
+            // online: chạy lại một lần, các giao dịch đã ghi sẽ thành DUPLICATE
+            log.info("POS sync batch from {} conflicted, retrying: {}", request.getTerminalId(),
+                    e.getMostSpecificCause().getMessage());
+            return batchTx.execute(status -> applyBatch(request, staff));
+        }
+    }
+
+    private POSSyncBatchResultDTO applyBatch(POSSyncBatchRequest request, User staff) {
+        List<POSSaleRequest> sales = request.getSales();
+        POSSaleResultDTO[] results = new POSSaleResultDTO[sales.size()];
+
+        Map<UUID, POSSyncedSale> synced = syncedSaleRepository.findAllById(
+                        sales.stream().map(POSSaleRequest::getClientSaleId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(POSSyncedSale::getClientSaleId, Function.identity()));
+
+        Set<UUID> seen = new HashSet<>();
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < sales.size(); i++) {
+            UUID clientSaleId = sales.get(i).getClientSaleId();
+            POSSyncedSale previous = synced.get(clientSaleId);
+            if (previous != null) {
+                results[i] = POSSaleResultDTO.builder()
+                        .clientSaleId(clientSaleId)
+                        .status(POSSaleSyncStatus.DUPLICATE)
+                        .orderId(previous.getOrderId())
+                        .invoiceCode(previous.getInvoiceCode())
+                        .build();
+            } else if (!seen.add(clientSaleId)) {
+                results[i] = POSSaleResultDTO.builder()
+                        .clientSaleId(clientSaleId)
+                        .status(POSSaleSyncStatus.DUPLICATE)
+                        .message("Giao dịch lặp lại trong cùng lô")
+                        .build();
+            } else {
+                pending.add(i);
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            applySales(request.getTerminalId(), sales, pending, staff, results);
+        }
+
+        List<POSSaleResultDTO> ordered = Arrays.asList(results);
+        return POSSyncBatchResultDTO.builder()
+                .applied(count(ordered, POSSaleSyncStatus.APPLIED))
+                .conflicts(count(ordered, POSSaleSyncStatus.ACCEPTED_WITH_CONFLICT))
+                .duplicates(count(ordered, POSSaleSyncStatus.DUPLICATE))
+                .rejected(count(ordered, POSSaleSyncStatus.REJECTED))
+                .results(ordered)
+                .build();
+    }
+
+    private void applySales(String terminalId, List<POSSaleRequest> sales, List<Integer> pending,
+                            User staff, POSSaleResultDTO[] results) {
+        Set<UUID> productIds = pending.stream()
+                .flatMap(i -> sales.get(i).getItems().stream())
+                .map(POSSaleItemRequest::getProductId)
+                .collect(Collectors.toSet());
+        // Gồm cả sản phẩm đã xóa mềm sau khi máy POS bán offline
+        Map<UUID, Product> products = productRepository.findAllIncludingDeletedById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<UUID, Inventory> inventories = inventoryRepository.findForUpdateByProductIdIn(productIds).stream()
+                .collect(Collectors.toMap(inv -> inv.getProduct().getId(), Function.identity()));
+
+        User staffRef = userRepository.getReferenceById(staff.getId());
+        int year = LocalDate.now().getYear();
+        int sequence = invoiceRepository.findMaxSequenceForYear(year);
+
+        List<Invoice> invoices = new ArrayList<>();
+        List<StockLog> stockLogs = new ArrayList<>();
+        List<POSSyncedSale> syncedSales = new ArrayList<>();
+        Set<Long> touchedInventories = new LinkedHashSet<>();
+
+        // Trừ kho theo thứ tự bán thực tế trên máy POS
+        Instant receivedAt = Instant.now();
+        List<Integer> chronological = new ArrayList<>(pending);
+        chronological.sort(Comparator.comparing(i -> soldAt(sales.get(i), receivedAt)));
+
+        for (int index : chronological) {
+            POSSaleRequest sale = sales.get(index);
+            Instant soldAt = soldAt(sale, receivedAt);
+            PaymentMethod method = sale.getPaymentMethod() != null ? sale.getPaymentMethod() : PaymentMethod.COD;
+
+            // Giao dịch đã hoàn tất tại quầy: chỉ từ chối khi dữ liệu không thể ghi (sản phẩm không tồn tại);
+            // mọi sai lệch khác vẫn ghi và đưa vào hàng đợi xem xét
+            Map<UUID, POSSales.Line> lines = new LinkedHashMap<>();
+            List<String> conflicts = new ArrayList<>();
+            String rejection = collectLines(sale, products, lines, conflicts);
+            if (rejection != null) {
+                results[index] = POSSaleResultDTO.builder()
+                        .clientSaleId(sale.getClientSaleId())
+                        .status(POSSaleSyncStatus.REJECTED)
+                        .message(rejection)
+                        .build();
+                continue;
+            }
+            BigDecimal total = POSSales.total(lines.values());
+            if (method == PaymentMethod.COD
+                    && sale.getCashReceived() != null && sale.getCashReceived().compareTo(total) < 0) {
+                conflicts.add("Tiền khách đưa " + sale.getCashReceived() + " ít hơn tổng " + total);
+            }
+
+            Order order = orderRepository.save(POSSales.completedOrder(staffRef, POSSales.inStoreAddress(staff),
+                    soldAt, method, lines.values()));
+            String invoiceCode = POSSales.invoiceCode(year, ++sequence);
+            invoices.add(POSSales.invoice(order, invoiceCode, staff, method, sale.getCashReceived(),
+                    lines.values(), "POS offline - " + terminalId));
+
+            boolean priceMismatch = false;
+            for (POSSales.Line line : lines.values()) {
+                Product product = line.product();
+                Inventory inventory = inventories.get(product.getId());
+                int available = inventory != null ? Math.max(inventory.getOnHand() - inventory.getReserved(), 0) : 0;
+                int taken = Math.min(line.quantity(), available);
+                int shortfall = line.quantity() - taken;
+                if (taken > 0) {
+                    inventory.setOnHand(inventory.getOnHand() - taken);
+                    touchedInventories.add(inventory.getId());
+                    stockLogs.add(POSSales.saleLog(product, taken, inventory.getOnHand(), invoiceCode));
+                }
+                if (shortfall > 0) {
+                    stockLogs.add(POSSales.shortfallLog(product, shortfall,
+                            inventory != null ? inventory.getOnHand() : null, invoiceCode));
+                    conflicts.add("Bán vượt tồn kho " + product.getSku() + ": thiếu " + shortfall);
+                }
+                priceMismatch |= line.unitPrice().compareTo(product.getPrice()) != 0;
+            }
+
+            String conflict = conflicts.isEmpty() ? null : TruncateUtils.truncate(String.join("; ", conflicts));
+            syncedSales.add(POSSyncedSale.builder()
+                    .clientSaleId(sale.getClientSaleId())
+                    .terminalId(terminalId)
+                    .orderId(order.getId())
+                    .invoiceCode(invoiceCode)
+                    .soldAt(soldAt)
+                    .conflict(conflict)
+                    .needsReview(conflict != null)
+                    .build());
+
+            results[index] = POSSaleResultDTO.builder()
+                    .clientSaleId(sale.getClientSaleId())
+                    .status(conflict != null ? POSSaleSyncStatus.ACCEPTED_WITH_CONFLICT : POSSaleSyncStatus.APPLIED)
+                    .orderId(order.getId())
+                    .invoiceCode(invoiceCode)
+                    .totalAmount(total)
+                    .priceMismatch(priceMismatch ? true : null)
+                    .message(conflict)
+                    .build();
+        }
+
+        invoiceRepository.saveAll(invoices);
+        stockLogRepository.saveAll(stockLogs);
+        syncedSaleRepository.saveAll(syncedSales);
+        touchedInventories.forEach(id -> eventPublisher.publishEvent(new InventoryChangedEvent(id)));
+        long conflicted = syncedSales.stream().filter(s -> s.getConflict() != null).count();
+        if (conflicted > 0) {
+            log.warn("POS sync from {}: {} sales recorded with conflicts, queued for review", terminalId, conflicted);
+        }
+        log.info("POS sync from {}: {} sales recorded", terminalId, syncedSales.size());
+    }
+
+    /**
+     * Gộp dòng trùng sản phẩm (order_items unique theo order + product); trả về lý do từ chối hoặc
+     * null, các sai lệch vẫn ghi được thì thêm vào {@code conflicts}.
+     */
+    private static String collectLines(POSSaleRequest sale, Map<UUID, Product> products,
+                                       Map<UUID, POSSales.Line> lines, List<String> conflicts) {
+        for (POSSaleItemRequest item : sale.getItems()) {
+            Product product = products.get(item.getProductId());
+            if (product == null) {
+                return "Sản phẩm không tồn tại: " + item.getProductId();
+            }
+            BigDecimal unitPrice = item.getUnitPrice() != null ? item.getUnitPrice() : product.getPrice();
+            POSSales.Line previous = lines.get(product.getId());
+            if (previous == null) {
+                lines.put(product.getId(), new POSSales.Line(product, unitPrice, item.getQuantity()));
+                continue;
+            }
+            int quantity = previous.quantity() + item.getQuantity();
+            if (previous.unitPrice().compareTo(unitPrice) != 0) {
+                // Một dòng cho mỗi sản phẩm: dùng đơn giá bình quân, người xem xét đối chiếu lại
+                unitPrice = previous.lineTotal().add(unitPrice.multiply(BigDecimal.valueOf(item.getQuantity())))
+                        .divide(BigDecimal.valueOf(quantity), 2, RoundingMode.HALF_UP);
+                conflicts.add("Sản phẩm " + product.getSku() + " có nhiều đơn giá trong cùng giao dịch");
+            }
+            lines.put(product.getId(), new POSSales.Line(product, unitPrice, quantity));
+        }
+        for (POSSales.Line line : lines.values()) {
+            if (line.product().getDeletedAt() != null || !Boolean.TRUE.equals(line.product().getActive())) {
+                conflicts.add("Sản phẩm " + line.product().getSku() + " đã ngừng bán");
+            }
+        }
+        return null;
+    }
+
+    // ===== Review queue =====
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<POSSyncConflictDTO> getConflicts(Pageable pageable) {
+        return syncedSaleRepository.findByNeedsReviewTrueOrderBySyncedAtAsc(pageable).map(POSSyncServiceImpl::toConflict);
+    }
+
+    @Override
+    @Transactional
+    public POSSyncConflictDTO resolveConflict(UUID clientSaleId, User reviewer) {
+        POSSyncedSale sale = syncedSaleRepository.findById(clientSaleId)
+                .orElseThrow(() -> new ResourceNotFoundException("POS synced sale", clientSaleId));
+        if (!Boolean.TRUE.equals(sale.getNeedsReview())) {
+            throw new ConflictException("Giao dịch không nằm trong hàng đợi xem xét");
+        }
+        sale.setNeedsReview(false);
+        sale.setResolvedAt(Instant.now());
+        sale.setResolvedBy(reviewer.getId());
+        return toConflict(sale);
+    }
+
+    private static POSSyncConflictDTO toConflict(POSSyncedSale sale) {
+        return POSSyncConflictDTO.builder()
+                .clientSaleId(sale.getClientSaleId())
+                .terminalId(sale.getTerminalId())
+                .orderId(sale.getOrderId())
+                .invoiceCode(sale.getInvoiceCode())
+                .soldAt(sale.getSoldAt())
+                .syncedAt(sale.getSyncedAt())
+                .conflict(sale.getConflict())
+                .needsReview(sale.getNeedsReview())
+                .resolvedAt(sale.getResolvedAt())
+                .resolvedBy(sale.getResolvedBy())
+                .build();
+    }
+
+    private static Instant soldAt(POSSaleRequest sale, Instant fallback) {
+        return sale.getSoldAt() != null ? sale.getSoldAt() : fallback;
+    }
+
+    private static int count(List<POSSaleResultDTO> results, POSSaleSyncStatus status) {
+        return (int) results.stream().filter(r -> r.getStatus() == status).count();
+    }
+}
@@ -1,17 +1,14 @@
 package secure_shop.backend.service.impl;
 
-import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import secure_shop.backend.service.EmailService;
+import secure_shop.backend.service.MailQueueService;
 import secure_shop.backend.service.PasswordResetService;
 import secure_shop.backend.service.UserService;
 import secure_shop.backend.utils.HashUtil;
 
-import java.io.IOException;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -19,7 +16,7 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class PasswordResetServiceImpl implements PasswordResetService {
 
-    private final EmailService emailService;
+    private final MailQueueService mailQueueService;
     private final RedisTemplate<String, String> redisTemplate;
     private final UserService userService;
 
@@ -58,13 +55,9 @@ public class PasswordResetServiceImpl implements PasswordResetService {
         sendResetMailAsync(email, resetLink);
     }
 
-    @Async
+    // Ghi vào mail outbox; drainer gửi nền và thử lại khi lỗi
     public void sendResetMailAsync(String email, String link) {
-        try {
-            emailService.sendResetPasswordEmail(email, link);
-        } catch (MessagingException | IOException e) {
-            throw new RuntimeException("Lỗi gửi mail: " + e.getMessage());
-        }
+        mailQueueService.sendResetPasswordEmail(email, link);
     }
 
     public boolean verifyToken(String rawToken) {
@@ -0,0 +1,264 @@
+package secure_shop.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import secure_shop.backend.dto.payment.PaymentAuditLogDTO;
+import secure_shop.backend.dto.payment.PaymentAuditStatsDTO;
+import secure_shop.backend.dto.vnpay.VNPayCallbackResponse;
+import secure_shop.backend.entities.PaymentAuditLog;
+import secure_shop.backend.enums.PaymentAuditEventType;
+import secure_shop.backend.repositories.PaymentAuditLogRepository;
+import secure_shop.backend.service.PaymentAuditService;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Nhật ký kiểm toán thanh toán thay cho {@code VNPayLogger}.
+ * <p>
+ * Luồng xử lý thanh toán chỉ dựng một bản ghi nhỏ và {@code offer} vào hàng đợi có giới hạn;
+ * một job định kỳ ghi theo lô xuống {@code payment_audit_log}. Mỗi sự kiện cũng được ghi một
+ * dòng key=value vào logger {@code payment.audit} (appender bất đồng bộ trong logback-spring.xml).
+ * Tham số thô chỉ được giữ (đã che) cho một tỷ lệ mẫu của sự kiện thành công, và luôn được giữ
+ * cho sự kiện lỗi.
+ */
+@Service
+@Slf4j
+public class PaymentAuditServiceImpl implements PaymentAuditService {
+
+    private static final Logger AUDIT = LoggerFactory.getLogger("payment.audit");
+    private static final String ORDER_INFO_PREFIX = "Thanh toan don hang: ";
+    private static final String MASK = "***";
+    private static final String[] SENSITIVE_KEY_PARTS = {"hash", "secret", "token", "card"};
+
+    private final PaymentAuditLogRepository auditRepository;
+    private final ObjectMapper objectMapper;
+
+    private final BlockingQueue<PaymentAuditLog> queue;
+    private final int batchSize;
+    private final double detailSampleRate;
+    private final int retentionDays;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sampled = new AtomicLong();
+
+    public PaymentAuditServiceImpl(PaymentAuditLogRepository auditRepository,
+                                   ObjectMapper objectMapper,
+                                   @Value("${payment.audit.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${payment.audit.batch-size:200}") int batchSize,
+                                   @Value("${payment.audit.detail-sample-rate:0.1}") double detailSampleRate,
+                                   @Value("${payment.audit.retention-days:180}") int retentionDays) {
+        this.auditRepository = auditRepository;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.detailSampleRate = detailSampleRate;
+        this.retentionDays = retentionDays;
+    }
+
+    @Override
+    public void recordPaymentUrlCreated(UUID orderId, String txnRef, BigDecimal amount,
+                                        Map<String, String> params, long latencyMs) {
+        enqueue(PaymentAuditLog.builder()
+                .eventType(PaymentAuditEventType.PAYMENT_URL_CREATED)
+                .orderId(orderId)
+                .txnRef(txnRef)
+                .amount(amount)
+                .latencyMs(latencyMs)
+                .build(), params);
+    }
+
+    @Override
+    public void recordCallback(PaymentAuditEventType eventType, Map<String, String> params,
+                               VNPayCallbackResponse response, long latencyMs) {
+        UUID orderId = response != null && response.getOrder() != null
+                ? response.getOrder().getId()
+                : parseOrderId(params.get("vnp_OrderInfo"));
+        enqueue(PaymentAuditLog.builder()
+                .eventType(eventType)
+                .orderId(orderId)
+                .txnRef(params.get("vnp_TxnRef"))
+                .transactionNo(params.get("vnp_TransactionNo"))
+                .amount(parseAmount(params.get("vnp_Amount")))
+                .responseCode(params.get("vnp_ResponseCode"))
+                .latencyMs(latencyMs)
+                .build(), params);
+    }
+
+    @Override
+    public List<PaymentAuditLogDTO> getByOrderId(UUID orderId) {
+        return auditRepository.findByOrderIdOrderByCreatedAtAsc(orderId).stream().map(this::toDTO).toList();
+    }
+
+    @Override
+    public List<PaymentAuditLogDTO> getByTxnRef(String txnRef) {
+        return auditRepository.findByTxnRefOrderByCreatedAtAsc(txnRef).stream().map(this::toDTO).toList();
+    }
+
+    @Override
+    public PaymentAuditStatsDTO getStats() {
+        return PaymentAuditStatsDTO.builder()
+                .queued(queue.size())
+                .recordedSinceStartup(recorded.get())
+                .writtenSinceStartup(written.get())
+                .droppedSinceStartup(dropped.get())
+                .detailSampledSinceStartup(sampled.get())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${payment.audit.flush-interval-ms:2000}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            List<PaymentAuditLog> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                try {
+                    auditRepository.saveAll(batch);
+                    written.addAndGet(batch.size());
+                } catch (Exception ex) {
+                    // Dòng log payment.audit vẫn còn; không giữ lại để tránh dồn bộ nhớ khi DB lỗi
+                    dropped.addAndGet(batch.size());
+                    log.error("Cannot persist {} payment audit entries", batch.size(), ex);
+                }
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "${payment.audit.purge-cron:0 15 4 * * *}")
+    public void purgeExpired() {
+        int deleted = auditRepository.deleteCreatedBefore(Instant.now().minus(retentionDays, ChronoUnit.DAYS));
+        if (deleted > 0) {
+            log.info("Purged {} payment_audit_log rows older than {} days", deleted, retentionDays);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    // ===== Internals =====
+
+    private void enqueue(PaymentAuditLog entry, Map<String, String> params) {
+        recorded.incrementAndGet();
+        if (shouldKeepDetail(entry.getEventType())) {
+            entry.setDetail(maskedDetail(params));
+            sampled.incrementAndGet();
+        }
+        writeAuditLine(entry);
+        if (!queue.offer(entry)) {
+            long total = dropped.incrementAndGet();
+            if ((total & (total - 1)) == 0) {
+                log.warn("Payment audit queue full; {} entries dropped so far", total);
+            }
+        }
+    }
+
+    private boolean shouldKeepDetail(PaymentAuditEventType type) {
+        return switch (type) {
+            case CALLBACK_FAILED, CALLBACK_INVALID_SIGNATURE, CALLBACK_ERROR -> true;
+            default -> detailSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < detailSampleRate;
+        };
+    }
+
+    private void writeAuditLine(PaymentAuditLog e) {
+        if (!AUDIT.isInfoEnabled()) {
+            return;
+        }
+        AUDIT.info("event={} orderId={} txnRef={} transactionNo={} amount={} responseCode={} latencyMs={}",
+                e.getEventType(), e.getOrderId(), e.getTxnRef(), e.getTransactionNo(),
+                e.getAmount(), e.getResponseCode(), e.getLatencyMs());
+    }
+
+    private String maskedDetail(Map<String, String> params) {
+        Map<String, String> masked = new TreeMap<>();
+        params.forEach((key, value) -> masked.put(key, mask(key, value)));
+        try {
+            return objectMapper.writeValueAsString(masked);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    static String mask(String key, String value) {
+        if (value == null) {
+            return null;
+        }
+        String lower = key.toLowerCase(Locale.ROOT);
+        for (String part : SENSITIVE_KEY_PARTS) {
+            if (lower.contains(part)) {
+                return MASK;
+            }
+        }
+        if (lower.endsWith("ipaddr")) {
+            int cut = Math.max(value.lastIndexOf('.'), value.lastIndexOf(':'));
+            return cut > 0 ? value.substring(0, cut + 1) + MASK : MASK;
+        }
+        return value;
+    }
+
+    private static UUID parseOrderId(String orderInfo) {
+        if (orderInfo == null || !orderInfo.startsWith(ORDER_INFO_PREFIX)) {
+            return null;
+        }
+        try {
+            return UUID.fromString(orderInfo.substring(ORDER_INFO_PREFIX.length()).trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** vnp_Amount là số tiền nhân 100 */
+    private static BigDecimal parseAmount(String vnpAmount) {
+        if (vnpAmount == null || vnpAmount.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(vnpAmount).movePointLeft(2);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private PaymentAuditLogDTO toDTO(PaymentAuditLog e) {
+        return PaymentAuditLogDTO.builder()
+                .id(e.getId())
+                .eventType(e.getEventType())
+                .orderId(e.getOrderId())
+                .txnRef(e.getTxnRef())
+                .transactionNo(e.getTransactionNo())
+                .amount(e.getAmount())
+                .responseCode(e.getResponseCode())
+                .latencyMs(e.getLatencyMs())
+                .detail(e.getDetail())
+                .createdAt(e.getCreatedAt())
+                .build();
+    }
+}
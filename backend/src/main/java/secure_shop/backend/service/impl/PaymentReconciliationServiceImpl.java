@@ -0,0 +1,405 @@
+package secure_shop.backend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import secure_shop.backend.dto.payment.PaymentReconciliationItemDTO;
+import secure_shop.backend.dto.payment.PaymentReconciliationReportDTO;
+import secure_shop.backend.entities.Order;
+import secure_shop.backend.entities.Payment;
+import secure_shop.backend.entities.PaymentReconciliationItem;
+import secure_shop.backend.entities.PaymentReconciliationRun;
+import secure_shop.backend.enums.OrderStatus;
+import secure_shop.backend.enums.PaymentStatus;
+import secure_shop.backend.enums.ReconciliationIssueType;
+import secure_shop.backend.enums.ReconciliationResolution;
+import secure_shop.backend.enums.ReconciliationRunStatus;
+import secure_shop.backend.exception.ConflictException;
+import secure_shop.backend.exception.ResourceNotFoundException;
+import secure_shop.backend.repositories.PaymentReconciliationItemRepository;
+import secure_shop.backend.repositories.PaymentReconciliationRunRepository;
+import secure_shop.backend.repositories.PaymentRepository;
+import secure_shop.backend.service.PaymentReconciliationService;
+import secure_shop.backend.service.event.DomainEventPublisher;
+import secure_shop.backend.service.event.OrderStatusChangedEvent;
+import secure_shop.backend.utils.VNPaySettlementCsvReader;
+import secure_shop.backend.utils.VNPaySettlementCsvReader.Row;
+import secure_shop.backend.utils.TruncateUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Đối soát file giao dịch VNPay với {@code payments} theo {@code transactionId} (= vnp_TxnRef).
+ * <p>
+ * File được đọc tuần tự và xử lý theo lô cố định: mỗi lô được sắp theo txnRef, khóa các payment
+ * tương ứng bằng một truy vấn IN (thứ tự khóa cố định), so khớp rồi commit cùng các dòng lệch.
+ * Bộ nhớ chỉ phụ thuộc kích thước lô, không phụ thuộc số giao dịch trong file; dòng khớp chỉ
+ * được đếm, không lưu.
+ * <p>
+ * Giao dịch cổng báo thành công mà payment còn chờ (mất callback) được cập nhật như callback
+ * thành công; các lệch khác (sai số tiền, trạng thái mâu thuẫn, txnRef lạ) chỉ được đánh dấu.
+ */
+@Service
+@Slf4j
+public class PaymentReconciliationServiceImpl implements PaymentReconciliationService {
+
+    private static final Set<PaymentStatus> AWAITING_GATEWAY =
+            EnumSet.of(PaymentStatus.PENDING, PaymentStatus.UNPAID, PaymentStatus.PROCESSING);
+    private static final Set<PaymentStatus> SETTLED =
+            EnumSet.of(PaymentStatus.PAID, PaymentStatus.REFUNDED, PaymentStatus.PARTIAL_REFUND);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentReconciliationRunRepository runRepository;
+    private final PaymentReconciliationItemRepository itemRepository;
+    private final DomainEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final String inboxDir;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    public PaymentReconciliationServiceImpl(PaymentRepository paymentRepository,
+                                            PaymentReconciliationRunRepository runRepository,
+                                            PaymentReconciliationItemRepository itemRepository,
+                                            DomainEventPublisher eventPublisher,
+                                            TransactionTemplate transactionTemplate,
+                                            @Value("${payment.reconciliation.batch-size:500}") int batchSize,
+                                            @Value("${payment.reconciliation.inbox-dir:}") String inboxDir) {
+        this.paymentRepository = paymentRepository;
+        this.runRepository = runRepository;
+        this.itemRepository = itemRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.inboxDir = inboxDir;
+    }
+
+    @Override
+    public PaymentReconciliationReportDTO reconcile(String sourceName, InputStream csv) throws IOException {
+        if (!runLock.tryLock()) {
+            throw new ConflictException("Đang có một phiên đối soát khác chạy");
+        }
+        try (VNPaySettlementCsvReader reader =
+                     new VNPaySettlementCsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            return toDTO(run(sourceName, reader));
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /**
+     * Quét thư mục inbox (nếu cấu hình) và đối soát từng file *.csv. File đối soát xong được chuyển
+     * vào processed/; file lỗi vào failed/ để xem lại, sửa xong chép lại vào inbox để chạy lại.
+     */
+    @Scheduled(cron = "${payment.reconciliation.cron:0 30 2 * * *}")
+    public void reconcileInbox() {
+        if (inboxDir == null || inboxDir.isBlank()) {
+            return;
+        }
+        Path inbox = Path.of(inboxDir);
+        if (!Files.isDirectory(inbox)) {
+            log.warn("Reconciliation inbox {} does not exist", inbox);
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox, "*.csv")) {
+            Path processed = Files.createDirectories(inbox.resolve("processed"));
+            Path failed = Files.createDirectories(inbox.resolve("failed"));
+            for (Path file : files) {
+                boolean succeeded;
+                try (InputStream in = Files.newInputStream(file)) {
+                    PaymentReconciliationReportDTO report = reconcile(file.getFileName().toString(), in);
+                    succeeded = report.getStatus() == ReconciliationRunStatus.COMPLETED;
+                    log.info("Reconciled {} ({}): {} rows, {} matched, {} fixed, {} flagged",
+                            file.getFileName(), report.getStatus(), report.getTotalRows(), report.getMatched(),
+                            report.getFixed(), report.getFlagged());
+                } catch (ConflictException e) {
+                    log.info("Reconciliation already running; {} left for the next scan", file.getFileName());
+                    return;
+                } catch (Exception e) {
+                    log.error("Cannot reconcile {}", file.getFileName(), e);
+                    succeeded = false;
+                }
+                Path target = (succeeded ? processed : failed).resolve(file.getFileName());
+                try {
+                    Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    log.error("Cannot move {} to {}", file.getFileName(), target.getParent(), e);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Cannot scan reconciliation inbox {}", inbox, e);
+        }
+    }
+
+    @Override
+    public Page<PaymentReconciliationReportDTO> getRuns(Pageable pageable) {
+        return runRepository.findAllByOrderByStartedAtDesc(pageable).map(this::toDTO);
+    }
+
+    @Override
+    public PaymentReconciliationReportDTO getRun(Long runId) {
+        return runRepository.findById(runId)
+                .map(this::toDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("PaymentReconciliationRun", runId));
+    }
+
+    @Override
+    public Page<PaymentReconciliationItemDTO> getItems(Long runId, ReconciliationResolution resolution,
+                                                       Pageable pageable) {
+        Page<PaymentReconciliationItem> items = resolution == null
+                ? itemRepository.findByRunIdOrderByLineNumberAsc(runId, pageable)
+                : itemRepository.findByRunIdAndResolutionOrderByLineNumberAsc(runId, resolution, pageable);
+        return items.map(this::toDTO);
+    }
+
+    // ===== Internals =====
+
+    private PaymentReconciliationRun run(String sourceName, VNPaySettlementCsvReader reader) {
+        PaymentReconciliationRun run = runRepository.save(PaymentReconciliationRun.builder()
+                .sourceName(sourceName != null ? sourceName : "upload")
+                .startedAt(Instant.now())
+                .build());
+        log.info("Payment reconciliation {} started for {}", run.getId(), run.getSourceName());
+
+        List<Row> batch = new ArrayList<>(batchSize);
+        try {
+            Row row;
+            while ((row = reader.next()) != null) {
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    processBatch(run, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                processBatch(run, batch);
+            }
+            run.setStatus(ReconciliationRunStatus.COMPLETED);
+        } catch (Exception e) {
+            // Các lô đã commit vẫn giữ nguyên; chạy lại file là an toàn vì payment đã sửa sẽ khớp
+            log.error("Payment reconciliation {} failed", run.getId(), e);
+            run.setStatus(ReconciliationRunStatus.FAILED);
+            run.setError(TruncateUtils.truncate(e.getMessage()));
+        }
+        run.setFinishedAt(Instant.now());
+        return runRepository.save(run);
+    }
+
+    private void processBatch(PaymentReconciliationRun run, List<Row> batch) {
+        batch.sort(Comparator.comparing(Row::txnRef, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        BatchResult result = transactionTemplate.execute(status -> {
+            Set<String> txnRefs = new LinkedHashSet<>();
+            for (Row row : batch) {
+                if (row.error() == null) {
+                    txnRefs.add(row.txnRef());
+                }
+            }
+            Map<String, Payment> payments = new HashMap<>(txnRefs.size() * 2);
+            if (!txnRefs.isEmpty()) {
+                for (Payment p : paymentRepository.findForUpdateByTransactionIdIn(txnRefs)) {
+                    payments.put(p.getTransactionId(), p);
+                }
+            }
+
+            BatchResult r = new BatchResult(run.getId());
+            for (Row row : batch) {
+                reconcileRow(r, row, row.error() == null ? payments.get(row.txnRef()) : null);
+            }
+            itemRepository.saveAll(r.items);
+            return r;
+        });
+
+        run.setTotalRows(run.getTotalRows() + batch.size());
+        run.setMatched(run.getMatched() + result.matched);
+        run.setFixed(run.getFixed() + result.fixed);
+        run.setFlagged(run.getFlagged() + result.flagged);
+    }
+
+    private void reconcileRow(BatchResult r, Row row, Payment payment) {
+        if (row.error() != null) {
+            r.flag(row, null, ReconciliationIssueType.MALFORMED_ROW, row.error());
+            return;
+        }
+        boolean gatewaySuccess = row.gatewaySuccess();
+        if (payment == null) {
+            if (gatewaySuccess) {
+                r.flag(row, null, ReconciliationIssueType.UNKNOWN_TRANSACTION,
+                        "Cổng đã thu tiền nhưng không có payment với txnRef này");
+            } else {
+                // Lượt thanh toán thất bại đã bị thay bằng txnRef mới: không có gì để đối soát
+                r.matched++;
+            }
+            return;
+        }
+
+        PaymentStatus status = payment.getStatus();
+        if (gatewaySuccess) {
+            if (payment.getAmount().compareTo(row.amount()) != 0) {
+                r.flag(row, payment, ReconciliationIssueType.AMOUNT_MISMATCH, null);
+            } else if (SETTLED.contains(status)) {
+                r.matched++;
+            } else if (AWAITING_GATEWAY.contains(status)) {
+                Order order = payment.getOrder();
+                if (order.getStatus() == OrderStatus.CANCELLED) {
+                    r.flag(row, payment, ReconciliationIssueType.PAID_NOT_RECORDED,
+                            "Đơn đã hủy nhưng cổng đã thu tiền: cần hoàn tiền");
+                } else {
+                    r.fixed(row, payment, ReconciliationIssueType.PAID_NOT_RECORDED);
+                    markPaid(payment, order, row);
+                }
+            } else {
+                r.flag(row, payment, ReconciliationIssueType.PAID_BUT_RECORDED_FAILED, null);
+            }
+            return;
+        }
+
+        if (status == PaymentStatus.PAID) {
+            r.flag(row, payment, ReconciliationIssueType.RECORDED_PAID_BUT_GATEWAY_FAILED, null);
+        } else if (AWAITING_GATEWAY.contains(status)) {
+            if ("00".equals(row.responseCode())) {
+                // ResponseCode 00 nhưng TransactionStatus khác 00: giao dịch chưa hoàn tất/đảo
+                r.flag(row, payment, ReconciliationIssueType.FAILED_NOT_RECORDED,
+                        "vnp_TransactionStatus=" + row.transactionStatus());
+            } else {
+                r.fixed(row, payment, ReconciliationIssueType.FAILED_NOT_RECORDED);
+                markFailed(payment, row);
+            }
+        } else {
+            r.matched++;
+        }
+    }
+
+    /** Giống callback thành công của VNPay */
+    private void markPaid(Payment payment, Order order, Row row) {
+        Instant paidAt = row.payDate() != null ? row.payDate() : Instant.now();
+        payment.setStatus(PaymentStatus.PAID);
+        payment.setPaidAt(paidAt);
+        recordGatewayResponse(payment, row);
+
+        OrderStatus previousStatus = order.getStatus();
+        order.setPaymentStatus(PaymentStatus.PAID);
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setHasPaid(true);
+        order.setConfirmedAt(Instant.now());
+
+        eventPublisher.publish(new OrderStatusChangedEvent(order.getId(), previousStatus, OrderStatus.CONFIRMED));
+        log.info("Reconciliation marked payment {} as PAID (lost callback)", payment.getTransactionId());
+    }
+
+    private void markFailed(Payment payment, Row row) {
+        payment.setStatus(PaymentStatus.FAILED);
+        payment.getOrder().setPaymentStatus(PaymentStatus.FAILED);
+        recordGatewayResponse(payment, row);
+    }
+
+    private static void recordGatewayResponse(Payment payment, Row row) {
+        Map<String, Object> response = payment.getGatewayResponse() != null
+                ? new HashMap<>(payment.getGatewayResponse()) : new HashMap<>();
+        response.put("vnp_TxnRef", row.txnRef());
+        response.put("vnp_ResponseCode", row.responseCode());
+        if (row.transactionNo() != null) {
+            response.put("vnp_TransactionNo", row.transactionNo());
+        }
+        if (row.transactionStatus() != null) {
+            response.put("vnp_TransactionStatus", row.transactionStatus());
+        }
+        response.put("source", "reconciliation");
+        payment.setGatewayResponse(response);
+    }
+
+    /** Kết quả một lô; chỉ dòng lệch được giữ lại để lưu */
+    private static final class BatchResult {
+        private final Long runId;
+        private final List<PaymentReconciliationItem> items = new ArrayList<>();
+        private long matched;
+        private long fixed;
+        private long flagged;
+
+        BatchResult(Long runId) {
+            this.runId = runId;
+        }
+
+        void fixed(Row row, Payment payment, ReconciliationIssueType type) {
+            fixed++;
+            items.add(item(row, payment, type, ReconciliationResolution.FIXED, null));
+        }
+
+        void flag(Row row, Payment payment, ReconciliationIssueType type, String note) {
+            flagged++;
+            items.add(item(row, payment, type, ReconciliationResolution.FLAGGED, note));
+        }
+
+        private PaymentReconciliationItem item(Row row, Payment payment, ReconciliationIssueType type,
+                                               ReconciliationResolution resolution, String note) {
+            return PaymentReconciliationItem.builder()
+                    .runId(runId)
+                    .lineNumber(row.lineNumber())
+                    .txnRef(row.txnRef())
+                    .transactionNo(row.transactionNo())
+                    .orderId(payment != null ? payment.getOrder().getId() : null)
+                    .issueType(type)
+                    .resolution(resolution)
+                    .gatewayAmount(row.amount())
+                    .recordedAmount(payment != null ? payment.getAmount() : null)
+                    .gatewayResponseCode(row.responseCode())
+                    .recordedStatus(payment != null ? payment.getStatus() : null)
+                    .note(note)
+                    .build();
+        }
+    }
+
+    private PaymentReconciliationReportDTO toDTO(PaymentReconciliationRun run) {
+        return PaymentReconciliationReportDTO.builder()
+                .id(run.getId())
+                .sourceName(run.getSourceName())
+                .status(run.getStatus())
+                .totalRows(run.getTotalRows())
+                .matched(run.getMatched())
+                .fixed(run.getFixed())
+                .flagged(run.getFlagged())
+                .error(run.getError())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .build();
+    }
+
+    private PaymentReconciliationItemDTO toDTO(PaymentReconciliationItem item) {
+        return PaymentReconciliationItemDTO.builder()
+                .id(item.getId())
+                .lineNumber(item.getLineNumber())
+                .txnRef(item.getTxnRef())
+                .transactionNo(item.getTransactionNo())
+                .orderId(item.getOrderId())
+                .issueType(item.getIssueType())
+                .resolution(item.getResolution())
+                .gatewayAmount(item.getGatewayAmount())
+                .recordedAmount(item.getRecordedAmount())
+                .gatewayResponseCode(item.getGatewayResponseCode())
+                .recordedStatus(item.getRecordedStatus())
+                .note(item.getNote())
+                .build();
+    }
+}
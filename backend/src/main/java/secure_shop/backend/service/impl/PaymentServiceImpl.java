@@ -13,7 +13,8 @@ import secure_shop.backend.mapper.PaymentMapper;
 import secure_shop.backend.repositories.PaymentRepository;
 import secure_shop.backend.service.PaymentService;
 import secure_shop.backend.dto.payment.MockPaymentRequest;
-import secure_shop.backend.service.EmailService;
+import secure_shop.backend.service.event.DomainEventPublisher;
+import secure_shop.backend.service.event.OrderStatusChangedEvent;
 import secure_shop.backend.repositories.OrderRepository;
 import secure_shop.backend.entities.Order;
 import secure_shop.backend.enums.OrderStatus;
@@ -33,7 +34,7 @@ public class PaymentServiceImpl implements PaymentService {
     private final PaymentRepository paymentRepository;
     private final PaymentMapper paymentMapper;
     private final OrderRepository orderRepository;
-    private final EmailService emailService;
+    private final DomainEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -75,17 +76,17 @@ public class PaymentServiceImpl implements PaymentService {
         order.setPayment(savedPayment);
         
         // If order is pending, move to CONFIRMED or WAITING_FOR_DELIVERY
-        if (order.getStatus() == OrderStatus.PENDING) {
+        OrderStatus previousStatus = order.getStatus();
+        if (previousStatus == OrderStatus.PENDING) {
             order.setStatus(OrderStatus.CONFIRMED);
             order.setConfirmedAt(Instant.now());
         }
 
         orderRepository.save(order);
 
-        try {
-            emailService.sendOrderConfirmationEmail(order);
-        } catch (Exception ex) {
-            // log error but don't fail the transaction
+        // Email xác nhận do listener gửi sau khi commit
+        if (previousStatus != order.getStatus()) {
+            eventPublisher.publish(new OrderStatusChangedEvent(order.getId(), previousStatus, order.getStatus()));
         }
 
         return paymentMapper.toDTO(savedPayment);
@@ -1,6 +1,7 @@
 package secure_shop.backend.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -11,17 +12,23 @@ import secure_shop.backend.exception.ResourceNotFoundException;
 import secure_shop.backend.mapper.ProductMapper;
 import secure_shop.backend.repositories.*;
 import secure_shop.backend.service.BarcodeService;
+import secure_shop.backend.service.ImageVariantService;
 import secure_shop.backend.service.ProductService;
+import secure_shop.backend.service.event.ProductChangedEvent;
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 
 import java.math.BigDecimal;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -34,6 +41,8 @@ public class ProductServiceImpl implements ProductService {
     private final ProductMapper productMapper;
     private final InventoryRepository inventoryRepository;
     private final BarcodeService barcodeService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageVariantService imageVariantService;
     @Override
     public Page<ProductSummaryDTO> filterProducts(Boolean active,
                                                   Long categoryId,
@@ -44,7 +53,8 @@ public class ProductServiceImpl implements ProductService {
                                                   String keyword,
                                                   Pageable pageable) {
         return productRepository
-                .filterProducts(active, categoryId, brandId, minPrice, maxPrice, inStock, keyword, pageable);
+                .filterProducts(active, categoryId, brandId, minPrice, maxPrice, inStock, keyword, pageable)
+                .map(productMapper::useGridThumbnail);
     }
 
     @Override
@@ -72,6 +82,7 @@ public class ProductServiceImpl implements ProductService {
         Product product = productMapper.toEntity(dto);
         product.setDeletedAt(null); // đảm bảo không gán nhầm
         product.setActive(true);
+        product.setThumbnailSrcset(imageVariantService.srcset(product.getThumbnailUrl()));
 
         var saved = productRepository.save(product);
 
@@ -82,15 +93,10 @@ public class ProductServiceImpl implements ProductService {
         inventoryRepository.save(inventory);
 
         if (dto.getMediaAssets() != null && !dto.getMediaAssets().isEmpty()) {
-            List<MediaAsset> mediaAssets = dto.getMediaAssets().stream()
-                    .map(mediaDTO -> {
-                        MediaAsset media = new MediaAsset();
-                        media.setUrl(mediaDTO.getUrl());
-                        media.setAltText(mediaDTO.getAltText());
-                        media.setProduct(product);
-                        return media;
-                    })
-                    .collect(Collectors.toList());
+            List<MediaAsset> mediaAssets = new ArrayList<>(dto.getMediaAssets().size());
+            for (MediaAssetDTO mediaDTO : dto.getMediaAssets()) {
+                mediaAssets.add(toMediaAsset(mediaDTO, product, mediaAssets.size()));
+            }
             product.setMediaAssets(mediaAssets);
         }
 
@@ -101,6 +107,7 @@ public class ProductServiceImpl implements ProductService {
             // Không fail nếu barcode tạo lỗi
         }
 
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId()));
         return productMapper.toProductDTO(saved);
     }
 
@@ -123,6 +130,7 @@ public class ProductServiceImpl implements ProductService {
         existing.setShortDesc(dto.getShortDesc());
         existing.setLongDesc(dto.getLongDesc());
         existing.setThumbnailUrl(dto.getThumbnailUrl());
+        existing.setThumbnailSrcset(imageVariantService.srcset(dto.getThumbnailUrl()));
 
         // Update brand
         if (dto.getBrand() != null && dto.getBrand().getId() != null) {
@@ -146,29 +154,10 @@ public class ProductServiceImpl implements ProductService {
             existing.setCategory(null);
         }
 
-        if (existing.getMediaAssets() != null) {
-            existing.getMediaAssets().clear();
-        }
-
-        if (dto.getMediaAssets() != null && !dto.getMediaAssets().isEmpty()) {
-            List<MediaAsset> newMediaAssets = dto.getMediaAssets().stream()
-                    .map(mediaDTO -> {
-                        MediaAsset media = new MediaAsset();
-                        media.setUrl(mediaDTO.getUrl());
-                        media.setAltText(mediaDTO.getAltText());
-                        media.setProduct(existing);
-                        return media;
-                    })
-                    .collect(Collectors.toList());
-
-            if (existing.getMediaAssets() == null) {
-                existing.setMediaAssets(new ArrayList<>());
-            }
-            existing.getMediaAssets().addAll(newMediaAssets);
-        }
-
+        syncMediaAssets(existing, dto.getMediaAssets());
 
         var updated = productRepository.save(existing);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
         return productMapper.toProductDTO(updated);
     }
 
@@ -189,6 +178,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         productRepository.delete(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
         return true;
     }
 
@@ -201,10 +191,74 @@ public class ProductServiceImpl implements ProductService {
         product.setDeletedAt(null);
         product.setActive(true);
         productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
 
         return productMapper.toProductDTO(product);
     }
 
+    /**
+     * Đồng bộ gallery theo danh sách gửi lên, ghép với dòng hiện có theo URL: ảnh giữ nguyên
+     * không bị xóa rồi chèn lại, chỉ ảnh mới được insert, ảnh bị bỏ được xóa (orphanRemoval) và
+     * chỉ dòng đổi vị trí/alt text mới sinh UPDATE. Các UPDATE/DELETE được Hibernate gom batch.
+     */
+    private void syncMediaAssets(Product product, List<MediaAssetDTO> incoming) {
+        if (product.getMediaAssets() == null) {
+            product.setMediaAssets(new ArrayList<>());
+        }
+        List<MediaAsset> current = product.getMediaAssets();
+        if (incoming == null || incoming.isEmpty()) {
+            current.clear();
+            return;
+        }
+
+        // Một URL có thể xuất hiện nhiều lần: ghép lần lượt theo thứ tự hiện tại
+        Map<String, Deque<MediaAsset>> byUrl = new HashMap<>();
+        for (MediaAsset media : current) {
+            byUrl.computeIfAbsent(media.getUrl(), k -> new ArrayDeque<>()).add(media);
+        }
+
+        List<MediaAsset> ordered = new ArrayList<>(incoming.size());
+        for (MediaAssetDTO mediaDTO : incoming) {
+            int position = ordered.size();
+            Deque<MediaAsset> matches = byUrl.get(mediaDTO.getUrl());
+            MediaAsset media = matches != null ? matches.poll() : null;
+            if (media == null) {
+                ordered.add(toMediaAsset(mediaDTO, product, position));
+                continue;
+            }
+            // Chỉ gán khi khác để dirty checking không sinh UPDATE thừa
+            if (!Objects.equals(media.getSortOrder(), position)) {
+                media.setSortOrder(position);
+            }
+            if (!Objects.equals(media.getAltText(), mediaDTO.getAltText())) {
+                media.setAltText(mediaDTO.getAltText());
+            }
+            ordered.add(media);
+        }
+
+        if (ordered.equals(current)) {
+            return;
+        }
+        // Dòng không còn trong danh sách bị orphanRemoval xóa khi flush
+        current.clear();
+        current.addAll(ordered);
+    }
+
+    /** Ghi nhận kích thước và các biến thể đã tạo lúc upload (nếu là ảnh upload) */
+    private MediaAsset toMediaAsset(MediaAssetDTO mediaDTO, Product product, int position) {
+        MediaAsset media = new MediaAsset();
+        media.setUrl(mediaDTO.getUrl());
+        media.setAltText(mediaDTO.getAltText());
+        media.setSortOrder(position);
+        media.setProduct(product);
+        imageVariantService.describe(mediaDTO.getUrl()).ifPresent(info -> {
+            media.setWidth(info.width());
+            media.setHeight(info.height());
+            media.setVariants(new ArrayList<>(info.variants()));
+        });
+        return media;
+    }
+
     @Override
     public Boolean existsById(UUID id) {
         return productRepository.existsById(id);
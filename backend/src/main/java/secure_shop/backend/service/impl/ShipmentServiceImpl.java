@@ -8,11 +8,14 @@ import org.springframework.transaction.annotation.Transactional;
 import secure_shop.backend.dto.order.ShipmentDTO;
 import secure_shop.backend.entities.Shipment;
 import secure_shop.backend.enums.ShipmentStatus;
+import secure_shop.backend.exception.ResourceNotFoundException;
 import secure_shop.backend.mapper.ShipmentMapper;
 import secure_shop.backend.repositories.ShipmentRepository;
 import secure_shop.backend.service.ShipmentService;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -22,6 +25,9 @@ import java.util.stream.Collectors;
 @Transactional
 public class ShipmentServiceImpl implements ShipmentService {
 
+    /** Giới hạn số tham số của mệnh đề IN */
+    private static final int MAX_STATUS_BATCH = 200;
+
     private final ShipmentRepository shipmentRepository;
     private final ShipmentMapper shipmentMapper;
 
@@ -69,18 +75,14 @@ public class ShipmentServiceImpl implements ShipmentService {
     @Override
     @Transactional(readOnly = true)
     public Page<ShipmentDTO> getShipmentsPage(Pageable pageable) {
-        return shipmentRepository.findAll(pageable)
-                .map(shipmentMapper::toDTO);
+        return shipmentRepository.searchDTOs(null, null, null, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
     public ShipmentDTO getShipmentByOrderId(UUID orderId) {
-        Shipment shipment = shipmentRepository.findAll().stream()
-                .filter(s -> s.getOrder() != null && s.getOrder().getId().equals(orderId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Shipment not found for order id: " + orderId));
-        return shipmentMapper.toDTO(shipment);
+        return shipmentRepository.findDTOByOrderId(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Shipment of order", orderId));
     }
 
     @Override
@@ -108,11 +110,30 @@ public class ShipmentServiceImpl implements ShipmentService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ShipmentDTO> getShipmentsByUserId(UUID userId) {
-        return shipmentRepository.findByOrder_User_Id(userId)
-                .stream()
-                .map(shipmentMapper::toDTO)
-                .collect(Collectors.toList());
+        return shipmentRepository.findDTOsByUserId(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ShipmentDTO> searchShipments(ShipmentStatus status, Instant from, Instant to, Pageable pageable) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' phải trước 'to'");
+        }
+        return shipmentRepository.searchDTOs(status, from, to, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ShipmentDTO> getShipmentStatuses(Collection<UUID> orderIds, UUID userId) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return List.of();
+        }
+        if (orderIds.size() > MAX_STATUS_BATCH) {
+            throw new IllegalArgumentException("Tối đa " + MAX_STATUS_BATCH + " đơn hàng mỗi lần tra cứu");
+        }
+        return shipmentRepository.findDTOsByOrderIds(new HashSet<>(orderIds), userId);
     }
 }
 
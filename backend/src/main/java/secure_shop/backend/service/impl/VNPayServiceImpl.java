@@ -1,14 +1,18 @@
 package secure_shop.backend.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import secure_shop.backend.config.VNPayConfig;
 import secure_shop.backend.dto.vnpay.VNPayCallbackResponse;
 import secure_shop.backend.entities.Order;
 import secure_shop.backend.entities.Payment;
 import secure_shop.backend.enums.OrderStatus;
+import secure_shop.backend.enums.PaymentAuditEventType;
 import secure_shop.backend.enums.PaymentMethod;
 import secure_shop.backend.enums.PaymentProvider;
 import secure_shop.backend.enums.PaymentStatus;
@@ -16,15 +20,20 @@ import secure_shop.backend.mapper.OrderMapper;
 import secure_shop.backend.mapper.PaymentMapper;
 import secure_shop.backend.repositories.OrderRepository;
 import secure_shop.backend.repositories.PaymentRepository;
-import secure_shop.backend.service.EmailService;
+import secure_shop.backend.service.PaymentAuditService;
 import secure_shop.backend.service.VNPayService;
+import secure_shop.backend.service.event.DomainEventPublisher;
+import secure_shop.backend.service.event.OrderStatusChangedEvent;
+import secure_shop.backend.utils.VNPaySigner;
 
 import java.math.BigDecimal;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
@@ -32,14 +41,26 @@ import java.util.*;
 public class VNPayServiceImpl implements VNPayService {
 
     private final VNPayConfig vnPayConfig;
+    private final VNPaySigner vnPaySigner;
     private final OrderRepository orderRepository;
     private final PaymentRepository paymentRepository;
     private final OrderMapper orderMapper;
     private final PaymentMapper paymentMapper;
-    private final EmailService emailService;
+    private final DomainEventPublisher eventPublisher;
+    private final PaymentAuditService paymentAuditService;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final String CALLBACK_RESULT_PREFIX = "vnpay:callback:";
+    private static final Duration CALLBACK_RESULT_TTL = Duration.ofHours(24);
+
+    // Callback đang xử lý trên instance này, theo vnp_TxnRef:vnp_TransactionNo
+    private final Map<String, CompletableFuture<VNPayCallbackResponse>> inFlightCallbacks = new ConcurrentHashMap<>();
 
     @Transactional
     public String createPaymentUrl(UUID orderId, String ipAddress) throws UnsupportedOperationException{
+        long started = System.nanoTime();
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy đơn hàng"));
 
@@ -51,8 +72,8 @@ public class VNPayServiceImpl implements VNPayService {
         order.recalculateTotals();
         long amount = order.getGrandTotal().multiply(BigDecimal.valueOf(100)).longValue();
 
-        // Build VNPay parameters
-        Map<String, String> vnpParams = new HashMap<>();
+        // Build VNPay parameters (TreeMap: đã sắp xếp theo key như VNPay yêu cầu)
+        SortedMap<String, String> vnpParams = new TreeMap<>();
         vnpParams.put("vnp_Version", vnPayConfig.getVnpVersion());
         vnpParams.put("vnp_Command", vnPayConfig.getVnpCommand());
         vnpParams.put("vnp_TmnCode", vnPayConfig.getVnpTmnCode());
@@ -98,145 +119,199 @@ public class VNPayServiceImpl implements VNPayService {
         paymentRepository.save(payment);
         log.info("Created payment with transaction ID: {}", vnpTxnRef);
 
-        // TẠO CHỮ KÝ
-        String vnp_SecureHash = vnPayConfig.hashAllFields(vnpParams);
-        vnpParams.put("vnp_SecureHash", vnp_SecureHash);
-
-        // TẠO URL THANH TOÁN HOÀN CHỈNH
-        StringBuilder paymentUrl = new StringBuilder(vnPayConfig.getVnpUrl());
-        paymentUrl.append("?");
-
-        List<String> fieldNames = new ArrayList<>(vnpParams.keySet());
-        Collections.sort(fieldNames); // Vẫn cần sort để VNPAY nhận diện
-
-        for (int i = 0; i < fieldNames.size(); i++) {
-            String fieldName = fieldNames.get(i);
-            String fieldValue = vnpParams.get(fieldName);
-            if (fieldValue != null && !fieldValue.isEmpty()) {
-                paymentUrl.append(URLEncoder.encode(fieldName, StandardCharsets.UTF_8))
-                        .append("=")
-                        .append(URLEncoder.encode(fieldValue, StandardCharsets.UTF_8));
-                if (i < fieldNames.size() - 1) {
-                    paymentUrl.append("&");
-                }
-            }
-        }
+        // TẠO CHỮ KÝ + URL THANH TOÁN HOÀN CHỈNH
+        String paymentUrl = vnPayConfig.getVnpUrl() + "?" + vnPaySigner.signAndBuildQuery(vnpParams);
+
+        paymentAuditService.recordPaymentUrlCreated(orderId, vnpTxnRef, order.getGrandTotal(), vnpParams,
+                elapsedMillis(started));
 
         // TRẢ VỀ URL HOÀN CHỈNH
-        return paymentUrl.toString();
+        return paymentUrl;
     }
 
+    /**
+     * Xử lý callback (return URL hoặc IPN retry) một cách idempotent theo vnp_TxnRef + vnp_TransactionNo.
+     * <ul>
+     *   <li>Kết quả đã xử lý được lưu trong Redis: callback trùng trả lại ngay, không chạm DB.</li>
+     *   <li>Callback trùng đến cùng lúc trên một instance gộp thành một lần xử lý.</li>
+     *   <li>Giữa các instance, chỉ dòng payment bị khóa; payment không còn PENDING thì
+     *       trả trạng thái hiện tại mà không ghi lại orders.</li>
+     * </ul>
+     */
     @Override
-    @Transactional
     public VNPayCallbackResponse processCallbackWithDetails(Map<String, String> params) {
-        log.info("Processing VNPay callback with details: {}", params);
+        long started = System.nanoTime();
+        CallbackResult result = handleCallback(params);
+        paymentAuditService.recordCallback(result.event(), params, result.response(), elapsedMillis(started));
+        return result.response();
+    }
 
+    private record CallbackResult(VNPayCallbackResponse response, PaymentAuditEventType event) {}
+
+    private CallbackResult handleCallback(Map<String, String> params) {
         String vnpSecureHash = params.get("vnp_SecureHash");
         String responseCode = params.get("vnp_ResponseCode");
         String txnRef = params.get("vnp_TxnRef");
         String transactionNo = params.get("vnp_TransactionNo");
 
-        // Create response builder
-        VNPayCallbackResponse.VNPayCallbackResponseBuilder responseBuilder = VNPayCallbackResponse.builder()
-                .responseCode(responseCode)
-                .txnRef(txnRef)
-                .transactionId(transactionNo);
-
-        // Remove hash params for validation
-        Map<String, String> paramsForValidation = new HashMap<>(params);
-        paramsForValidation.remove("vnp_SecureHash");
-        paramsForValidation.remove("vnp_SecureHashType");
-
-        // Build hash data
-        List<String> fieldNames = new ArrayList<>(paramsForValidation.keySet());
-        Collections.sort(fieldNames);
-
-        StringBuilder hashData = new StringBuilder();
-        for (String fieldName : fieldNames) {
-            String fieldValue = paramsForValidation.get(fieldName);
-            if (fieldValue != null && !fieldValue.isEmpty()) {
-                hashData.append(fieldName)
-                        .append('=')
-                        .append(URLEncoder.encode(fieldValue, StandardCharsets.UTF_8));
-                if (fieldNames.indexOf(fieldName) < fieldNames.size() - 1) {
-                    hashData.append('&');
-                }
-            }
-        }
-
-        // Verify signature
-        String signValue = VNPayConfig.hmacSHA512(vnPayConfig.getVnpHashSecret(), hashData.toString());
-
-        if (!signValue.equals(vnpSecureHash)) {
-            log.error("Invalid signature. Expected: {}, Got: {}", signValue, vnpSecureHash);
-            return responseBuilder
+        // Verify signature - luôn kiểm tra trước khi trả kết quả đã lưu
+        if (!vnPaySigner.verify(params, vnpSecureHash)) {
+            log.error("Invalid signature for txnRef: {}", txnRef);
+            return new CallbackResult(callbackResponse(responseCode, txnRef, transactionNo)
                     .success(false)
                     .message("Chữ ký không hợp lệ")
-                    .build();
+                    .build(), PaymentAuditEventType.CALLBACK_INVALID_SIGNATURE);
         }
 
-        try {
-            // Find payment by transaction reference
-            Payment payment = paymentRepository.findByTransactionId(txnRef)
-                    .orElseThrow(() -> new RuntimeException("Không tìm thấy giao dịch với txnRef: " + txnRef));
-
-            // Store gateway response as JSONB
-            Map<String, Object> gatewayResponse = new HashMap<>(params);
-            payment.setGatewayResponse(gatewayResponse);
-
-            // Update payment and order status
-            if ("00".equals(responseCode)) {
-                payment.setStatus(PaymentStatus.PAID);
-                payment.setPaidAt(Instant.now());
-
-                // Update order
-                Order order = payment.getOrder();
-                order.setPaymentStatus(PaymentStatus.PAID);
-                order.setStatus(OrderStatus.CONFIRMED);
-                order.setHasPaid(true);
-                order.setConfirmedAt(Instant.now());
-                orderRepository.save(order);
-
-                log.info("Payment successful for transaction: {}", txnRef);
-
-                // Build success response with order and payment details
-                paymentRepository.save(payment);
-
-                try {
-                    emailService.sendOrderConfirmationEmail(order);
-                } catch (Exception ex) {
-                    log.error("Failed to send order confirmation email for order: {}", order.getId(), ex);
-                }
-
-                return responseBuilder
-                        .success(true)
-                        .message("Thanh toán thành công")
-                        .order(orderMapper.toDTO(order))
-                        .payment(paymentMapper.toDTO(payment))
-                        .build();
-
-            } else {
-                payment.setStatus(PaymentStatus.FAILED);
-                payment.getOrder().setPaymentStatus(PaymentStatus.FAILED);
-
-                log.warn("Payment failed for transaction: {} with code: {}", txnRef, responseCode);
+        if (txnRef == null) {
+            return new CallbackResult(callbackResponse(responseCode, null, transactionNo)
+                    .success(false)
+                    .message("Thiếu mã giao dịch vnp_TxnRef")
+                    .build(), PaymentAuditEventType.CALLBACK_ERROR);
+        }
 
-                paymentRepository.save(payment);
+        String idempotencyKey = txnRef + ":" + (transactionNo != null ? transactionNo : "");
+        VNPayCallbackResponse stored = readStoredCallback(idempotencyKey);
+        if (stored != null) {
+            log.info("Duplicate VNPay callback for {} served from stored result", idempotencyKey);
+            return new CallbackResult(stored, PaymentAuditEventType.CALLBACK_DUPLICATE);
+        }
 
-                return responseBuilder
+        CompletableFuture<VNPayCallbackResponse> mine = new CompletableFuture<>();
+        CompletableFuture<VNPayCallbackResponse> inFlight = inFlightCallbacks.putIfAbsent(idempotencyKey, mine);
+        if (inFlight != null) {
+            log.info("Concurrent VNPay callback for {} joined in-flight processing", idempotencyKey);
+            try {
+                return new CallbackResult(inFlight.join(), PaymentAuditEventType.CALLBACK_DUPLICATE);
+            } catch (CompletionException e) {
+                return new CallbackResult(callbackResponse(responseCode, txnRef, transactionNo)
                         .success(false)
-                        .message(getResponseCodeMessage(responseCode))
-                        .order(orderMapper.toDTO(payment.getOrder()))
-                        .payment(paymentMapper.toDTO(payment))
-                        .build();
+                        .message("Lỗi xử lý thanh toán: " + e.getCause().getMessage())
+                        .build(), PaymentAuditEventType.CALLBACK_ERROR);
             }
+        }
 
+        CallbackResult result = null;
+        try {
+            result = transactionTemplate.execute(status -> applyCallback(params, responseCode, txnRef, transactionNo));
+            storeCallback(idempotencyKey, result.response());
         } catch (Exception e) {
             log.error("Error processing payment callback", e);
-            return responseBuilder
+            result = new CallbackResult(callbackResponse(responseCode, txnRef, transactionNo)
                     .success(false)
                     .message("Lỗi xử lý thanh toán: " + e.getMessage())
-                    .build();
+                    .build(), PaymentAuditEventType.CALLBACK_ERROR);
+        } finally {
+            // Luôn giải phóng callback đang chờ (kể cả khi gặp Error), rồi mới bỏ khỏi map
+            if (result != null) {
+                mine.complete(result.response());
+            } else {
+                mine.completeExceptionally(new IllegalStateException("Callback processing aborted for " + idempotencyKey));
+            }
+            inFlightCallbacks.remove(idempotencyKey, mine);
+        }
+        return result;
+    }
+
+    private CallbackResult applyCallback(Map<String, String> params, String responseCode,
+                                                String txnRef, String transactionNo) {
+        // Find payment by transaction reference (khóa dòng payment tới hết transaction)
+        Payment payment = paymentRepository.findForUpdateByTransactionId(txnRef)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy giao dịch với txnRef: " + txnRef));
+
+        if (payment.getStatus() != PaymentStatus.PENDING) {
+            // Callback này đã được xử lý (request/instance khác): không ghi lại payment và order
+            boolean paid = payment.getStatus() == PaymentStatus.PAID;
+            Object storedCode = payment.getGatewayResponse() != null
+                    ? payment.getGatewayResponse().get("vnp_ResponseCode") : null;
+            return new CallbackResult(callbackResponse(responseCode, txnRef, transactionNo)
+                    .success(paid)
+                    .message(paid ? "Thanh toán thành công"
+                            : getResponseCodeMessage(storedCode != null ? storedCode.toString() : responseCode))
+                    .order(orderMapper.toDTO(payment.getOrder()))
+                    .payment(paymentMapper.toDTO(payment))
+                    .build(), PaymentAuditEventType.CALLBACK_DUPLICATE);
+        }
+
+        // Store gateway response as JSONB
+        Map<String, Object> gatewayResponse = new HashMap<>(params);
+        payment.setGatewayResponse(gatewayResponse);
+
+        // Update payment and order status
+        if ("00".equals(responseCode)) {
+            payment.setStatus(PaymentStatus.PAID);
+            payment.setPaidAt(Instant.now());
+
+            // Update order
+            Order order = payment.getOrder();
+            OrderStatus previousStatus = order.getStatus();
+            order.setPaymentStatus(PaymentStatus.PAID);
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setHasPaid(true);
+            order.setConfirmedAt(Instant.now());
+            orderRepository.save(order);
+
+            log.info("Payment successful for transaction: {}", txnRef);
+
+            // Build success response with order and payment details
+            paymentRepository.save(payment);
+
+            // Email xác nhận do listener gửi sau khi commit
+            eventPublisher.publish(new OrderStatusChangedEvent(order.getId(), previousStatus, OrderStatus.CONFIRMED));
+
+            return new CallbackResult(callbackResponse(responseCode, txnRef, transactionNo)
+                    .success(true)
+                    .message("Thanh toán thành công")
+                    .order(orderMapper.toDTO(order))
+                    .payment(paymentMapper.toDTO(payment))
+                    .build(), PaymentAuditEventType.CALLBACK_PAID);
+
+        } else {
+            payment.setStatus(PaymentStatus.FAILED);
+            payment.getOrder().setPaymentStatus(PaymentStatus.FAILED);
+
+            log.warn("Payment failed for transaction: {} with code: {}", txnRef, responseCode);
+
+            paymentRepository.save(payment);
+
+            return new CallbackResult(callbackResponse(responseCode, txnRef, transactionNo)
+                    .success(false)
+                    .message(getResponseCodeMessage(responseCode))
+                    .order(orderMapper.toDTO(payment.getOrder()))
+                    .payment(paymentMapper.toDTO(payment))
+                    .build(), PaymentAuditEventType.CALLBACK_FAILED);
+        }
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
+    }
+
+    private static VNPayCallbackResponse.VNPayCallbackResponseBuilder callbackResponse(
+            String responseCode, String txnRef, String transactionNo) {
+        return VNPayCallbackResponse.builder()
+                .responseCode(responseCode)
+                .txnRef(txnRef)
+                .transactionId(transactionNo);
+    }
+
+    private VNPayCallbackResponse readStoredCallback(String idempotencyKey) {
+        try {
+            String json = redisTemplate.opsForValue().get(CALLBACK_RESULT_PREFIX + idempotencyKey);
+            return json != null ? objectMapper.readValue(json, VNPayCallbackResponse.class) : null;
+        } catch (Exception e) {
+            // Redis lỗi hoặc dữ liệu hỏng: xử lý qua DB (vẫn idempotent nhờ khóa payment)
+            log.warn("Cannot read stored VNPay callback {}: {}", idempotencyKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private void storeCallback(String idempotencyKey, VNPayCallbackResponse result) {
+        try {
+            redisTemplate.opsForValue().set(CALLBACK_RESULT_PREFIX + idempotencyKey,
+                    objectMapper.writeValueAsString(result), CALLBACK_RESULT_TTL);
+        } catch (Exception e) {
+            log.warn("Cannot store VNPay callback result {}: {}", idempotencyKey, e.getMessage());
         }
     }
 
@@ -260,223 +335,4 @@ public class VNPayServiceImpl implements VNPayService {
             default -> "Giao dịch không thành công. Mã lỗi: " + responseCode;
         };
     }
-
-//    @Override
-//    @Transactional
-//    public VNPayIPNResponse processIPN(Map<String, String> params) {
-//        // Log IPN received
-//        VNPayLogger.logCallback(params);
-//        log.info("Processing VNPay IPN with params: {}", params);
-//
-//        String vnp_SecureHash = params.get("vnp_SecureHash");
-//        String vnp_TxnRef = params.get("vnp_TxnRef");
-//        String vnp_Amount = params.get("vnp_Amount");
-//        String vnp_ResponseCode = params.get("vnp_ResponseCode");
-//        String vnp_TransactionStatus = params.get("vnp_TransactionStatus");
-//
-//        // Remove hash params for validation
-//        params.remove("vnp_SecureHashType");
-//        params.remove("vnp_SecureHash");
-//
-//        // Validate signature
-//        if (!validateSignature(params, vnp_SecureHash)) {
-//            log.error("Invalid VNPay IPN signature");
-//            return VNPayIPNResponse.invalidSignature();
-//        }
-//
-//        // Find order by transaction reference (extract order ID from vnp_TxnRef or vnp_OrderInfo)
-//        String orderInfo = params.get("vnp_OrderInfo");
-//        UUID orderId = extractOrderIdFromOrderInfo(orderInfo);
-//
-//        if (orderId == null) {
-//            log.error("Cannot extract order ID from IPN");
-//            return VNPayIPNResponse.orderNotFound();
-//        }
-//
-//        Order order = orderRepository.findById(orderId).orElse(null);
-//        if (order == null) {
-//            log.error("Order not found: {}", orderId);
-//            return VNPayIPNResponse.orderNotFound();
-//        }
-//
-//        // Check amount
-//        long vnpAmount = Long.parseLong(vnp_Amount) / 100; // Convert back from VNPay format
-//        BigDecimal vnpAmountVND = BigDecimal.valueOf(vnpAmount);
-//        if (order.getGrandTotal() == null || order.getGrandTotal().compareTo(vnpAmountVND) != 0) {
-//            log.error("Amount mismatch. Order: {}, VNPay: {}", order.getGrandTotal(), vnpAmountVND);
-//            return VNPayIPNResponse.invalidAmount();
-//        }
-//
-//        // Check if already processed
-//        Payment existingPayment = paymentRepository.findByOrderId(orderId).orElse(null);
-//        if (existingPayment != null && existingPayment.getStatus() == PaymentStatus.PAID) {
-//            log.info("Payment already confirmed for order: {}", orderId);
-//            return VNPayIPNResponse.orderAlreadyConfirmed();
-//        }
-//
-//        // Update payment
-//        VNPayCallbackRequest callback = VNPayCallbackRequest.builder()
-//                .vnp_TxnRef(vnp_TxnRef)
-//                .vnp_Amount(vnp_Amount)
-//                .vnp_ResponseCode(vnp_ResponseCode)
-//                .vnp_TransactionStatus(vnp_TransactionStatus)
-//                .vnp_TransactionNo(params.get("vnp_TransactionNo"))
-//                .vnp_BankCode(params.get("vnp_BankCode"))
-//                .vnp_PayDate(params.get("vnp_PayDate"))
-//                .allParams(new HashMap<>(params))
-//                .build();
-//
-//        updatePaymentStatus(callback);
-//
-//        log.info("VNPay IPN processed successfully for order: {}", orderId);
-//        return VNPayIPNResponse.success();
-//    }
-
-
-//    @Override
-//    public boolean validateSignature(Map<String, String> params, String secureHash) {
-//        String calculatedHash = VNPayUtil.hashAllFields(params, vnPayConfig.getSecretKey());
-//        boolean isValid = calculatedHash.equals(secureHash);
-//
-//        // Log signature verification
-//        VNPayLogger.logSignatureVerification(secureHash, calculatedHash, isValid);
-//
-//        log.debug("Signature validation - Calculated: {}, Received: {}, Valid: {}",
-//                calculatedHash, secureHash, isValid);
-//
-//        return isValid;
-//    }
-
-//    @Override
-//    public Map<String, String> queryTransaction(UUID orderId, String transactionDate) {
-//        // TODO: Implement transaction query API call to VNPay
-//        // This requires sending a request to vnp_ApiUrl with proper authentication
-//        throw new UnsupportedOperationException("Transaction query not yet implemented");
-//    }
-
-//    /**
-//     * Update payment status based on VNPay callback
-//     */
-//    private void updatePaymentStatus(VNPayCallbackRequest callback) {
-//        try {
-//            // Extract order ID from order info
-//            String orderInfo = callback.getAllParams().get("vnp_OrderInfo");
-//            UUID orderId = extractOrderIdFromOrderInfo(orderInfo);
-//
-//            if (orderId == null) {
-//                log.error("Cannot extract order ID from callback");
-//                return;
-//            }
-//
-//            Order order = orderRepository.findById(orderId)
-//                    .orElseThrow(() -> new ResourceNotFoundException("Order", orderId));
-//
-//            // Find or create payment
-//            Payment payment = paymentRepository.findByOrderId(orderId)
-//                    .orElseGet(() -> {
-//                        Payment newPayment = new Payment();
-//                        newPayment.setOrder(order);
-//                        newPayment.setMethod(PaymentMethod.E_WALLET);
-//                        newPayment.setProvider(PaymentProvider.VNPAY);
-//                        newPayment.setAmount(order.getGrandTotal());
-//                        newPayment.setStatus(PaymentStatus.UNPAID);
-//                        return newPayment;
-//                    });
-//
-//            // Update payment details
-//            payment.setTransactionId(callback.getVnp_TransactionNo());
-//
-//            // Store gateway response
-//            Map<String, Object> gatewayResponse = new HashMap<>(callback.getAllParams());
-//            payment.setGatewayResponse(gatewayResponse);
-//
-//            // Update status based on response code
-//            if (callback.isSuccess()) {
-//                PaymentStatus oldStatus = payment.getStatus();
-//                payment.setStatus(PaymentStatus.PAID);
-//                payment.setPaidAt(parseVNPayDate(callback.getVnp_PayDate()));
-//                order.setPaymentStatus(secure_shop.backend.enums.PaymentStatus.PAID);
-//                order.setHasPaid(true);
-//
-//                // Log payment status update
-//                VNPayLogger.logPaymentStatusUpdate(
-//                    orderId.toString(),
-//                    oldStatus != null ? oldStatus.toString() : "NEW",
-//                    "PAID",
-//                    "Payment successful via VNPay"
-//                );
-//
-//                // Log success
-//                VNPayLogger.logSuccess(
-//                    "PAYMENT COMPLETED",
-//                    orderId.toString(),
-//                    callback.getVnp_TransactionNo(),
-//                    callback.getVnp_Amount()
-//                );
-//
-//                log.info("Payment successful for order: {}, transactionId: {}",
-//                        orderId, callback.getVnp_TransactionNo());
-//            } else {
-//                PaymentStatus oldStatus = payment.getStatus();
-//                payment.setStatus(PaymentStatus.FAILED);
-//                order.setPaymentStatus(secure_shop.backend.enums.PaymentStatus.FAILED);
-//
-//                // Log payment status update
-//                VNPayLogger.logPaymentStatusUpdate(
-//                    orderId.toString(),
-//                    oldStatus != null ? oldStatus.toString() : "NEW",
-//                    "FAILED",
-//                    "Payment failed - Response code: " + callback.getVnp_ResponseCode()
-//                );
-//
-//                log.warn("Payment failed for order: {}, responseCode: {}",
-//                        orderId, callback.getVnp_ResponseCode());
-//            }
-//
-//            paymentRepository.save(payment);
-//            orderRepository.save(order);
-//
-//        } catch (Exception e) {
-//            VNPayLogger.logError("UPDATE PAYMENT STATUS", e.getMessage(), e);
-//            log.error("Error updating payment status", e);
-//            throw new RuntimeException("Failed to update payment status", e);
-//        }
-//    }
-
-    /**
-     * Extract order ID from VNPay order info string
-     */
-//    private UUID extractOrderIdFromOrderInfo(String orderInfo) {
-//        try {
-//            // Order info format: "Thanh toan don hang - OrderID: uuid"
-//            if (orderInfo != null && orderInfo.contains("OrderID:")) {
-//                String[] parts = orderInfo.split("OrderID:");
-//                if (parts.length > 1) {
-//                    String uuidStr = parts[1].trim();
-//                    return UUID.fromString(uuidStr);
-//                }
-//            }
-//            return null;
-//        } catch (Exception e) {
-//            log.error("Error extracting order ID from: {}", orderInfo, e);
-//            return null;
-//        }
-//    }
-//
-//    /**
-//     * Parse VNPay date format (yyyyMMddHHmmss) to Instant
-//     */
-//    private Instant parseVNPayDate(String vnpayDate) {
-//        try {
-//            if (vnpayDate == null || vnpayDate.isEmpty()) {
-//                return Instant.now();
-//            }
-//            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
-//            LocalDateTime dateTime = LocalDateTime.parse(vnpayDate, formatter);
-//            return dateTime.atZone(ZoneId.of("Asia/Ho_Chi_Minh")).toInstant();
-//        } catch (Exception e) {
-//            log.error("Error parsing VNPay date: {}", vnpayDate, e);
-//            return Instant.now();
-//        }
-//    }
 }
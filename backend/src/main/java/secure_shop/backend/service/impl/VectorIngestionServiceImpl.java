@@ -2,28 +2,149 @@ package secure_shop.backend.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-//import org.springframework.ai.document.Document;
-//import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 import secure_shop.backend.entities.Product;
 import secure_shop.backend.repositories.ProductRepository;
 import secure_shop.backend.service.VectorIngestionService;
+import secure_shop.backend.service.event.ProductChangedEvent;
+import secure_shop.backend.service.vector.TextEmbedder;
+import secure_shop.backend.service.vector.VectorIndex;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
+/**
+ * Dựng và tra cứu index vector (trong JVM, lưu ở file memory-mapped) cho chatbot, thay cho
+ * pgvector. Sản phẩm được cập nhật từng cái sau khi thay đổi commit; toàn bộ index được dựng lại
+ * khi khởi động nếu còn trống, định kỳ, hoặc khi admin gọi {@code /api/chat/ingest}.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class VectorIngestionServiceImpl implements VectorIngestionService {
 
-    // private final VectorStore vectorStore;
+    private static final int PAGE_SIZE = 200;
+
+    private static final Map<String, String> POLICIES = Map.of(
+            "shipping", "Chính sách giao hàng: giao hàng toàn quốc trong 2-5 ngày làm việc, phí vận chuyển hiển thị khi thanh toán.",
+            "returns", "Chính sách đổi trả: miễn phí đổi trả trong 7 ngày nếu sản phẩm còn nguyên vẹn, đầy đủ phụ kiện và hộp.",
+            "warranty", "Chính sách bảo hành: bảo hành chính hãng, thời gian tùy dòng sản phẩm; gửi yêu cầu bảo hành trong mục đơn hàng.",
+            "ordering", "Cách đặt hàng: chọn sản phẩm, thêm vào giỏ, vào giỏ kiểm tra số lượng, nhấn Thanh toán, nhập địa chỉ, chọn phương thức thanh toán và xác nhận đơn. Email xác nhận được gửi sau khi đặt.",
+            "payment", "Phương thức thanh toán: thanh toán khi nhận hàng (COD) hoặc thanh toán trực tuyến qua VNPay (thẻ ATM, thẻ quốc tế, QR).");
+
+    // Id cố định theo key: index nạp lại từ file vẫn tra được nội dung mà không cần dựng lại
+    private static final Map<UUID, String> POLICY_BY_ID = POLICIES.entrySet().stream()
+            .collect(Collectors.toUnmodifiableMap(e -> policyId(e.getKey()), Map.Entry::getValue));
+
     private final ProductRepository productRepository;
+    private final VectorIndex vectorIndex;
+
+    @Value("${chat.vector.min-score:0.15}")
+    private float minScore;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
 
     @Override
     public void ingestPoliciesAndTopProducts() {
-        // vectorStore.add(docs);
-        log.info("Vector ingestion disabled due to migration to SQL Server");
+        if (!rebuildLock.tryLock()) {
+            log.info("Vector ingestion already running");
+            return;
+        }
+        try {
+            for (Map.Entry<String, String> policy : POLICIES.entrySet()) {
+                vectorIndex.upsert(policyId(policy.getKey()), VectorIndex.Kind.POLICY, TextEmbedder.embed(policy.getValue()));
+            }
+
+            Set<UUID> indexed = new HashSet<>();
+            Page<Product> page;
+            int pageNumber = 0;
+            do {
+                page = productRepository.findAll(PageRequest.of(pageNumber++, PAGE_SIZE, Sort.by("id")));
+                for (Product p : page) {
+                    if (Boolean.TRUE.equals(p.getActive())) {
+                        vectorIndex.upsert(p.getId(), VectorIndex.Kind.PRODUCT, TextEmbedder.embed(buildProductText(p)));
+                        indexed.add(p.getId());
+                    }
+                }
+            } while (page.hasNext());
+
+            int removed = vectorIndex.retainOnly(VectorIndex.Kind.PRODUCT, indexed);
+            log.info("Vector index rebuilt: {} products, {} policies, {} stale entries removed",
+                    indexed.size(), POLICIES.size(), removed);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @Override
+    public void reindexProduct(UUID productId) {
+        Optional<Product> product = productRepository.findById(productId);
+        if (product.isPresent() && Boolean.TRUE.equals(product.get().getActive())) {
+            vectorIndex.upsert(productId, VectorIndex.Kind.PRODUCT, TextEmbedder.embed(buildProductText(product.get())));
+        } else {
+            vectorIndex.remove(productId);
+        }
+    }
+
+    @Override
+    public List<UUID> findRelevantProductIds(String question, int limit) {
+        return vectorIndex.search(TextEmbedder.embed(question), VectorIndex.Kind.PRODUCT, limit, minScore).stream()
+                .map(VectorIndex.Hit::id)
+                .toList();
+    }
+
+    @Override
+    public List<String> findRelevantPolicies(String question, int limit) {
+        return vectorIndex.search(TextEmbedder.embed(question), VectorIndex.Kind.POLICY, limit, minScore).stream()
+                .map(hit -> POLICY_BY_ID.get(hit.id()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public long indexVersion() {
+        return vectorIndex.version();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        try {
+            reindexProduct(event.productId());
+        } catch (Exception e) {
+            // Lần dựng lại định kỳ sẽ sửa
+            log.warn("Cannot reindex product {}: {}", event.productId(), e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ingestIfEmpty() {
+        if (vectorIndex.size() > POLICIES.size()) {
+            return;
+        }
+        try {
+            ingestPoliciesAndTopProducts();
+        } catch (Exception e) {
+            log.warn("Initial vector ingestion failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${chat.vector.rebuild-cron:0 0 4 * * *}")
+    public void scheduledRebuild() {
+        ingestPoliciesAndTopProducts();
+    }
+
+    private static UUID policyId(String key) {
+        return UUID.nameUUIDFromBytes(("policy:" + key).getBytes(StandardCharsets.UTF_8));
     }
 
     private String buildProductText(Product p) {
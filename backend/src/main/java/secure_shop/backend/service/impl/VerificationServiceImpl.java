@@ -1,19 +1,16 @@
 package secure_shop.backend.service.impl;
 
-import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import secure_shop.backend.entities.User;
 import secure_shop.backend.exception.ConflictException;
 import secure_shop.backend.repositories.UserRepository;
-import secure_shop.backend.service.EmailService;
+import secure_shop.backend.service.MailQueueService;
 import secure_shop.backend.service.VerificationService;
 import secure_shop.backend.utils.HashUtil;
 
-import java.io.IOException;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -21,7 +18,7 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class VerificationServiceImpl implements VerificationService {
 
-    private final EmailService emailService;
+    private final MailQueueService mailQueueService;
     private final RedisTemplate<String, String> redisTemplate;
     private final UserRepository userRepository;
 
@@ -50,16 +47,7 @@ public class VerificationServiceImpl implements VerificationService {
         );
 
         String verificationLink = frontendUrl + "/verify-email?token=" + rawToken;
-        sendVerificationMailAsync(email, verificationLink);
-    }
-
-    @Async
-    public void sendVerificationMailAsync(String email, String link) {
-        try {
-            emailService.sendVerificationEmail(email, link);
-        } catch (MessagingException | IOException e) {
-            throw new RuntimeException("Lỗi gửi email xác thực: " + e.getMessage());
-        }
+        mailQueueService.sendVerificationEmail(email, verificationLink);
     }
 
     @Override
@@ -144,7 +132,7 @@ public class VerificationServiceImpl implements VerificationService {
         
         if (existingToken != null) {
             String link = frontendUrl + "/verify-email?token=" + existingToken;
-            sendVerificationMailAsync(email, link);
+            mailQueueService.sendVerificationEmail(email, link);
         } else {
             // ✅ FIX 1: Convert UUID -> String
             sendVerificationEmail(email, user.getId().toString());
@@ -0,0 +1,69 @@
+package secure_shop.backend.service.vector;
+
+import secure_shop.backend.utils.VietnameseTextUtils;
+
+/**
+ * Embedding cục bộ bằng feature hashing: từ đơn, cặp từ liền kề và trigram ký tự của văn bản
+ * đã bỏ dấu được băm vào {@link #DIMENSION} chiều (có dấu ±), rồi chuẩn hóa L2 để tích vô hướng
+ * là cosine. Không cần model/API ngoài, xác định và đủ tốt để chọn sản phẩm/chính sách liên quan.
+ */
+public final class TextEmbedder {
+
+    public static final int DIMENSION = 256;
+    /** Tăng khi đổi cách tính embedding để index cũ trên đĩa được dựng lại */
+    public static final int VERSION = 1;
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float BIGRAM_WEIGHT = 0.7f;
+    private static final float TRIGRAM_WEIGHT = 0.35f;
+
+    private TextEmbedder() {
+    }
+
+    public static float[] embed(String text) {
+        float[] v = new float[DIMENSION];
+        String[] words = VietnameseTextUtils.words(text);
+        for (int i = 0; i < words.length; i++) {
+            String w = words[i];
+            add(v, w.hashCode(), WORD_WEIGHT);
+            if (i + 1 < words.length) {
+                add(v, (w + ' ' + words[i + 1]).hashCode(), BIGRAM_WEIGHT);
+            }
+            String padded = ' ' + w + ' ';
+            for (int j = 0; j + 3 <= padded.length(); j++) {
+                add(v, 31 * padded.substring(j, j + 3).hashCode() + 7, TRIGRAM_WEIGHT);
+            }
+        }
+        normalize(v);
+        return v;
+    }
+
+    private static void add(float[] v, int hash, float weight) {
+        int h = mix(hash);
+        v[h & (DIMENSION - 1)] += (h & 0x8000_0000) == 0 ? weight : -weight;
+    }
+
+    /** murmur3 fmix32: phân tán đều các bit thấp trước khi lấy chỉ số */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static void normalize(float[] v) {
+        double sum = 0;
+        for (float x : v) {
+            sum += x * x;
+        }
+        if (sum == 0) {
+            return;
+        }
+        float inv = (float) (1.0 / Math.sqrt(sum));
+        for (int i = 0; i < v.length; i++) {
+            v[i] *= inv;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package secure_shop.backend.service.vector;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index vector phẳng trong JVM, lưu bền vào một file memory-mapped.
+ * <p>
+ * Toàn bộ vector nằm liên tiếp trong một {@code float[]} (slot i ở {@code [i*dim, (i+1)*dim)}),
+ * nên tìm kiếm là một vòng quét tuần tự thân thiện cache/SIMD; với vài nghìn sản phẩm quét
+ * phẳng nhanh hơn và đơn giản hơn HNSW. Mỗi slot có vị trí cố định trong file, nên thêm/sửa/xóa
+ * một mục chỉ ghi đúng slot đó qua vùng map thay vì ghi lại cả file.
+ * <p>
+ * Định dạng file: header 32 byte (magic, version, dimension, embedder version, capacity, used)
+ * rồi các slot {@code [uuid 16][kind 1][live 1][pad 2][float x dim]}.
+ */
+@Component
+@Slf4j
+public class VectorIndex {
+
+    public enum Kind { PRODUCT, POLICY }
+
+    public record Hit(UUID id, Kind kind, float score) {}
+
+    private static final int MAGIC = 0x56454331; // "VEC1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int SLOT_META_BYTES = 20;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Path file;
+    private final int dim = TextEmbedder.DIMENSION;
+    private final int slotBytes = SLOT_META_BYTES + dim * Float.BYTES;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong version = new AtomicLong();
+
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private int capacity;
+    private int used;
+    private float[] vectors = new float[0];
+    private UUID[] ids = new UUID[0];
+    private byte[] kinds = new byte[0];
+    private boolean[] live = new boolean[0];
+    private final Map<UUID, Integer> slotOf = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    public VectorIndex(@Value("${chat.vector.index-file:./data/chat-vectors.idx}") String file) {
+        this.file = Path.of(file);
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() >= HEADER_BYTES && load()) {
+            log.info("Loaded vector index {} with {} entries", file, slotOf.size());
+            return;
+        }
+        if (channel.size() > 0) {
+            log.info("Vector index {} has an incompatible format, starting empty", file);
+        }
+        channel.truncate(0);
+        allocate(INITIAL_CAPACITY);
+        used = 0;
+        writeHeader();
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (mapped != null) {
+                mapped.force();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Thêm hoặc thay vector của {@code id}; {@code vector} phải đã chuẩn hóa L2. */
+    public void upsert(UUID id, Kind kind, float[] vector) {
+        if (vector.length != dim) {
+            throw new IllegalArgumentException("Vector dimension " + vector.length + " != " + dim);
+        }
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotOf.get(id);
+            if (slot == null) {
+                slot = freeSlots.isEmpty() ? nextSlot() : freeSlots.pop();
+                slotOf.put(id, slot);
+            } else if (kinds[slot] == kind.ordinal()
+                    && Arrays.equals(vectors, slot * dim, (slot + 1) * dim, vector, 0, dim)) {
+                // Không đổi: không ghi đĩa, không làm mất hiệu lực cache phụ thuộc version
+                return;
+            }
+            ids[slot] = id;
+            kinds[slot] = (byte) kind.ordinal();
+            live[slot] = true;
+            System.arraycopy(vector, 0, vectors, slot * dim, dim);
+            writeSlot(slot);
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotOf.remove(id);
+            if (slot == null) {
+                return;
+            }
+            live[slot] = false;
+            mapped.put(slotOffset(slot) + 17, (byte) 0);
+            freeSlots.push(slot);
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Xóa các mục {@code kind} không nằm trong {@code keep} (sau khi dựng lại toàn bộ) */
+    public int retainOnly(Kind kind, Set<UUID> keep) {
+        List<UUID> stale = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<UUID, Integer> e : slotOf.entrySet()) {
+                if (kinds[e.getValue()] == kind.ordinal() && !keep.contains(e.getKey())) {
+                    stale.add(e.getKey());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        stale.forEach(this::remove);
+        return stale.size();
+    }
+
+    /** Top-k theo cosine (vector đã chuẩn hóa), chỉ lấy mục có điểm >= {@code minScore}. */
+    public List<Hit> search(float[] query, Kind kind, int k, float minScore) {
+        if (k <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Hit> top = new PriorityQueue<>(k + 1, (a, b) -> Float.compare(a.score(), b.score()));
+        byte kindCode = (byte) kind.ordinal();
+        lock.readLock().lock();
+        try {
+            float[] v = vectors;
+            for (int slot = 0; slot < used; slot++) {
+                if (!live[slot] || kinds[slot] != kindCode) {
+                    continue;
+                }
+                float score = dot(query, v, slot * dim);
+                if (score < minScore || (top.size() == k && score <= top.peek().score())) {
+                    continue;
+                }
+                top.add(new Hit(ids[slot], kind, score));
+                if (top.size() > k) {
+                    top.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(Collections.reverseOrder((a, b) -> Float.compare(a.score(), b.score())));
+        return hits;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Tăng sau mỗi thay đổi; dùng làm khóa ngữ cảnh cho cache câu trả lời */
+    public long version() {
+        return version.get();
+    }
+
+    // ===== Internals =====
+
+    /** 4 bộ cộng độc lập để JIT không bị nghẽn bởi chuỗi phụ thuộc của một bộ cộng */
+    private float dot(float[] q, float[] v, int offset) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for (; i + 3 < dim; i += 4) {
+            s0 += q[i] * v[offset + i];
+            s1 += q[i + 1] * v[offset + i + 1];
+            s2 += q[i + 2] * v[offset + i + 2];
+            s3 += q[i + 3] * v[offset + i + 3];
+        }
+        for (; i < dim; i++) {
+            s0 += q[i] * v[offset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private boolean load() throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION
+                || header.getInt(8) != dim || header.getInt(12) != TextEmbedder.VERSION) {
+            return false;
+        }
+        int fileCapacity = header.getInt(16);
+        int fileUsed = header.getInt(20);
+        if (fileUsed < 0 || fileUsed > fileCapacity
+                || channel.size() < HEADER_BYTES + (long) fileCapacity * slotBytes) {
+            return false;
+        }
+
+        allocate(fileCapacity);
+        used = fileUsed;
+        for (int slot = 0; slot < used; slot++) {
+            int base = slotOffset(slot);
+            if (mapped.get(base + 17) == 0) {
+                freeSlots.push(slot);
+                continue;
+            }
+            UUID id = new UUID(mapped.getLong(base), mapped.getLong(base + 8));
+            ids[slot] = id;
+            kinds[slot] = mapped.get(base + 16);
+            live[slot] = true;
+            for (int i = 0; i < dim; i++) {
+                vectors[slot * dim + i] = mapped.getFloat(base + SLOT_META_BYTES + i * Float.BYTES);
+            }
+            slotOf.put(id, slot);
+        }
+        return true;
+    }
+
+    private int nextSlot() {
+        if (used == capacity) {
+            try {
+                allocate(capacity * 2);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot grow vector index file " + file, e);
+            }
+        }
+        int slot = used++;
+        mapped.putInt(20, used);
+        return slot;
+    }
+
+    /** Map lại file với {@code newCapacity} slot và nới các mảng trên heap */
+    private void allocate(int newCapacity) throws IOException {
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) newCapacity * slotBytes);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        vectors = Arrays.copyOf(vectors, newCapacity * dim);
+        ids = Arrays.copyOf(ids, newCapacity);
+        kinds = Arrays.copyOf(kinds, newCapacity);
+        live = Arrays.copyOf(live, newCapacity);
+        capacity = newCapacity;
+        mapped.putInt(16, capacity);
+    }
+
+    private void writeHeader() {
+        mapped.putInt(0, MAGIC);
+        mapped.putInt(4, FORMAT_VERSION);
+        mapped.putInt(8, dim);
+        mapped.putInt(12, TextEmbedder.VERSION);
+        mapped.putInt(16, capacity);
+        mapped.putInt(20, used);
+    }
+
+    private void writeSlot(int slot) {
+        int base = slotOffset(slot);
+        UUID id = ids[slot];
+        // Cờ live ghi cuối cùng: slot đang ghi dở không bao giờ được đọc lại như mục hợp lệ
+        mapped.put(base + 17, (byte) 0);
+        int offset = slot * dim;
+        for (int i = 0; i < dim; i++) {
+            mapped.putFloat(base + SLOT_META_BYTES + i * Float.BYTES, vectors[offset + i]);
+        }
+        mapped.putLong(base, id.getMostSignificantBits());
+        mapped.putLong(base + 8, id.getLeastSignificantBits());
+        mapped.put(base + 16, kinds[slot]);
+        mapped.put(base + 17, (byte) 1);
+    }
+
+    private int slotOffset(int slot) {
+        return HEADER_BYTES + slot * slotBytes;
+    }
+}
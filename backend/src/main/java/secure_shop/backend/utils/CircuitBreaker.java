@@ -0,0 +1,76 @@
+package secure_shop.backend.utils;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Circuit breaker tối giản cho một dependency bên ngoài.
+ * <ul>
+ *   <li>CLOSED: cho qua mọi lời gọi; {@code failureThreshold} lỗi liên tiếp thì chuyển OPEN.</li>
+ *   <li>OPEN: từ chối ngay trong {@code openDuration}, sau đó chuyển HALF_OPEN.</li>
+ *   <li>HALF_OPEN: chỉ cho một lời gọi thử; thành công thì CLOSED, lỗi thì OPEN lại.</li>
+ * </ul>
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, Clock.systemUTC());
+    }
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openDuration.toMillis();
+        this.clock = clock;
+    }
+
+    /** @return true nếu được phép gọi; khi đó bắt buộc gọi {@link #onSuccess()} hoặc {@link #onFailure()} */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.millis() - openedAt < openMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.millis();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
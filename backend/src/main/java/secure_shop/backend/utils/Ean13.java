@@ -0,0 +1,57 @@
+package secure_shop.backend.utils;
+
+/**
+ * EAN-13 arithmetic trên {@code long}: tính check digit và dựng mã 13 chữ số mà không tạo
+ * chuỗi trung gian hay {@code String.format}.
+ */
+public final class Ean13 {
+
+    public static final long MAX_BASE = 999_999_999_999L;
+
+    private Ean13() {
+    }
+
+    /** Check digit GS1 cho 12 chữ số đầu {@code base12} (0..999999999999) */
+    public static int checkDigit(long base12) {
+        if (base12 < 0 || base12 > MAX_BASE) {
+            throw new IllegalArgumentException("EAN-13 base must have at most 12 digits: " + base12);
+        }
+        // Từ phải sang trái: chữ số cuối của base có trọng số 3, xen kẽ 1
+        int sum = 0;
+        long v = base12;
+        for (int i = 0; i < 12; i++) {
+            int digit = (int) (v % 10);
+            sum += (i & 1) == 0 ? digit * 3 : digit;
+            v /= 10;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    /** Mã EAN-13 đầy đủ (12 chữ số base, có số 0 đứng đầu, + check digit) */
+    public static String of(long base12) {
+        char[] out = new char[13];
+        out[12] = (char) ('0' + checkDigit(base12));
+        long v = base12;
+        for (int i = 11; i >= 0; i--) {
+            out[i] = (char) ('0' + (v % 10));
+            v /= 10;
+        }
+        return new String(out);
+    }
+
+    public static boolean isValid(String code) {
+        if (code == null || code.length() != 13) {
+            return false;
+        }
+        long base = 0;
+        for (int i = 0; i < 12; i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            base = base * 10 + (c - '0');
+        }
+        char check = code.charAt(12);
+        return check >= '0' && check <= '9' && check - '0' == checkDigit(base);
+    }
+}
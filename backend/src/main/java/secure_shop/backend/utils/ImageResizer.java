@@ -0,0 +1,140 @@
+package secure_shop.backend.utils;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Giải mã, thu nhỏ và mã hóa ảnh bằng ImageIO/Java2D.
+ * <p>
+ * Kích thước được đọc từ header trước khi giải mã để chặn ảnh quá nhiều pixel, và ảnh lớn được
+ * giải mã có subsampling (chỉ đủ cho biến thể lớn nhất) nên một file 5MB không chiếm hàng trăm MB heap.
+ */
+public final class ImageResizer {
+
+    public record Decoded(BufferedImage image, int sourceWidth, int sourceHeight) {}
+
+    private ImageResizer() {
+    }
+
+    /**
+     * @param maxPixels        từ chối ảnh có nhiều pixel hơn (chống "decompression bomb")
+     * @param largestVariant   chiều rộng biến thể lớn nhất cần tạo từ ảnh đã giải mã
+     * @throws IllegalArgumentException nếu không phải ảnh hỗ trợ hoặc quá lớn
+     */
+    public static Decoded decode(Path file, long maxPixels, int largestVariant) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                throw new IOException("Cannot open image " + file);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Định dạng ảnh không được hỗ trợ");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IllegalArgumentException("Ảnh có độ phân giải quá lớn");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, width / (largestVariant * 2));
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return new Decoded(reader.read(0, param), width, height);
+            } catch (IIOException e) {
+                // Ví dụ JPEG CMYK hoặc file hỏng
+                throw new IllegalArgumentException("Không đọc được nội dung ảnh", e);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Đọc kích thước từ header, không giải mã pixel; null nếu không phải ảnh hỗ trợ */
+    public static Dimension readSize(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Chiều cao giữ tỉ lệ khi thu về {@code targetWidth} */
+    public static int scaledHeight(int sourceWidth, int sourceHeight, int targetWidth) {
+        return Math.max(1, (int) Math.round((double) sourceHeight * targetWidth / sourceWidth));
+    }
+
+    /**
+     * Thu nhỏ theo từng bước một nửa với nội suy bilinear: nhanh như bilinear một bước nhưng
+     * không bị răng cưa khi tỉ lệ thu nhỏ lớn.
+     */
+    public static BufferedImage resize(BufferedImage source, int targetWidth, int targetHeight) {
+        boolean alpha = source.getColorModel().hasAlpha();
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(targetWidth, w / 2);
+            h = Math.max(targetHeight, h / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != targetWidth || h != targetHeight);
+        return current;
+    }
+
+    /** JPEG progressive, không metadata; {@code quality} trong [0, 1] */
+    public static void writeJpeg(BufferedImage image, float quality, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    public static void writePng(BufferedImage image, OutputStream out) throws IOException {
+        if (!ImageIO.write(image, "png", out)) {
+            throw new IOException("No PNG writer available");
+        }
+    }
+}
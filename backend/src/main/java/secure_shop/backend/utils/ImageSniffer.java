@@ -0,0 +1,63 @@
+package secure_shop.backend.utils;
+
+import java.util.Optional;
+
+/** Nhận diện định dạng ảnh từ magic bytes, không tin phần mở rộng hay Content-Type của client. */
+public final class ImageSniffer {
+
+    /** Số byte đầu file cần để nhận diện */
+    public static final int HEAD_BYTES = 12;
+
+    public enum Format {
+        JPEG("jpg", "image/jpeg"),
+        PNG("png", "image/png"),
+        GIF("gif", "image/gif");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+    }
+
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private ImageSniffer() {
+    }
+
+    public static Optional<Format> sniff(byte[] head, int length) {
+        if (length >= 3 && (head[0] & 0xff) == 0xFF && (head[1] & 0xff) == 0xD8 && (head[2] & 0xff) == 0xFF) {
+            return Optional.of(Format.JPEG);
+        }
+        if (startsWith(head, length, PNG_MAGIC)) {
+            return Optional.of(Format.PNG);
+        }
+        if (length >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8'
+                && (head[4] == '7' || head[4] == '9') && head[5] == 'a') {
+            return Optional.of(Format.GIF);
+        }
+        return Optional.empty();
+    }
+
+    private static boolean startsWith(byte[] head, int length, byte[] magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (head[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
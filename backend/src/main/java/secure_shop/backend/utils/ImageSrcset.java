@@ -0,0 +1,63 @@
+package secure_shop.backend.utils;
+
+import secure_shop.backend.entities.MediaVariant;
+
+import java.util.List;
+
+/** Dựng và đọc chuỗi {@code srcset} ("url 320w, url 640w, ...") từ các biến thể ảnh. */
+public final class ImageSrcset {
+
+    private ImageSrcset() {
+    }
+
+    /** srcset gồm các biến thể và ảnh gốc; null nếu không có biến thể */
+    public static String build(List<MediaVariant> variants, String originalUrl, Integer originalWidth) {
+        if (variants == null || variants.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (MediaVariant v : variants) {
+            sb.append(v.getUrl()).append(' ').append(v.getWidth()).append("w, ");
+        }
+        if (originalWidth != null) {
+            sb.append(originalUrl).append(' ').append(originalWidth).append('w');
+        } else {
+            sb.setLength(sb.length() - 2);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * URL nhỏ nhất có chiều rộng >= {@code minWidth} (hoặc lớn nhất nếu không có), hoặc
+     * {@code fallback} nếu {@code srcset} rỗng.
+     */
+    public static String pick(String srcset, int minWidth, String fallback) {
+        if (srcset == null || srcset.isBlank()) {
+            return fallback;
+        }
+        String best = null;
+        int bestWidth = 0;
+        boolean bestFits = false;
+        for (String candidate : srcset.split(",")) {
+            String[] parts = candidate.trim().split("\\s+");
+            if (parts.length != 2 || !parts[1].endsWith("w")) {
+                continue;
+            }
+            int width;
+            try {
+                width = Integer.parseInt(parts[1].substring(0, parts[1].length() - 1));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            boolean fits = width >= minWidth;
+            if (best == null
+                    || (fits && (!bestFits || width < bestWidth))
+                    || (!fits && !bestFits && width > bestWidth)) {
+                best = parts[0];
+                bestWidth = width;
+                bestFits = fits;
+            }
+        }
+        return best != null ? best : fallback;
+    }
+}
@@ -0,0 +1,56 @@
+package secure_shop.backend.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Supplier;
+
+/** Ném lỗi ngay khi đọc quá {@code limit} byte, thay vì đọc hết rồi mới kiểm tra kích thước. */
+public final class LimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private final Supplier<? extends RuntimeException> onExceeded;
+    private long count;
+
+    public LimitedInputStream(InputStream in, long limit, Supplier<? extends RuntimeException> onExceeded) {
+        super(in);
+        this.limit = limit;
+        this.onExceeded = onExceeded;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    private void count(long n) {
+        count += n;
+        if (count > limit) {
+            throw onExceeded.get();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package secure_shop.backend.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Đọc tuần tự các part của body {@code multipart/form-data} trực tiếp từ input stream của
+ * request, với một buffer cố định: nội dung mỗi part được chuyển thẳng cho người đọc thay vì
+ * được servlet container ghi ra file tạm hay giữ trên heap trước.
+ * <p>
+ * Gọi {@link #next()} sẽ bỏ qua phần còn lại chưa đọc của part trước.
+ */
+public final class MultipartStreamReader {
+
+    public record Part(String name, String fileName, String contentType, InputStream body) {}
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+
+    private final InputStream in;
+    /** {@code \r\n--boundary}; part đầu tiên được coi như có CRLF ảo phía trước */
+    private final byte[] delimiter;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int head;
+    private int tail;
+    private boolean eof;
+    private boolean finished;
+    private PartStream current;
+
+    public MultipartStreamReader(InputStream in, String boundary) {
+        if (boundary == null || boundary.isEmpty() || boundary.length() > 70) {
+            throw new IllegalArgumentException("Multipart boundary không hợp lệ");
+        }
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        buf[0] = '\r';
+        buf[1] = '\n';
+        tail = 2;
+    }
+
+    /** Boundary trong header {@code Content-Type}; null nếu không phải multipart */
+    public static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            return null;
+        }
+        for (String param : contentType.split(";")) {
+            String p = param.trim();
+            if (p.regionMatches(true, 0, "boundary=", 0, 9)) {
+                return unquote(p.substring(9).trim());
+            }
+        }
+        return null;
+    }
+
+    /** Part tiếp theo, hoặc null khi hết body */
+    public Part next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        // Bỏ qua phần còn lại của part trước (hoặc phần mở đầu trước boundary đầu tiên)
+        (current != null ? current : new PartStream()).drain();
+
+        ensure(2);
+        if (buf[head] == '-' && buf[head + 1] == '-') {
+            finished = true;
+            return null;
+        }
+        if (buf[head] != '\r' || buf[head + 1] != '\n') {
+            throw new IOException("Malformed multipart body");
+        }
+        head += 2;
+
+        String name = null;
+        String fileName = null;
+        String contentType = null;
+        int headerBytes = 0;
+        String line;
+        while (!(line = readLine()).isEmpty()) {
+            headerBytes += line.length() + 2;
+            if (headerBytes > MAX_HEADER_BYTES) {
+                throw new IOException("Multipart part headers too large");
+            }
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            String headerName = line.substring(0, colon).trim();
+            String value = line.substring(colon + 1).trim();
+            if (headerName.equalsIgnoreCase("Content-Disposition")) {
+                name = dispositionParam(value, "name");
+                fileName = dispositionParam(value, "filename");
+            } else if (headerName.equalsIgnoreCase("Content-Type")) {
+                contentType = value;
+            }
+        }
+        current = new PartStream();
+        return new Part(name, fileName, contentType, current);
+    }
+
+    // ===== Internals =====
+
+    private String readLine() throws IOException {
+        while (true) {
+            for (int i = head; i + 1 < tail; i++) {
+                if (buf[i] == '\r' && buf[i + 1] == '\n') {
+                    // Tên file có thể là UTF-8
+                    String line = new String(buf, head, i - head, StandardCharsets.UTF_8);
+                    head = i + 2;
+                    return line;
+                }
+            }
+            if (tail - head >= MAX_HEADER_BYTES) {
+                throw new IOException("Multipart header line too long");
+            }
+            if (!fill()) {
+                throw new EOFException("Unexpected end of multipart body");
+            }
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        while (tail - head < bytes) {
+            if (!fill()) {
+                throw new EOFException("Unexpected end of multipart body");
+            }
+        }
+    }
+
+    /** Dồn dữ liệu chưa đọc về đầu buffer và đọc thêm; false khi hết stream */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (head > 0) {
+            System.arraycopy(buf, head, buf, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+        int n = in.read(buf, tail, buf.length - tail);
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        tail += n;
+        return true;
+    }
+
+    private int indexOfDelimiter() {
+        int last = tail - delimiter.length;
+        outer:
+        for (int i = head; i <= last; i++) {
+            if (buf[i] != delimiter[0]) {
+                continue;
+            }
+            for (int j = 1; j < delimiter.length; j++) {
+                if (buf[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static String dispositionParam(String disposition, String param) {
+        for (String part : disposition.split(";")) {
+            String p = part.trim();
+            int eq = p.indexOf('=');
+            if (eq > 0 && p.substring(0, eq).trim().equalsIgnoreCase(param)) {
+                return unquote(p.substring(eq + 1).trim());
+            }
+        }
+        return null;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /** Nội dung một part: kết thúc (trả -1) ngay trước delimiter tiếp theo */
+    private final class PartStream extends InputStream {
+
+        private boolean done;
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                int idx = indexOfDelimiter();
+                if (idx == head) {
+                    done = true;
+                    head += delimiter.length;
+                    return -1;
+                }
+                // Không có delimiter: giữ lại đuôi có thể là phần đầu của delimiter bị cắt
+                int available = idx >= 0 ? idx - head : tail - head - (delimiter.length - 1);
+                if (available > 0) {
+                    int n = Math.min(len, available);
+                    System.arraycopy(buf, head, b, off, n);
+                    head += n;
+                    return n;
+                }
+                if (!fill()) {
+                    throw new EOFException("Unexpected end of multipart body");
+                }
+            }
+        }
+
+        void drain() throws IOException {
+            byte[] skip = new byte[8192];
+            while (read(skip, 0, skip.length) >= 0) {
+                // bỏ qua
+            }
+        }
+    }
+}
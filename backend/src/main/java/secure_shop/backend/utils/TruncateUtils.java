@@ -0,0 +1,28 @@
+package secure_shop.backend.utils;
+
+/**
+ * Cắt chuỗi tự do (thông báo lỗi, mô tả xung đột) cho vừa cột NVARCHAR giới hạn độ dài trước khi ghi DB.
+ */
+public final class TruncateUtils {
+
+    /** Độ dài chung của các cột lỗi/ghi chú: last_error, error, conflict */
+    public static final int MAX_TEXT_LENGTH = 1000;
+
+    private static final String ELLIPSIS = "...";
+
+    private TruncateUtils() {
+    }
+
+    /** Giữ nguyên chuỗi ngắn và null; chuỗi dài bị cắt còn {@link #MAX_TEXT_LENGTH} ký tự, kết thúc bằng "..." */
+    public static String truncate(String text) {
+        if (text == null || text.length() <= MAX_TEXT_LENGTH) {
+            return text;
+        }
+        int end = MAX_TEXT_LENGTH - ELLIPSIS.length();
+        // Không tách đôi cặp surrogate (emoji) ở điểm cắt
+        if (Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(0, end) + ELLIPSIS;
+    }
+}
@@ -0,0 +1,182 @@
+package secure_shop.backend.utils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Đọc tuần tự file đối soát giao dịch VNPay (CSV có dòng tiêu đề), mỗi lần một dòng,
+ * nên bộ nhớ không phụ thuộc kích thước file.
+ * <p>
+ * Cột được nhận theo tên, không phân biệt hoa thường và có thể bỏ tiền tố {@code vnp_}:
+ * bắt buộc {@code TxnRef}, {@code Amount} (đơn vị x100 như API VNPay), {@code ResponseCode};
+ * tùy chọn {@code TransactionNo}, {@code TransactionStatus}, {@code PayDate} (yyyyMMddHHmmss, GMT+7).
+ */
+public final class VNPaySettlementCsvReader implements Closeable {
+
+    private static final ZoneId VNPAY_ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+    private static final DateTimeFormatter PAY_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    /**
+     * Một dòng giao dịch. {@code error} khác null nếu dòng không đọc được; khi đó các trường
+     * còn lại có thể thiếu.
+     */
+    public record Row(long lineNumber, String txnRef, String transactionNo, BigDecimal amount,
+                      String responseCode, String transactionStatus, Instant payDate, String error) {
+
+        /** Giao dịch thành công theo VNPay: ResponseCode và TransactionStatus (nếu có) đều là 00 */
+        public boolean gatewaySuccess() {
+            return "00".equals(responseCode) && (transactionStatus == null || "00".equals(transactionStatus));
+        }
+    }
+
+    private final BufferedReader reader;
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private final int txnRefCol;
+    private final int transactionNoCol;
+    private final int amountCol;
+    private final int responseCodeCol;
+    private final int transactionStatusCol;
+    private final int payDateCol;
+    private long lineNumber;
+
+    public VNPaySettlementCsvReader(Reader source) throws IOException {
+        this.reader = source instanceof BufferedReader br ? br : new BufferedReader(source, 64 * 1024);
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("File đối soát rỗng");
+        }
+        lineNumber = 1;
+        if (!header.isEmpty() && header.charAt(0) == '\uFEFF') {
+            header = header.substring(1);
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        split(header);
+        for (int i = 0; i < fields.size(); i++) {
+            columns.put(normalize(fields.get(i)), i);
+        }
+        this.txnRefCol = required(columns, "txnref", "vnp_TxnRef");
+        this.amountCol = required(columns, "amount", "vnp_Amount");
+        this.responseCodeCol = required(columns, "responsecode", "vnp_ResponseCode");
+        this.transactionNoCol = columns.getOrDefault("transactionno", -1);
+        this.transactionStatusCol = columns.getOrDefault("transactionstatus", -1);
+        this.payDateCol = columns.getOrDefault("paydate", -1);
+    }
+
+    /** @return dòng tiếp theo, hoặc null khi hết file (bỏ qua dòng trống) */
+    public Row next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        split(line);
+        String txnRef = column(txnRefCol);
+        String transactionNo = column(transactionNoCol);
+        String responseCode = column(responseCodeCol);
+        String transactionStatus = column(transactionStatusCol);
+        if (txnRef == null) {
+            return malformed(txnRef, transactionNo, responseCode, "Thiếu vnp_TxnRef");
+        }
+
+        BigDecimal amount;
+        try {
+            String raw = column(amountCol);
+            amount = raw == null ? null : new BigDecimal(raw).movePointLeft(2);
+        } catch (NumberFormatException e) {
+            return malformed(txnRef, transactionNo, responseCode, "vnp_Amount không hợp lệ");
+        }
+        if (amount == null || responseCode == null) {
+            return malformed(txnRef, transactionNo, responseCode, "Thiếu vnp_Amount hoặc vnp_ResponseCode");
+        }
+
+        Instant payDate = null;
+        String rawPayDate = column(payDateCol);
+        if (rawPayDate != null) {
+            try {
+                payDate = LocalDateTime.parse(rawPayDate, PAY_DATE_FORMAT).atZone(VNPAY_ZONE).toInstant();
+            } catch (RuntimeException e) {
+                return malformed(txnRef, transactionNo, responseCode, "vnp_PayDate không hợp lệ");
+            }
+        }
+        return new Row(lineNumber, txnRef, transactionNo, amount, responseCode, transactionStatus, payDate, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // ===== Internals =====
+
+    private Row malformed(String txnRef, String transactionNo, String responseCode, String error) {
+        return new Row(lineNumber, txnRef, transactionNo, null, responseCode, null, null, error);
+    }
+
+    private String column(int index) {
+        if (index < 0 || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /** Tách một dòng CSV (RFC 4180, không hỗ trợ xuống dòng trong ô) vào {@link #fields} */
+    private void split(String line) {
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+    }
+
+    private static String normalize(String name) {
+        String n = name.trim().toLowerCase(Locale.ROOT).replace("_", "");
+        return n.startsWith("vnp") ? n.substring(3) : n;
+    }
+
+    private static int required(Map<String, Integer> columns, String key, String displayName) {
+        Integer index = columns.get(key);
+        if (index == null) {
+            throw new IllegalArgumentException("File đối soát thiếu cột " + displayName);
+        }
+        return index;
+    }
+}
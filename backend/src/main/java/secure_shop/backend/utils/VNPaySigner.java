@@ -0,0 +1,219 @@
+package secure_shop.backend.utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * HMAC-SHA512 signer and query-string builder for VNPay.
+ * <p>
+ * Produces exactly the same hash data, signature and query string as the previous
+ * {@code HashMap} + sort + {@link java.net.URLEncoder} code, but walks an already sorted view
+ * once, percent-encodes straight into a per-thread buffer and reuses one initialised
+ * {@link Mac} per thread instead of creating one per call.
+ */
+public final class VNPaySigner {
+
+    public static final String SECURE_HASH = "vnp_SecureHash";
+    public static final String SECURE_HASH_TYPE = "vnp_SecureHashType";
+
+    private static final String ALGORITHM = "HmacSHA512";
+    private static final char[] HEX_LOWER = "0123456789abcdef".toCharArray();
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+
+    private final ThreadLocal<Mac> mac;
+    private final ThreadLocal<StringBuilder> textBuffer = ThreadLocal.withInitial(() -> new StringBuilder(512));
+    private final ThreadLocal<byte[]> byteBuffer = ThreadLocal.withInitial(() -> new byte[512]);
+
+    public VNPaySigner(String secret) {
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        // Kiểm tra key ngay khi khởi tạo thay vì trả về chữ ký rỗng lúc chạy
+        newMac(key);
+        this.mac = ThreadLocal.withInitial(() -> newMac(key));
+    }
+
+    /** Signature over {@code key=encoded(value)} pairs, skipping empty values and the hash fields. */
+    public String sign(SortedMap<String, String> params) {
+        StringBuilder sb = buffer();
+        appendHashData(sb, params);
+        return hmacHex(sb);
+    }
+
+    /**
+     * Verify a callback signature. {@code params} may be any map (e.g. request parameters);
+     * it is only copied when it is not already a naturally ordered {@link SortedMap}.
+     */
+    public boolean verify(Map<String, String> params, String providedHash) {
+        if (providedHash == null) {
+            return false;
+        }
+        String expected = sign(sortedView(params));
+        return MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.US_ASCII),
+                providedHash.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Query string {@code encoded(key)=encoded(value)&...} for all non-empty values, in key order. */
+    public String buildQuery(SortedMap<String, String> params) {
+        StringBuilder sb = buffer();
+        int last = params.size() - 1;
+        int i = 0;
+        for (Map.Entry<String, String> e : params.entrySet()) {
+            String value = e.getValue();
+            if (value != null && !value.isEmpty()) {
+                encodeInto(sb, e.getKey());
+                sb.append('=');
+                encodeInto(sb, value);
+                if (i < last) {
+                    sb.append('&');
+                }
+            }
+            i++;
+        }
+        return sb.toString();
+    }
+
+    /** Add {@code vnp_SecureHash} to {@code params} and return the full query string. */
+    public String signAndBuildQuery(SortedMap<String, String> params) {
+        params.put(SECURE_HASH, sign(params));
+        return buildQuery(params);
+    }
+
+    public static SortedMap<String, String> sortedView(Map<String, String> params) {
+        if (params instanceof SortedMap<String, String> sorted && sorted.comparator() == null) {
+            return sorted;
+        }
+        return new TreeMap<>(params);
+    }
+
+    // ===== Internals =====
+
+    /**
+     * Hash data giữ nguyên hành vi cũ: '&' được thêm sau mỗi cặp trừ khi đó là khóa cuối cùng
+     * (kể cả khi khóa cuối rỗng và bị bỏ qua).
+     */
+    private static void appendHashData(StringBuilder sb, SortedMap<String, String> params) {
+        int last = params.size() - 1;
+        if (params.containsKey(SECURE_HASH)) {
+            last--;
+        }
+        if (params.containsKey(SECURE_HASH_TYPE)) {
+            last--;
+        }
+        int i = 0;
+        for (Map.Entry<String, String> e : params.entrySet()) {
+            String key = e.getKey();
+            if (SECURE_HASH.equals(key) || SECURE_HASH_TYPE.equals(key)) {
+                continue;
+            }
+            String value = e.getValue();
+            if (value != null && !value.isEmpty()) {
+                sb.append(key).append('=');
+                encodeInto(sb, value);
+                if (i < last) {
+                    sb.append('&');
+                }
+            }
+            i++;
+        }
+    }
+
+    private String hmacHex(CharSequence data) {
+        Mac m = mac.get();
+        int len = data.length();
+        byte[] bytes = byteBuffer.get();
+        boolean ascii = true;
+        if (bytes.length < len) {
+            bytes = new byte[Math.max(len, bytes.length * 2)];
+            if (bytes.length <= MAX_RETAINED_BUFFER) {
+                byteBuffer.set(bytes);
+            }
+        }
+        for (int i = 0; i < len; i++) {
+            char c = data.charAt(i);
+            if (c >= 0x80) {
+                ascii = false;
+                break;
+            }
+            bytes[i] = (byte) c;
+        }
+        byte[] digest;
+        if (ascii) {
+            m.update(bytes, 0, len);
+            digest = m.doFinal();
+        } else {
+            // Khóa tham số chưa encode có thể chứa ký tự ngoài ASCII
+            digest = m.doFinal(data.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            int b = digest[i] & 0xff;
+            hex[2 * i] = HEX_LOWER[b >>> 4];
+            hex[2 * i + 1] = HEX_LOWER[b & 0x0f];
+        }
+        return new String(hex);
+    }
+
+    private StringBuilder buffer() {
+        StringBuilder sb = textBuffer.get();
+        if (sb.capacity() > MAX_RETAINED_BUFFER) {
+            sb = new StringBuilder(512);
+            textBuffer.set(sb);
+        }
+        sb.setLength(0);
+        return sb;
+    }
+
+    /** Same output as {@code URLEncoder.encode(s, UTF_8)}, written straight into {@code sb}. */
+    static void encodeInto(StringBuilder sb, String s) {
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '-' || c == '*' || c == '_') {
+                sb.append(c);
+            } else if (c == ' ') {
+                sb.append('+');
+            } else if (c < 0x80) {
+                appendPercent(sb, c);
+            } else if (c < 0x800) {
+                appendPercent(sb, 0xC0 | (c >> 6));
+                appendPercent(sb, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                appendPercent(sb, 0xF0 | (cp >> 18));
+                appendPercent(sb, 0x80 | ((cp >> 12) & 0x3F));
+                appendPercent(sb, 0x80 | ((cp >> 6) & 0x3F));
+                appendPercent(sb, 0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Surrogate lẻ: UTF-8 encoder thay bằng '?'
+                appendPercent(sb, '?');
+            } else {
+                appendPercent(sb, 0xE0 | (c >> 12));
+                appendPercent(sb, 0x80 | ((c >> 6) & 0x3F));
+                appendPercent(sb, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static void appendPercent(StringBuilder sb, int b) {
+        sb.append('%').append(HEX_UPPER[(b >> 4) & 0x0F]).append(HEX_UPPER[b & 0x0F]);
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac m = Mac.getInstance(ALGORITHM);
+            m.init(key);
+            return m;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+}
@@ -1,190 +0,0 @@
-package secure_shop.backend.utils;
-
-import jakarta.servlet.http.HttpServletRequest;
-import lombok.extern.slf4j.Slf4j;
-
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.*;
-import java.util.stream.Collectors;
-
-@Slf4j
-public class VNPayUtil {
-
-    /**
-     * Generate HMAC SHA512 hash
-     */
-    public static String hmacSHA512(final String key, final String data) {
-        try {
-            if (key == null || data == null) {
-                throw new NullPointerException("Key or data is null");
-            }
-
-            final Mac hmac512 = Mac.getInstance("HmacSHA512");
-            byte[] hmacKeyBytes = key.getBytes();
-            final SecretKeySpec secretKey = new SecretKeySpec(hmacKeyBytes, "HmacSHA512");
-            hmac512.init(secretKey);
-            byte[] dataBytes = data.getBytes(StandardCharsets.UTF_8);
-            byte[] result = hmac512.doFinal(dataBytes);
-
-            StringBuilder sb = new StringBuilder(2 * result.length);
-            for (byte b : result) {
-                sb.append(String.format("%02x", b & 0xff));
-            }
-            return sb.toString();
-        } catch (Exception ex) {
-            log.error("Error generating HMAC SHA512", ex);
-            return "";
-        }
-    }
-
-    /**
-     * Hash all fields for signature
-     * NOTE: According to VNPay specification, hash data should NOT be URL encoded
-     * Only the query string sent to VNPay needs to be URL encoded
-     */
-    public static String hashAllFields(Map<String, String> fields, String secretKey) {
-        List<String> fieldNames = new ArrayList<>(fields.keySet());
-        Collections.sort(fieldNames);
-
-        StringBuilder hashData = new StringBuilder();
-        Iterator<String> itr = fieldNames.iterator();
-
-        while (itr.hasNext()) {
-            String fieldName = itr.next();
-            String fieldValue = fields.get(fieldName);
-
-            if (fieldValue != null && fieldValue.length() > 0) {
-                hashData.append(fieldName);
-                hashData.append('=');
-                // DO NOT URL encode for hash data - use raw value
-                hashData.append(fieldValue);
-
-                if (itr.hasNext()) {
-                    hashData.append('&');
-                }
-            }
-        }
-
-        // Log hash data for debugging
-        VNPayLogger.logHashData(hashData.toString());
-
-        return hmacSHA512(secretKey, hashData.toString());
-    }
-
-    /**
-     * Build query URL from parameters
-     */
-    public static String buildQueryUrl(Map<String, String> params) {
-        List<String> fieldNames = new ArrayList<>(params.keySet());
-        Collections.sort(fieldNames);
-
-        StringBuilder query = new StringBuilder();
-        Iterator<String> itr = fieldNames.iterator();
-
-        while (itr.hasNext()) {
-            String fieldName = itr.next();
-            String fieldValue = params.get(fieldName);
-
-            if (fieldValue != null && fieldValue.length() > 0) {
-                query.append(URLEncoder.encode(fieldName, StandardCharsets.UTF_8));
-                query.append('=');
-                query.append(URLEncoder.encode(fieldValue, StandardCharsets.UTF_8));
-
-                if (itr.hasNext()) {
-                    query.append('&');
-                }
-            }
-        }
-
-        // Log raw query string for debugging
-        VNPayLogger.logRawQueryString(query.toString());
-
-        return query.toString();
-    }
-
-    /**
-     * Get client IP address
-     */
-    public static String getIpAddress(HttpServletRequest request) {
-        String ipAddress;
-        try {
-            ipAddress = request.getHeader("X-FORWARDED-FOR");
-            if (ipAddress == null || ipAddress.isEmpty()) {
-                ipAddress = request.getHeader("X-Real-IP");
-            }
-            if (ipAddress == null || ipAddress.isEmpty()) {
-                ipAddress = request.getRemoteAddr();
-            }
-        } catch (Exception e) {
-            ipAddress = "Invalid IP:" + e.getMessage();
-        }
-        return ipAddress;
-    }
-
-    /**
-     * Generate random number string
-     */
-    public static String getRandomNumber(int len) {
-        Random rnd = new Random();
-        String chars = "0123456789";
-        StringBuilder sb = new StringBuilder(len);
-        for (int i = 0; i < len; i++) {
-            sb.append(chars.charAt(rnd.nextInt(chars.length())));
-        }
-        return sb.toString();
-    }
-
-    /**
-     * Generate SHA-256 hash
-     */
-    public static String sha256(String message) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(message.getBytes(StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder(2 * hash.length);
-            for (byte b : hash) {
-                sb.append(String.format("%02x", b & 0xff));
-            }
-            return sb.toString();
-        } catch (NoSuchAlgorithmException ex) {
-            log.error("Error generating SHA-256", ex);
-            return "";
-        }
-    }
-
-    /**
-     * Generate MD5 hash
-     */
-    public static String md5(String message) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] hash = md.digest(message.getBytes(StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder(2 * hash.length);
-            for (byte b : hash) {
-                sb.append(String.format("%02x", b & 0xff));
-            }
-            return sb.toString();
-        } catch (NoSuchAlgorithmException ex) {
-            log.error("Error generating MD5", ex);
-            return "";
-        }
-    }
-    public static String getPaymentURL(Map<String, String> paramsMap, boolean encodeKey) {
-        return paramsMap.entrySet().stream()
-                .filter(entry -> entry.getValue() != null && !entry.getValue().isEmpty())
-                .sorted(Map.Entry.comparingByKey())
-                .map(entry ->
-                        (encodeKey ? URLEncoder.encode(entry.getKey(),
-                                StandardCharsets.US_ASCII) : entry.getKey()) + "=" +
-                                URLEncoder.encode(entry.getValue(), StandardCharsets.US_ASCII))
-                .collect(Collectors.joining("&"));
-    }
-
-}
-
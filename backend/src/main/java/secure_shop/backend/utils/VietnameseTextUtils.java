@@ -0,0 +1,31 @@
+package secure_shop.backend.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/** Chuẩn hóa văn bản tiếng Việt để so khớp: không phân biệt hoa thường và dấu. */
+public final class VietnameseTextUtils {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+
+    private VietnameseTextUtils() {
+    }
+
+    /** Chữ thường, bỏ dấu (kể cả đ), mọi ký tự không phải chữ/số thành một khoảng trắng. */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String folded = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        folded = COMBINING_MARKS.matcher(folded).replaceAll("").replace('đ', 'd');
+        return NON_ALNUM.matcher(folded).replaceAll(" ").trim();
+    }
+
+    /** Các từ của {@link #fold(String)}. */
+    public static String[] words(String text) {
+        String folded = fold(text);
+        return folded.isEmpty() ? new String[0] : folded.split(" ");
+    }
+}
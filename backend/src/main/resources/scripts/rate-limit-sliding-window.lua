@@ -0,0 +1,27 @@
+-- Sliding window log rate limiter (atomic).
+-- KEYS[1] = sorted set of request timestamps
+-- ARGV[1] = limit, ARGV[2] = window (ms), ARGV[3] = now (ms), ARGV[4] = unique member
+-- Returns {allowed (0|1), remaining, retryAfterMillis}
+local key = KEYS[1]
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local now = tonumber(ARGV[3])
+
+redis.call('ZREMRANGEBYSCORE', key, '-inf', now - window)
+local count = redis.call('ZCARD', key)
+
+if count < limit then
+    redis.call('ZADD', key, now, ARGV[4])
+    redis.call('PEXPIRE', key, window)
+    return {1, limit - count - 1, 0}
+end
+
+local retry = window
+local oldest = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+if oldest[2] then
+    retry = tonumber(oldest[2]) + window - now
+end
+if retry < 1 then
+    retry = 1
+end
+return {0, 0, retry}
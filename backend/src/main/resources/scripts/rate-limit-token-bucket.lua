@@ -0,0 +1,35 @@
+-- Token bucket rate limiter (atomic).
+-- KEYS[1] = hash {tokens, ts}
+-- ARGV[1] = capacity, ARGV[2] = window (ms) to refill a full bucket, ARGV[3] = now (ms)
+-- Returns {allowed (0|1), remaining, retryAfterMillis}
+local key = KEYS[1]
+local capacity = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local now = tonumber(ARGV[3])
+local rate = capacity / window
+
+local state = redis.call('HMGET', key, 'tokens', 'ts')
+local tokens = tonumber(state[1])
+local ts = tonumber(state[2])
+if tokens == nil or ts == nil then
+    tokens = capacity
+    ts = now
+end
+
+if now > ts then
+    tokens = math.min(capacity, tokens + (now - ts) * rate)
+    ts = now
+end
+
+local allowed = 0
+local retry = 0
+if tokens >= 1 then
+    tokens = tokens - 1
+    allowed = 1
+else
+    retry = math.ceil((1 - tokens) / rate)
+end
+
+redis.call('HSET', key, 'tokens', tostring(tokens), 'ts', ts)
+redis.call('PEXPIRE', key, window)
+return {allowed, math.floor(tokens), retry}
@@ -0,0 +1,71 @@
+package secure_shop.backend.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import secure_shop.backend.service.MediaStoreService;
+import secure_shop.backend.service.impl.MediaStoreServiceImpl;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MediaFileControllerTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void deduplicatesByContentAndServesImmutableWithEtagAndRange() throws Exception {
+        MediaStoreService store = new MediaStoreServiceImpl(dir.toString());
+        byte[] content = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+        MediaStoreService.StoredFile first = store.store(new ByteArrayInputStream(content), "jpg");
+        MediaStoreService.StoredFile second = store.store(new ByteArrayInputStream(content), "jpg");
+        assertFalse(first.deduplicated());
+        assertTrue(second.deduplicated());
+        assertEquals(first.fileName(), second.fileName());
+        assertEquals("84d89877f0d4041efb6bf91a16f0248f2fd573e6af05c19f96bedb9f882f7882.jpg", first.fileName());
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.count(), "temp files must not be left behind");
+        }
+
+        MediaFileController controller = new MediaFileController(store, 1 << 20);
+        String name = first.fileName();
+
+        MockHttpServletResponse full = serve(controller, name, new MockHttpServletRequest("GET", "/uploads/" + name));
+        assertEquals(200, full.getStatus());
+        assertEquals("public, max-age=31536000, immutable", full.getHeader("Cache-Control"));
+        assertEquals("\"" + name + "\"", full.getHeader("ETag"));
+        assertEquals("image/jpeg", full.getContentType());
+        assertArrayEquals(content, full.getContentAsByteArray());
+
+        MockHttpServletRequest revalidate = new MockHttpServletRequest("GET", "/uploads/" + name);
+        revalidate.addHeader("If-None-Match", "\"" + name + "\"");
+        assertEquals(304, serve(controller, name, revalidate).getStatus());
+
+        MockHttpServletRequest ranged = new MockHttpServletRequest("GET", "/uploads/" + name);
+        ranged.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse partial = serve(controller, name, ranged);
+        assertEquals(206, partial.getStatus());
+        assertEquals("bytes 2-5/10", partial.getHeader("Content-Range"));
+        assertEquals("2345", partial.getContentAsString());
+
+        MockHttpServletRequest unsatisfiable = new MockHttpServletRequest("GET", "/uploads/" + name);
+        unsatisfiable.addHeader("Range", "bytes=50-");
+        assertEquals(416, serve(controller, name, unsatisfiable).getStatus());
+
+        assertEquals(404, serve(controller, "../secret.jpg", new MockHttpServletRequest()).getStatus());
+    }
+
+    private static MockHttpServletResponse serve(MediaFileController controller, String name,
+                                                 MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve(name, request, response);
+        return response;
+    }
+}
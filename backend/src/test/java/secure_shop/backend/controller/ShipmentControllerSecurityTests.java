@@ -0,0 +1,120 @@
+package secure_shop.backend.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.oauth2.client.OAuth2ClientAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientWebSecurityAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import secure_shop.backend.config.security.CustomUserDetails;
+import secure_shop.backend.config.security.HttpCookieOAuth2AuthorizationRequestRepository;
+import secure_shop.backend.config.security.SecurityConfig;
+import secure_shop.backend.dto.order.ShipmentDTO;
+import secure_shop.backend.entities.User;
+import secure_shop.backend.enums.Role;
+import secure_shop.backend.exception.JwtAuthenticationEntryPoint;
+import secure_shop.backend.security.CustomAccessDeniedHandler;
+import secure_shop.backend.security.PublicRouteTable;
+import secure_shop.backend.security.jwt.JwtAuthenticationFilter;
+import secure_shop.backend.security.oauth2.OAuth2FailureHandler;
+import secure_shop.backend.security.ratelimit.ApiQuotaFilter;
+import secure_shop.backend.security.ratelimit.RateLimitInterceptor;
+import secure_shop.backend.service.ShipmentService;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ShipmentController.class, excludeAutoConfiguration = {
+        OAuth2ClientAutoConfiguration.class, OAuth2ClientWebSecurityAutoConfiguration.class})
+@Import({SecurityConfig.class, PublicRouteTable.class, JwtAuthenticationEntryPoint.class, CustomAccessDeniedHandler.class})
+class ShipmentControllerSecurityTests {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockitoBean
+    ShipmentService shipmentService;
+    @MockitoBean
+    JwtAuthenticationFilter jwtAuthFilter;
+    @MockitoBean
+    ApiQuotaFilter apiQuotaFilter;
+    @MockitoBean
+    RateLimitInterceptor rateLimitInterceptor;
+    @MockitoBean
+    AuthenticationProvider authenticationProvider;
+    @MockitoBean
+    AuthenticationSuccessHandler oauthSuccessHandler;
+    @MockitoBean
+    OAuth2FailureHandler oauthFailureHandler;
+    @MockitoBean
+    HttpCookieOAuth2AuthorizationRequestRepository cookieOAuth2AuthorizationRequestRepository;
+    @MockitoBean
+    ClientRegistrationRepository clientRegistrationRepository;
+
+    @BeforeEach
+    void passThroughMockedFilters() throws Exception {
+        doAnswer(inv -> {
+            inv.<FilterChain>getArgument(2).doFilter(inv.<ServletRequest>getArgument(0), inv.<ServletResponse>getArgument(1));
+            return null;
+        }).when(jwtAuthFilter).doFilter(any(), any(), any());
+        doAnswer(inv -> {
+            inv.<FilterChain>getArgument(2).doFilter(inv.<ServletRequest>getArgument(0), inv.<ServletResponse>getArgument(1));
+            return null;
+        }).when(apiQuotaFilter).doFilter(any(), any(), any());
+        when(rateLimitInterceptor.preHandle(any(), any(), any())).thenReturn(true);
+    }
+
+    @Test
+    void userCanQueryStatusesScopedToOwnOrders() throws Exception {
+        User customer = customer();
+        UUID mine = UUID.randomUUID();
+        UUID someoneElses = UUID.randomUUID();
+        when(shipmentService.getShipmentStatuses(any(), eq(customer.getId())))
+                .thenReturn(List.of(ShipmentDTO.builder().orderId(mine).build()));
+
+        mockMvc.perform(get("/api/shipments/statuses")
+                        .param("orderIds", mine + "," + someoneElses)
+                        .with(user(new CustomUserDetails(customer))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].orderId").value(mine.toString()));
+
+        // Người dùng thường: truy vấn luôn lọc theo chủ đơn
+        verify(shipmentService).getShipmentStatuses(eq(List.of(mine, someoneElses)), eq(customer.getId()));
+    }
+
+    @Test
+    void otherShipmentEndpointsStayAdminOnly() throws Exception {
+        User customer = customer();
+
+        mockMvc.perform(get("/api/shipments/search").with(user(new CustomUserDetails(customer))))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/shipments/statuses").param("orderIds", UUID.randomUUID().toString()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private static User customer() {
+        User user = User.builder().email("u@example.com").name("Khách").role(Role.USER).build();
+        user.setId(UUID.randomUUID());
+        return user;
+    }
+}
@@ -0,0 +1,30 @@
+package secure_shop.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublicRouteTableTests {
+
+    private final PublicRouteTable routes = new PublicRouteTable();
+
+    @Test
+    void pathVariableMatchesExactlyOneSegment() {
+        assertTrue(routes.isPublic("GET", "/api/reviews/42"));
+        assertTrue(routes.isPublic("GET", "/api/reviews"));
+        assertTrue(routes.isPublic("GET", "/api/reviews/product/7"));
+
+        assertFalse(routes.isPublic("GET", "/api/reviews/"));
+        assertFalse(routes.isPublic("GET", "/api/reviews/user/7"));
+        assertFalse(routes.isPublic("GET", "/api/reviews/42/extra"));
+        assertFalse(routes.isPublic("DELETE", "/api/reviews/42"));
+    }
+
+    @Test
+    void exposesTheSamePatternsToSpringSecurity() {
+        assertTrue(List.of(routes.patterns(HttpMethod.GET)).contains("/api/reviews/{id}"));
+    }
+}
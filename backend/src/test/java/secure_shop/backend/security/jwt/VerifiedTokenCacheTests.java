@@ -0,0 +1,146 @@
+package secure_shop.backend.security.jwt;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import secure_shop.backend.entities.User;
+import secure_shop.backend.enums.Role;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTests {
+
+    private static final Algorithm HMAC = Algorithm.HMAC256("verified-token-cache-tests");
+
+    @Test
+    void entryIsServedUntilItsExpiryThenDropped() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        DecodedJWT live = decoded(Instant.now().plusSeconds(60));
+        DecodedJWT expired = decoded(Instant.now().minusSeconds(1));
+
+        cache.put("live", live);
+        cache.put("expired", expired);
+
+        assertSame(live, cache.get("live"));
+        assertNull(cache.get("expired"));
+        assertEquals(1, cache.size());
+        assertNull(cache.get("missing"));
+    }
+
+    @Test
+    void skipsTokensWithoutExpiryAndDisabledCache() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.put("no-exp", JWT.decode(JWT.create().withSubject("u").sign(HMAC)));
+        assertEquals(0, cache.size());
+
+        VerifiedTokenCache disabled = new VerifiedTokenCache(0);
+        disabled.put("live", decoded(Instant.now().plusSeconds(60)));
+        assertNull(disabled.get("live"));
+        assertEquals(0, disabled.size());
+    }
+
+    @Test
+    void fullCacheDropsExpiredEntriesBeforeLiveOnes() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(4);
+        DecodedJWT live = decoded(Instant.now().plusSeconds(60));
+        cache.put("expired-1", decoded(Instant.now().minusSeconds(1)));
+        cache.put("expired-2", decoded(Instant.now().minusSeconds(1)));
+        cache.put("expired-3", decoded(Instant.now().minusSeconds(1)));
+        cache.put("live", live);
+
+        cache.put("new", live);
+
+        assertEquals(2, cache.size());
+        assertSame(live, cache.get("live"));
+        assertSame(live, cache.get("new"));
+    }
+
+    @Test
+    void distinctTokenFloodNeverGrowsPastMaxEntries() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        DecodedJWT live = decoded(Instant.now().plusSeconds(60));
+        for (int i = 0; i < 1000; i++) {
+            cache.put("token-" + i, live);
+            assertTrue(cache.size() <= 10, "size " + cache.size() + " after " + (i + 1) + " puts");
+        }
+        // Entry mới nhất luôn được giữ sau khi evict
+        assertSame(live, cache.get("token-999"));
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceItExpires() throws Exception {
+        KeyPair keys = rsaKeys();
+        JwtService jwtService = jwtService(keys, 1);
+        String token = jwtService.generateAccessToken(user());
+        DecodedJWT first = jwtService.verify(token);
+        assertSame(first, jwtService.verify(token));
+
+        long untilExpired = first.getExpiresAt().getTime() - System.currentTimeMillis() + 50;
+        Thread.sleep(Math.max(untilExpired, 0));
+
+        assertThrows(TokenExpiredException.class, () -> jwtService.verify(token));
+    }
+
+    @Test
+    void rejectedTokenIsNeverServedFromCache() throws Exception {
+        KeyPair keys = rsaKeys();
+        JwtService jwtService = jwtService(keys, 900);
+        String token = jwtService.generateAccessToken(user());
+        jwtService.verify(token);
+
+        // Cùng claims nhưng ký bằng khóa khác (khóa đã thu hồi/xoay vòng) hoặc bị sửa chữ ký
+        String foreign = jwtService(rsaKeys(), 900).generateAccessToken(user());
+        String tampered = token.substring(0, token.length() - 4) + "AAAA";
+        for (int i = 0; i < 2; i++) {
+            assertThrows(JWTVerificationException.class, () -> jwtService.verify(foreign));
+            assertThrows(JWTVerificationException.class, () -> jwtService.verify(tampered));
+        }
+    }
+
+    private static DecodedJWT decoded(Instant expiresAt) {
+        return JWT.decode(JWT.create()
+                .withSubject(UUID.randomUUID().toString())
+                .withExpiresAt(Date.from(expiresAt))
+                .sign(HMAC));
+    }
+
+    private static JwtService jwtService(KeyPair keys, long accessExpSec) throws Exception {
+        return new JwtService(pem("PRIVATE KEY", (RSAPrivateKey) keys.getPrivate()),
+                pem("PUBLIC KEY", (RSAPublicKey) keys.getPublic()),
+                accessExpSec, 3600, "secure-shop-test", 100);
+    }
+
+    private static KeyPair rsaKeys() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static Resource pem(String type, Key key) {
+        String body = Base64.getMimeEncoder().encodeToString(key.getEncoded());
+        String pem = "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n";
+        return new ByteArrayResource(pem.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static User user() {
+        User user = User.builder().email("u@example.com").name("Khách").role(Role.USER).build();
+        user.setId(UUID.randomUUID());
+        return user;
+    }
+}
@@ -0,0 +1,36 @@
+package secure_shop.backend.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClientIpResolverTests {
+
+    @Test
+    void ignoresForwardedForFromUntrustedPeers() {
+        ClientIpResolver resolver = new ClientIpResolver(List.of("10.0.0.0/8"));
+        assertEquals("203.0.113.9", resolver.resolve(request("203.0.113.9", "1.2.3.4")));
+        assertEquals("203.0.113.9", new ClientIpResolver(List.of()).resolve(request("203.0.113.9", "1.2.3.4")));
+    }
+
+    @Test
+    void takesRightMostUntrustedHopBehindTrustedProxies() {
+        ClientIpResolver resolver = new ClientIpResolver(List.of("10.0.0.0/8", "192.168.1.5"));
+        // Client tự ghi "1.2.3.4"; proxy nối thêm IP thật 198.51.100.7 rồi một proxy nội bộ
+        assertEquals("198.51.100.7", resolver.resolve(request("10.0.0.2", "1.2.3.4, 198.51.100.7, 192.168.1.5")));
+        assertEquals("10.0.0.2", resolver.resolve(request("10.0.0.2", "evil.example.com")));
+        assertEquals("10.0.0.2", resolver.resolve(request("10.0.0.2", null)));
+    }
+
+    private static MockHttpServletRequest request(String peer, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(peer);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,55 @@
+package secure_shop.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import secure_shop.backend.entities.BarcodeSequence;
+import secure_shop.backend.repositories.BarcodeRepository;
+import secure_shop.backend.repositories.BarcodeSequenceRepository;
+import secure_shop.backend.utils.Ean13;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BarcodeAllocatorTests {
+
+    @Test
+    void allocatesUniqueCodesFromReservedBlocksWithoutExistenceChecks() {
+        BarcodeSequence sequence = BarcodeSequence.builder().prefix("8930000").nextValue(0L).build();
+        BarcodeSequenceRepository sequences = mock(BarcodeSequenceRepository.class);
+        when(sequences.findForUpdate("8930000")).thenReturn(Optional.empty())
+                .thenReturn(Optional.of(sequence));
+        when(sequences.saveAndFlush(any())).thenAnswer(inv -> {
+            BarcodeSequence created = inv.getArgument(0);
+            sequence.setNextValue(created.getNextValue());
+            return sequence;
+        });
+        BarcodeRepository barcodes = mock(BarcodeRepository.class);
+        // Mã cũ lớn nhất dưới prefix: 8930000 00041 + check digit
+        when(barcodes.findMaxEan13WithPrefix("8930000")).thenReturn(Ean13.of(893_000_000_041L));
+
+        BarcodeAllocator allocator = new BarcodeAllocator(sequences, barcodes,
+                mock(PlatformTransactionManager.class), "8930000", 10);
+
+        assertEquals(Ean13.of(893_000_000_042L), allocator.allocate());
+        List<String> bulk = allocator.allocate(2500);
+        assertEquals(2500, bulk.size());
+        assertEquals(2500, new HashSet<>(bulk).size());
+        assertTrue(bulk.stream().allMatch(code -> code.startsWith("8930000") && Ean13.isValid(code)));
+        assertEquals(Ean13.of(893_000_000_043L), bulk.get(0));
+        // 1 khoảng 10 mã + 1 khoảng vừa đủ cho phần còn thiếu
+        assertEquals(42L + 10 + 2491, sequence.getNextValue());
+        verify(barcodes, never()).existsByBarcode(any());
+    }
+
+    @Test
+    void rejectsPrefixThatIsNotAGs1CompanyPrefix() {
+        assertThrows(IllegalArgumentException.class, () -> new BarcodeAllocator(
+                mock(BarcodeSequenceRepository.class), mock(BarcodeRepository.class),
+                mock(PlatformTransactionManager.class), "89A", 10));
+    }
+}
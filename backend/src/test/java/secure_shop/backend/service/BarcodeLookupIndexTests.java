@@ -0,0 +1,66 @@
+package secure_shop.backend.service;
+
+import org.junit.jupiter.api.Test;
+import secure_shop.backend.dto.barcode.BarcodeIndexRow;
+import secure_shop.backend.dto.barcode.BarcodeResponseDTO;
+import secure_shop.backend.dto.barcode.StockLevelRow;
+import secure_shop.backend.dto.product.BrandDTO;
+import secure_shop.backend.dto.product.CategorySummaryDTO;
+import secure_shop.backend.repositories.BarcodeRepository;
+import secure_shop.backend.repositories.InventoryRepository;
+import secure_shop.backend.service.event.BarcodeChangedEvent;
+import secure_shop.backend.service.event.InventoryChangedEvent;
+import secure_shop.backend.service.event.ProductChangedEvent;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BarcodeLookupIndexTests {
+
+    private final UUID productId = UUID.randomUUID();
+
+    @Test
+    void servesScansFromMemoryAndFollowsChanges() {
+        BarcodeRepository barcodes = mock(BarcodeRepository.class);
+        InventoryRepository inventories = mock(InventoryRepository.class);
+        when(barcodes.findIndexRows()).thenReturn(List.of(row(1L, "8930000000011", 10, 2)));
+        BarcodeLookupIndex index = new BarcodeLookupIndex(barcodes, inventories, true);
+
+        assertTrue(index.lookup("8930000000011").isEmpty(), "not ready before warm-up");
+        index.warmUp();
+
+        BarcodeResponseDTO hit = index.lookup("8930000000011").orElseThrow();
+        assertEquals(productId, hit.getProduct().getId());
+        assertEquals(8, hit.getProduct().getAvailableStock());
+        assertEquals("Apple", hit.getProduct().getBrand().getName());
+        assertNull(hit.getProduct().getCategory(), "empty LEFT JOIN projection is dropped");
+        verify(barcodes, times(1)).findIndexRows();
+
+        when(inventories.findStockLevel(7L)).thenReturn(Optional.of(new StockLevelRow(7L, productId, 10, 10)));
+        index.onInventoryChanged(new InventoryChangedEvent(7L));
+        assertFalse(index.lookup("8930000000011").orElseThrow().getProduct().getInStock());
+
+        when(barcodes.findIndexRowByBarcode("8930000000028")).thenReturn(Optional.of(row(2L, "8930000000028", 10, 10)));
+        index.onBarcodeChanged(new BarcodeChangedEvent(List.of("8930000000028")));
+        assertEquals(2, index.size());
+
+        // Sản phẩm bị xóa mềm: projection không còn dòng nào
+        when(barcodes.findIndexRowsByProductId(productId)).thenReturn(List.of());
+        index.onProductChanged(new ProductChangedEvent(productId));
+        assertEquals(0, index.size());
+        assertTrue(index.lookup("8930000000011").isEmpty());
+    }
+
+    private BarcodeIndexRow row(Long id, String code, int onHand, int reserved) {
+        return new BarcodeIndexRow(id, code, null, Instant.now(), productId, "SKU-1", "iPhone",
+                new BigDecimal("100"), new BigDecimal("90"), "/uploads/a.jpg", null,
+                new CategorySummaryDTO(null, null, null, null, null), new BrandDTO(3L, "Apple"),
+                4.5, 10, 7L, onHand, reserved);
+    }
+}
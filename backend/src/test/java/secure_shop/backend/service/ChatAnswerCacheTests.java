@@ -0,0 +1,81 @@
+package secure_shop.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatAnswerCacheTests {
+
+    private static final String CONTEXT = "Sản phẩm phổ biến:\n- Camera A";
+
+    private final MutableClock clock = new MutableClock();
+    private final ChatAnswerCache cache = new ChatAnswerCache(true, Duration.ofMinutes(10), 0.8, 100, 200, clock);
+
+    @Test
+    void foldsDiacriticsPunctuationAndFillerWords() {
+        assertEquals("chinh sach doi tra", ChatAnswerCache.normalize("Cho mình hỏi: CHÍNH SÁCH ĐỔI TRẢ ạ?"));
+        assertEquals("camera nao ban chay", ChatAnswerCache.normalize("Camera nào bán chạy vậy shop"));
+    }
+
+    @Test
+    void answersSimilarQuestionsAndMissesDifferentOnes() {
+        cache.put("Chính sách đổi trả thế nào?", CONTEXT, "Đổi trả 7 ngày");
+
+        assertEquals("Đổi trả 7 ngày", cache.get("chinh sach doi tra the nao", CONTEXT));
+        assertEquals("Đổi trả 7 ngày", cache.get("Cho mình hỏi chính sách đổi trả thế nào ạ", CONTEXT));
+        assertEquals("Đổi trả 7 ngày", cache.get("chính sách đổi trả thế nao vậy", CONTEXT));
+        assertNull(cache.get("Cách đặt hàng thế nào?", CONTEXT));
+        assertNull(cache.get("chính sách bảo hành thế nào?", CONTEXT));
+    }
+
+    @Test
+    void questionsWithDifferentNumbersNeverShareAnAnswer() {
+        cache.put("camera ngoài trời nào giá dưới 3 triệu", CONTEXT, "Camera A giá 2.9 triệu");
+
+        assertNull(cache.get("camera ngoài trời nào giá dưới 2 triệu", CONTEXT));
+        assertNull(cache.get("camera ngoài trời nào giá dưới 3 trăm", CONTEXT));
+        assertEquals("Camera A giá 2.9 triệu", cache.get("camera ngoài trời nào giá dưới 3 triệu vậy shop", CONTEXT));
+    }
+
+    @Test
+    void expiresAndInvalidatesOnContextChange() {
+        cache.put("cách đặt hàng", CONTEXT, "Thêm vào giỏ");
+        assertNotNull(cache.get("cách đặt hàng", CONTEXT));
+
+        assertNull(cache.get("cách đặt hàng", CONTEXT + "\n- Camera B"));
+        assertEquals(0, cache.getStats().size());
+
+        cache.put("cách đặt hàng", CONTEXT, "Thêm vào giỏ");
+        clock.advance(Duration.ofMinutes(11));
+        assertNull(cache.get("cách đặt hàng", CONTEXT));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
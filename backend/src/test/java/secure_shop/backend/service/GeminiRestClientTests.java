@@ -0,0 +1,175 @@
+package secure_shop.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import secure_shop.backend.utils.CircuitBreaker;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chạy {@link GeminiRestClient} với một HTTP server giả lập Gemini trên localhost.
+ */
+class GeminiRestClientTests {
+
+    private static final String OK_BODY = """
+            {"candidates":[{"content":{"parts":[{"text":"Xin chào"}],"role":"model"},"finishReason":"STOP"}],
+             "usageMetadata":{"totalTokenCount":12}}""";
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicReference<String> apiKeyHeader = new AtomicReference<>();
+    private volatile int status = 200;
+    private volatile long delayMillis;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/models/test-model:generateContent", exchange -> {
+            hits.incrementAndGet();
+            apiKeyHeader.set(exchange.getRequestHeaders().getFirst("x-goog-api-key"));
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = (status == 200 ? OK_BODY : "{\"error\":{}}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/v1/models/test-model:streamGenerateContent", exchange -> {
+            hits.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(status, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (String chunk : new String[]{"Xin", " chào", " bạn"}) {
+                    out.write(("data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + chunk
+                            + "\"}]}}]}\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    Thread.sleep(delayMillis);
+                }
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ignored) {
+                // client đã hủy stream
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    private GeminiRestClient client(long requestTimeoutMs, int failureThreshold) {
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+        return new GeminiRestClient(httpClient, new ObjectMapper(), "test-key", "test-model", 0.2,
+                baseUrl, requestTimeoutMs, 5000, 4, failureThreshold, 60);
+    }
+
+    @Test
+    void parsesTypedResponse() {
+        GeminiRestClient client = client(2000, 3);
+
+        assertEquals("Xin chào", client.generateAsync("system", "hi").join());
+        assertEquals("test-key", apiKeyHeader.get());
+    }
+
+    @Test
+    void timeoutCompletesWithNull() {
+        delayMillis = 1000;
+        GeminiRestClient client = client(200, 3);
+
+        assertNull(client.generateAsync("system", "hi").join());
+    }
+
+    @Test
+    void circuitOpensAfterRepeatedServerErrors() {
+        status = 503;
+        GeminiRestClient client = client(2000, 2);
+
+        assertNull(client.generate("system", "hi"));
+        assertNull(client.generate("system", "hi"));
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState());
+
+        status = 200;
+        assertNull(client.generate("system", "hi"));
+        assertEquals(2, hits.get(), "open circuit must not call upstream");
+    }
+
+    @Test
+    void clientErrorsDoNotTripCircuit() {
+        status = 400;
+        GeminiRestClient client = client(2000, 1);
+
+        assertNull(client.generate("system", "hi"));
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitState());
+    }
+
+    @Test
+    void streamsChunksAsTheyArrive() {
+        delayMillis = 300;
+        GeminiRestClient client = client(2000, 3);
+        List<String> chunks = new CopyOnWriteArrayList<>();
+        long start = System.nanoTime();
+        AtomicLong firstChunkAt = new AtomicLong();
+
+        GeminiRestClient.StreamResult result = client.streamAsync("system", "hi", text -> {
+            firstChunkAt.compareAndSet(0, System.nanoTime());
+            chunks.add(text);
+        }).join();
+
+        assertEquals(GeminiRestClient.StreamResult.COMPLETED, result);
+        assertEquals(List.of("Xin", " chào", " bạn"), chunks);
+        assertTrue(firstChunkAt.get() - start < TimeUnit.MILLISECONDS.toNanos(250),
+                "first chunk must not wait for the whole answer");
+    }
+
+    @Test
+    void streamFailureBeforeFirstChunkIsUnavailable() {
+        status = 503;
+        GeminiRestClient client = client(2000, 3);
+
+        assertEquals(GeminiRestClient.StreamResult.UNAVAILABLE,
+                client.streamAsync("system", "hi", text -> fail("no chunk expected")).join());
+    }
+
+    @Test
+    void consumerAbortStopsStreamWithoutTrippingCircuit() {
+        delayMillis = 300;
+        GeminiRestClient client = client(2000, 1);
+        long start = System.nanoTime();
+
+        GeminiRestClient.StreamResult result = client.streamAsync("system", "hi", text -> {
+            throw new IllegalStateException("client gone");
+        }).join();
+
+        assertEquals(GeminiRestClient.StreamResult.INTERRUPTED, result);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "must not wait for stream timeout");
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitState());
+    }
+}
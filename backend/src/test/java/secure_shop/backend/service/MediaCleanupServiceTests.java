@@ -0,0 +1,88 @@
+package secure_shop.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import secure_shop.backend.dto.product.MediaCleanupReportDTO;
+import secure_shop.backend.repositories.ArticleRepository;
+import secure_shop.backend.repositories.CategoryRepository;
+import secure_shop.backend.repositories.MediaAssetRepository;
+import secure_shop.backend.repositories.ProductRepository;
+import secure_shop.backend.repositories.UserRepository;
+import secure_shop.backend.service.impl.MediaCleanupServiceImpl;
+import secure_shop.backend.service.impl.MediaStoreServiceImpl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MediaCleanupServiceTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void deletesOnlyExpiredUnreferencedGroups() throws Exception {
+        MediaStoreService store = new MediaStoreServiceImpl(dir.toString());
+        Instant old = Instant.now().minus(Duration.ofDays(3));
+
+        Path kept = file("aaa.jpg", old);
+        Path keptVariant = file("aaa-320w.jpg", old);
+        Path embedded = file("bbb.png", old);
+        Path orphan = file("ccc.jpg", old);
+        Path orphanVariant = file("ccc-160w.jpg", old);
+        Path fresh = file("ddd.jpg", Instant.now());
+        Path partlyFresh = file("eee.jpg", old);
+        Path partlyFreshVariant = file("eee-640w.jpg", Instant.now());
+        Path staleTemp = file(".upload-1.tmp", old);
+        Path unrelated = file("notes.txt.bak", old);
+
+        MediaAssetRepository mediaAssets = mock(MediaAssetRepository.class);
+        ProductRepository products = mock(ProductRepository.class);
+        CategoryRepository categories = mock(CategoryRepository.class);
+        UserRepository users = mock(UserRepository.class);
+        ArticleRepository articles = mock(ArticleRepository.class);
+        when(mediaAssets.streamReferencedUrls(any())).thenReturn(Stream.of("http://cdn/uploads/aaa.jpg?v=2"));
+        when(products.streamReferencedThumbnailUrls(any())).thenReturn(Stream.of("https://example.com/x.jpg"));
+        when(categories.streamImageUrls()).thenReturn(Stream.empty());
+        when(users.streamUploadedAvatarUrls()).thenReturn(Stream.empty());
+        when(articles.streamBodiesWithUploads()).thenReturn(Stream.of("<p><img src=\"/uploads/bbb.png\"></p>"));
+
+        MediaCleanupService gc = new MediaCleanupServiceImpl(store, mediaAssets, products, categories, users,
+                articles, mock(PlatformTransactionManager.class), true, 24, 30);
+        MediaCleanupReportDTO report = gc.collect(false);
+
+        assertTrue(Files.exists(kept));
+        assertTrue(Files.exists(keptVariant));
+        assertTrue(Files.exists(embedded));
+        assertTrue(Files.exists(fresh));
+        assertTrue(Files.exists(partlyFresh));
+        assertTrue(Files.exists(partlyFreshVariant));
+        assertTrue(Files.exists(unrelated));
+        assertFalse(Files.exists(orphan));
+        assertFalse(Files.exists(orphanVariant));
+        assertFalse(Files.exists(staleTemp));
+
+        assertEquals(8, report.getFilesScanned());
+        assertEquals(3, report.getReferencedFiles());
+        assertEquals(5, report.getOrphanFiles());
+        assertEquals(2, report.getFilesDeleted());
+        assertEquals(3, report.getFilesWithinGrace());
+        assertEquals(0, report.getFailures());
+        assertSame(report, gc.getLastReport());
+    }
+
+    private Path file(String name, Instant modifiedAt) throws Exception {
+        Path file = Files.writeString(dir.resolve(name), name);
+        Files.setLastModifiedTime(file, FileTime.from(modifiedAt));
+        return file;
+    }
+}
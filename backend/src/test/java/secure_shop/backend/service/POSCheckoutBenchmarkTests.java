@@ -0,0 +1,223 @@
+package secure_shop.backend.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import secure_shop.backend.dto.order.OrderDTO;
+import secure_shop.backend.dto.order.request.OrderCreateRequest;
+import secure_shop.backend.dto.order.request.OrderItemRequest;
+import secure_shop.backend.dto.pos.POSCheckoutRequest;
+import secure_shop.backend.entities.Inventory;
+import secure_shop.backend.entities.Invoice;
+import secure_shop.backend.entities.InvoiceItem;
+import secure_shop.backend.entities.OrderItem;
+import secure_shop.backend.entities.Product;
+import secure_shop.backend.entities.StockLog;
+import secure_shop.backend.entities.User;
+import secure_shop.backend.enums.InvoiceStatus;
+import secure_shop.backend.enums.OrderStatus;
+import secure_shop.backend.enums.PaymentMethod;
+import secure_shop.backend.enums.Role;
+import secure_shop.backend.enums.StockLogType;
+import secure_shop.backend.repositories.InventoryRepository;
+import secure_shop.backend.repositories.InvoiceRepository;
+import secure_shop.backend.repositories.OrderItemRepository;
+import secure_shop.backend.repositories.ProductRepository;
+import secure_shop.backend.repositories.StockLogRepository;
+import secure_shop.backend.repositories.UserRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Đo checkout POS một lượt trên DB đang cấu hình, so với luồng cũ của POSController (giữ chỗ →
+ * xác nhận → giao, rồi lập hóa đơn) được dựng lại trong test: một lượt phải tốn ít câu lệnh SQL
+ * hơn, và số câu lệnh không được tăng theo số dòng hàng ngoài các bản ghi của chính dòng đó
+ * (order_item, invoice_item, stock_log). Toàn bộ dữ liệu seed và đơn/hóa đơn tạo ra được rollback
+ * khi test kết thúc. Chạy khi bật:
+ * <pre>mvn test -Dtest=POSCheckoutBenchmarkTests -Dpos.benchmark=true</pre>
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfSystemProperty(named = "pos.benchmark", matches = "true")
+@Transactional
+@Slf4j
+class POSCheckoutBenchmarkTests {
+
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+    private static final int LINES = 3;
+    /** order_item, invoice_item, stock_log: id IDENTITY nên không gộp batch */
+    private static final int INSERTS_PER_LINE = 3;
+    private static final BigDecimal CASH = new BigDecimal("1000000");
+
+    @Autowired private POSCheckoutService posCheckoutService;
+    @Autowired private OrderService orderService;
+    @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private InvoiceRepository invoiceRepository;
+    @Autowired private StockLogRepository stockLogRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private InventoryRepository inventoryRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private EntityManager entityManager;
+
+    private record Result(String name, double millisPerSale, double statementsPerSale) {}
+
+    @Test
+    void singlePassCheckoutBeatsLegacyPathAndDoesNotGrowPerLine() {
+        User staff = seedStaff();
+        List<UUID> productIds = seedProducts();
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Checkout legacy = this::legacyCheckout;
+        Checkout singlePass = this::singlePassCheckout;
+        repeat(legacy, staff, productIds, WARMUP);
+        repeat(singlePass, staff, productIds, WARMUP);
+        Result before = measure("legacy, " + LINES + " lines", legacy, staff, productIds, stats);
+        Result single = measure("single pass, 1 line", singlePass, staff, productIds.subList(0, 1), stats);
+        Result many = measure("single pass, " + LINES + " lines", singlePass, staff, productIds, stats);
+
+        for (Result r : List.of(before, single, many)) {
+            log.info("POS checkout ({}): {} ms/sale, {} statements/sale",
+                    r.name(), String.format("%.2f", r.millisPerSale()), String.format("%.1f", r.statementsPerSale()));
+        }
+        assertTrue(many.statementsPerSale() < before.statementsPerSale(),
+                "Single pass issues " + many.statementsPerSale() + " statements/sale, legacy " + before.statementsPerSale());
+        double extraPerLine = (many.statementsPerSale() - single.statementsPerSale()) / (LINES - 1);
+        assertTrue(extraPerLine <= INSERTS_PER_LINE,
+                "Each extra line costs " + extraPerLine + " statements; expected at most " + INSERTS_PER_LINE);
+    }
+
+    @FunctionalInterface
+    private interface Checkout {
+        void run(User staff, List<OrderItemRequest> items);
+    }
+
+    private void singlePassCheckout(User staff, List<OrderItemRequest> items) {
+        posCheckoutService.checkout(POSCheckoutRequest.builder()
+                .items(items)
+                .paymentMethod(PaymentMethod.COD)
+                .cashReceived(CASH)
+                .build(), staff);
+    }
+
+    /** Luồng POSController trước checkout một lượt: createAndCompleteOrder rồi createFromOrder */
+    private void legacyCheckout(User staff, List<OrderItemRequest> items) {
+        OrderCreateRequest request = new OrderCreateRequest();
+        request.setItems(items);
+        request.setShippingFee(BigDecimal.ZERO);
+        request.setShippingAddress(Map.of(
+                "fullName", staff.getName(),
+                "phone", "0000000000",
+                "address", "Mua tại cửa hàng (POS)",
+                "type", "In-Store"));
+        request.setPaymentMethod(PaymentMethod.COD);
+        UUID orderId = orderService.createOrder(request, staff.getId()).getId();
+        orderService.confirmOrder(orderId);
+        OrderDTO order = orderService.changeOrderStatus(orderId, OrderStatus.DELIVERED.name());
+
+        int year = LocalDate.now().getYear();
+        String invoiceCode = String.format("INV-%d-%05d", year, invoiceRepository.findMaxSequenceForYear(year) + 1);
+        Invoice invoice = Invoice.builder()
+                .invoiceCode(invoiceCode)
+                .orderId(orderId)
+                .staffId(staff.getId())
+                .staffName(staff.getName())
+                .totalAmount(order.getGrandTotal())
+                .cashReceived(CASH)
+                .changeAmount(CASH.subtract(order.getGrandTotal()).max(BigDecimal.ZERO))
+                .paymentMethod(PaymentMethod.COD)
+                .status(InvoiceStatus.COMPLETED)
+                .build();
+        for (OrderItem oi : orderItemRepository.findByOrderId(orderId)) {
+            Product p = oi.getProduct();
+            invoice.addItem(InvoiceItem.builder()
+                    .productId(p.getId())
+                    .productName(p.getName())
+                    .productSku(p.getSku())
+                    .unitPrice(oi.getUnitPrice())
+                    .quantity(oi.getQuantity())
+                    .lineTotal(oi.getLineTotal())
+                    .build());
+            stockLogRepository.save(StockLog.builder()
+                    .productId(p.getId())
+                    .productName(p.getName())
+                    .changeQuantity(-oi.getQuantity())
+                    .quantityAfter(inventoryRepository.findByProductId(p.getId()).map(Inventory::getOnHand).orElse(0))
+                    .type(StockLogType.SALE)
+                    .referenceId(invoiceCode)
+                    .note("POS Sale - " + invoiceCode)
+                    .build());
+        }
+        invoiceRepository.save(invoice);
+    }
+
+    private Result measure(String name, Checkout checkout, User staff, List<UUID> productIds, Statistics stats) {
+        stats.clear();
+        long started = System.nanoTime();
+        repeat(checkout, staff, productIds, ITERATIONS);
+        long elapsed = System.nanoTime() - started;
+        return new Result(name, elapsed / 1e6 / ITERATIONS,
+                (double) stats.getPrepareStatementCount() / ITERATIONS);
+    }
+
+    private void repeat(Checkout checkout, User staff, List<UUID> productIds, int times) {
+        List<OrderItemRequest> items = productIds.stream()
+                .map(id -> OrderItemRequest.builder().productId(id).quantity(1).build())
+                .toList();
+        for (int i = 0; i < times; i++) {
+            checkout.run(staff, items);
+            // Chạy trong transaction của test: flush để đếm đủ câu lệnh của mỗi lần bán
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    private User seedStaff() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(User.builder()
+                .email("pos-bench-" + tag + "@example.com")
+                .passwordHash("-")
+                .name("POS Benchmark " + tag)
+                .enabled(true)
+                .provider("local")
+                .role(Role.ADMIN)
+                .build());
+    }
+
+    private List<UUID> seedProducts() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            String tag = UUID.randomUUID().toString().substring(0, 8);
+            Product product = productRepository.save(Product.builder()
+                    .sku("BENCH-" + tag)
+                    .name("POS benchmark " + tag)
+                    .listedPrice(new BigDecimal("12000"))
+                    .price(new BigDecimal("10000"))
+                    .active(true)
+                    .rating(0.0)
+                    .reviewCount(0)
+                    .build());
+            inventoryRepository.save(Inventory.builder()
+                    .product(product)
+                    .onHand(1_000_000)
+                    .reserved(0)
+                    .build());
+            ids.add(product.getId());
+        }
+        return ids;
+    }
+}
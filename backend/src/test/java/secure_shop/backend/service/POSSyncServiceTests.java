@@ -0,0 +1,125 @@
+package secure_shop.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import secure_shop.backend.dto.pos.POSSaleItemRequest;
+import secure_shop.backend.dto.pos.POSSaleRequest;
+import secure_shop.backend.dto.pos.POSSyncBatchRequest;
+import secure_shop.backend.dto.pos.POSSyncBatchResultDTO;
+import secure_shop.backend.entities.*;
+import secure_shop.backend.enums.POSSaleSyncStatus;
+import secure_shop.backend.enums.StockLogType;
+import secure_shop.backend.repositories.*;
+import secure_shop.backend.service.impl.POSSyncServiceImpl;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class POSSyncServiceTests {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordsOversoldOfflineSalesAsConflictsAndSkipsRepeatedOnes() {
+        UUID productId = UUID.randomUUID();
+        Product product = new Product();
+        product.setId(productId);
+        product.setSku("SKU-1");
+        product.setName("Chuột");
+        product.setPrice(new BigDecimal("100.00"));
+        product.setActive(true);
+        Inventory inventory = Inventory.builder().id(7L).onHand(3).reserved(0).product(product).build();
+
+        UUID alreadySynced = UUID.randomUUID();
+        ProductRepository products = mock(ProductRepository.class);
+        InventoryRepository inventories = mock(InventoryRepository.class);
+        OrderRepository orders = mock(OrderRepository.class);
+        InvoiceRepository invoices = mock(InvoiceRepository.class);
+        POSSyncedSaleRepository synced = mock(POSSyncedSaleRepository.class);
+        when(products.findAllIncludingDeletedById(any())).thenReturn(List.of(product));
+        when(inventories.findForUpdateByProductIdIn(any())).thenReturn(List.of(inventory));
+        when(orders.save(any())).thenAnswer(inv -> {
+            Order order = inv.getArgument(0);
+            order.setId(UUID.randomUUID());
+            return order;
+        });
+        when(invoices.findMaxSequenceForYear(anyInt())).thenReturn(41);
+        StockLogRepository stockLogs = mock(StockLogRepository.class);
+        when(synced.findAllById(any())).thenReturn(List.of(POSSyncedSale.builder()
+                .clientSaleId(alreadySynced).orderId(UUID.randomUUID()).invoiceCode("INV-2026-00001").build()));
+
+        POSSyncService service = new POSSyncServiceImpl(products, mock(BarcodeRepository.class), inventories,
+                orders, invoices, stockLogs, mock(UserRepository.class), synced,
+                mock(ApplicationEventPublisher.class), mock(PlatformTransactionManager.class), 500, 200, 5000);
+
+        Instant t = Instant.parse("2026-10-01T08:00:00Z");
+        UUID late = UUID.randomUUID();
+        UUID early = UUID.randomUUID();
+        POSSyncBatchRequest request = POSSyncBatchRequest.builder()
+                .terminalId("quay-1")
+                .sales(List.of(
+                        sale(late, t.plusSeconds(60), productId, 2, null),
+                        sale(early, t, productId, 2, new BigDecimal("90.00")),
+                        sale(alreadySynced, t, productId, 1, null),
+                        sale(early, t, productId, 2, null)))
+                .build();
+
+        User staff = new User();
+        staff.setId(UUID.randomUUID());
+        staff.setEmail("staff@shop.vn");
+        POSSyncBatchResultDTO result = service.submitSales(request, staff);
+
+        assertEquals(1, result.getApplied());
+        assertEquals(1, result.getConflicts());
+        assertEquals(2, result.getDuplicates());
+        assertEquals(0, result.getRejected());
+        // Giao dịch bán sớm hơn được trừ kho trước dù đứng sau trong lô; giao dịch sau bán vượt tồn
+        // kho vẫn được ghi và đưa vào hàng đợi xem xét
+        assertEquals(POSSaleSyncStatus.ACCEPTED_WITH_CONFLICT, result.getResults().get(0).getStatus());
+        assertNotNull(result.getResults().get(0).getOrderId());
+        assertTrue(result.getResults().get(0).getMessage().contains("SKU-1"));
+        assertEquals(POSSaleSyncStatus.APPLIED, result.getResults().get(1).getStatus());
+        assertEquals("INV-" + java.time.LocalDate.now().getYear() + "-00042",
+                result.getResults().get(1).getInvoiceCode());
+        assertEquals(0, new BigDecimal("180.00").compareTo(result.getResults().get(1).getTotalAmount()));
+        assertTrue(result.getResults().get(1).getPriceMismatch());
+        assertEquals("INV-2026-00001", result.getResults().get(2).getInvoiceCode());
+        assertEquals(POSSaleSyncStatus.DUPLICATE, result.getResults().get(3).getStatus());
+        assertEquals(0, inventory.getOnHand(), "only the stock on hand is deducted, never below zero");
+        verify(orders, times(2)).save(any());
+
+        ArgumentCaptor<List<POSSyncedSale>> recorded = ArgumentCaptor.forClass(List.class);
+        verify(synced).saveAll(recorded.capture());
+        POSSyncedSale oversold = recorded.getValue().stream()
+                .filter(s -> s.getClientSaleId().equals(late))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(oversold.getNeedsReview());
+        assertNotNull(oversold.getConflict());
+
+        ArgumentCaptor<List<StockLog>> logs = ArgumentCaptor.forClass(List.class);
+        verify(stockLogs).saveAll(logs.capture());
+        StockLog shortfall = logs.getValue().stream()
+                .filter(l -> l.getType() == StockLogType.SHORTFALL)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(-1, shortfall.getChangeQuantity());
+    }
+
+    private static POSSaleRequest sale(UUID id, Instant soldAt, UUID productId, int quantity, BigDecimal unitPrice) {
+        return POSSaleRequest.builder()
+                .clientSaleId(id)
+                .soldAt(soldAt)
+                .items(List.of(POSSaleItemRequest.builder()
+                        .productId(productId).quantity(quantity).unitPrice(unitPrice).build()))
+                .build();
+    }
+}
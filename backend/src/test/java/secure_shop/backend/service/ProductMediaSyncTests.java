@@ -0,0 +1,72 @@
+package secure_shop.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import secure_shop.backend.dto.product.MediaAssetDTO;
+import secure_shop.backend.dto.product.ProductDetailsDTO;
+import secure_shop.backend.entities.MediaAsset;
+import secure_shop.backend.entities.Product;
+import secure_shop.backend.mapper.ProductMapper;
+import secure_shop.backend.repositories.BrandRepository;
+import secure_shop.backend.repositories.CategoryRepository;
+import secure_shop.backend.repositories.InventoryRepository;
+import secure_shop.backend.repositories.ProductRepository;
+import secure_shop.backend.service.impl.ProductServiceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ProductMediaSyncTests {
+
+    @Test
+    void updateKeepsUnchangedRowsAndOnlyTouchesWhatChanged() {
+        UUID id = UUID.randomUUID();
+        Product product = new Product();
+        product.setId(id);
+        MediaAsset a = media(1L, "/uploads/a.jpg", 0, "A");
+        MediaAsset b = media(2L, "/uploads/b.jpg", 1, "B");
+        MediaAsset c = media(3L, "/uploads/c.jpg", 2, "C");
+        product.setMediaAssets(new ArrayList<>(List.of(a, b, c)));
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findById(id)).thenReturn(Optional.of(product));
+        when(productRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        ImageVariantService imageVariantService = mock(ImageVariantService.class);
+        when(imageVariantService.describe(anyString())).thenReturn(Optional.empty());
+
+        ProductService service = new ProductServiceImpl(productRepository, mock(BrandRepository.class),
+                mock(CategoryRepository.class), mock(ProductMapper.class), mock(InventoryRepository.class),
+                mock(BarcodeService.class), mock(ApplicationEventPublisher.class), imageVariantService);
+
+        ProductDetailsDTO dto = new ProductDetailsDTO();
+        dto.setMediaAssets(List.of(
+                MediaAssetDTO.builder().url("/uploads/c.jpg").altText("C").build(),
+                MediaAssetDTO.builder().url("/uploads/a.jpg").altText("A2").build(),
+                MediaAssetDTO.builder().url("/uploads/d.jpg").altText("D").build()));
+        service.updateProduct(id, dto);
+
+        List<MediaAsset> result = product.getMediaAssets();
+        assertEquals(3, result.size());
+        assertSame(c, result.get(0));
+        assertSame(a, result.get(1));
+        assertNull(result.get(2).getId(), "only the new image is inserted");
+        assertEquals("/uploads/d.jpg", result.get(2).getUrl());
+        assertEquals(List.of(0, 1, 2), result.stream().map(MediaAsset::getSortOrder).toList());
+        assertEquals("A2", a.getAltText());
+        assertFalse(result.contains(b));
+        // Ảnh giữ nguyên không cần đọc lại metadata biến thể
+        verify(imageVariantService).describe("/uploads/d.jpg");
+        verify(imageVariantService, never()).describe("/uploads/a.jpg");
+    }
+
+    private static MediaAsset media(Long id, String url, int sortOrder, String altText) {
+        return MediaAsset.builder().id(id).url(url).sortOrder(sortOrder).altText(altText).build();
+    }
+}
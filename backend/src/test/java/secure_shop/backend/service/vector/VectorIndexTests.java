@@ -0,0 +1,49 @@
+package secure_shop.backend.service.vector;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorIndexTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void ranksRelevantProductsAndSurvivesReopen() throws Exception {
+        UUID camera = UUID.randomUUID();
+        UUID lock = UUID.randomUUID();
+        UUID returns = UUID.randomUUID();
+        String file = dir.resolve("vectors.idx").toString();
+
+        VectorIndex index = new VectorIndex(file);
+        index.open();
+        index.upsert(camera, VectorIndex.Kind.PRODUCT, TextEmbedder.embed("Camera wifi ngoài trời chống nước, quay đêm"));
+        index.upsert(lock, VectorIndex.Kind.PRODUCT, TextEmbedder.embed("Khóa cửa vân tay thông minh"));
+        index.upsert(returns, VectorIndex.Kind.POLICY, TextEmbedder.embed("Chính sách đổi trả trong 7 ngày"));
+
+        List<VectorIndex.Hit> hits = index.search(TextEmbedder.embed("camera ngoai troi"), VectorIndex.Kind.PRODUCT, 5, 0.1f);
+        assertEquals(camera, hits.get(0).id());
+        assertTrue(hits.stream().noneMatch(h -> h.id().equals(returns)));
+
+        long version = index.version();
+        index.upsert(camera, VectorIndex.Kind.PRODUCT, TextEmbedder.embed("Camera wifi ngoài trời chống nước, quay đêm"));
+        assertEquals(version, index.version(), "unchanged vector must not bump the version");
+
+        assertEquals(1, index.retainOnly(VectorIndex.Kind.PRODUCT, Set.of(camera)));
+        index.close();
+
+        VectorIndex reopened = new VectorIndex(file);
+        reopened.open();
+        assertEquals(2, reopened.size());
+        assertEquals(camera, reopened.search(TextEmbedder.embed("camera chống nước"), VectorIndex.Kind.PRODUCT, 1, 0f).get(0).id());
+        assertEquals(returns, reopened.search(TextEmbedder.embed("đổi trả"), VectorIndex.Kind.POLICY, 1, 0f).get(0).id());
+        reopened.close();
+    }
+}
@@ -0,0 +1,23 @@
+package secure_shop.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Ean13Tests {
+
+    @Test
+    void computesGs1CheckDigitAndPadsLeadingZeros() {
+        assertEquals(1, Ean13.checkDigit(400638133393L));
+        assertEquals("4006381333931", Ean13.of(400638133393L));
+        assertEquals("0000000000000", Ean13.of(0));
+        assertTrue(Ean13.isValid("8934563138165"));
+        assertFalse(Ean13.isValid("8934563138166"));
+        assertFalse(Ean13.isValid("89345631381a5"));
+        assertThrows(IllegalArgumentException.class, () -> Ean13.checkDigit(1_000_000_000_000L));
+
+        for (long base = 893_000_000_000L; base < 893_000_001_000L; base++) {
+            assertTrue(Ean13.isValid(Ean13.of(base)));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package secure_shop.backend.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageResizerTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void decodesWithSubsamplingAndResizesToExactSize() throws Exception {
+        Path file = dir.resolve("photo.png");
+        ImageIO.write(gradient(3000, 2000), "png", file.toFile());
+
+        ImageResizer.Decoded decoded = ImageResizer.decode(file, 10_000_000, 640);
+        assertEquals(3000, decoded.sourceWidth());
+        assertEquals(2000, decoded.sourceHeight());
+        assertTrue(decoded.image().getWidth() < 3000 && decoded.image().getWidth() >= 1280,
+                "large source should be subsampled but stay above 2x the largest variant");
+
+        int height = ImageResizer.scaledHeight(3000, 2000, 320);
+        BufferedImage small = ImageResizer.resize(decoded.image(), 320, height);
+        assertEquals(320, small.getWidth());
+        assertEquals(213, small.getHeight());
+
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageResizer.writeJpeg(small, 0.8f, jpeg);
+        assertTrue(jpeg.size() > 0 && jpeg.size() < Files.size(file) / 10);
+        assertEquals(320, ImageIO.read(new ByteArrayInputStream(jpeg.toByteArray())).getWidth());
+    }
+
+    @Test
+    void rejectsTooManyPixelsAndNonImages() throws Exception {
+        Path image = dir.resolve("big.png");
+        ImageIO.write(gradient(400, 300), "png", image.toFile());
+        assertThrows(IllegalArgumentException.class, () -> ImageResizer.decode(image, 100_000, 160));
+
+        Path text = dir.resolve("fake.jpg");
+        Files.writeString(text, "not an image");
+        assertThrows(IllegalArgumentException.class, () -> ImageResizer.decode(text, 100_000, 160));
+        assertNull(ImageResizer.readSize(text));
+    }
+
+    @Test
+    void picksSmallestSrcsetCandidateThatFits() {
+        String srcset = "/u/a-160w.jpg 160w, /u/a-640w.jpg 640w, /u/a-1280w.jpg 1280w, /u/a.jpg 3000w";
+        assertEquals("/u/a-640w.jpg", ImageSrcset.pick(srcset, 500, "/u/a.jpg"));
+        assertEquals("/u/a.jpg", ImageSrcset.pick(srcset, 4000, "/u/a.jpg"));
+        assertEquals("/u/x.jpg", ImageSrcset.pick(null, 640, "/u/x.jpg"));
+    }
+
+    private static BufferedImage gradient(int width, int height) {
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        for (int x = 0; x < width; x += 10) {
+            g.setColor(new Color((x * 7) % 256, (x * 3) % 256, (x * 11) % 256));
+            g.fillRect(x, 0, 10, height);
+        }
+        g.dispose();
+        return img;
+    }
+}
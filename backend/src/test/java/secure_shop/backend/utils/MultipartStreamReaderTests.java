@@ -0,0 +1,93 @@
+package secure_shop.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultipartStreamReaderTests {
+
+    private static final String BOUNDARY = "----WebKitFormBoundary7MA4YWxkTrZu0gW";
+
+    @Test
+    void streamsPartsAcrossArbitraryReadBoundaries() throws Exception {
+        byte[] image = new byte[200_000];
+        new Random(42).nextBytes(image);
+        // Gần giống delimiter nhưng không phải
+        System.arraycopy(("\r\n--" + BOUNDARY.substring(0, 10)).getBytes(StandardCharsets.US_ASCII), 0, image, 1000, 14);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        write(body, "preamble\r\n--" + BOUNDARY + "\r\n");
+        write(body, "Content-Disposition: form-data; name=\"productId\"\r\n\r\n42\r\n--" + BOUNDARY + "\r\n");
+        write(body, "Content-Disposition: form-data; name=\"files\"; filename=\"ảnh 1.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n");
+        body.write(image);
+        write(body, "\r\n--" + BOUNDARY + "\r\n");
+        write(body, "Content-Disposition: form-data; name=\"files\"; filename=\"b.png\"\r\n\r\n");
+        write(body, "small\r\n--" + BOUNDARY + "--\r\n");
+
+        MultipartStreamReader reader = new MultipartStreamReader(new TrickleInputStream(body.toByteArray()), BOUNDARY);
+
+        MultipartStreamReader.Part field = reader.next();
+        assertEquals("productId", field.name());
+        assertNull(field.fileName());
+        // Không đọc: next() phải tự bỏ qua
+
+        MultipartStreamReader.Part first = reader.next();
+        assertEquals("ảnh 1.jpg", first.fileName());
+        assertEquals("image/jpeg", first.contentType());
+        assertArrayEquals(image, first.body().readAllBytes());
+
+        MultipartStreamReader.Part second = reader.next();
+        assertEquals("b.png", second.fileName());
+        assertEquals("small", new String(second.body().readAllBytes(), StandardCharsets.US_ASCII));
+
+        assertNull(reader.next());
+        assertEquals(BOUNDARY, MultipartStreamReader.boundaryOf("multipart/form-data; boundary=" + BOUNDARY));
+        assertNull(MultipartStreamReader.boundaryOf("application/json"));
+    }
+
+    @Test
+    void failsOnTruncatedBody() throws Exception {
+        byte[] body = ("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"f\"; filename=\"a\"\r\n\r\nabc")
+                .getBytes(StandardCharsets.US_ASCII);
+        MultipartStreamReader reader = new MultipartStreamReader(new ByteArrayInputStream(body), BOUNDARY);
+        MultipartStreamReader.Part part = reader.next();
+        assertThrows(EOFException.class, () -> part.body().readAllBytes());
+    }
+
+    @Test
+    void sniffsImageFormatsFromMagicBytes() {
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+        byte[] html = "<html><script>".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(ImageSniffer.Format.JPEG, ImageSniffer.sniff(jpeg, jpeg.length).orElseThrow());
+        assertEquals(ImageSniffer.Format.PNG, ImageSniffer.sniff(png, png.length).orElseThrow());
+        assertTrue(ImageSniffer.sniff(html, html.length).isEmpty());
+    }
+
+    private static void write(ByteArrayOutputStream out, String s) {
+        out.writeBytes(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Trả về tối đa vài byte mỗi lần đọc, như socket chậm */
+    private static final class TrickleInputStream extends FilterInputStream {
+        private final Random random = new Random(7);
+
+        TrickleInputStream(byte[] data) {
+            super(new ByteArrayInputStream(data));
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, 1 + random.nextInt(5000)));
+        }
+    }
+}
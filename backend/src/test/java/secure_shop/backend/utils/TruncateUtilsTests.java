@@ -0,0 +1,24 @@
+package secure_shop.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TruncateUtilsTests {
+
+    @Test
+    void keepsShortTextAndCutsLongTextToColumnLength() {
+        assertNull(TruncateUtils.truncate(null));
+        String fits = "x".repeat(TruncateUtils.MAX_TEXT_LENGTH);
+        assertSame(fits, TruncateUtils.truncate(fits));
+
+        String cut = TruncateUtils.truncate("x".repeat(5000));
+        assertEquals(TruncateUtils.MAX_TEXT_LENGTH, cut.length());
+        assertTrue(cut.endsWith("..."));
+
+        // Emoji nằm ngay điểm cắt không bị tách đôi
+        String emoji = TruncateUtils.truncate("x".repeat(TruncateUtils.MAX_TEXT_LENGTH - 4) + "😀".repeat(10));
+        assertTrue(emoji.length() <= TruncateUtils.MAX_TEXT_LENGTH);
+        assertFalse(Character.isHighSurrogate(emoji.charAt(emoji.length() - 4)));
+    }
+}
@@ -0,0 +1,46 @@
+package secure_shop.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VNPaySettlementCsvReaderTests {
+
+    @Test
+    void readsRowsByHeaderName() throws IOException {
+        String csv = "\uFEFFvnp_TransactionNo,VNP_TXNREF,vnp_Amount,vnp_ResponseCode,vnp_TransactionStatus,vnp_PayDate\n"
+                + "14000001,\"REF,1\",15000000,00,00,20251001093000\n"
+                + "\n"
+                + "14000002,REF2,abc,24,02,\n"
+                + "14000003,REF3,990000,00,01,\n";
+        try (VNPaySettlementCsvReader reader = new VNPaySettlementCsvReader(new StringReader(csv))) {
+            VNPaySettlementCsvReader.Row paid = reader.next();
+            assertEquals("REF,1", paid.txnRef());
+            assertEquals("14000001", paid.transactionNo());
+            assertEquals(0, new BigDecimal("150000").compareTo(paid.amount()));
+            assertEquals(2L, paid.lineNumber());
+            assertNotNull(paid.payDate());
+            assertTrue(paid.gatewaySuccess());
+
+            VNPaySettlementCsvReader.Row malformed = reader.next();
+            assertEquals(4L, malformed.lineNumber());
+            assertNotNull(malformed.error());
+
+            VNPaySettlementCsvReader.Row pending = reader.next();
+            assertNull(pending.error());
+            assertFalse(pending.gatewaySuccess());
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void rejectsMissingRequiredColumn() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new VNPaySettlementCsvReader(new StringReader("vnp_TxnRef,vnp_Amount\n")));
+    }
+}
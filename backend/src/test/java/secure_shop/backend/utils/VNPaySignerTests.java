@@ -0,0 +1,147 @@
+package secure_shop.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * So sánh {@link VNPaySigner} với cách ký cũ (HashMap + sort + URLEncoder) trên dữ liệu ngẫu nhiên.
+ */
+class VNPaySignerTests {
+
+    private static final String SECRET = "TESTSECRETKEY0123456789ABCDEFGH";
+    private static final String ALPHABET =
+            "abcXYZ019 .-*_~!@#$%^&()+=/?:;,'\"<>[]{}|\\\té ư ạ đ Ệ 中文 😀𐀀\uDFFF\uD83D";
+
+    private final VNPaySigner signer = new VNPaySigner(SECRET);
+
+    @Test
+    void signatureAndQueryMatchLegacyOutput() {
+        Random random = new Random(42);
+        for (int run = 0; run < 2_000; run++) {
+            Map<String, String> params = randomParams(random);
+
+            SortedMap<String, String> sorted = new TreeMap<>(params);
+            String legacyHash = legacyHashAllFields(params);
+            assertEquals(legacyHash, signer.sign(sorted), "hash mismatch for " + params);
+
+            Map<String, String> withHash = new HashMap<>(params);
+            withHash.put(VNPaySigner.SECURE_HASH, legacyHash);
+            SortedMap<String, String> sortedWithHash = new TreeMap<>(params);
+            assertEquals(legacyBuildUrl(withHash), signer.signAndBuildQuery(sortedWithHash), "query mismatch for " + params);
+        }
+    }
+
+    @Test
+    void verifyMatchesLegacyCallbackCheck() {
+        Random random = new Random(7);
+        for (int run = 0; run < 2_000; run++) {
+            Map<String, String> params = randomParams(random);
+            params.put(VNPaySigner.SECURE_HASH_TYPE, "HmacSHA512");
+            String legacy = legacyCallbackHash(params);
+            params.put(VNPaySigner.SECURE_HASH, legacy);
+
+            assertTrue(signer.verify(params, legacy), "valid signature rejected for " + params);
+            assertFalse(signer.verify(params, legacy.substring(1) + "0"));
+            assertFalse(signer.verify(params, null));
+        }
+    }
+
+    @Test
+    void encodeMatchesUrlEncoder() {
+        Random random = new Random(99);
+        for (int run = 0; run < 5_000; run++) {
+            String value = randomString(random, 40);
+            StringBuilder sb = new StringBuilder();
+            VNPaySigner.encodeInto(sb, value);
+            assertEquals(URLEncoder.encode(value, StandardCharsets.UTF_8), sb.toString());
+        }
+    }
+
+    private static Map<String, String> randomParams(Random random) {
+        Map<String, String> params = new HashMap<>();
+        int size = 1 + random.nextInt(15);
+        for (int i = 0; i < size; i++) {
+            String key = "vnp_" + randomString(random, 8);
+            // Thỉnh thoảng để trống để kiểm tra dấu '&' ở cuối như code cũ
+            String value = random.nextInt(5) == 0 ? "" : randomString(random, 30);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static String randomString(Random random, int maxLength) {
+        int len = random.nextInt(maxLength + 1);
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return sb.toString();
+    }
+
+    // ===== Bản sao của code ký cũ (VNPayConfig / VNPayServiceImpl trước khi có VNPaySigner) =====
+
+    private static String legacyHashAllFields(Map<String, String> fields) {
+        List<String> fieldNames = new ArrayList<>(fields.keySet());
+        Collections.sort(fieldNames);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fieldNames.size(); i++) {
+            String fieldName = fieldNames.get(i);
+            String fieldValue = fields.get(fieldName);
+            if (fieldValue != null && !fieldValue.isEmpty()) {
+                sb.append(fieldName).append('=').append(URLEncoder.encode(fieldValue, StandardCharsets.UTF_8));
+                if (i < fieldNames.size() - 1) {
+                    sb.append('&');
+                }
+            }
+        }
+        return legacyHmacSHA512(SECRET, sb.toString());
+    }
+
+    private static String legacyCallbackHash(Map<String, String> params) {
+        Map<String, String> paramsForValidation = new HashMap<>(params);
+        paramsForValidation.remove(VNPaySigner.SECURE_HASH);
+        paramsForValidation.remove(VNPaySigner.SECURE_HASH_TYPE);
+        return legacyHashAllFields(paramsForValidation);
+    }
+
+    private static String legacyBuildUrl(Map<String, String> vnpParams) {
+        StringBuilder paymentUrl = new StringBuilder();
+        List<String> fieldNames = new ArrayList<>(vnpParams.keySet());
+        Collections.sort(fieldNames);
+        for (int i = 0; i < fieldNames.size(); i++) {
+            String fieldName = fieldNames.get(i);
+            String fieldValue = vnpParams.get(fieldName);
+            if (fieldValue != null && !fieldValue.isEmpty()) {
+                paymentUrl.append(URLEncoder.encode(fieldName, StandardCharsets.UTF_8))
+                        .append("=")
+                        .append(URLEncoder.encode(fieldValue, StandardCharsets.UTF_8));
+                if (i < fieldNames.size() - 1) {
+                    paymentUrl.append("&");
+                }
+            }
+        }
+        return paymentUrl.toString();
+    }
+
+    private static String legacyHmacSHA512(String key, String data) {
+        try {
+            Mac hmac512 = Mac.getInstance("HmacSHA512");
+            hmac512.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+            byte[] result = hmac512.doFinal(data.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(2 * result.length);
+            for (byte b : result) {
+                sb.append(String.format("%02x", b & 0xff));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+}